@@ -63,6 +63,8 @@ public class SafeVaultApplication extends Application implements Application.Act
             } else {
                 Log.e(TAG, "backendService 为 null，无法记录后台时间");
             }
+            // 进入后台时立即写入合并中的使用统计
+            ServiceLocator.getInstance().getUsageTracker().flush();
         }
     }
 
@@ -6,10 +6,14 @@ import androidx.annotation.NonNull;
 
 import com.ttt.safevault.crypto.CryptoManager;
 import com.ttt.safevault.data.AppDatabase;
+import com.ttt.safevault.model.AsyncBackendService;
 import com.ttt.safevault.model.BackendService;
 import com.ttt.safevault.security.SecurityConfig;
 import com.ttt.safevault.security.SecurityManager;
+import com.ttt.safevault.service.AsyncBackendServiceImpl;
 import com.ttt.safevault.service.BackendServiceImpl;
+import com.ttt.safevault.service.UsageTracker;
+import com.ttt.safevault.service.VaultSyncEngine;
 
 /**
  * 服务定位器
@@ -21,9 +25,12 @@ public class ServiceLocator {
 
     private final Context applicationContext;
     private BackendService backendService;
+    private AsyncBackendService asyncBackendService;
     private SecurityManager securityManager;
     private SecurityConfig securityConfig;
     private CryptoManager cryptoManager;
+    private UsageTracker usageTracker;
+    private VaultSyncEngine vaultSyncEngine;
 
     private ServiceLocator(@NonNull Context context) {
         this.applicationContext = context.getApplicationContext();
@@ -60,6 +67,34 @@ public class ServiceLocator {
         return backendService;
     }
 
+    /**
+     * 获取异步云端服务
+     */
+    public AsyncBackendService getAsyncBackendService() {
+        if (asyncBackendService == null) {
+            synchronized (this) {
+                if (asyncBackendService == null) {
+                    asyncBackendService = new AsyncBackendServiceImpl(applicationContext, getBackendService());
+                }
+            }
+        }
+        return asyncBackendService;
+    }
+
+    /**
+     * 获取密码库同步引擎
+     */
+    public VaultSyncEngine getVaultSyncEngine() {
+        if (vaultSyncEngine == null) {
+            synchronized (this) {
+                if (vaultSyncEngine == null) {
+                    vaultSyncEngine = new VaultSyncEngine(applicationContext);
+                }
+            }
+        }
+        return vaultSyncEngine;
+    }
+
     /**
      * 获取安全管理器
      */
@@ -102,6 +137,20 @@ public class ServiceLocator {
         return cryptoManager;
     }
 
+    /**
+     * 获取使用统计跟踪器
+     */
+    public UsageTracker getUsageTracker() {
+        if (usageTracker == null) {
+            synchronized (this) {
+                if (usageTracker == null) {
+                    usageTracker = new UsageTracker(applicationContext);
+                }
+            }
+        }
+        return usageTracker;
+    }
+
     /**
      * 获取应用上下文
      */
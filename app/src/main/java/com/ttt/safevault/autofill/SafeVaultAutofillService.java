@@ -3,12 +3,11 @@ package com.ttt.safevault.autofill;
 import android.app.PendingIntent;
 import android.content.Intent;
 import android.content.IntentSender;
-import android.content.pm.ApplicationInfo;
-import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.CancellationSignal;
 import android.service.autofill.AutofillService;
 import android.service.autofill.FillCallback;
+import android.service.autofill.FillEventHistory;
 import android.service.autofill.FillRequest;
 import android.service.autofill.FillResponse;
 import android.service.autofill.SaveCallback;
@@ -18,6 +17,7 @@ import android.view.autofill.AutofillId;
 
 import com.ttt.safevault.ServiceLocator;
 import com.ttt.safevault.autofill.builder.FillResponseBuilder;
+import com.ttt.safevault.autofill.cache.PackageMetadataCache;
 import com.ttt.safevault.autofill.matcher.AutofillMatcher;
 import com.ttt.safevault.autofill.model.AutofillField;
 import com.ttt.safevault.autofill.model.AutofillParsedData;
@@ -50,6 +50,7 @@ public class SafeVaultAutofillService extends AutofillService {
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
     private BackendService backendService;
     private SecurityConfig securityConfig;
+    private PackageMetadataCache packageMetadataCache;
 
     @Override
     public void onCreate() {
@@ -61,6 +62,9 @@ public class SafeVaultAutofillService extends AutofillService {
 
         // 初始化安全配置
         securityConfig = new SecurityConfig();
+
+        // 应用包元数据缓存（进程级，随应用安装/卸载自动失效）
+        packageMetadataCache = PackageMetadataCache.getInstance(this);
     }
 
     @Override
@@ -89,6 +93,9 @@ public class SafeVaultAutofillService extends AutofillService {
                     return;
                 }
 
+                // 统计上一次响应中被用户选择的凭据
+                recordSelectedDatasets();
+
                 // 解析请求
                 AutofillParsedData parsedData = AutofillParser.parseFillRequest(request);
                 if (parsedData == null) {
@@ -165,7 +172,7 @@ public class SafeVaultAutofillService extends AutofillService {
                 // 匹配凭据（如果已解锁）
                 List<PasswordItem> credentials = null;
                 if (!isLocked) {
-                    AutofillMatcher matcher = new AutofillMatcher(backendService);
+                    AutofillMatcher matcher = new AutofillMatcher(backendService, packageMetadataCache);
                     credentials = matcher.matchCredentials(autofillRequest);
                 }
 
@@ -287,6 +294,34 @@ public class SafeVaultAutofillService extends AutofillService {
         }
     }
 
+    /**
+     * 从FillEventHistory中读取用户直接选择的凭据Dataset并记录使用统计
+     */
+    private void recordSelectedDatasets() {
+        if (backendService == null) {
+            return;
+        }
+        try {
+            FillEventHistory history = getFillEventHistory();
+            if (history == null || history.getEvents() == null) {
+                return;
+            }
+            for (FillEventHistory.Event event : history.getEvents()) {
+                if (event.getType() != FillEventHistory.Event.TYPE_DATASET_SELECTED
+                        || event.getDatasetId() == null) {
+                    continue;
+                }
+                try {
+                    backendService.recordItemUsage(Integer.parseInt(event.getDatasetId()));
+                } catch (NumberFormatException e) {
+                    // 非凭据Dataset（如"转到我的密码库"），忽略
+                }
+            }
+        } catch (Exception e) {
+            logDebug("读取FillEventHistory失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 构建AutofillRequest
      */
@@ -303,10 +338,14 @@ public class SafeVaultAutofillService extends AutofillService {
             builder.addPasswordId(field.getAutofillId());
         }
 
-        // 设置元数据
+        // 设置元数据（原生应用名称从缓存获取）
+        String applicationName = parsedData.getApplicationName();
+        if (applicationName == null && !parsedData.isWeb() && packageMetadataCache != null) {
+            applicationName = packageMetadataCache.getApplicationLabel(parsedData.getPackageName());
+        }
         builder.setDomain(parsedData.getDomain())
                .setPackageName(parsedData.getPackageName())
-               .setApplicationName(parsedData.getApplicationName())
+               .setApplicationName(applicationName)
                .setIsWeb(parsedData.isWeb());
 
         AutofillRequest request = builder.build();
@@ -343,21 +382,13 @@ public class SafeVaultAutofillService extends AutofillService {
     }
 
     /**
-     * 获取应用名称
+     * 获取应用名称（通过进程级缓存，避免每次请求都查询PackageManager）
      */
     private String getApplicationName(String packageName) {
-        try {
-            PackageManager pm = getPackageManager();
-            ApplicationInfo appInfo = pm.getApplicationInfo(packageName, 0);
-            CharSequence appLabel = pm.getApplicationLabel(appInfo);
-            if (appLabel != null) {
-                return appLabel.toString();
-            }
-        } catch (PackageManager.NameNotFoundException e) {
-            logDebug("无法获取应用名称: " + e.getMessage());
+        if (packageMetadataCache == null) {
+            return packageName;
         }
-        // 回退到使用包名
-        return packageName;
+        return packageMetadataCache.getApplicationLabel(packageName);
     }
 
     /**
@@ -487,6 +518,7 @@ public class SafeVaultAutofillService extends AutofillService {
         if (securityConfig != null) {
             securityConfig = null;
         }
+        packageMetadataCache = null;
 
         // 正确关闭ExecutorService，使用shutdownNow中断正在执行的任务
         if (executor != null && !executor.isShutdown()) {
@@ -187,6 +187,8 @@ public class FillResponseBuilder {
         RemoteViews presentation = createPresentation(credential);
         
         Dataset.Builder datasetBuilder = new Dataset.Builder(presentation);
+        // 以条目ID作为Dataset ID，用于从FillEventHistory中统计使用情况
+        datasetBuilder.setId(String.valueOf(credential.getId()));
         
         boolean hasAnyField = false;
 
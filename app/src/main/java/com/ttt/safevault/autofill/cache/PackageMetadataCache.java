@@ -0,0 +1,298 @@
+package com.ttt.safevault.autofill.cache;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.Signature;
+import android.content.pm.SigningInfo;
+import android.content.pm.verify.domain.DomainVerificationManager;
+import android.content.pm.verify.domain.DomainVerificationUserState;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Base64;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 应用包元数据缓存
+ * 进程级LRU缓存：包名 -> (应用名称, 签名证书摘要, 已验证的Web域名)
+ * 监听应用安装/卸载/更新广播，自动失效对应条目
+ */
+public class PackageMetadataCache {
+    private static final String TAG = "PackageMetadataCache";
+    private static final int MAX_ENTRIES = 64;
+
+    private static volatile PackageMetadataCache INSTANCE;
+
+    private final PackageManager packageManager;
+    private final Context context;
+    private final LruCache<String, PackageMetadata> cache = new LruCache<>(MAX_ENTRIES);
+
+    private PackageMetadataCache(@NonNull Context context) {
+        this.context = context.getApplicationContext();
+        this.packageManager = this.context.getPackageManager();
+        registerPackageReceiver();
+    }
+
+    public static PackageMetadataCache getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            synchronized (PackageMetadataCache.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new PackageMetadataCache(context);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 获取包元数据
+     *
+     * @param packageName 应用包名
+     * @return 元数据，应用未安装或不可见时返回null
+     */
+    @Nullable
+    public PackageMetadata get(@Nullable String packageName) {
+        if (packageName == null || packageName.isEmpty()) {
+            return null;
+        }
+
+        PackageMetadata metadata = cache.get(packageName);
+        if (metadata != null) {
+            return metadata;
+        }
+
+        metadata = load(packageName);
+        if (metadata != null) {
+            cache.put(packageName, metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * 获取应用名称，无法解析时回退到包名
+     */
+    @Nullable
+    public String getApplicationLabel(@Nullable String packageName) {
+        PackageMetadata metadata = get(packageName);
+        return metadata != null ? metadata.getLabel() : packageName;
+    }
+
+    /**
+     * 使指定包的缓存失效
+     */
+    public void invalidate(@Nullable String packageName) {
+        if (packageName != null) {
+            cache.remove(packageName);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        cache.evictAll();
+    }
+
+    /**
+     * 从PackageManager加载元数据
+     */
+    @Nullable
+    private PackageMetadata load(@NonNull String packageName) {
+        try {
+            PackageInfo packageInfo = packageManager.getPackageInfo(
+                    packageName, PackageManager.GET_SIGNING_CERTIFICATES);
+
+            String label = packageName;
+            ApplicationInfo appInfo = packageInfo.applicationInfo;
+            if (appInfo != null) {
+                CharSequence appLabel = packageManager.getApplicationLabel(appInfo);
+                if (appLabel != null) {
+                    label = appLabel.toString();
+                }
+            }
+
+            String certDigest = computeSigningCertDigest(packageInfo.signingInfo);
+            Set<String> verifiedDomains = loadVerifiedDomains(packageName);
+
+            Log.d(TAG, "已缓存包元数据: " + packageName + ", 已验证域名=" + verifiedDomains.size());
+            return new PackageMetadata(packageName, label, certDigest, verifiedDomains);
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.d(TAG, "无法获取包信息: " + packageName);
+            return null;
+        }
+    }
+
+    /**
+     * 计算签名证书的SHA-256摘要（URL安全Base64，与 android://<摘要>@<包名> 格式一致）
+     * 多签名者时按摘要排序后以逗号连接
+     */
+    @Nullable
+    private static String computeSigningCertDigest(@Nullable SigningInfo signingInfo) {
+        if (signingInfo == null) {
+            return null;
+        }
+
+        Signature[] signers = signingInfo.hasMultipleSigners()
+                ? signingInfo.getApkContentsSigners()
+                : signingInfo.getSigningCertificateHistory();
+        if (signers == null || signers.length == 0) {
+            return null;
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (!signingInfo.hasMultipleSigners()) {
+                // 证书轮换历史中最后一个为当前签名证书
+                byte[] hash = digest.digest(signers[signers.length - 1].toByteArray());
+                return Base64.encodeToString(hash, Base64.URL_SAFE | Base64.NO_WRAP);
+            }
+
+            List<String> digests = new ArrayList<>(signers.length);
+            for (Signature signer : signers) {
+                byte[] hash = digest.digest(signer.toByteArray());
+                digests.add(Base64.encodeToString(hash, Base64.URL_SAFE | Base64.NO_WRAP));
+            }
+            Collections.sort(digests);
+            return String.join(",", digests);
+        } catch (NoSuchAlgorithmException e) {
+            Log.e(TAG, "SHA-256不可用", e);
+            return null;
+        }
+    }
+
+    /**
+     * 获取应用已通过验证的Web域名（Android 12+）
+     */
+    @NonNull
+    private Set<String> loadVerifiedDomains(@NonNull String packageName) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S) {
+            return Collections.emptySet();
+        }
+
+        try {
+            DomainVerificationManager manager = context.getSystemService(DomainVerificationManager.class);
+            if (manager == null) {
+                return Collections.emptySet();
+            }
+
+            DomainVerificationUserState state = manager.getDomainVerificationUserState(packageName);
+            if (state == null) {
+                return Collections.emptySet();
+            }
+
+            Set<String> domains = new HashSet<>();
+            for (Map.Entry<String, Integer> entry : state.getHostToStateMap().entrySet()) {
+                if (entry.getValue() == DomainVerificationUserState.DOMAIN_STATE_VERIFIED) {
+                    domains.add(entry.getKey().toLowerCase(Locale.ROOT));
+                }
+            }
+            return Collections.unmodifiableSet(domains);
+        } catch (PackageManager.NameNotFoundException e) {
+            return Collections.emptySet();
+        } catch (Exception e) {
+            Log.w(TAG, "获取已验证域名失败: " + packageName, e);
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 注册应用变更广播，安装/卸载/更新时使缓存失效
+     */
+    private void registerPackageReceiver() {
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        filter.addAction(Intent.ACTION_PACKAGE_FULLY_REMOVED);
+        filter.addDataScheme("package");
+
+        BroadcastReceiver receiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                Uri data = intent.getData();
+                String packageName = data != null ? data.getSchemeSpecificPart() : null;
+                Log.d(TAG, "应用变更: " + intent.getAction() + ", package=" + packageName);
+                if (packageName != null) {
+                    invalidate(packageName);
+                } else {
+                    clear();
+                }
+            }
+        };
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            context.registerReceiver(receiver, filter, Context.RECEIVER_NOT_EXPORTED);
+        } else {
+            context.registerReceiver(receiver, filter);
+        }
+    }
+
+    /**
+     * 应用包元数据
+     */
+    public static class PackageMetadata {
+        private final String packageName;
+        private final String label;
+        private final String signingCertDigest;
+        private final Set<String> verifiedDomains;
+
+        public PackageMetadata(String packageName, String label, String signingCertDigest,
+                               Set<String> verifiedDomains) {
+            this.packageName = packageName;
+            this.label = label;
+            this.signingCertDigest = signingCertDigest;
+            this.verifiedDomains = verifiedDomains;
+        }
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * 签名证书SHA-256摘要，可能为null
+         */
+        public String getSigningCertDigest() {
+            return signingCertDigest;
+        }
+
+        /**
+         * 已验证的Web域名（小写）
+         */
+        public Set<String> getVerifiedDomains() {
+            return verifiedDomains;
+        }
+
+        @Override
+        public String toString() {
+            return "PackageMetadata{" +
+                    "packageName='" + packageName + '\'' +
+                    ", label='" + label + '\'' +
+                    ", hasCertDigest=" + (signingCertDigest != null) +
+                    ", verifiedDomains=" + verifiedDomains.size() +
+                    '}';
+        }
+    }
+}
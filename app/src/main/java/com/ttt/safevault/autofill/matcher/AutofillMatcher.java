@@ -2,8 +2,10 @@ package com.ttt.safevault.autofill.matcher;
 
 import android.util.Log;
 
+import com.ttt.safevault.autofill.cache.PackageMetadataCache;
 import com.ttt.safevault.autofill.model.AutofillRequest;
 import com.ttt.safevault.model.BackendService;
+import com.ttt.safevault.model.ItemUsage;
 import com.ttt.safevault.model.PasswordItem;
 
 import java.io.File;
@@ -13,9 +15,11 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * 自动填充凭据匹配器
@@ -24,10 +28,19 @@ import java.util.Locale;
 public class AutofillMatcher {
     private static final String TAG = "AutofillMatcher";
     
+    // 原生应用URL前缀，格式: android://[证书摘要@]包名
+    private static final String ANDROID_SCHEME = "android://";
+
     private final BackendService backendService;
+    private final PackageMetadataCache packageMetadataCache;
 
     public AutofillMatcher(BackendService backendService) {
+        this(backendService, null);
+    }
+
+    public AutofillMatcher(BackendService backendService, PackageMetadataCache packageMetadataCache) {
         this.backendService = backendService;
+        this.packageMetadataCache = packageMetadataCache;
     }
 
     /**
@@ -84,6 +97,8 @@ public class AutofillMatcher {
             }
         }
 
+        // 常用凭据排在前面
+        ItemUsage.sortByScore(matchedItems, backendService.getItemUsageStats());
         return matchedItems;
     }
 
@@ -129,29 +144,85 @@ public class AutofillMatcher {
 
     /**
      * 根据包名匹配凭据
+     * 按包名精确匹配；URL中带有证书摘要时同时校验签名证书，
+     * 并匹配应用已验证Web域名下保存的凭据
      */
     private List<PasswordItem> matchByPackageName(List<PasswordItem> items, String packageName) {
         List<PasswordItem> matched = new ArrayList<>();
         
         logDebug("目标包名: " + packageName);
 
+        PackageMetadataCache.PackageMetadata metadata =
+                packageMetadataCache != null ? packageMetadataCache.get(packageName) : null;
+        String certDigest = metadata != null ? metadata.getSigningCertDigest() : null;
+        Set<String> verifiedDomains = metadata != null
+                ? metadata.getVerifiedDomains() : Collections.<String>emptySet();
+
         for (PasswordItem item : items) {
             String url = item.getUrl();
             if (url == null || url.isEmpty()) {
                 continue;
             }
 
-            // 检查URL是否包含包名
-            // 原生应用的URL格式可能是: android://com.example.app
-            if (url.contains(packageName)) {
+            String trimmedUrl = url.trim();
+            if (trimmedUrl.startsWith(ANDROID_SCHEME)) {
+                // 原生应用的URL格式: android://com.example.app 或 android://<摘要>@com.example.app
+                if (matchesAndroidUrl(trimmedUrl, packageName, certDigest)) {
+                    matched.add(item);
+                    logDebug("包名匹配成功: " + item.getTitle() + " (" + url + ")");
+                }
+                continue;
+            }
+
+            // 未带协议前缀但直接填写了包名
+            if (trimmedUrl.equals(packageName)) {
                 matched.add(item);
                 logDebug("包名匹配成功: " + item.getTitle() + " (" + url + ")");
+                continue;
+            }
+
+            // 应用已验证的Web域名
+            if (!verifiedDomains.isEmpty()) {
+                String itemDomain = extractDomainFromUrl(trimmedUrl);
+                if (itemDomain != null && verifiedDomains.contains(normalizeDomain(itemDomain))) {
+                    matched.add(item);
+                    logDebug("已验证域名匹配成功: " + item.getTitle() + " (" + itemDomain + ")");
+                }
             }
         }
 
         return matched;
     }
 
+    /**
+     * 判断 android:// 格式的URL是否指向目标应用
+     */
+    private boolean matchesAndroidUrl(String url, String packageName, String certDigest) {
+        String identity = url.substring(ANDROID_SCHEME.length());
+        int slashIndex = identity.indexOf('/');
+        if (slashIndex >= 0) {
+            identity = identity.substring(0, slashIndex);
+        }
+
+        String urlDigest = null;
+        int atIndex = identity.lastIndexOf('@');
+        if (atIndex >= 0) {
+            urlDigest = identity.substring(0, atIndex);
+            identity = identity.substring(atIndex + 1);
+        }
+
+        if (!identity.equals(packageName)) {
+            return false;
+        }
+
+        // URL携带证书摘要时必须与已安装应用的签名一致；取不到签名时不匹配，防止冒充包名
+        if (urlDigest != null && !urlDigest.isEmpty() && !urlDigest.equals(certDigest)) {
+            logDebug(certDigest == null ? "无法获取签名证书: " + packageName : "签名证书不匹配: " + packageName);
+            return false;
+        }
+        return true;
+    }
+
     /**
      * 从URL提取域名
      */
@@ -103,7 +103,7 @@ public class AutofillParser {
         // 使用最新的FillContext
         FillContext fillContext = contexts.get(contexts.size() - 1);
         AssistStructure structure = fillContext.getStructure();
-        return parseAssistStructure(structure);
+        return parseAssistStructure(structure, false);
     }
 
     /**
@@ -126,70 +126,10 @@ public class AutofillParser {
             return null;
         }
 
-        // 使用最新的FillContext
+        // 使用最新的FillContext，解析的同时提取实际字段值
         FillContext fillContext = contexts.get(contexts.size() - 1);
         AssistStructure structure = fillContext.getStructure();
-        AutofillParsedData parsedData = parseAssistStructure(structure);
-        
-        // 提取实际字段值
-        if (parsedData != null) {
-            extractFieldValues(structure, parsedData);
-        }
-        
-        return parsedData;
-    }
-
-    /**
-     * 从 AssistStructure 中提取字段的实际值
-     */
-    private static void extractFieldValues(AssistStructure structure, AutofillParsedData parsedData) {
-        logDebug("=== 开始提取字段实际值 ===");
-        
-        int windowCount = structure.getWindowNodeCount();
-        for (int i = 0; i < windowCount; i++) {
-            AssistStructure.WindowNode windowNode = structure.getWindowNodeAt(i);
-            AssistStructure.ViewNode rootNode = windowNode.getRootViewNode();
-            
-            if (rootNode != null) {
-                extractFieldValuesFromNode(rootNode, parsedData);
-            }
-        }
-    }
-
-    /**
-     * 递归提取 ViewNode 中的字段值
-     */
-    private static void extractFieldValuesFromNode(AssistStructure.ViewNode node, 
-                                                   AutofillParsedData parsedData) {
-        // 检查是否有 AutofillValue
-        AutofillId autofillId = node.getAutofillId();
-        AutofillValue autofillValue = node.getAutofillValue();
-        
-        if (autofillId != null && autofillValue != null) {
-            String value = extractValueFromAutofillValue(autofillValue, node);
-            
-            if (value != null && !value.isEmpty()) {
-                // 在 parsedData 的字段列表中找到对应的字段并更新值
-                updateFieldValue(parsedData, autofillId, value);
-                
-                // 日志输出（密码不记录明文）
-                AutofillField.FieldType fieldType = getFieldTypeById(parsedData, autofillId);
-                if (fieldType == AutofillField.FieldType.PASSWORD) {
-                    logDebug("提取到密码字段值（长度: " + value.length() + "）");
-                } else {
-                    logDebug("提取到字段值: " + value + " (type: " + fieldType + ")");
-                }
-            }
-        }
-        
-        // 递归处理子节点
-        int childCount = node.getChildCount();
-        for (int i = 0; i < childCount; i++) {
-            AssistStructure.ViewNode childNode = node.getChildAt(i);
-            if (childNode != null) {
-                extractFieldValuesFromNode(childNode, parsedData);
-            }
-        }
+        return parseAssistStructure(structure, true);
     }
 
     /**
@@ -218,95 +158,97 @@ public class AutofillParser {
         return null;
     }
 
-    /**
-     * 更新 parsedData 中对应字段的值
-     */
-    private static void updateFieldValue(AutofillParsedData parsedData, 
-                                        AutofillId targetId, String value) {
-        List<AutofillField> fields = parsedData.getFields();
-        
-        // 找到对应的字段并替换为带有 value 的新字段
-        for (int i = 0; i < fields.size(); i++) {
-            AutofillField field = fields.get(i);
-            if (field.getAutofillId().equals(targetId)) {
-                // 创建新的 AutofillField，包含实际值
-                AutofillField newField = new AutofillField(
-                    field.getAutofillId(),
-                    field.getHint(),
-                    value,
-                    field.getInputType(),
-                    field.isFocused(),
-                    field.getFieldType()
-                );
-                fields.set(i, newField);
-                break;
-            }
-        }
-    }
-
-    /**
-     * 根据 AutofillId 获取字段类型
-     */
-    private static AutofillField.FieldType getFieldTypeById(AutofillParsedData parsedData, 
-                                                            AutofillId autofillId) {
-        for (AutofillField field : parsedData.getFields()) {
-            if (field.getAutofillId().equals(autofillId)) {
-                return field.getFieldType();
-            }
-        }
-        return AutofillField.FieldType.UNKNOWN;
-    }
-
     /**
      * 解析AssistStructure
+     * 使用显式栈单次迭代遍历，同时完成元数据提取、字段识别和字段值提取。
+     * 找到所需的用户名和密码字段后，处理完所在表单容器即提前结束遍历。
+     *
+     * @param collectValues 是否提取字段实际值（SaveRequest）
      */
-    private static AutofillParsedData parseAssistStructure(AssistStructure structure) {
+    private static AutofillParsedData parseAssistStructure(AssistStructure structure,
+                                                           boolean collectValues) {
         AutofillParsedData.Builder builder = new AutofillParsedData.Builder();
 
         int windowCount = structure.getWindowNodeCount();
         logDebug("Window数量: " + windowCount);
 
-        for (int i = 0; i < windowCount; i++) {
-            AssistStructure.WindowNode windowNode = structure.getWindowNodeAt(i);
-            AssistStructure.ViewNode rootNode = windowNode.getRootViewNode();
-            
+        NodeStack stack = new NodeStack();
+        // 按文档顺序处理窗口，逆序压栈
+        for (int i = windowCount - 1; i >= 0; i--) {
+            AssistStructure.ViewNode rootNode = structure.getWindowNodeAt(i).getRootViewNode();
             if (rootNode != null) {
-                parseViewNode(rootNode, builder);
+                stack.push(rootNode, 0);
             }
         }
 
-        return builder.build();
-    }
+        boolean hasUsername = false;
+        boolean hasPassword = false;
+        // 满足提前结束条件时所在表单容器的深度，-1表示尚未满足
+        int stopDepth = -1;
+        int visited = 0;
 
-    /**
-     * 递归解析ViewNode
-     */
-    private static void parseViewNode(AssistStructure.ViewNode node, 
-                                      AutofillParsedData.Builder builder) {
-        // 提取元数据
-        extractMetadata(node, builder);
-
-        // 检查是否为可填充字段
-        if (isAutofillable(node)) {
-            AutofillField field = createAutofillField(node);
-            if (field != null) {
-                builder.addField(field);
-                logDebug("找到可填充字段: " + field);
+        while (!stack.isEmpty()) {
+            int depth = stack.peekDepth();
+            AssistStructure.ViewNode node = stack.pop();
+
+            // 已离开包含目标字段的表单容器，剩余节点无需再处理
+            if (stopDepth >= 0 && depth < stopDepth) {
+                break;
+            }
+            visited++;
+
+            // 提取元数据
+            extractMetadata(node, builder);
+
+            // 检查是否为可填充字段
+            if (isAutofillable(node)) {
+                AutofillField field = createAutofillField(node, collectValues);
+                if (field != null) {
+                    builder.addField(field);
+                    logDebug("找到可填充字段: " + field);
+
+                    if (isUsernameType(field.getFieldType())
+                            && (!collectValues || hasValue(field))) {
+                        hasUsername = true;
+                    } else if (field.getFieldType() == AutofillField.FieldType.PASSWORD
+                            && (!collectValues || hasValue(field))) {
+                        hasPassword = true;
+                    }
+
+                    if (stopDepth < 0 && hasUsername && hasPassword) {
+                        // 继续处理当前字段的兄弟节点（如确认密码框），之后结束
+                        stopDepth = depth;
+                    }
+                }
             }
-        }
 
-        // 递归处理子节点
-        int childCount = node.getChildCount();
-        for (int i = 0; i < childCount; i++) {
-            AssistStructure.ViewNode childNode = node.getChildAt(i);
-            if (childNode != null) {
-                parseViewNode(childNode, builder);
+            // 子节点逆序压栈，保证按文档顺序出栈
+            int childCount = node.getChildCount();
+            for (int i = childCount - 1; i >= 0; i--) {
+                AssistStructure.ViewNode childNode = node.getChildAt(i);
+                if (childNode != null) {
+                    stack.push(childNode, depth + 1);
+                }
             }
         }
+
+        logDebug("遍历节点数: " + visited + (stack.isEmpty() ? "" : "（提前结束）"));
+        return builder.build();
+    }
+
+    private static boolean isUsernameType(AutofillField.FieldType fieldType) {
+        return fieldType == AutofillField.FieldType.USERNAME
+                || fieldType == AutofillField.FieldType.EMAIL
+                || fieldType == AutofillField.FieldType.PHONE
+                || fieldType == AutofillField.FieldType.ID_CARD;
+    }
+
+    private static boolean hasValue(AutofillField field) {
+        return field.getValue() != null && !field.getValue().isEmpty();
     }
 
     /**
-     * 提取元数据（域名、包名、应用名称、标题）
+     * 提取元数据（域名、包名、标题）
      */
     private static void extractMetadata(AssistStructure.ViewNode node, 
                                        AutofillParsedData.Builder builder) {
@@ -315,71 +257,23 @@ public class AutofillParser {
         if (webDomain != null && !webDomain.isEmpty()) {
             builder.setDomain(webDomain);
             builder.setIsWeb(true);
-            logDebug("检测到Web域名: " + webDomain);
         }
 
         // 提取包名
         String idPackage = node.getIdPackage();
         if (idPackage != null && !idPackage.isEmpty()) {
             builder.setPackageName(idPackage);
-            logDebug("检测到包名: " + idPackage);
-        }
-        
-        // 提取页面标题（尝试从多个来源获取）
-        extractTitle(node, builder);
-    }
-
-    /**
-     * 提取页面标题
-     */
-    private static void extractTitle(AssistStructure.ViewNode node, 
-                                    AutofillParsedData.Builder builder) {
-        // 如果已经有标题，直接返回
-        // if (builder.title != null && !builder.title.isEmpty()) {
-        //     return;
-        // }
-        
-        // 尝试从 ViewNode 的 text 属性获取（可能是页面标题）
-        CharSequence text = node.getText();
-        if (text != null && text.length() > 0) {
-            String textStr = text.toString().trim();
-            // 检查是否可能是标题（不太短也不太长）
-            if (textStr.length() > 3 && textStr.length() < 100) {
-                // 避免将常见的表单标签当作标题
-                String lowerText = textStr.toLowerCase(Locale.ROOT);
-                boolean isFormLabel = false;
-                for (String hint : USERNAME_HINTS) {
-                    if (lowerText.contains(hint)) {
-                        isFormLabel = true;
-                        break;
-                    }
-                }
-                for (String hint : PASSWORD_HINTS) {
-                    if (lowerText.contains(hint)) {
-                        isFormLabel = true;
-                        break;
-                    }
-                }
-                
-                if (!isFormLabel) {
-                    logDebug("检测到可能的标题: " + textStr);
-                    // 不直接设置，留在后端处理
-                }
-            }
         }
         
-        // Web 页面：尝试从 HTML 信息中获取 title
+        // Web 页面：尝试从 HTML <title> 获取标题
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             android.view.ViewStructure.HtmlInfo htmlInfo = node.getHtmlInfo();
-            if (htmlInfo != null) {
-                String htmlTag = htmlInfo.getTag();
-                if ("title".equalsIgnoreCase(htmlTag)) {
-                    CharSequence titleText = node.getText();
-                    if (titleText != null && titleText.length() > 0) {
-                        String title = titleText.toString().trim();
-                        builder.setTitle(title);
-                        logDebug("从 HTML <title> 提取到标题: " + title);
-                    }
+            if (htmlInfo != null && "title".equalsIgnoreCase(htmlInfo.getTag())) {
+                CharSequence titleText = node.getText();
+                if (titleText != null && titleText.length() > 0) {
+                    String title = titleText.toString().trim();
+                    builder.setTitle(title);
+                    logDebug("从 HTML <title> 提取到标题: " + title);
                 }
             }
         }
@@ -421,7 +315,8 @@ public class AutofillParser {
     /**
      * 创建AutofillField对象
      */
-    private static AutofillField createAutofillField(AssistStructure.ViewNode node) {
+    private static AutofillField createAutofillField(AssistStructure.ViewNode node,
+                                                     boolean collectValues) {
         AutofillId autofillId = node.getAutofillId();
         int inputType = node.getInputType();
         boolean isFocused = node.isFocused();
@@ -457,7 +352,20 @@ public class AutofillParser {
         
         logDebug(logMsg.toString());
 
-        return new AutofillField(autofillId, hint, inputType, isFocused, fieldType);
+        // SaveRequest：同一节点上直接提取实际值（密码不记录明文）
+        String value = null;
+        if (collectValues) {
+            value = extractValueFromAutofillValue(node.getAutofillValue(), node);
+            if (value != null && !value.isEmpty()) {
+                if (fieldType == AutofillField.FieldType.PASSWORD) {
+                    logDebug("提取到密码字段值（长度: " + value.length() + "）");
+                } else {
+                    logDebug("提取到字段值: " + value + " (type: " + fieldType + ")");
+                }
+            }
+        }
+
+        return new AutofillField(autofillId, hint, value, inputType, isFocused, fieldType);
     }
 
     /**
@@ -888,6 +796,39 @@ public class AutofillParser {
         return "";
     }
 
+    /**
+     * 遍历用的显式栈，节点与深度并行存储，避免递归和装箱
+     */
+    private static final class NodeStack {
+        private AssistStructure.ViewNode[] nodes = new AssistStructure.ViewNode[64];
+        private int[] depths = new int[64];
+        private int size;
+
+        void push(AssistStructure.ViewNode node, int depth) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                depths = Arrays.copyOf(depths, size * 2);
+            }
+            nodes[size] = node;
+            depths[size] = depth;
+            size++;
+        }
+
+        AssistStructure.ViewNode pop() {
+            AssistStructure.ViewNode node = nodes[--size];
+            nodes[size] = null;
+            return node;
+        }
+
+        int peekDepth() {
+            return depths[size - 1];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+
     /**
      * 调试日志输出到文件
      */
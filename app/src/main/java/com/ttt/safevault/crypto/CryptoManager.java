@@ -15,9 +15,11 @@ import com.ttt.safevault.security.SecurityUtils;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyStore;
 import java.security.SecureRandom;
+import java.util.UUID;
 
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.GCMParameterSpec;
@@ -27,7 +29,8 @@ import javax.crypto.spec.SecretKeySpec;
 /**
  * 加密管理器
  * 使用AES-256-GCM进行加密解密
- * 主密钥派生自用户主密码 + 盐值
+ * 条目使用随机生成的数据密钥加密，数据密钥由主密码 + 盐值派生的密钥包装后保存；
+ * 包装后的数据密钥同步到服务器，各设备用同一个数据密钥，同步的密文在每台设备上都能解密
  */
 public class CryptoManager {
 
@@ -40,6 +43,13 @@ public class CryptoManager {
     private static final String PREF_SESSION_IV = "session_master_iv";
     private static final String PREF_UNLOCK_TIME = "unlock_time";
     private static final String PREF_IS_LOCKED = "is_locked";  // 明确的锁定标志
+    private static final String PREF_VAULT_KEY = "vault_key";  // 包装后的数据密钥
+    private static final String PREF_VAULT_KEY_IV = "vault_key_iv";
+    private static final String PREF_VAULT_KEY_ID = "vault_key_id";
+    private static final String PREF_PENDING_KEY = "pending_vault_key";  // 服务器上其他设备的数据密钥，等待解锁时采用
+    private static final String PREF_PENDING_KEY_IV = "pending_vault_key_iv";
+    private static final String PREF_PENDING_KEY_ID = "pending_vault_key_id";
+    private static final String PREF_PENDING_KEY_SALT = "pending_vault_key_salt";
     private static final long SESSION_TIMEOUT_MS = 30 * 60 * 1000; // 30分钟会话超时
     
     private static final String KEYSTORE_ALIAS = "SafeVaultSessionKey";
@@ -53,6 +63,7 @@ public class CryptoManager {
 
     private final Context context;
     private final SharedPreferences prefs;
+    // 解锁后的数据密钥
     private SecretKey masterKey;
     private boolean isUnlocked = false;
 
@@ -77,16 +88,18 @@ public class CryptoManager {
             byte[] salt = new byte[32];
             new SecureRandom().nextBytes(salt);
 
-            // 派生主密钥
-            SecretKey key = deriveKey(masterPassword, salt);
+            // 生成数据密钥，用主密码派生的密钥包装
+            SecretKey key = generateDataKey();
+            WrappedKey wrapped = wrapKey(UUID.randomUUID().toString(), key, deriveKey(masterPassword, salt), salt);
 
             // 生成验证哈希
             String verifyHash = generateVerifyHash(masterPassword, salt);
 
-            // 保存盐值和验证哈希
+            // 保存盐值、验证哈希和包装后的数据密钥
             SharedPreferences.Editor editor = prefs.edit();
             editor.putString(PREF_SALT, Base64.encodeToString(salt, Base64.NO_WRAP));
             editor.putString(PREF_VERIFY_HASH, verifyHash);
+            putVaultKey(editor, wrapped);
             editor.putBoolean(PREF_INITIALIZED, true);
             editor.remove(PREF_IS_LOCKED);  // 清除锁定标志
             editor.apply();
@@ -125,8 +138,23 @@ public class CryptoManager {
                 return false;
             }
 
-            // 派生主密钥
-            this.masterKey = deriveKey(masterPassword, salt);
+            // 派生包装密钥，解开数据密钥
+            SecretKey wrappingKey = deriveKey(masterPassword, salt);
+            WrappedKey wrapped = getVaultKey();
+            SecretKey key;
+            if (wrapped == null) {
+                // 旧版本直接用派生密钥加密条目：把它作为数据密钥包装保存，已有数据不用重新加密
+                key = wrappingKey;
+                SharedPreferences.Editor editor = prefs.edit();
+                putVaultKey(editor, wrapKey(UUID.randomUUID().toString(), key, wrappingKey, salt));
+                editor.apply();
+            } else {
+                key = unwrapKey(wrapped, wrappingKey);
+                if (key == null) {
+                    return false;
+                }
+            }
+            this.masterKey = key;
             this.isUnlocked = true;
 
             // 清除锁定标志（允许会话恢复）
@@ -219,6 +247,18 @@ public class CryptoManager {
             throw new IllegalStateException("CryptoManager is locked");
         }
 
+        return encrypt(plaintext, masterKey);
+    }
+
+    /**
+     * 使用指定的数据密钥加密字符串，更换数据密钥时重新加密条目用
+     */
+    @Nullable
+    public EncryptedData encrypt(@Nullable String plaintext, @NonNull SecretKey key) {
+        if (plaintext == null || plaintext.isEmpty()) {
+            return null;
+        }
+
         try {
             // 生成随机IV
             byte[] iv = new byte[IV_SIZE];
@@ -227,7 +267,7 @@ public class CryptoManager {
             // 初始化加密器
             Cipher cipher = Cipher.getInstance(ALGORITHM);
             GCMParameterSpec spec = new GCMParameterSpec(TAG_SIZE, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, masterKey, spec);
+            cipher.init(Cipher.ENCRYPT_MODE, key, spec);
 
             // 加密
             byte[] encrypted = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
@@ -274,6 +314,30 @@ public class CryptoManager {
         }
     }
 
+    /**
+     * 从主密钥派生用途专用的子密钥（HMAC-SHA256(主密钥, 用途标签)）
+     * 子密钥随主密钥变化，不同用途之间互不相关
+     *
+     * @param label 用途标签
+     * @return 32字节子密钥，未解锁时返回null
+     */
+    @Nullable
+    public byte[] deriveSubKey(@NonNull String label) {
+        SecretKey key = getMasterKey();
+        if (key == null) {
+            return null;
+        }
+
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key.getEncoded(), "HmacSHA256"));
+            return mac.doFinal(label.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to derive sub key", e);
+            return null;
+        }
+    }
+
     /**
      * 更改主密码
      */
@@ -294,22 +358,32 @@ public class CryptoManager {
                 return false; // 旧密码错误
             }
 
+            // 解开数据密钥；旧版本没有包装过的数据密钥，派生密钥就是数据密钥
+            SecretKey oldWrappingKey = deriveKey(oldPassword, oldSalt);
+            WrappedKey wrapped = getVaultKey();
+            SecretKey key = wrapped != null ? unwrapKey(wrapped, oldWrappingKey) : oldWrappingKey;
+            if (key == null) {
+                return false;
+            }
+            String keyId = wrapped != null ? wrapped.keyId : UUID.randomUUID().toString();
+
             // 生成新盐值
             byte[] newSalt = new byte[32];
             new SecureRandom().nextBytes(newSalt);
 
-            // 派生新主密钥
-            SecretKey newKey = deriveKey(newPassword, newSalt);
+            // 数据密钥不变，只用新主密码重新包装，条目不需要重新加密
+            WrappedKey rewrapped = wrapKey(keyId, key, deriveKey(newPassword, newSalt), newSalt);
             String newVerifyHash = generateVerifyHash(newPassword, newSalt);
 
-            // 保存新的盐值和验证哈希
+            // 保存新的盐值、验证哈希和包装后的数据密钥
             SharedPreferences.Editor editor = prefs.edit();
             editor.putString(PREF_SALT, Base64.encodeToString(newSalt, Base64.NO_WRAP));
             editor.putString(PREF_VERIFY_HASH, newVerifyHash);
+            putVaultKey(editor, rewrapped);
             editor.apply();
 
             // 更新内存中的密钥
-            this.masterKey = newKey;
+            this.masterKey = key;
 
             return true;
         } catch (Exception e) {
@@ -318,6 +392,154 @@ public class CryptoManager {
         }
     }
 
+    /**
+     * 本机包装后的数据密钥，旧版本升级后首次解锁前为null
+     */
+    @Nullable
+    public WrappedKey getVaultKey() {
+        return loadWrappedKey(PREF_VAULT_KEY_ID, PREF_VAULT_KEY, PREF_VAULT_KEY_IV, PREF_SALT);
+    }
+
+    /**
+     * 服务器上已有其他设备的数据密钥，保存下来等下次用主密码解锁时采用
+     */
+    public void setPendingVaultKey(@NonNull WrappedKey key) {
+        prefs.edit()
+                .putString(PREF_PENDING_KEY_ID, key.keyId)
+                .putString(PREF_PENDING_KEY, key.encryptedKey)
+                .putString(PREF_PENDING_KEY_IV, key.iv)
+                .putString(PREF_PENDING_KEY_SALT, key.salt)
+                .apply();
+    }
+
+    /**
+     * 丢弃待采用的数据密钥（退出云端账号时，它属于原账号）
+     */
+    public void clearPendingVaultKey() {
+        prefs.edit()
+                .remove(PREF_PENDING_KEY_ID)
+                .remove(PREF_PENDING_KEY)
+                .remove(PREF_PENDING_KEY_IV)
+                .remove(PREF_PENDING_KEY_SALT)
+                .apply();
+    }
+
+    @Nullable
+    public WrappedKey getPendingVaultKey() {
+        return loadWrappedKey(PREF_PENDING_KEY_ID, PREF_PENDING_KEY, PREF_PENDING_KEY_IV, PREF_PENDING_KEY_SALT);
+    }
+
+    /**
+     * 用主密码解开待采用的数据密钥
+     *
+     * @return 数据密钥，没有待采用的密钥或主密码与包装它的主密码不同时返回null
+     */
+    @Nullable
+    public SecretKey unwrapPendingVaultKey(@NonNull String masterPassword) {
+        WrappedKey pending = getPendingVaultKey();
+        if (pending == null) {
+            return null;
+        }
+        try {
+            return unwrapKey(pending, deriveKey(masterPassword, Base64.decode(pending.salt, Base64.NO_WRAP)));
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to derive pending vault key", e);
+            return null;
+        }
+    }
+
+    /**
+     * 采用待采用的数据密钥：保存它的包装形式和盐值，此后用它加解密
+     * 调用方先把本机条目改用该密钥重新加密
+     */
+    public boolean adoptPendingVaultKey(@NonNull SecretKey key, @NonNull String masterPassword) {
+        WrappedKey pending = getPendingVaultKey();
+        if (pending == null) {
+            return false;
+        }
+        byte[] salt = Base64.decode(pending.salt, Base64.NO_WRAP);
+        SharedPreferences.Editor editor = prefs.edit();
+        editor.putString(PREF_SALT, pending.salt);
+        editor.putString(PREF_VERIFY_HASH, generateVerifyHash(masterPassword, salt));
+        putVaultKey(editor, pending);
+        editor.remove(PREF_PENDING_KEY_ID);
+        editor.remove(PREF_PENDING_KEY);
+        editor.remove(PREF_PENDING_KEY_IV);
+        editor.remove(PREF_PENDING_KEY_SALT);
+        if (!editor.commit()) {
+            return false;
+        }
+
+        this.masterKey = key;
+        this.isUnlocked = true;
+        persistSessionKey(key);
+        return true;
+    }
+
+    private void putVaultKey(SharedPreferences.Editor editor, WrappedKey key) {
+        editor.putString(PREF_VAULT_KEY_ID, key.keyId);
+        editor.putString(PREF_VAULT_KEY, key.encryptedKey);
+        editor.putString(PREF_VAULT_KEY_IV, key.iv);
+    }
+
+    @Nullable
+    private WrappedKey loadWrappedKey(String idPref, String keyPref, String ivPref, String saltPref) {
+        String keyId = prefs.getString(idPref, null);
+        String encryptedKey = prefs.getString(keyPref, null);
+        String iv = prefs.getString(ivPref, null);
+        String salt = prefs.getString(saltPref, null);
+        if (keyId == null || encryptedKey == null || iv == null || salt == null) {
+            return null;
+        }
+        return new WrappedKey(keyId, encryptedKey, iv, salt);
+    }
+
+    /**
+     * 生成随机数据密钥
+     */
+    private SecretKey generateDataKey() {
+        byte[] keyBytes = new byte[KEY_SIZE / 8];
+        new SecureRandom().nextBytes(keyBytes);
+        return new SecretKeySpec(keyBytes, "AES");
+    }
+
+    /**
+     * 用包装密钥加密数据密钥，keyId作为附加认证数据
+     */
+    private WrappedKey wrapKey(@NonNull String keyId, @NonNull SecretKey key,
+                               @NonNull SecretKey wrappingKey, @NonNull byte[] salt) throws Exception {
+        byte[] iv = new byte[IV_SIZE];
+        new SecureRandom().nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance(ALGORITHM);
+        cipher.init(Cipher.ENCRYPT_MODE, wrappingKey, new GCMParameterSpec(TAG_SIZE, iv));
+        cipher.updateAAD(keyId.getBytes(StandardCharsets.UTF_8));
+        byte[] encrypted = cipher.doFinal(key.getEncoded());
+
+        return new WrappedKey(keyId,
+                Base64.encodeToString(encrypted, Base64.NO_WRAP),
+                Base64.encodeToString(iv, Base64.NO_WRAP),
+                Base64.encodeToString(salt, Base64.NO_WRAP));
+    }
+
+    /**
+     * 解开数据密钥，包装密钥不对时返回null
+     */
+    @Nullable
+    private SecretKey unwrapKey(@NonNull WrappedKey wrapped, @NonNull SecretKey wrappingKey) {
+        try {
+            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            GCMParameterSpec spec = new GCMParameterSpec(TAG_SIZE, Base64.decode(wrapped.iv, Base64.NO_WRAP));
+            cipher.init(Cipher.DECRYPT_MODE, wrappingKey, spec);
+            cipher.updateAAD(wrapped.keyId.getBytes(StandardCharsets.UTF_8));
+            byte[] keyBytes = cipher.doFinal(Base64.decode(wrapped.encryptedKey, Base64.NO_WRAP));
+            return new SecretKeySpec(keyBytes, "AES");
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to unwrap vault key", e);
+            return null;
+        }
+    }
+
     /**
      * 使用PBKDF2从密码派生密钥
      */
@@ -522,4 +744,21 @@ public class CryptoManager {
             this.iv = iv;
         }
     }
+
+    /**
+     * 包装后的数据密钥：主密码 + salt派生的密钥加密的数据密钥，keyId标识数据密钥本身
+     */
+    public static class WrappedKey {
+        public final String keyId;
+        public final String encryptedKey;
+        public final String iv;
+        public final String salt;
+
+        public WrappedKey(String keyId, String encryptedKey, String iv, String salt) {
+            this.keyId = keyId;
+            this.encryptedKey = encryptedKey;
+            this.iv = iv;
+            this.salt = salt;
+        }
+    }
 }
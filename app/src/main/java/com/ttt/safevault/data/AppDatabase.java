@@ -2,21 +2,229 @@ package com.ttt.safevault.data;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 /**
  * SafeVault应用数据库
  */
-@Database(entities = {EncryptedPasswordEntity.class}, version = 1, exportSchema = false)
+@Database(entities = {EncryptedPasswordEntity.class, ItemUsageEntity.class, ItemAuditEntity.class,
+        ShareEntity.class, CloudShareEntity.class, SyncChangeEntity.class},
+        version = 11, exportSchema = false)
 public abstract class AppDatabase extends RoomDatabase {
 
     private static final String DATABASE_NAME = "safevault_db";
     private static volatile AppDatabase INSTANCE;
 
+    /**
+     * 版本1 -> 2：新增使用统计表
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_usage` (" +
+                    "`itemId` INTEGER NOT NULL, " +
+                    "`lastUsedAt` INTEGER NOT NULL, " +
+                    "`useCount` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`itemId`))");
+        }
+    };
+
+    /**
+     * 版本2 -> 3：新增密码健康审计表
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_audit` (" +
+                    "`itemId` INTEGER NOT NULL, " +
+                    "`strengthScore` INTEGER NOT NULL, " +
+                    "`weak` INTEGER NOT NULL, " +
+                    "`passwordHash` TEXT, " +
+                    "`passwordChangedAt` INTEGER NOT NULL, " +
+                    "`itemUpdatedAt` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`itemId`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_audit_passwordHash` " +
+                    "ON `item_audit` (`passwordHash`)");
+        }
+    };
+
+    /**
+     * 版本3 -> 4：审计表新增泄露标记
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `item_audit` ADD COLUMN `breached` INTEGER NOT NULL DEFAULT 0");
+            // 旧事实没有泄露标记，标记为过期以便重新计算
+            db.execSQL("UPDATE `item_audit` SET `itemUpdatedAt` = -1");
+        }
+    };
+
+    /**
+     * 版本4 -> 5：密码强度改为熵估算，已有审计事实标记为过期以便重新计算
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("UPDATE `item_audit` SET `itemUpdatedAt` = -1");
+        }
+    };
+
+    /**
+     * 版本5 -> 6：新增本地分享记录表（原先只保存在内存中）
+     */
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `shares` (" +
+                    "`shareId` TEXT NOT NULL, " +
+                    "`passwordId` INTEGER NOT NULL, " +
+                    "`fromUserId` TEXT, " +
+                    "`toUserId` TEXT, " +
+                    "`encryptedData` TEXT, " +
+                    "`createdAt` INTEGER NOT NULL, " +
+                    "`expireTime` INTEGER NOT NULL, " +
+                    "`canView` INTEGER NOT NULL, " +
+                    "`canSave` INTEGER NOT NULL, " +
+                    "`revocable` INTEGER NOT NULL, " +
+                    "`status` TEXT, " +
+                    "PRIMARY KEY(`shareId`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_shares_fromUserId_createdAt` " +
+                    "ON `shares` (`fromUserId`, `createdAt`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_shares_toUserId_createdAt` " +
+                    "ON `shares` (`toUserId`, `createdAt`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_shares_status` ON `shares` (`status`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_shares_expireTime` ON `shares` (`expireTime`)");
+        }
+    };
+
+    /**
+     * 版本6 -> 7：新增云端分享列表缓存表
+     */
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `cloud_shares` (" +
+                    "`listType` TEXT NOT NULL, " +
+                    "`shareId` TEXT NOT NULL, " +
+                    "`fromUserId` TEXT, " +
+                    "`fromDisplayName` TEXT, " +
+                    "`toUserId` TEXT, " +
+                    "`toUserDisplayName` TEXT, " +
+                    "`title` TEXT, " +
+                    "`username` TEXT, " +
+                    "`url` TEXT, " +
+                    "`canView` INTEGER NOT NULL, " +
+                    "`canSave` INTEGER NOT NULL, " +
+                    "`revocable` INTEGER NOT NULL, " +
+                    "`status` TEXT, " +
+                    "`shareType` TEXT, " +
+                    "`createdAt` INTEGER NOT NULL, " +
+                    "`expiresAt` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`listType`, `shareId`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cloud_shares_listType_createdAt` " +
+                    "ON `cloud_shares` (`listType`, `createdAt`)");
+        }
+    };
+
+    /**
+     * 版本7 -> 8：密码条目新增同步ID、修订号和墓碑标记，新增本地变更日志；
+     * 已有条目生成同步ID并全部加入变更日志，首次同步时上传
+     */
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `passwords` ADD COLUMN `syncId` TEXT");
+            db.execSQL("ALTER TABLE `passwords` ADD COLUMN `revision` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE `passwords` ADD COLUMN `deleted` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("UPDATE `passwords` SET `syncId` = lower(hex(randomblob(16))), `revision` = 1");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_passwords_syncId` ON `passwords` (`syncId`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sync_changes` (" +
+                    "`itemId` INTEGER NOT NULL, " +
+                    "`baseRevision` INTEGER NOT NULL, " +
+                    "`revision` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`itemId`))");
+            db.execSQL("INSERT INTO `sync_changes` (`itemId`, `baseRevision`, `revision`) " +
+                    "SELECT `id`, 0, `revision` FROM `passwords`");
+        }
+    };
+
+    /**
+     * 版本8 -> 9：密码条目新增字段版本戳，旧数据的版本戳为空（合并时视为最旧）
+     */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `passwords` ADD COLUMN `titleStamp` TEXT");
+            db.execSQL("ALTER TABLE `passwords` ADD COLUMN `usernameStamp` TEXT");
+            db.execSQL("ALTER TABLE `passwords` ADD COLUMN `passwordStamp` TEXT");
+            db.execSQL("ALTER TABLE `passwords` ADD COLUMN `urlStamp` TEXT");
+            db.execSQL("ALTER TABLE `passwords` ADD COLUMN `notesStamp` TEXT");
+        }
+    };
+
+    /**
+     * 版本9 -> 10：分享列表索引加上shareId，支持按(创建时间, 分享ID)键集分页
+     */
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP INDEX IF EXISTS `index_shares_fromUserId_createdAt`");
+            db.execSQL("DROP INDEX IF EXISTS `index_shares_toUserId_createdAt`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_shares_fromUserId_createdAt_shareId` " +
+                    "ON `shares` (`fromUserId`, `createdAt`, `shareId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_shares_toUserId_createdAt_shareId` " +
+                    "ON `shares` (`toUserId`, `createdAt`, `shareId`)");
+        }
+    };
+
+    /**
+     * 版本10 -> 11：云端分享缓存的标题、用户名和网址改为密文列；旧缓存是明文，直接重建，下次刷新重新下载
+     */
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP TABLE IF EXISTS `cloud_shares`");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `cloud_shares` (" +
+                    "`listType` TEXT NOT NULL, " +
+                    "`shareId` TEXT NOT NULL, " +
+                    "`fromUserId` TEXT, " +
+                    "`fromDisplayName` TEXT, " +
+                    "`toUserId` TEXT, " +
+                    "`toUserDisplayName` TEXT, " +
+                    "`encryptedTitle` TEXT, " +
+                    "`encryptedUsername` TEXT, " +
+                    "`encryptedUrl` TEXT, " +
+                    "`canView` INTEGER NOT NULL, " +
+                    "`canSave` INTEGER NOT NULL, " +
+                    "`revocable` INTEGER NOT NULL, " +
+                    "`status` TEXT, " +
+                    "`shareType` TEXT, " +
+                    "`createdAt` INTEGER NOT NULL, " +
+                    "`expiresAt` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`listType`, `shareId`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_cloud_shares_listType_createdAt` " +
+                    "ON `cloud_shares` (`listType`, `createdAt`)");
+        }
+    };
+
     public abstract PasswordDao passwordDao();
 
+    public abstract ItemUsageDao itemUsageDao();
+
+    public abstract ItemAuditDao itemAuditDao();
+
+    public abstract ShareDao shareDao();
+
+    public abstract CloudShareDao cloudShareDao();
+
+    public abstract SyncChangeDao syncChangeDao();
+
     public static AppDatabase getInstance(Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
@@ -25,7 +233,10 @@ public abstract class AppDatabase extends RoomDatabase {
                             context.getApplicationContext(),
                             AppDatabase.class,
                             DATABASE_NAME
-                    ).build();
+                    ).addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5,
+                            MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8,
+                            MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11)
+                     .build();
                 }
             }
         }
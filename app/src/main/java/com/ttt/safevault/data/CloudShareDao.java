@@ -0,0 +1,37 @@
+package com.ttt.safevault.data;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * 云端分享列表缓存数据访问对象
+ */
+@Dao
+public interface CloudShareDao {
+
+    /**
+     * 观察指定列表，表有写入时自动重新查询
+     */
+    @Query("SELECT * FROM cloud_shares WHERE listType = :listType ORDER BY createdAt DESC")
+    LiveData<List<CloudShareEntity>> observe(String listType);
+
+    @Query("SELECT * FROM cloud_shares WHERE listType = :listType")
+    List<CloudShareEntity> getAll(String listType);
+
+    @Query("SELECT COUNT(*) FROM cloud_shares WHERE listType = :listType")
+    int count(String listType);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(List<CloudShareEntity> entities);
+
+    @Query("DELETE FROM cloud_shares WHERE listType = :listType AND shareId IN (:shareIds)")
+    void delete(String listType, List<String> shareIds);
+
+    @Query("DELETE FROM cloud_shares")
+    void deleteAll();
+}
@@ -0,0 +1,258 @@
+package com.ttt.safevault.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+
+import com.ttt.safevault.dto.PasswordData;
+import com.ttt.safevault.dto.response.ReceivedShareResponse;
+import com.ttt.safevault.model.SharePermission;
+
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * 云端分享列表缓存实体
+ * 只缓存列表展示需要的元数据，不保存密码和备注；查看详情时仍从服务器获取。
+ * 标题、用户名和网址与密码条目一样只保存密文（iv:ciphertext）
+ */
+@Entity(tableName = "cloud_shares",
+        primaryKeys = {"listType", "shareId"},
+        indices = {@Index({"listType", "createdAt"})})
+public class CloudShareEntity {
+
+    // 列表类型：我创建的 / 我接收的
+    public static final String LIST_CREATED = "CREATED";
+    public static final String LIST_RECEIVED = "RECEIVED";
+
+    @NonNull
+    private String listType = LIST_CREATED;
+
+    @NonNull
+    private String shareId = "";
+
+    private String fromUserId;
+    private String fromDisplayName;
+    private String toUserId;
+    private String toUserDisplayName;
+
+    // 密码元数据（密文）
+    private String encryptedTitle;
+    private String encryptedUsername;
+    private String encryptedUrl;
+
+    // 分享权限
+    private boolean canView;
+    private boolean canSave;
+    private boolean revocable;
+
+    private String status;
+    private String shareType;
+    private long createdAt;
+    private long expiresAt;
+
+    public CloudShareEntity() {
+    }
+
+    /**
+     * 从服务器响应转换（丢弃密码和备注）
+     *
+     * @param encryptor 加密标题、用户名和网址
+     */
+    public static CloudShareEntity fromResponse(@NonNull String listType, @NonNull ReceivedShareResponse response,
+                                                @NonNull UnaryOperator<String> encryptor) {
+        CloudShareEntity entity = new CloudShareEntity();
+        entity.setListType(listType);
+        entity.setShareId(response.getShareId());
+        entity.setFromUserId(response.getFromUserId());
+        entity.setFromDisplayName(response.getFromDisplayName());
+        entity.setToUserId(response.getToUserId());
+        entity.setToUserDisplayName(response.getToUserDisplayName());
+        entity.setEncryptedTitle(encryptor.apply(response.getTitle()));
+        entity.setEncryptedUsername(encryptor.apply(response.getUsername()));
+        entity.setEncryptedUrl(encryptor.apply(response.getUrl()));
+        SharePermission permission = response.getPermission() != null ? response.getPermission() : new SharePermission();
+        entity.setCanView(permission.isCanView());
+        entity.setCanSave(permission.isCanSave());
+        entity.setRevocable(permission.isRevocable());
+        entity.setStatus(response.getStatus());
+        entity.setShareType(response.getShareType());
+        entity.setCreatedAt(response.getCreatedAt());
+        entity.setExpiresAt(response.getExpiresAt());
+        return entity;
+    }
+
+    /**
+     * 转换为列表使用的响应对象
+     *
+     * @param decryptor 解密标题、用户名和网址
+     */
+    public ReceivedShareResponse toResponse(@NonNull UnaryOperator<String> decryptor) {
+        ReceivedShareResponse response = new ReceivedShareResponse();
+        response.setShareId(shareId);
+        response.setFromUserId(fromUserId);
+        response.setFromDisplayName(fromDisplayName);
+        response.setToUserId(toUserId);
+        response.setToUserDisplayName(toUserDisplayName);
+        PasswordData passwordData = new PasswordData();
+        passwordData.setTitle(decryptor.apply(encryptedTitle));
+        passwordData.setUsername(decryptor.apply(encryptedUsername));
+        passwordData.setUrl(decryptor.apply(encryptedUrl));
+        response.setPasswordData(passwordData);
+        response.setPermission(new SharePermission(canView, canSave, revocable));
+        response.setStatus(status);
+        response.setShareType(shareType);
+        response.setCreatedAt(createdAt);
+        response.setExpiresAt(expiresAt);
+        return response;
+    }
+
+    /**
+     * 除加密字段外的内容是否相同，用于只写入有变化的行；密文每次加密都不同，由调用方比较明文
+     */
+    public boolean sameMetadata(@NonNull CloudShareEntity other) {
+        return canView == other.canView
+                && canSave == other.canSave
+                && revocable == other.revocable
+                && createdAt == other.createdAt
+                && expiresAt == other.expiresAt
+                && listType.equals(other.listType)
+                && shareId.equals(other.shareId)
+                && Objects.equals(fromUserId, other.fromUserId)
+                && Objects.equals(fromDisplayName, other.fromDisplayName)
+                && Objects.equals(toUserId, other.toUserId)
+                && Objects.equals(toUserDisplayName, other.toUserDisplayName)
+                && Objects.equals(status, other.status)
+                && Objects.equals(shareType, other.shareType);
+    }
+
+    @NonNull
+    public String getListType() {
+        return listType;
+    }
+
+    public void setListType(@NonNull String listType) {
+        this.listType = listType;
+    }
+
+    @NonNull
+    public String getShareId() {
+        return shareId;
+    }
+
+    public void setShareId(@NonNull String shareId) {
+        this.shareId = shareId;
+    }
+
+    public String getFromUserId() {
+        return fromUserId;
+    }
+
+    public void setFromUserId(String fromUserId) {
+        this.fromUserId = fromUserId;
+    }
+
+    public String getFromDisplayName() {
+        return fromDisplayName;
+    }
+
+    public void setFromDisplayName(String fromDisplayName) {
+        this.fromDisplayName = fromDisplayName;
+    }
+
+    public String getToUserId() {
+        return toUserId;
+    }
+
+    public void setToUserId(String toUserId) {
+        this.toUserId = toUserId;
+    }
+
+    public String getToUserDisplayName() {
+        return toUserDisplayName;
+    }
+
+    public void setToUserDisplayName(String toUserDisplayName) {
+        this.toUserDisplayName = toUserDisplayName;
+    }
+
+    public String getEncryptedTitle() {
+        return encryptedTitle;
+    }
+
+    public void setEncryptedTitle(String encryptedTitle) {
+        this.encryptedTitle = encryptedTitle;
+    }
+
+    public String getEncryptedUsername() {
+        return encryptedUsername;
+    }
+
+    public void setEncryptedUsername(String encryptedUsername) {
+        this.encryptedUsername = encryptedUsername;
+    }
+
+    public String getEncryptedUrl() {
+        return encryptedUrl;
+    }
+
+    public void setEncryptedUrl(String encryptedUrl) {
+        this.encryptedUrl = encryptedUrl;
+    }
+
+    public boolean isCanView() {
+        return canView;
+    }
+
+    public void setCanView(boolean canView) {
+        this.canView = canView;
+    }
+
+    public boolean isCanSave() {
+        return canSave;
+    }
+
+    public void setCanSave(boolean canSave) {
+        this.canSave = canSave;
+    }
+
+    public boolean isRevocable() {
+        return revocable;
+    }
+
+    public void setRevocable(boolean revocable) {
+        this.revocable = revocable;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getShareType() {
+        return shareType;
+    }
+
+    public void setShareType(String shareType) {
+        this.shareType = shareType;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
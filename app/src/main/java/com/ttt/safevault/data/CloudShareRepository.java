@@ -0,0 +1,233 @@
+package com.ttt.safevault.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+
+import com.ttt.safevault.ServiceLocator;
+import com.ttt.safevault.crypto.CryptoManager;
+import com.ttt.safevault.dto.response.ReceivedShareResponse;
+import com.ttt.safevault.network.RetrofitClient;
+import com.ttt.safevault.network.api.ShareServiceApi;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+/**
+ * 云端分享列表仓库（离线优先）
+ * 列表直接从Room缓存观察，界面打开时立即显示；刷新时带上次的ETag/Last-Modified做条件请求，
+ * 304时不写库，200时只写入新增、变化的行并删除已不存在的行，没有变化的列表不会触发界面刷新。
+ * 标题、用户名和网址用CryptoManager加密后缓存，未解锁时列表中这些字段为空，刷新失败。
+ */
+public class CloudShareRepository {
+
+    private static final String TAG = "CloudShareRepository";
+    private static final String PREFS_NAME = "cloud_share_cache";
+    private static final String KEY_ETAG = "etag_";
+    private static final String KEY_LAST_MODIFIED = "last_modified_";
+
+    // 单条DELETE的IN参数上限，低于SQLite的变量数限制
+    private static final int MAX_BATCH = 500;
+
+    private static volatile CloudShareRepository INSTANCE;
+
+    private final AppDatabase database;
+    private final CloudShareDao cloudShareDao;
+    private final ShareServiceApi shareServiceApi;
+    private final SharedPreferences prefs;
+    private final CryptoManager cryptoManager;
+
+    private CloudShareRepository(@NonNull Context context) {
+        this.database = AppDatabase.getInstance(context);
+        this.cloudShareDao = database.cloudShareDao();
+        this.shareServiceApi = RetrofitClient.getInstance(context).getShareServiceApi();
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.cryptoManager = ServiceLocator.getInstance().getCryptoManager();
+    }
+
+    public static CloudShareRepository getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            synchronized (CloudShareRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new CloudShareRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 观察我创建的分享（缓存）
+     */
+    public LiveData<List<ReceivedShareResponse>> observeMyShares() {
+        return observe(CloudShareEntity.LIST_CREATED);
+    }
+
+    /**
+     * 观察我接收的分享（缓存）
+     */
+    public LiveData<List<ReceivedShareResponse>> observeReceivedShares() {
+        return observe(CloudShareEntity.LIST_RECEIVED);
+    }
+
+    /**
+     * 与服务器重验证我创建的分享
+     */
+    public Completable refreshMyShares() {
+        return refresh(CloudShareEntity.LIST_CREATED, shareServiceApi::getMySharesIfChanged);
+    }
+
+    /**
+     * 与服务器重验证我接收的分享
+     */
+    public Completable refreshReceivedShares() {
+        return refresh(CloudShareEntity.LIST_RECEIVED, shareServiceApi::getReceivedSharesIfChanged);
+    }
+
+    /**
+     * 清除缓存和验证信息（退出登录时调用）
+     */
+    public Completable clear() {
+        return Completable.fromAction(() -> {
+                    cloudShareDao.deleteAll();
+                    prefs.edit().clear().apply();
+                })
+                .subscribeOn(Schedulers.io());
+    }
+
+    private LiveData<List<ReceivedShareResponse>> observe(String listType) {
+        return Transformations.map(cloudShareDao.observe(listType), entities -> {
+            boolean unlocked = cryptoManager.isUnlocked();
+            List<ReceivedShareResponse> shares = new ArrayList<>(entities.size());
+            for (CloudShareEntity entity : entities) {
+                shares.add(entity.toResponse(value -> unlocked ? decryptField(value) : null));
+            }
+            return shares;
+        });
+    }
+
+    private interface ConditionalFetch {
+        Observable<Response<List<ReceivedShareResponse>>> fetch(@Nullable String etag, @Nullable String lastModified);
+    }
+
+    private Completable refresh(String listType, ConditionalFetch fetch) {
+        return Single.defer(() -> {
+                    // 缓存为空（首次或被清空）时不带验证信息，否则304会留下空列表
+                    boolean cached = cloudShareDao.count(listType) > 0;
+                    return fetch.fetch(
+                            cached ? prefs.getString(KEY_ETAG + listType, null) : null,
+                            cached ? prefs.getString(KEY_LAST_MODIFIED + listType, null) : null).singleOrError();
+                })
+                .subscribeOn(Schedulers.io())
+                .observeOn(Schedulers.io())
+                .flatMapCompletable(response -> Completable.fromAction(() -> apply(listType, response)));
+    }
+
+    private void apply(String listType, Response<List<ReceivedShareResponse>> response) {
+        if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            Log.d(TAG, listType + " shares not modified");
+            return;
+        }
+        if (!response.isSuccessful()) {
+            throw new HttpException(response);
+        }
+
+        List<ReceivedShareResponse> shares = response.body() != null ? response.body() : new ArrayList<>();
+        applyChanges(listType, shares);
+
+        // 验证信息在数据写入后再保存，中途失败时下次会重新下载
+        prefs.edit()
+                .putString(KEY_ETAG + listType, response.headers().get("ETag"))
+                .putString(KEY_LAST_MODIFIED + listType, response.headers().get("Last-Modified"))
+                .apply();
+    }
+
+    /**
+     * 与缓存比较，只写入有变化的行
+     */
+    private void applyChanges(String listType, List<ReceivedShareResponse> shares) {
+        Map<String, CloudShareEntity> cached = new HashMap<>();
+        for (CloudShareEntity entity : cloudShareDao.getAll(listType)) {
+            cached.put(entity.getShareId(), entity);
+        }
+
+        List<CloudShareEntity> changed = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (ReceivedShareResponse share : shares) {
+            if (share.getShareId() == null || !seen.add(share.getShareId())) {
+                continue;
+            }
+            CloudShareEntity entity = CloudShareEntity.fromResponse(listType, share, this::encryptField);
+            CloudShareEntity old = cached.get(entity.getShareId());
+            if (old == null || !old.sameMetadata(entity) || !samePlaintext(old, share)) {
+                changed.add(entity);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String shareId : cached.keySet()) {
+            if (!seen.contains(shareId)) {
+                removed.add(shareId);
+            }
+        }
+
+        if (!changed.isEmpty() || !removed.isEmpty()) {
+            database.runInTransaction(() -> {
+                if (!changed.isEmpty()) {
+                    cloudShareDao.upsert(changed);
+                }
+                for (int from = 0; from < removed.size(); from += MAX_BATCH) {
+                    cloudShareDao.delete(listType, removed.subList(from, Math.min(removed.size(), from + MAX_BATCH)));
+                }
+            });
+        }
+        Log.d(TAG, listType + " shares synced: " + changed.size() + " changed, " + removed.size() + " removed");
+    }
+
+    private boolean samePlaintext(CloudShareEntity cached, ReceivedShareResponse share) {
+        return Objects.equals(decryptField(cached.getEncryptedTitle()), share.getTitle())
+                && Objects.equals(decryptField(cached.getEncryptedUsername()), share.getUsername())
+                && Objects.equals(decryptField(cached.getEncryptedUrl()), share.getUrl());
+    }
+
+    /**
+     * 加密单个字段，返回格式: iv:ciphertext
+     */
+    @Nullable
+    private String encryptField(@Nullable String plaintext) {
+        CryptoManager.EncryptedData data = cryptoManager.encrypt(plaintext);
+        return data != null ? data.iv + ":" + data.ciphertext : null;
+    }
+
+    /**
+     * 解密单个字段，输入格式: iv:ciphertext
+     */
+    @Nullable
+    private String decryptField(@Nullable String encrypted) {
+        if (encrypted == null || encrypted.isEmpty()) {
+            return null;
+        }
+        String[] parts = encrypted.split(":", 2);
+        if (parts.length != 2) {
+            return null;
+        }
+        return cryptoManager.decrypt(parts[1], parts[0]);
+    }
+}
@@ -1,13 +1,18 @@
 package com.ttt.safevault.data;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * 加密密码条目数据库实体
  * 所有敏感字段都以加密形式存储
+ * 同步用的syncId跨设备唯一；revision每次修改加一；删除时保留墓碑（deleted）并清空密文，
+ * 以便把删除同步到其他设备。
+ * 每个加密字段带一个版本戳（混合逻辑时钟@设备ID），多设备并发修改时按字段取较新的值
  */
-@Entity(tableName = "passwords")
+@Entity(tableName = "passwords",
+        indices = {@Index(value = {"syncId"}, unique = true)})
 public class EncryptedPasswordEntity {
 
     @PrimaryKey(autoGenerate = true)
@@ -34,6 +39,22 @@ public class EncryptedPasswordEntity {
     // IV（初始化向量），每条记录独立IV
     private String iv;
 
+    // 跨设备唯一的同步ID
+    private String syncId;
+
+    // 修订号，本地或远端每次修改加一
+    private long revision;
+
+    // 墓碑标记，已删除的条目保留到同步完成
+    private boolean deleted;
+
+    // 各字段的版本戳，null表示迁移前的旧数据（最旧）
+    private String titleStamp;
+    private String usernameStamp;
+    private String passwordStamp;
+    private String urlStamp;
+    private String notesStamp;
+
     public EncryptedPasswordEntity() {
         this.updatedAt = System.currentTimeMillis();
     }
@@ -102,4 +123,68 @@ public class EncryptedPasswordEntity {
     public void setIv(String iv) {
         this.iv = iv;
     }
+
+    public String getSyncId() {
+        return syncId;
+    }
+
+    public void setSyncId(String syncId) {
+        this.syncId = syncId;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getTitleStamp() {
+        return titleStamp;
+    }
+
+    public void setTitleStamp(String titleStamp) {
+        this.titleStamp = titleStamp;
+    }
+
+    public String getUsernameStamp() {
+        return usernameStamp;
+    }
+
+    public void setUsernameStamp(String usernameStamp) {
+        this.usernameStamp = usernameStamp;
+    }
+
+    public String getPasswordStamp() {
+        return passwordStamp;
+    }
+
+    public void setPasswordStamp(String passwordStamp) {
+        this.passwordStamp = passwordStamp;
+    }
+
+    public String getUrlStamp() {
+        return urlStamp;
+    }
+
+    public void setUrlStamp(String urlStamp) {
+        this.urlStamp = urlStamp;
+    }
+
+    public String getNotesStamp() {
+        return notesStamp;
+    }
+
+    public void setNotesStamp(String notesStamp) {
+        this.notesStamp = notesStamp;
+    }
 }
@@ -0,0 +1,33 @@
+package com.ttt.safevault.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * 密码健康审计数据访问对象
+ */
+@Dao
+public interface ItemAuditDao {
+
+    @Query("SELECT * FROM item_audit")
+    List<ItemAuditEntity> getAll();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(ItemAuditEntity entity);
+
+    /**
+     * 将所有事实标记为过期，下次审计时全部重新计算
+     */
+    @Query("UPDATE item_audit SET itemUpdatedAt = -1")
+    void invalidateAll();
+
+    @Query("DELETE FROM item_audit WHERE itemId = :itemId")
+    int deleteById(int itemId);
+
+    @Query("DELETE FROM item_audit")
+    void deleteAll();
+}
@@ -0,0 +1,95 @@
+package com.ttt.safevault.data;
+
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 密码健康审计数据库实体
+ * 只保存由密码派生的事实（强度、带密钥的哈希、修改时间），不保存明文
+ */
+@Entity(tableName = "item_audit", indices = {@Index("passwordHash")})
+public class ItemAuditEntity {
+
+    // 对应 passwords 表的条目ID
+    @PrimaryKey
+    private int itemId;
+
+    // 强度分数
+    private int strengthScore;
+
+    // 是否为弱密码
+    private boolean weak;
+
+    // 是否出现在已导入的泄露密码数据中
+    private boolean breached;
+
+    // 密码的HMAC-SHA256（十六进制），用于识别重复密码，无密码时为null
+    private String passwordHash;
+
+    // 密码最近一次变化的时间戳（用于计算密码年龄）
+    private long passwordChangedAt;
+
+    // 计算时条目的更新时间戳，用于判断事实是否过期
+    private long itemUpdatedAt;
+
+    public ItemAuditEntity() {
+    }
+
+    // Getters and Setters
+    public int getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(int itemId) {
+        this.itemId = itemId;
+    }
+
+    public int getStrengthScore() {
+        return strengthScore;
+    }
+
+    public void setStrengthScore(int strengthScore) {
+        this.strengthScore = strengthScore;
+    }
+
+    public boolean isWeak() {
+        return weak;
+    }
+
+    public void setWeak(boolean weak) {
+        this.weak = weak;
+    }
+
+    public boolean isBreached() {
+        return breached;
+    }
+
+    public void setBreached(boolean breached) {
+        this.breached = breached;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+
+    public long getPasswordChangedAt() {
+        return passwordChangedAt;
+    }
+
+    public void setPasswordChangedAt(long passwordChangedAt) {
+        this.passwordChangedAt = passwordChangedAt;
+    }
+
+    public long getItemUpdatedAt() {
+        return itemUpdatedAt;
+    }
+
+    public void setItemUpdatedAt(long itemUpdatedAt) {
+        this.itemUpdatedAt = itemUpdatedAt;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ttt.safevault.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+/**
+ * 使用统计数据访问对象
+ */
+@Dao
+public interface ItemUsageDao {
+
+    @Query("SELECT * FROM item_usage")
+    List<ItemUsageEntity> getAll();
+
+    @Query("SELECT * FROM item_usage WHERE itemId = :itemId")
+    ItemUsageEntity getById(int itemId);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(ItemUsageEntity entity);
+
+    @Query("UPDATE item_usage SET useCount = useCount + :delta, " +
+           "lastUsedAt = MAX(lastUsedAt, :lastUsedAt) WHERE itemId = :itemId")
+    int increment(int itemId, int delta, long lastUsedAt);
+
+    @Query("DELETE FROM item_usage WHERE itemId = :itemId")
+    int deleteById(int itemId);
+
+    @Query("DELETE FROM item_usage")
+    void deleteAll();
+
+    /**
+     * 累加使用次数，记录不存在时插入
+     */
+    @Transaction
+    default void addUsage(int itemId, int delta, long lastUsedAt) {
+        if (increment(itemId, delta, lastUsedAt) == 0) {
+            insert(new ItemUsageEntity(itemId, lastUsedAt, delta));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ttt.safevault.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * 密码条目使用统计数据库实体
+ * 记录最近使用时间和使用次数，不包含任何敏感数据
+ */
+@Entity(tableName = "item_usage")
+public class ItemUsageEntity {
+
+    // 对应 passwords 表的条目ID
+    @PrimaryKey
+    private int itemId;
+
+    // 最近使用时间戳
+    private long lastUsedAt;
+
+    // 累计使用次数
+    private int useCount;
+
+    public ItemUsageEntity() {
+    }
+
+    public ItemUsageEntity(int itemId, long lastUsedAt, int useCount) {
+        this.itemId = itemId;
+        this.lastUsedAt = lastUsedAt;
+        this.useCount = useCount;
+    }
+
+    // Getters and Setters
+    public int getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(int itemId) {
+        this.itemId = itemId;
+    }
+
+    public long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(long lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
+
+    public int getUseCount() {
+        return useCount;
+    }
+
+    public void setUseCount(int useCount) {
+        this.useCount = useCount;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ItemUsageEntity{itemId=" + itemId + ", lastUsedAt=" + lastUsedAt +
+                ", useCount=" + useCount + '}';
+    }
+}
@@ -10,14 +10,18 @@ import java.util.List;
 
 /**
  * 密码数据访问对象
+ * 列表和单条查询都排除墓碑，同步相关查询包含墓碑
  */
 @Dao
 public interface PasswordDao {
 
-    @Query("SELECT * FROM passwords ORDER BY updatedAt DESC")
+    @Query("SELECT * FROM passwords WHERE deleted = 0 ORDER BY updatedAt DESC")
     List<EncryptedPasswordEntity> getAll();
 
-    @Query("SELECT * FROM passwords WHERE id = :id")
+    @Query("SELECT id, updatedAt FROM passwords WHERE deleted = 0")
+    List<ItemStamp> getAllStamps();
+
+    @Query("SELECT * FROM passwords WHERE id = :id AND deleted = 0")
     EncryptedPasswordEntity getById(int id);
 
     @Insert
@@ -32,9 +36,45 @@ public interface PasswordDao {
     @Query("DELETE FROM passwords WHERE id = :id")
     int deleteById(int id);
 
-    @Query("SELECT COUNT(*) FROM passwords")
+    @Query("SELECT COUNT(*) FROM passwords WHERE deleted = 0")
     int getCount();
 
     @Query("DELETE FROM passwords")
     void deleteAll();
+
+    /**
+     * 删除条目并留下墓碑：清空密文，修订号加一
+     */
+    @Query("UPDATE passwords SET deleted = 1, revision = revision + 1, updatedAt = :updatedAt, " +
+           "encryptedTitle = NULL, encryptedUsername = NULL, encryptedPassword = NULL, " +
+           "encryptedUrl = NULL, encryptedNotes = NULL, iv = NULL " +
+           "WHERE id = :id AND deleted = 0")
+    int markDeleted(int id, long updatedAt);
+
+    /**
+     * 按ID批量读取（包含墓碑），用于上传本地变更
+     */
+    @Query("SELECT * FROM passwords WHERE id IN (:ids)")
+    List<EncryptedPasswordEntity> getByIds(List<Integer> ids);
+
+    /**
+     * 按同步ID读取（包含墓碑），用于应用远端变更
+     */
+    @Query("SELECT * FROM passwords WHERE syncId = :syncId")
+    EncryptedPasswordEntity getBySyncId(String syncId);
+
+    /**
+     * 清理早于指定时间且已同步的墓碑
+     */
+    @Query("DELETE FROM passwords WHERE deleted = 1 AND updatedAt < :before " +
+           "AND id NOT IN (SELECT itemId FROM sync_changes)")
+    int purgeTombstones(long before);
+
+    /**
+     * 条目ID与更新时间，用于无需解密的增量比对
+     */
+    class ItemStamp {
+        public int id;
+        public long updatedAt;
+    }
 }
@@ -0,0 +1,84 @@
+package com.ttt.safevault.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * 本地分享记录数据访问对象
+ * 列表查询都是按索引的键集分页：从上一页最后一条的(创建时间, 分享ID)之后继续，
+ * 每页耗时与分享总数和已翻页数无关。第一页传 Long.MAX_VALUE 和空字符串。
+ */
+@Dao
+public interface ShareDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsert(ShareEntity entity);
+
+    @Query("SELECT * FROM shares WHERE shareId = :shareId")
+    ShareEntity getById(String shareId);
+
+    /**
+     * 我创建的分享，按创建时间倒序
+     */
+    @Query("SELECT * FROM shares WHERE fromUserId = :userId " +
+           "AND createdAt <= :beforeCreatedAt AND (createdAt < :beforeCreatedAt OR shareId < :beforeShareId) " +
+           "ORDER BY createdAt DESC, shareId DESC LIMIT :limit")
+    List<ShareEntity> getByFromUser(String userId, long beforeCreatedAt, String beforeShareId, int limit);
+
+    /**
+     * 我接收的分享（发给我的和直接分享），按创建时间倒序
+     * 两类分别在 (toUserId, createdAt, shareId) 索引上取一页再合并，避免OR导致全表扫描和排序
+     */
+    @Query("SELECT * FROM (SELECT * FROM shares WHERE toUserId = :userId " +
+           "AND createdAt <= :beforeCreatedAt AND (createdAt < :beforeCreatedAt OR shareId < :beforeShareId) " +
+           "ORDER BY createdAt DESC, shareId DESC LIMIT :limit) " +
+           "UNION ALL " +
+           "SELECT * FROM (SELECT * FROM shares WHERE toUserId IS NULL " +
+           "AND createdAt <= :beforeCreatedAt AND (createdAt < :beforeCreatedAt OR shareId < :beforeShareId) " +
+           "ORDER BY createdAt DESC, shareId DESC LIMIT :limit) " +
+           "ORDER BY createdAt DESC, shareId DESC LIMIT :limit")
+    List<ShareEntity> getReceived(String userId, long beforeCreatedAt, String beforeShareId, int limit);
+
+    @Query("UPDATE shares SET status = :status WHERE shareId = :shareId")
+    int updateStatus(String shareId, String status);
+
+    /**
+     * 把已过期但状态仍为活跃或等待中的分享标记为过期，并清除加密数据
+     * 按expireTime索引范围更新，用于进程启动时补处理停止期间到期的分享
+     */
+    @Query("UPDATE shares SET status = 'EXPIRED', encryptedData = NULL " +
+           "WHERE expireTime > 0 AND expireTime <= :now AND status IN ('ACTIVE', 'PENDING')")
+    int markExpired(long now);
+
+    /**
+     * 将指定分享标记为过期并清除加密数据
+     */
+    @Query("UPDATE shares SET status = 'EXPIRED', encryptedData = NULL " +
+           "WHERE shareId IN (:shareIds) AND status IN ('ACTIVE', 'PENDING')")
+    int expire(List<String> shareIds);
+
+    /**
+     * 尚未到期的分享，用于进程启动时重建到期时间轮
+     */
+    @Query("SELECT shareId, expireTime FROM shares " +
+           "WHERE expireTime > :now AND status IN ('ACTIVE', 'PENDING')")
+    List<ExpiryTuple> getPendingExpiries(long now);
+
+    @Query("DELETE FROM shares WHERE shareId = :shareId")
+    int deleteById(String shareId);
+
+    @Query("DELETE FROM shares")
+    void deleteAll();
+
+    /**
+     * 分享ID和到期时间
+     */
+    class ExpiryTuple {
+        public String shareId;
+        public long expireTime;
+    }
+}
@@ -0,0 +1,185 @@
+package com.ttt.safevault.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.ttt.safevault.model.PasswordShare;
+import com.ttt.safevault.model.SharePermission;
+import com.ttt.safevault.model.ShareStatus;
+
+/**
+ * 本地分享记录数据库实体
+ * 分享者、接收者索引带上创建时间和分享ID，按(创建时间, 分享ID)倒序的键集分页直接走索引
+ */
+@Entity(tableName = "shares", indices = {
+        @Index({"fromUserId", "createdAt", "shareId"}),
+        @Index({"toUserId", "createdAt", "shareId"}),
+        @Index("status"),
+        @Index("expireTime")
+})
+public class ShareEntity {
+
+    @PrimaryKey
+    @NonNull
+    private String shareId = "";
+
+    // 被分享的密码ID
+    private int passwordId;
+
+    // 分享者用户ID
+    private String fromUserId;
+
+    // 接收者用户ID（null表示直接分享）
+    private String toUserId;
+
+    // 加密的密码数据
+    private String encryptedData;
+
+    // 创建时间戳
+    private long createdAt;
+
+    // 过期时间戳（0表示永不过期）
+    private long expireTime;
+
+    // 分享权限
+    private boolean canView;
+    private boolean canSave;
+    private boolean revocable;
+
+    // 分享状态（ShareStatus名称）
+    private String status;
+
+    public ShareEntity() {
+    }
+
+    /**
+     * 从分享模型转换
+     */
+    public static ShareEntity fromShare(PasswordShare share) {
+        ShareEntity entity = new ShareEntity();
+        entity.setShareId(share.getShareId());
+        entity.setPasswordId(share.getPasswordId());
+        entity.setFromUserId(share.getFromUserId());
+        entity.setToUserId(share.getToUserId());
+        entity.setEncryptedData(share.getEncryptedData());
+        entity.setCreatedAt(share.getCreatedAt());
+        entity.setExpireTime(share.getExpireTime());
+        SharePermission permission = share.getPermission() != null ? share.getPermission() : new SharePermission();
+        entity.setCanView(permission.isCanView());
+        entity.setCanSave(permission.isCanSave());
+        entity.setRevocable(permission.isRevocable());
+        entity.setStatus(share.getStatus() != null ? share.getStatus().name() : ShareStatus.PENDING.name());
+        return entity;
+    }
+
+    /**
+     * 转换为分享模型
+     */
+    public PasswordShare toShare() {
+        PasswordShare share = new PasswordShare(shareId, passwordId, fromUserId, toUserId);
+        share.setEncryptedData(encryptedData);
+        share.setCreatedAt(createdAt);
+        share.setExpireTime(expireTime);
+        share.setPermission(new SharePermission(canView, canSave, revocable));
+        ShareStatus shareStatus;
+        try {
+            shareStatus = ShareStatus.valueOf(status);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            shareStatus = ShareStatus.PENDING;
+        }
+        share.setStatus(shareStatus);
+        return share;
+    }
+
+    // Getters and Setters
+    @NonNull
+    public String getShareId() {
+        return shareId;
+    }
+
+    public void setShareId(@NonNull String shareId) {
+        this.shareId = shareId;
+    }
+
+    public int getPasswordId() {
+        return passwordId;
+    }
+
+    public void setPasswordId(int passwordId) {
+        this.passwordId = passwordId;
+    }
+
+    public String getFromUserId() {
+        return fromUserId;
+    }
+
+    public void setFromUserId(String fromUserId) {
+        this.fromUserId = fromUserId;
+    }
+
+    public String getToUserId() {
+        return toUserId;
+    }
+
+    public void setToUserId(String toUserId) {
+        this.toUserId = toUserId;
+    }
+
+    public String getEncryptedData() {
+        return encryptedData;
+    }
+
+    public void setEncryptedData(String encryptedData) {
+        this.encryptedData = encryptedData;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getExpireTime() {
+        return expireTime;
+    }
+
+    public void setExpireTime(long expireTime) {
+        this.expireTime = expireTime;
+    }
+
+    public boolean isCanView() {
+        return canView;
+    }
+
+    public void setCanView(boolean canView) {
+        this.canView = canView;
+    }
+
+    public boolean isCanSave() {
+        return canSave;
+    }
+
+    public void setCanSave(boolean canSave) {
+        this.canSave = canSave;
+    }
+
+    public boolean isRevocable() {
+        return revocable;
+    }
+
+    public void setRevocable(boolean revocable) {
+        this.revocable = revocable;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ttt.safevault.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * 本地变更日志数据访问对象
+ */
+@Dao
+public interface SyncChangeDao {
+
+    /**
+     * 新增变更；条目已有待上传的变更时保留原来的baseRevision
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(SyncChangeEntity change);
+
+    @Query("UPDATE sync_changes SET revision = :revision WHERE itemId = :itemId")
+    int updateRevision(int itemId, long revision);
+
+    @Query("SELECT * FROM sync_changes WHERE itemId = :itemId")
+    SyncChangeEntity get(int itemId);
+
+    /**
+     * 按itemId分页读取待上传的变更
+     */
+    @Query("SELECT * FROM sync_changes WHERE itemId > :afterItemId ORDER BY itemId LIMIT :limit")
+    List<SyncChangeEntity> getPage(int afterItemId, int limit);
+
+    /**
+     * 上传成功：上传期间没有新修改的变更直接删除
+     */
+    @Query("DELETE FROM sync_changes WHERE itemId = :itemId AND revision = :revision")
+    int deleteIfUnchanged(int itemId, long revision);
+
+    /**
+     * 改为基于新的服务器修订号（上传成功但期间又有修改，或冲突后保留本地版本）
+     */
+    @Query("UPDATE sync_changes SET baseRevision = :baseRevision WHERE itemId = :itemId")
+    int rebase(int itemId, long baseRevision);
+
+    @Query("DELETE FROM sync_changes WHERE itemId = :itemId")
+    int delete(int itemId);
+
+    /**
+     * 把所有未删除的条目作为新条目加入变更日志（换账号后整库上传）
+     */
+    @Query("INSERT OR REPLACE INTO sync_changes (itemId, baseRevision, revision) " +
+           "SELECT id, 0, revision FROM passwords WHERE deleted = 0")
+    void enqueueAll();
+
+    @Query("SELECT COUNT(*) FROM sync_changes")
+    int getCount();
+
+    @Query("DELETE FROM sync_changes")
+    void deleteAll();
+}
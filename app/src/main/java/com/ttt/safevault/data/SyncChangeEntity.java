@@ -0,0 +1,55 @@
+package com.ttt.safevault.data;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * 本地变更日志实体
+ * 每个待上传的条目一行，同一条目多次修改合并为一行：
+ * baseRevision是服务器上已有的修订号，revision是本地最新修订号
+ */
+@Entity(tableName = "sync_changes")
+public class SyncChangeEntity {
+
+    @PrimaryKey
+    private int itemId;
+
+    // 变更基于的服务器修订号，0表示服务器上还没有该条目
+    private long baseRevision;
+
+    // 本地最新修订号
+    private long revision;
+
+    public SyncChangeEntity() {
+    }
+
+    public SyncChangeEntity(int itemId, long baseRevision, long revision) {
+        this.itemId = itemId;
+        this.baseRevision = baseRevision;
+        this.revision = revision;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(int itemId) {
+        this.itemId = itemId;
+    }
+
+    public long getBaseRevision() {
+        return baseRevision;
+    }
+
+    public void setBaseRevision(long baseRevision) {
+        this.baseRevision = baseRevision;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+}
@@ -0,0 +1,54 @@
+package com.ttt.safevault.dto;
+
+/**
+ * 包装后的密码库数据密钥
+ * 数据密钥用主密码 + salt派生的密钥加密，服务器无法解开
+ */
+public class VaultKey {
+    private String keyId;           // 数据密钥ID，修改主密码后重新包装时不变
+    private String encryptedKey;    // 包装后的数据密钥（Base64）
+    private String iv;
+    private String salt;            // 派生包装密钥的盐值（Base64）
+
+    public VaultKey() {
+    }
+
+    public VaultKey(String keyId, String encryptedKey, String iv, String salt) {
+        this.keyId = keyId;
+        this.encryptedKey = encryptedKey;
+        this.iv = iv;
+        this.salt = salt;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    public String getEncryptedKey() {
+        return encryptedKey;
+    }
+
+    public void setEncryptedKey(String encryptedKey) {
+        this.encryptedKey = encryptedKey;
+    }
+
+    public String getIv() {
+        return iv;
+    }
+
+    public void setIv(String iv) {
+        this.iv = iv;
+    }
+
+    public String getSalt() {
+        return salt;
+    }
+
+    public void setSalt(String salt) {
+        this.salt = salt;
+    }
+}
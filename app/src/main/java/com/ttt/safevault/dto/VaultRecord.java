@@ -0,0 +1,156 @@
+package com.ttt.safevault.dto;
+
+/**
+ * 密码库同步记录
+ * 只包含密文和同步元数据，服务器无法解密
+ */
+public class VaultRecord {
+    private String syncId;
+    private long revision;          // 该记录的修订号
+    private long baseRevision;      // 上传时：本地修改基于的服务器修订号，0表示新条目
+    private boolean deleted;        // 墓碑
+    private long updatedAt;
+    private String deviceId;        // 最后修改的设备
+    private String encryptedTitle;
+    private String encryptedUsername;
+    private String encryptedPassword;
+    private String encryptedUrl;
+    private String encryptedNotes;
+    // 各字段的版本戳（混合逻辑时钟@设备ID），按字段合并并发修改
+    private String titleStamp;
+    private String usernameStamp;
+    private String passwordStamp;
+    private String urlStamp;
+    private String notesStamp;
+
+    public VaultRecord() {
+    }
+
+    public String getSyncId() {
+        return syncId;
+    }
+
+    public void setSyncId(String syncId) {
+        this.syncId = syncId;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public long getBaseRevision() {
+        return baseRevision;
+    }
+
+    public void setBaseRevision(long baseRevision) {
+        this.baseRevision = baseRevision;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getEncryptedTitle() {
+        return encryptedTitle;
+    }
+
+    public void setEncryptedTitle(String encryptedTitle) {
+        this.encryptedTitle = encryptedTitle;
+    }
+
+    public String getEncryptedUsername() {
+        return encryptedUsername;
+    }
+
+    public void setEncryptedUsername(String encryptedUsername) {
+        this.encryptedUsername = encryptedUsername;
+    }
+
+    public String getEncryptedPassword() {
+        return encryptedPassword;
+    }
+
+    public void setEncryptedPassword(String encryptedPassword) {
+        this.encryptedPassword = encryptedPassword;
+    }
+
+    public String getEncryptedUrl() {
+        return encryptedUrl;
+    }
+
+    public void setEncryptedUrl(String encryptedUrl) {
+        this.encryptedUrl = encryptedUrl;
+    }
+
+    public String getEncryptedNotes() {
+        return encryptedNotes;
+    }
+
+    public void setEncryptedNotes(String encryptedNotes) {
+        this.encryptedNotes = encryptedNotes;
+    }
+
+    public String getTitleStamp() {
+        return titleStamp;
+    }
+
+    public void setTitleStamp(String titleStamp) {
+        this.titleStamp = titleStamp;
+    }
+
+    public String getUsernameStamp() {
+        return usernameStamp;
+    }
+
+    public void setUsernameStamp(String usernameStamp) {
+        this.usernameStamp = usernameStamp;
+    }
+
+    public String getPasswordStamp() {
+        return passwordStamp;
+    }
+
+    public void setPasswordStamp(String passwordStamp) {
+        this.passwordStamp = passwordStamp;
+    }
+
+    public String getUrlStamp() {
+        return urlStamp;
+    }
+
+    public void setUrlStamp(String urlStamp) {
+        this.urlStamp = urlStamp;
+    }
+
+    public String getNotesStamp() {
+        return notesStamp;
+    }
+
+    public void setNotesStamp(String notesStamp) {
+        this.notesStamp = notesStamp;
+    }
+}
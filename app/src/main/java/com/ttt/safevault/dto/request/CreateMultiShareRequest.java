@@ -0,0 +1,101 @@
+package com.ttt.safevault.dto.request;
+
+import com.ttt.safevault.model.SharePermission;
+
+import java.util.List;
+
+/**
+ * 多接收方分享请求DTO
+ * 密码数据只用内容密钥加密一次，每个接收方只携带封装后的内容密钥
+ */
+public class CreateMultiShareRequest {
+    private String passwordId;
+    private String encryptedPayload;      // 内容密钥加密的密码数据（Base64）
+    private List<Recipient> recipients;   // 接收方及其封装的内容密钥
+    private Integer expireInMinutes;      // 过期时间（分钟）
+    private SharePermission permission;   // 分享权限
+    private String shareType;             // 分享类型: USER_TO_USER, NEARBY
+
+    public CreateMultiShareRequest() {
+    }
+
+    public String getPasswordId() {
+        return passwordId;
+    }
+
+    public void setPasswordId(String passwordId) {
+        this.passwordId = passwordId;
+    }
+
+    public String getEncryptedPayload() {
+        return encryptedPayload;
+    }
+
+    public void setEncryptedPayload(String encryptedPayload) {
+        this.encryptedPayload = encryptedPayload;
+    }
+
+    public List<Recipient> getRecipients() {
+        return recipients;
+    }
+
+    public void setRecipients(List<Recipient> recipients) {
+        this.recipients = recipients;
+    }
+
+    public Integer getExpireInMinutes() {
+        return expireInMinutes;
+    }
+
+    public void setExpireInMinutes(Integer expireInMinutes) {
+        this.expireInMinutes = expireInMinutes;
+    }
+
+    public SharePermission getPermission() {
+        return permission;
+    }
+
+    public void setPermission(SharePermission permission) {
+        this.permission = permission;
+    }
+
+    public String getShareType() {
+        return shareType;
+    }
+
+    public void setShareType(String shareType) {
+        this.shareType = shareType;
+    }
+
+    /**
+     * 单个接收方
+     */
+    public static class Recipient {
+        private String toUserId;
+        private String wrappedKey;    // 用接收方公钥封装的内容密钥（Base64分享信封）
+
+        public Recipient() {
+        }
+
+        public Recipient(String toUserId, String wrappedKey) {
+            this.toUserId = toUserId;
+            this.wrappedKey = wrappedKey;
+        }
+
+        public String getToUserId() {
+            return toUserId;
+        }
+
+        public void setToUserId(String toUserId) {
+            this.toUserId = toUserId;
+        }
+
+        public String getWrappedKey() {
+            return wrappedKey;
+        }
+
+        public void setWrappedKey(String wrappedKey) {
+            this.wrappedKey = wrappedKey;
+        }
+    }
+}
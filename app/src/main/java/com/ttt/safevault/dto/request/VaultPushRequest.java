@@ -0,0 +1,38 @@
+package com.ttt.safevault.dto.request;
+
+import com.ttt.safevault.dto.VaultRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上传本地变更请求DTO
+ */
+public class VaultPushRequest {
+    private String deviceId;
+    private List<VaultRecord> records = new ArrayList<>();
+
+    public VaultPushRequest() {
+    }
+
+    public VaultPushRequest(String deviceId, List<VaultRecord> records) {
+        this.deviceId = deviceId;
+        this.records = records;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public List<VaultRecord> getRecords() {
+        return records;
+    }
+
+    public void setRecords(List<VaultRecord> records) {
+        this.records = records;
+    }
+}
@@ -0,0 +1,31 @@
+package com.ttt.safevault.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多接收方分享响应DTO
+ */
+public class MultiShareResponse {
+    private List<ShareResponse> shares = new ArrayList<>();          // 每个接收方一条分享
+    private List<String> failedUserIds = new ArrayList<>();         // 未能分享的接收方（无可用公钥等）
+
+    public MultiShareResponse() {
+    }
+
+    public List<ShareResponse> getShares() {
+        return shares;
+    }
+
+    public void setShares(List<ShareResponse> shares) {
+        this.shares = shares;
+    }
+
+    public List<String> getFailedUserIds() {
+        return failedUserIds;
+    }
+
+    public void setFailedUserIds(List<String> failedUserIds) {
+        this.failedUserIds = failedUserIds;
+    }
+}
@@ -16,6 +16,8 @@ public class ReceivedShareResponse {
     private String shareType;        // DIRECT, USER_TO_USER, NEARBY
     private long createdAt;
     private long expiresAt;
+    private String encryptedPayload; // 多接收方分享：内容密钥加密的密码数据（Base64）
+    private String wrappedKey;       // 多接收方分享：发给本机的内容密钥信封（Base64）
 
     public ReceivedShareResponse() {
     }
@@ -141,4 +143,20 @@ public class ReceivedShareResponse {
     public void setToUserId(String toUserId) {
         this.toUserId = toUserId;
     }
+
+    public String getEncryptedPayload() {
+        return encryptedPayload;
+    }
+
+    public void setEncryptedPayload(String encryptedPayload) {
+        this.encryptedPayload = encryptedPayload;
+    }
+
+    public String getWrappedKey() {
+        return wrappedKey;
+    }
+
+    public void setWrappedKey(String wrappedKey) {
+        this.wrappedKey = wrappedKey;
+    }
 }
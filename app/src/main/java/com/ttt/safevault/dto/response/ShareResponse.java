@@ -7,6 +7,7 @@ public class ShareResponse {
     private String shareId;
     private String shareToken;
     private long expiresAt;
+    private String toUserId;      // 接收方用户ID（多接收方分享时返回）
 
     public ShareResponse() {
     }
@@ -34,4 +35,12 @@ public class ShareResponse {
     public void setExpiresAt(long expiresAt) {
         this.expiresAt = expiresAt;
     }
+
+    public String getToUserId() {
+        return toUserId;
+    }
+
+    public void setToUserId(String toUserId) {
+        this.toUserId = toUserId;
+    }
 }
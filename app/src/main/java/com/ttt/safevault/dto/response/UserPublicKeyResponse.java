@@ -0,0 +1,28 @@
+package com.ttt.safevault.dto.response;
+
+/**
+ * 用户公钥响应DTO
+ */
+public class UserPublicKeyResponse {
+    private String userId;
+    private String publicKey;     // X.509编码公钥（Base64）
+
+    public UserPublicKeyResponse() {
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ttt.safevault.dto.response;
+
+import com.ttt.safevault.dto.VaultRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 拉取变更响应DTO
+ */
+public class VaultChangesResponse {
+    private List<VaultRecord> records = new ArrayList<>();   // 游标之后变化的记录（每个条目只返回最新版本）
+    private long cursor;                                      // 下次拉取使用的游标
+    private boolean hasMore;                                  // 是否还有下一页
+
+    public VaultChangesResponse() {
+    }
+
+    public List<VaultRecord> getRecords() {
+        return records;
+    }
+
+    public void setRecords(List<VaultRecord> records) {
+        this.records = records;
+    }
+
+    public long getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(long cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
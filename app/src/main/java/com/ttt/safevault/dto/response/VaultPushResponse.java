@@ -0,0 +1,36 @@
+package com.ttt.safevault.dto.response;
+
+import com.ttt.safevault.dto.VaultRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上传本地变更响应DTO
+ */
+public class VaultPushResponse {
+    // 基于过期修订号而被拒绝的记录，内容为服务器上的当前版本
+    private List<VaultRecord> conflicts = new ArrayList<>();
+
+    // 服务器为被接受的记录分配的序号（升序）
+    private List<Long> sequences = new ArrayList<>();
+
+    public VaultPushResponse() {
+    }
+
+    public List<VaultRecord> getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(List<VaultRecord> conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    public List<Long> getSequences() {
+        return sequences;
+    }
+
+    public void setSequences(List<Long> sequences) {
+        this.sequences = sequences;
+    }
+}
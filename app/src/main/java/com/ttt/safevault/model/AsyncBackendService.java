@@ -0,0 +1,90 @@
+package com.ttt.safevault.model;
+
+import com.ttt.safevault.dto.response.AuthResponse;
+import com.ttt.safevault.dto.response.MultiShareResponse;
+import com.ttt.safevault.dto.response.NearbyUserResponse;
+import com.ttt.safevault.dto.response.ReceivedShareResponse;
+import com.ttt.safevault.dto.response.ShareResponse;
+
+import java.util.List;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * 云端接口的异步版本
+ * 直接组合Retrofit的Rx调用，网络请求在OkHttp的调度器上执行，等待期间不占用线程；
+ * 订阅者取消订阅即可取消请求。失败通过onError返回，不返回null。
+ */
+public interface AsyncBackendService {
+
+    /**
+     * 用户注册，成功后保存Token
+     */
+    Single<AuthResponse> register(String username, String password, String displayName);
+
+    /**
+     * 用户登录，成功后保存Token
+     */
+    Single<AuthResponse> login(String username, String password);
+
+    /**
+     * 创建云端分享
+     * @param toUserId 接收方用户ID（null表示直接分享）
+     * @param shareType 分享类型：DIRECT, USER_TO_USER, NEARBY
+     */
+    Single<ShareResponse> createCloudShare(int passwordId, String toUserId, int expireInMinutes,
+                                           SharePermission permission, String shareType);
+
+    /**
+     * 一次性分享给多个接收方，接收方公钥查询与本地解密并行
+     */
+    Single<MultiShareResponse> createMultiRecipientShare(int passwordId, List<String> toUserIds,
+                                                         int expireInMinutes, SharePermission permission,
+                                                         String shareType);
+
+    /**
+     * 接收云端分享，多接收方分享会解密后填入passwordData
+     */
+    Single<ReceivedShareResponse> receiveCloudShare(String shareId);
+
+    /**
+     * 撤销云端分享
+     */
+    Completable revokeCloudShare(String shareId);
+
+    /**
+     * 保存云端分享到本地
+     */
+    Completable saveCloudShare(String shareId);
+
+    /**
+     * 获取我创建的云端分享列表
+     */
+    Single<List<ReceivedShareResponse>> getMyCloudShares();
+
+    /**
+     * 获取我接收的云端分享列表
+     */
+    Single<List<ReceivedShareResponse>> getReceivedCloudShares();
+
+    /**
+     * 注册位置
+     */
+    Completable registerLocation(double latitude, double longitude, double radius);
+
+    /**
+     * 获取附近用户
+     */
+    Single<List<NearbyUserResponse>> getNearbyUsers(double latitude, double longitude, double radius);
+
+    /**
+     * 发送心跳
+     */
+    Completable sendHeartbeat();
+
+    /**
+     * 增量同步密码库：拉取服务器变更并上传本地变更
+     */
+    Completable syncVault();
+}
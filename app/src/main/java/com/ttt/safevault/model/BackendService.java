@@ -43,6 +43,13 @@ public interface BackendService {
      */
     int saveItem(PasswordItem item);
 
+    /**
+     * 在一个事务中批量保存条目（用于批量分享导入）
+     * @param items 要保存的条目
+     * @return 成功保存的条目数，失败返回-1
+     */
+    int saveItems(List<PasswordItem> items);
+
     /**
      * 删除密码条目
      * @param id 要删除的条目ID
@@ -146,6 +153,33 @@ public interface BackendService {
      */
     int getAutoLockTimeout();
 
+    /**
+     * 记录一次条目使用（自动填充选择、复制、打开详情）
+     * 写入会被合并后批量保存
+     * @param id 条目ID
+     */
+    void recordItemUsage(int id);
+
+    /**
+     * 获取所有条目的使用统计，用于排序
+     * @return itemId -> 使用统计
+     */
+    java.util.Map<Integer, ItemUsage> getItemUsageStats();
+
+    /**
+     * 离线检查密码是否出现在已导入的泄露密码数据中
+     * @param password 要检查的密码
+     * @return true表示可能已泄露（存在极小的误报概率）
+     */
+    boolean isPasswordBreached(String password);
+
+    /**
+     * 从本地文件导入泄露密码数据（预构建过滤器或SHA-1哈希列表），追加到已有数据
+     * @param importPath 导入文件路径
+     * @return true表示导入成功
+     */
+    boolean importBreachedPasswords(String importPath);
+
     /**
      * 应用统计信息内部类
      */
@@ -154,12 +188,26 @@ public interface BackendService {
         public int weakPasswords;
         public int duplicatePasswords;
         public int lastBackupDays;
+        public int oldPasswords;
+        public int breachedPasswords;
 
         public AppStats(int totalItems, int weakPasswords, int duplicatePasswords, int lastBackupDays) {
+            this(totalItems, weakPasswords, duplicatePasswords, lastBackupDays, 0);
+        }
+
+        public AppStats(int totalItems, int weakPasswords, int duplicatePasswords, int lastBackupDays,
+                        int oldPasswords) {
             this.totalItems = totalItems;
             this.weakPasswords = weakPasswords;
             this.duplicatePasswords = duplicatePasswords;
             this.lastBackupDays = lastBackupDays;
+            this.oldPasswords = oldPasswords;
+        }
+
+        public AppStats(int totalItems, int weakPasswords, int duplicatePasswords, int lastBackupDays,
+                        int oldPasswords, int breachedPasswords) {
+            this(totalItems, weakPasswords, duplicatePasswords, lastBackupDays, oldPasswords);
+            this.breachedPasswords = breachedPasswords;
         }
     }
 
@@ -260,12 +308,28 @@ public interface BackendService {
      */
     List<PasswordShare> getMyShares();
 
+    /**
+     * 分页获取我创建的分享列表（按创建时间倒序）
+     * @param after 上一页的最后一条，null表示第一页
+     * @param limit 最大条数
+     * @return 分享列表
+     */
+    List<PasswordShare> getMyShares(@androidx.annotation.Nullable PasswordShare after, int limit);
+
     /**
      * 获取我接收的分享列表
      * @return 分享列表
      */
     List<PasswordShare> getReceivedShares();
 
+    /**
+     * 分页获取我接收的分享列表（按创建时间倒序）
+     * @param after 上一页的最后一条，null表示第一页
+     * @param limit 最大条数
+     * @return 分享列表
+     */
+    List<PasswordShare> getReceivedShares(@androidx.annotation.Nullable PasswordShare after, int limit);
+
     /**
      * 将接收的分享保存到本地
      * @param shareId 分享ID
@@ -319,6 +383,22 @@ public interface BackendService {
      */
     PasswordItem receiveOfflineShare(String qrContent);
 
+    /**
+     * 创建批量分享归档（多个条目压缩加密后通过一次蓝牙连接传输）
+     * @param passwordIds 要分享的密码ID
+     * @param expireInMinutes 过期时间（分钟），0表示永不过期
+     * @param permission 分享权限
+     * @return 归档数据，失败返回null
+     */
+    byte[] createBatchShare(int[] passwordIds, int expireInMinutes, SharePermission permission);
+
+    /**
+     * 接收批量分享归档
+     * @param archive 归档数据
+     * @return 解密后的条目列表，失败返回null
+     */
+    List<PasswordItem> receiveBatchShare(byte[] archive);
+
     // ========== 新增：云端分享接口（后端API集成）==========
 
     /**
@@ -338,13 +418,6 @@ public interface BackendService {
      */
     com.ttt.safevault.dto.response.AuthResponse login(String username, String password);
 
-    /**
-     * 刷新Token
-     * @param refreshToken 刷新Token
-     * @return AuthResponse 新的token信息
-     */
-    com.ttt.safevault.dto.response.AuthResponse refreshToken(String refreshToken);
-
     /**
      * 创建云端分享（通过后端API）
      * @param passwordId 密码ID
@@ -358,6 +431,22 @@ public interface BackendService {
                                                                    int expireInMinutes, SharePermission permission,
                                                                    String shareType);
 
+    /**
+     * 一次性分享给多个接收方（通过后端API）
+     * 密码数据只加密一次，每个接收方只封装内容密钥，所有接收方在一个请求中提交
+     * @param passwordId 密码ID
+     * @param toUserIds 接收方用户ID列表
+     * @param expireInMinutes 过期时间（分钟）
+     * @param permission 分享权限
+     * @param shareType 分享类型：USER_TO_USER, NEARBY
+     * @return MultiShareResponse 每个接收方的分享及未能分享的接收方，失败返回null
+     */
+    com.ttt.safevault.dto.response.MultiShareResponse createMultiRecipientShare(int passwordId,
+                                                                             java.util.List<String> toUserIds,
+                                                                             int expireInMinutes,
+                                                                             SharePermission permission,
+                                                                             String shareType);
+
     /**
      * 接收云端分享
      * @param shareId 分享ID或Token
@@ -417,6 +506,12 @@ public interface BackendService {
      */
     boolean isCloudLoggedIn();
 
+    /**
+     * 检查密码库同步是否因数据密钥不一致而暂停，需要用其他设备的主密码解锁后恢复
+     * @return true表示同步已暂停
+     */
+    boolean isVaultSyncPaused();
+
     /**
      * 登出云端服务
      */
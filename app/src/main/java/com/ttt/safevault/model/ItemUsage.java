@@ -0,0 +1,88 @@
+package com.ttt.safevault.model;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 密码条目使用统计
+ * 用于列表、搜索和自动填充的排序
+ */
+public class ItemUsage {
+
+    // 热度衰减半衰期：14天
+    private static final double HALF_LIFE_MILLIS = 14d * 24 * 60 * 60 * 1000;
+
+    private final int itemId;
+    private final long lastUsedAt;
+    private final int useCount;
+
+    public ItemUsage(int itemId, long lastUsedAt, int useCount) {
+        this.itemId = itemId;
+        this.lastUsedAt = lastUsedAt;
+        this.useCount = useCount;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public int getUseCount() {
+        return useCount;
+    }
+
+    /**
+     * 合并一次新的使用记录
+     */
+    public ItemUsage plus(int count, long usedAt) {
+        return new ItemUsage(itemId, Math.max(lastUsedAt, usedAt), useCount + count);
+    }
+
+    /**
+     * 计算热度分数（使用次数按最近使用时间指数衰减）
+     *
+     * @param now 当前时间戳
+     * @return 分数越高越靠前
+     */
+    public double getScore(long now) {
+        if (useCount <= 0) {
+            return 0;
+        }
+        long age = Math.max(0, now - lastUsedAt);
+        return useCount * Math.pow(0.5, age / HALF_LIFE_MILLIS);
+    }
+
+    /**
+     * 按热度分数降序排序（稳定排序，分数相同保持原顺序）
+     *
+     * @param items 要排序的条目
+     * @param stats 使用统计（itemId -> ItemUsage）
+     */
+    public static void sortByScore(List<PasswordItem> items, Map<Integer, ItemUsage> stats) {
+        if (items == null || items.size() < 2 || stats == null || stats.isEmpty()) {
+            return;
+        }
+        // 排序前固定分数：stats 可能是实时更新的快照，排序中途分数变化会破坏比较器的一致性
+        long now = System.currentTimeMillis();
+        Map<Integer, Double> scores = new HashMap<>(items.size() * 2);
+        for (PasswordItem item : items) {
+            ItemUsage usage = stats.get(item.getId());
+            scores.put(item.getId(), usage != null ? usage.getScore(now) : 0d);
+        }
+        items.sort(Comparator.comparingDouble((PasswordItem item) -> scores.get(item.getId())).reversed());
+    }
+
+    @Override
+    public String toString() {
+        return "ItemUsage{" +
+                "itemId=" + itemId +
+                ", lastUsedAt=" + lastUsedAt +
+                ", useCount=" + useCount +
+                '}';
+    }
+}
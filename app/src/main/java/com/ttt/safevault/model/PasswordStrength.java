@@ -5,18 +5,24 @@ package com.ttt.safevault.model;
  * 使用Java 17的record特性，自动生成equals、hashCode、toString等方法
  */
 public record PasswordStrength(
-    int score,          // 强度分数 (0-5)
+    int score,          // 强度分数 (0-4)，与 PasswordStrengthEstimator 的分数一致
     Level level,        // 强度等级
-    String description  // 描述文本
+    String description, // 描述文本
+    double crackTimeSeconds // 离线破解预计时间（秒），-1 表示未估算
 ) {
 
+    public PasswordStrength(int score, Level level, String description) {
+        this(score, level, description, -1);
+    }
+
     /**
      * 密码强度枚举
      */
     public enum Level {
         WEAK(0, "弱", "密码过于简单，容易被破解"),
         MEDIUM(1, "中", "密码有一定强度，建议增加复杂度"),
-        STRONG(2, "强", "密码强度良好");
+        STRONG(2, "强", "密码强度良好"),
+        VERY_STRONG(3, "很强", "密码强度很高");
 
         private final int value;
         private final String label;
@@ -40,6 +46,13 @@ public record PasswordStrength(
         return new PasswordStrength(0, Level.WEAK, "密码强度：弱");
     }
 
+    /**
+     * 静态工厂方法 - 创建已泄露密码的强度（无论复杂度如何都视为弱）
+     */
+    public static PasswordStrength breached() {
+        return new PasswordStrength(0, Level.WEAK, "密码强度：弱（该密码已出现在泄露数据中）");
+    }
+
     /**
      * 静态工厂方法 - 创建中等密码强度
      */
@@ -67,8 +80,8 @@ public record PasswordStrength(
      * 紧凑构造器 - 用于验证
      */
     public PasswordStrength {
-        if (score < 0 || score > 5) {
-            throw new IllegalArgumentException("分数必须在0-5之间");
+        if (score < 0 || score > 4) {
+            throw new IllegalArgumentException("分数必须在0-4之间");
         }
         if (level == null) {
             throw new IllegalArgumentException("强度等级不能为空");
@@ -82,7 +95,7 @@ public record PasswordStrength(
         return switch (level) {
             case WEAK -> "建议改进：\n• 使用至少12个字符\n• 包含大小写字母\n• 添加数字和特殊符号\n• 避免使用常见词汇";
             case MEDIUM -> "建议：\n• 增加密码长度\n• 添加更多特殊字符";
-            case STRONG -> "密码强度良好，请继续保持！";
+            case STRONG, VERY_STRONG -> "密码强度良好，请继续保持！";
         };
     }
 }
\ No newline at end of file
@@ -44,4 +44,7 @@ public class ApiConstants {
     public static final int CONNECT_TIMEOUT = 30;
     public static final int READ_TIMEOUT = 30;
     public static final int WRITE_TIMEOUT = 30;
+
+    // WebSocket Ping帧间隔（秒），超过该时间未收到Pong即视为断线
+    public static final int WS_PING_INTERVAL = 20;
 }
@@ -3,6 +3,7 @@ package com.ttt.safevault.network;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.io.IOException;
 
@@ -12,7 +13,8 @@ import okhttp3.Response;
 
 /**
  * 认证拦截器
- * 自动添加Authorization头，处理401错误
+ * 自动添加Authorization头，Token即将过期时先刷新；
+ * 收到401时通过TokenManager单飞刷新，并发的401请求等待同一次刷新后用新Token重试
  */
 public class AuthInterceptor implements Interceptor {
     private static final String TAG = "AuthInterceptor";
@@ -32,51 +34,28 @@ public class AuthInterceptor implements Interceptor {
             return chain.proceed(original);
         }
         
-        // 添加Authorization头
-        String token = tokenManager.getAccessToken();
-        Request.Builder requestBuilder = original.newBuilder();
+        String token = tokenManager.getValidAccessToken();
+        Response response = chain.proceed(withToken(original, token));
         
-        if (token != null) {
-            requestBuilder.header("Authorization", "Bearer " + token);
-        }
-        
-        Request request = requestBuilder.build();
-        Response response = chain.proceed(request);
-        
-        // 处理401错误 - Token过期
+        // 处理401错误 - Token过期或被撤销
         if (response.code() == 401 && token != null) {
-            Log.d(TAG, "Token expired, attempting to refresh");
-            response.close();
-            
-            // 尝试刷新Token (同步方式)
-            try {
-                String newToken = refreshTokenSync();
-                if (newToken != null) {
-                    // 使用新Token重试请求
-                    Request newRequest = original.newBuilder()
-                        .header("Authorization", "Bearer " + newToken)
-                        .build();
-                    return chain.proceed(newRequest);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Failed to refresh token", e);
+            Log.d(TAG, "Unauthorized, refreshing token");
+            String newToken = tokenManager.refreshAfterUnauthorized(token);
+            if (newToken != null && !newToken.equals(token)) {
+                response.close();
+                return chain.proceed(withToken(original, newToken));
             }
         }
         
         return response;
     }
-    
-    /**
-     * 同步刷新Token
-     */
-    private String refreshTokenSync() {
-        try {
-            // 这里需要同步执行刷新操作
-            // 实际实现中可能需要使用CountDownLatch或其他同步机制
-            return tokenManager.getAccessToken();
-        } catch (Exception e) {
-            Log.e(TAG, "Sync token refresh failed", e);
-            return null;
+
+    private static Request withToken(Request request, @Nullable String token) {
+        if (token == null) {
+            return request;
         }
+        return request.newBuilder()
+            .header("Authorization", "Bearer " + token)
+            .build();
     }
 }
@@ -0,0 +1,44 @@
+package com.ttt.safevault.network;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * 请求体压缩拦截器
+ * 只压缩声明了Content-Encoding: gzip的请求（见VaultServiceApi），压缩后带上长度
+ */
+public class GzipRequestInterceptor implements Interceptor {
+
+    public static final String HEADER = "Content-Encoding: gzip";
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request original = chain.request();
+        RequestBody body = original.body();
+        if (body == null || !"gzip".equals(original.header("Content-Encoding"))) {
+            return chain.proceed(original);
+        }
+
+        Buffer compressed = new Buffer();
+        try (BufferedSink gzip = Okio.buffer(new GzipSink(compressed))) {
+            body.writeTo(gzip);
+        }
+        MediaType contentType = body.contentType();
+        RequestBody gzipped = RequestBody.create(compressed.readByteString(), contentType);
+        return chain.proceed(original.newBuilder()
+            .method(original.method(), gzipped)
+            .build());
+    }
+}
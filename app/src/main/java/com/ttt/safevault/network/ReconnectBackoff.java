@@ -0,0 +1,47 @@
+package com.ttt.safevault.network;
+
+import java.util.Random;
+
+/**
+ * 重连退避
+ * 指数退避加抖动：第n次等待时间在[上限/2, 上限]中均匀取值，上限为min(最大值, 基础值*2^n)，
+ * 大量客户端同时断线后不会在同一时刻重连。
+ * 非线程安全，由调用方在单一线程上使用。
+ */
+final class ReconnectBackoff {
+
+    // 超过该次数后上限已封顶，避免移位溢出
+    private static final int MAX_SHIFT = 20;
+
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Random random;
+    private int attempt;
+
+    ReconnectBackoff(long baseDelayMs, long maxDelayMs) {
+        this(baseDelayMs, maxDelayMs, new Random());
+    }
+
+    ReconnectBackoff(long baseDelayMs, long maxDelayMs, Random random) {
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.random = random;
+    }
+
+    /**
+     * 下一次重连前的等待时间（毫秒）
+     */
+    long nextDelay() {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt, MAX_SHIFT));
+        attempt++;
+        long half = ceiling / 2;
+        return half + (long) (random.nextDouble() * (ceiling - half + 1));
+    }
+
+    /**
+     * 连接成功或网络恢复后重新从基础值开始
+     */
+    void reset() {
+        attempt = 0;
+    }
+}
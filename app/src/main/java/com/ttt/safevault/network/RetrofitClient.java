@@ -8,6 +8,7 @@ import com.google.gson.GsonBuilder;
 import com.ttt.safevault.network.api.AuthServiceApi;
 import com.ttt.safevault.network.api.DiscoveryServiceApi;
 import com.ttt.safevault.network.api.ShareServiceApi;
+import com.ttt.safevault.network.api.VaultServiceApi;
 
 import java.security.cert.X509Certificate;
 import java.util.concurrent.TimeUnit;
@@ -30,10 +31,12 @@ public class RetrofitClient {
     private static RetrofitClient instance;
     private final Retrofit retrofit;
     private final TokenManager tokenManager;
+    private final OkHttpClient webSocketClient;
 
     private AuthServiceApi authServiceApi;
     private ShareServiceApi shareServiceApi;
     private DiscoveryServiceApi discoveryServiceApi;
+    private VaultServiceApi vaultServiceApi;
 
     private RetrofitClient(Context context) {
         tokenManager = TokenManager.getInstance(context);
@@ -78,6 +81,8 @@ public class RetrofitClient {
         OkHttpClient.Builder okHttpBuilder = new OkHttpClient.Builder()
                 .addInterceptor(loggingInterceptor)
                 .addInterceptor(authInterceptor)
+                // 压缩在认证之后，认证重试时重新压缩原始请求体
+                .addInterceptor(new GzipRequestInterceptor())
                 .connectTimeout(ApiConstants.CONNECT_TIMEOUT, TimeUnit.SECONDS)
                 .readTimeout(ApiConstants.READ_TIMEOUT, TimeUnit.SECONDS)
                 .writeTimeout(ApiConstants.WRITE_TIMEOUT, TimeUnit.SECONDS);
@@ -89,6 +94,16 @@ public class RetrofitClient {
         }
 
         OkHttpClient okHttpClient = okHttpBuilder.build();
+
+        // WebSocket客户端：只共享连接池和调度器，不带日志/认证拦截器，使用系统默认的证书校验；
+        // 由OkHttp发送Ping帧检测断线，长连接上不设读超时
+        webSocketClient = new OkHttpClient.Builder()
+            .connectionPool(okHttpClient.connectionPool())
+            .dispatcher(okHttpClient.dispatcher())
+            .connectTimeout(ApiConstants.CONNECT_TIMEOUT, TimeUnit.SECONDS)
+            .pingInterval(ApiConstants.WS_PING_INTERVAL, TimeUnit.SECONDS)
+            .readTimeout(0, TimeUnit.SECONDS)
+            .build();
         
         // 构建Gson
         Gson gson = new GsonBuilder()
@@ -100,13 +115,15 @@ public class RetrofitClient {
             .baseUrl(ApiConstants.BASE_URL)
             .client(okHttpClient)
             .addConverterFactory(GsonConverterFactory.create(gson))
-            .addCallAdapterFactory(RxJava3CallAdapterFactory.create())
+            // 异步适配：请求在OkHttp调度器上执行，订阅线程不会阻塞等待响应
+            .addCallAdapterFactory(RxJava3CallAdapterFactory.createAsynchronous())
             .build();
         
         // 创建API服务
         authServiceApi = retrofit.create(AuthServiceApi.class);
         shareServiceApi = retrofit.create(ShareServiceApi.class);
         discoveryServiceApi = retrofit.create(DiscoveryServiceApi.class);
+        vaultServiceApi = retrofit.create(VaultServiceApi.class);
         
         // 设置TokenManager的authApi
         tokenManager.setAuthApi(authServiceApi);
@@ -131,6 +148,14 @@ public class RetrofitClient {
         return discoveryServiceApi;
     }
     
+    public VaultServiceApi getVaultServiceApi() {
+        return vaultServiceApi;
+    }
+    
+    public OkHttpClient getWebSocketClient() {
+        return webSocketClient;
+    }
+    
     public TokenManager getTokenManager() {
         return tokenManager;
     }
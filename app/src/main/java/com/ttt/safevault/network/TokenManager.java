@@ -4,14 +4,22 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+
 import com.ttt.safevault.dto.response.AuthResponse;
 import com.ttt.safevault.network.api.AuthServiceApi;
 
-import io.reactivex.rxjava3.core.Observable;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 /**
  * Token管理器
  * 负责Token的存储、获取、刷新
+ * Token在内存中保存，偏好设置只在启动时读取一次、变化时写入；
+ * 刷新是单飞的：同一时刻只有一个刷新请求，其他请求等待并复用其结果。
  */
 public class TokenManager {
     private static final String TAG = "TokenManager";
@@ -20,14 +28,33 @@ public class TokenManager {
     private static final String KEY_REFRESH_TOKEN = "refresh_token";
     private static final String KEY_USER_ID = "user_id";
     private static final String KEY_DISPLAY_NAME = "display_name";
+
+    // 距过期不足该时间时主动刷新
+    private static final long REFRESH_AHEAD_MS = 60 * 1000;
     
     private final SharedPreferences prefs;
     private AuthServiceApi authApi;
     private static TokenManager instance;
+
+    // 内存中的Token，写入时持有this锁
+    private volatile String accessToken;
+    private volatile String refreshToken;
+    private volatile String userId;
+    private volatile String displayName;
+    // 访问Token过期时间（毫秒），0表示未知
+    private volatile long accessTokenExpiresAt;
+
+    // 刷新锁，保证同一时刻只有一个刷新请求
+    private final Object refreshLock = new Object();
     
     private TokenManager(Context context) {
         this.prefs = context.getApplicationContext()
             .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.accessToken = prefs.getString(KEY_ACCESS_TOKEN, null);
+        this.refreshToken = prefs.getString(KEY_REFRESH_TOKEN, null);
+        this.userId = prefs.getString(KEY_USER_ID, null);
+        this.displayName = prefs.getString(KEY_DISPLAY_NAME, null);
+        this.accessTokenExpiresAt = parseExpiry(accessToken);
     }
     
     public static synchronized TokenManager getInstance(Context context) {
@@ -43,71 +70,135 @@ public class TokenManager {
     
     /**
      * 保存Token
+     * 刷新响应可能不带刷新Token或用户信息，缺少的字段保留原值
      */
-    public void saveTokens(AuthResponse response) {
+    public synchronized void saveTokens(AuthResponse response) {
         if (response == null) {
             return;
         }
+
+        accessToken = response.getAccessToken();
+        accessTokenExpiresAt = parseExpiry(accessToken);
+        if (response.getRefreshToken() != null) {
+            refreshToken = response.getRefreshToken();
+        }
+        if (response.getUserId() != null) {
+            userId = response.getUserId();
+        }
+        if (response.getDisplayName() != null) {
+            displayName = response.getDisplayName();
+        }
         
         prefs.edit()
-            .putString(KEY_ACCESS_TOKEN, response.getAccessToken())
-            .putString(KEY_REFRESH_TOKEN, response.getRefreshToken())
-            .putString(KEY_USER_ID, response.getUserId())
-            .putString(KEY_DISPLAY_NAME, response.getDisplayName())
+            .putString(KEY_ACCESS_TOKEN, accessToken)
+            .putString(KEY_REFRESH_TOKEN, refreshToken)
+            .putString(KEY_USER_ID, userId)
+            .putString(KEY_DISPLAY_NAME, displayName)
             .apply();
         
-        Log.d(TAG, "Tokens saved for user: " + response.getDisplayName());
+        Log.d(TAG, "Tokens saved for user: " + displayName);
     }
     
     /**
      * 获取访问Token
      */
     public String getAccessToken() {
-        return prefs.getString(KEY_ACCESS_TOKEN, null);
+        return accessToken;
+    }
+
+    /**
+     * 获取可用的访问Token，即将过期时先刷新（在网络线程上调用）
+     * 刷新失败时返回当前Token，由服务器返回401后再处理
+     */
+    @Nullable
+    public String getValidAccessToken() {
+        String token = accessToken;
+        long expiresAt = accessTokenExpiresAt;
+        if (token == null || expiresAt == 0 || System.currentTimeMillis() < expiresAt - REFRESH_AHEAD_MS) {
+            return token;
+        }
+        Log.d(TAG, "Access token expiring, refreshing ahead");
+        String refreshed = refreshSingleFlight(token);
+        return refreshed != null ? refreshed : token;
+    }
+
+    /**
+     * 请求返回401后刷新Token（在网络线程上调用）
+     *
+     * @param failedToken 返回401的请求所用的Token
+     * @return 新的访问Token，无法刷新时返回null
+     */
+    @Nullable
+    public String refreshAfterUnauthorized(@Nullable String failedToken) {
+        return refreshSingleFlight(failedToken);
+    }
+
+    /**
+     * 单飞刷新：持有刷新锁时Token已经换过，说明其他请求刚刷新完，直接复用
+     */
+    @Nullable
+    private String refreshSingleFlight(@Nullable String staleToken) {
+        synchronized (refreshLock) {
+            String current = accessToken;
+            if (current != null && !current.equals(staleToken)) {
+                return current;
+            }
+            String token = refreshToken;
+            if (token == null || authApi == null) {
+                return null;
+            }
+
+            try {
+                retrofit2.Response<AuthResponse> response = authApi.refreshTokenCall("Bearer " + token).execute();
+                if (response.isSuccessful() && response.body() != null) {
+                    saveTokens(response.body());
+                    Log.d(TAG, "Token refreshed");
+                    return accessToken;
+                }
+                Log.e(TAG, "Failed to refresh token: HTTP " + response.code());
+                if (response.code() == 401 || response.code() == 403) {
+                    // 刷新Token已失效，需要重新登录
+                    clearTokens();
+                }
+            } catch (IOException e) {
+                // 网络错误不清除Token，下次请求再试
+                Log.e(TAG, "Failed to refresh token", e);
+            }
+            return null;
+        }
     }
     
     /**
      * 获取刷新Token
      */
     public String getRefreshToken() {
-        return prefs.getString(KEY_REFRESH_TOKEN, null);
+        return refreshToken;
     }
     
     /**
      * 获取用户ID
      */
     public String getUserId() {
-        return prefs.getString(KEY_USER_ID, null);
+        return userId;
     }
     
     /**
      * 获取显示名称
      */
     public String getDisplayName() {
-        return prefs.getString(KEY_DISPLAY_NAME, null);
-    }
-    
-    /**
-     * 刷新Token
-     */
-    public Observable<AuthResponse> refreshToken() {
-        String refreshToken = getRefreshToken();
-        if (refreshToken == null || authApi == null) {
-            return Observable.error(new IllegalStateException("No refresh token or auth API not set"));
-        }
-        
-        return authApi.refreshToken("Bearer " + refreshToken)
-            .doOnNext(this::saveTokens)
-            .doOnError(error -> {
-                Log.e(TAG, "Failed to refresh token", error);
-                clearTokens();
-            });
+        return displayName;
     }
     
     /**
      * 清除Token
      */
-    public void clearTokens() {
+    public synchronized void clearTokens() {
+        accessToken = null;
+        refreshToken = null;
+        userId = null;
+        displayName = null;
+        accessTokenExpiresAt = 0;
+
         prefs.edit()
             .remove(KEY_ACCESS_TOKEN)
             .remove(KEY_REFRESH_TOKEN)
@@ -122,6 +213,25 @@ public class TokenManager {
      * 是否已登录
      */
     public boolean isLoggedIn() {
-        return getAccessToken() != null;
+        return accessToken != null;
+    }
+
+    /**
+     * 从JWT的exp声明读取过期时间（毫秒），不是JWT或没有exp时返回0
+     */
+    private static long parseExpiry(@Nullable String token) {
+        if (token == null) {
+            return 0;
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return 0;
+        }
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            return new JSONObject(payload).optLong("exp", 0) * 1000;
+        } catch (Exception e) {
+            return 0;
+        }
     }
 }
@@ -1,5 +1,8 @@
 package com.ttt.safevault.network;
 
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
@@ -9,6 +12,15 @@ import com.google.gson.Gson;
 import com.ttt.safevault.dto.OnlineUserMessage;
 import com.ttt.safevault.dto.ShareNotificationMessage;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -18,15 +30,38 @@ import okhttp3.WebSocketListener;
 /**
  * WebSocket管理器
  * 处理实时分享通知和在线用户更新
+ * 连接断开后按指数退避加抖动自动重连，没有可用网络时暂停重连，网络恢复后立即重连；
+ * 存活检测使用OkHttp的Ping帧，与REST请求共享同一连接池和调度器。
+ * Token放在Authorization头中，不出现在URL里；获取和刷新Token可能访问网络，在io线程上进行。
+ * 连接状态只在内部单线程上修改，OkHttp、网络回调和Token结果都切换到该线程处理。
  */
 public class WebSocketManager {
     private static final String TAG = "WebSocketManager";
+
+    private static final int NORMAL_CLOSURE = 1000;
+
+    // 重连退避：1秒起，最长1分钟
+    private static final long RECONNECT_BASE_DELAY_MS = 1000;
+    private static final long RECONNECT_MAX_DELAY_MS = 60 * 1000;
     
-    private WebSocket webSocket;
     private final OkHttpClient client;
-    private final Gson gson;
-    private WebSocketEventListener eventListener;
-    private boolean isConnected = false;
+    private final TokenManager tokenManager;
+    @Nullable
+    private final ConnectivityManager connectivityManager;
+    private final WebSocketMessageDispatcher dispatcher;
+    private final ScheduledExecutorService executor;
+    private volatile WebSocketEventListener eventListener;
+    private volatile boolean isConnected = false;
+
+    // 以下字段只在executor线程上访问
+    private final ReconnectBackoff backoff =
+        new ReconnectBackoff(RECONNECT_BASE_DELAY_MS, RECONNECT_MAX_DELAY_MS);
+    private WebSocket webSocket;
+    private boolean started = false;
+    private Network defaultNetwork;
+    private ScheduledFuture<?> reconnectTask;
+    private Disposable tokenRequest;
+    private ConnectivityManager.NetworkCallback networkCallback;
     
     public interface WebSocketEventListener {
         void onShareNotification(ShareNotificationMessage notification);
@@ -36,115 +71,352 @@ public class WebSocketManager {
         void onError(String error);
     }
     
-    public WebSocketManager() {
-        this.client = new OkHttpClient();
-        this.gson = new Gson();
+    public WebSocketManager(Context context) {
+        RetrofitClient retrofitClient = RetrofitClient.getInstance(context);
+        this.client = retrofitClient.getWebSocketClient();
+        this.tokenManager = retrofitClient.getTokenManager();
+        this.connectivityManager = context.getApplicationContext().getSystemService(ConnectivityManager.class);
+        this.dispatcher = createDispatcher(new Gson());
+        this.executor = Executors.newSingleThreadScheduledExecutor();
     }
     
     /**
-     * 连接WebSocket
-     * @param token 认证Token
+     * 连接WebSocket并保持连接，直到调用disconnect
+     * 每次连接时从TokenManager获取有效Token
      * @param listener 事件监听器
      */
-    public void connect(String token, WebSocketEventListener listener) {
-        if (isConnected) {
-            Log.w(TAG, "WebSocket already connected");
-            return;
-        }
-        
+    public void connect(WebSocketEventListener listener) {
         this.eventListener = listener;
-        
-        Request request = new Request.Builder()
-            .url(ApiConstants.WS_URL + "?token=" + token)
-            .build();
-        
-        webSocket = client.newWebSocket(request, new WebSocketListener() {
-            @Override
-            public void onOpen(@NonNull WebSocket webSocket, @NonNull Response response) {
-                isConnected = true;
-                Log.d(TAG, "WebSocket connected");
-                if (eventListener != null) {
-                    eventListener.onConnectionOpened();
-                }
+        executor.execute(() -> {
+            if (started) {
+                Log.w(TAG, "WebSocket already connected");
+                return;
             }
-            
-            @Override
-            public void onMessage(@NonNull WebSocket webSocket, @NonNull String text) {
-                Log.d(TAG, "WebSocket message received: " + text);
-                handleMessage(text);
+            started = true;
+            backoff.reset();
+            if (connectivityManager == null) {
+                openSocket();
+                return;
             }
-            
-            @Override
-            public void onClosing(@NonNull WebSocket webSocket, int code, @NonNull String reason) {
-                Log.d(TAG, "WebSocket closing: " + reason);
-                webSocket.close(1000, null);
-            }
-            
-            @Override
-            public void onClosed(@NonNull WebSocket webSocket, int code, @NonNull String reason) {
-                isConnected = false;
-                Log.d(TAG, "WebSocket closed: " + reason);
-                if (eventListener != null) {
-                    eventListener.onConnectionClosed();
-                }
-            }
-            
-            @Override
-            public void onFailure(@NonNull WebSocket webSocket, @NonNull Throwable t, @Nullable Response response) {
-                isConnected = false;
-                Log.e(TAG, "WebSocket error", t);
-                if (eventListener != null) {
-                    eventListener.onError(t.getMessage());
-                }
+            defaultNetwork = connectivityManager.getActiveNetwork();
+            registerNetworkCallback();
+            if (defaultNetwork != null) {
+                openSocket();
+            } else {
+                Log.d(TAG, "No network, waiting before connecting");
             }
         });
     }
     
     /**
-     * 断开WebSocket连接
+     * 断开WebSocket连接并停止重连
+     * 断开后该实例不能再次连接
      */
     public void disconnect() {
-        if (webSocket != null) {
-            webSocket.close(1000, "Client disconnect");
-            webSocket = null;
+        executor.execute(() -> {
+            started = false;
+            cancelReconnect();
+            cancelTokenRequest();
+            unregisterNetworkCallback();
+            if (webSocket != null) {
+                webSocket.close(NORMAL_CLOSURE, "Client disconnect");
+                webSocket = null;
+            }
             isConnected = false;
+        });
+        executor.shutdown();
+    }
+
+    private void openSocket() {
+        if (!started || webSocket != null || tokenRequest != null) {
+            return;
         }
+
+        // Token即将过期时会同步刷新，在io线程上获取
+        tokenRequest = Maybe.fromCallable(tokenManager::getValidAccessToken)
+            .subscribeOn(Schedulers.io())
+            .subscribe(
+                token -> execute(() -> {
+                    tokenRequest = null;
+                    openSocket(token);
+                }),
+                e -> execute(() -> {
+                    tokenRequest = null;
+                    Log.e(TAG, "Failed to get access token", e);
+                    scheduleReconnect();
+                }),
+                () -> execute(() -> {
+                    tokenRequest = null;
+                    Log.e(TAG, "No access token available");
+                    stopWithError("No access token available");
+                }));
     }
-    
+
+    private void openSocket(String token) {
+        if (!started || webSocket != null) {
+            return;
+        }
+        if (token.isEmpty()) {
+            Log.e(TAG, "No access token available");
+            stopWithError("No access token available");
+            return;
+        }
+
+        Log.d(TAG, "Connecting WebSocket");
+        Request request = new Request.Builder()
+            .url(ApiConstants.WS_URL)
+            .header("Authorization", "Bearer " + token)
+            .build();
+        webSocket = client.newWebSocket(request, new SocketListener(token));
+    }
+
     /**
-     * 发送心跳
+     * 401后在io线程上单飞刷新Token，再按退避重连；刷新Token已失效时停止
      */
-    public void sendHeartbeat() {
-        if (webSocket != null && isConnected) {
-            webSocket.send("{\"type\":\"heartbeat\"}");
+    private void refreshAndReconnect(String failedToken) {
+        tokenRequest = Maybe.fromCallable(() -> tokenManager.refreshAfterUnauthorized(failedToken))
+            .subscribeOn(Schedulers.io())
+            .subscribe(
+                token -> execute(() -> {
+                    tokenRequest = null;
+                    scheduleReconnect();
+                }),
+                e -> execute(() -> {
+                    tokenRequest = null;
+                    Log.e(TAG, "Failed to refresh token", e);
+                    scheduleReconnect();
+                }),
+                () -> execute(() -> {
+                    tokenRequest = null;
+                    // 刷新失败：网络问题时继续退避重试，刷新Token已失效时停止
+                    if (!tokenManager.isLoggedIn()) {
+                        stopWithError("Unauthorized");
+                        return;
+                    }
+                    scheduleReconnect();
+                }));
+    }
+
+    private void cancelTokenRequest() {
+        if (tokenRequest != null) {
+            tokenRequest.dispose();
+            tokenRequest = null;
         }
     }
-    
+
+    private void scheduleReconnect() {
+        if (!started || webSocket != null || reconnectTask != null || tokenRequest != null
+                || executor.isShutdown()) {
+            return;
+        }
+        if (connectivityManager != null && defaultNetwork == null) {
+            Log.d(TAG, "No network, reconnect deferred");
+            return;
+        }
+        long delay = backoff.nextDelay();
+        Log.d(TAG, "Reconnecting in " + delay + "ms");
+        reconnectTask = executor.schedule(() -> {
+            reconnectTask = null;
+            openSocket();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelReconnect() {
+        if (reconnectTask != null) {
+            reconnectTask.cancel(false);
+            reconnectTask = null;
+        }
+    }
+
+    private void stopWithError(String error) {
+        started = false;
+        cancelReconnect();
+        cancelTokenRequest();
+        unregisterNetworkCallback();
+        WebSocketEventListener listener = eventListener;
+        if (listener != null) {
+            listener.onError(error);
+            listener.onConnectionClosed();
+        }
+    }
+
     /**
-     * 处理收到的消息
+     * 监听默认网络：丢失时关闭当前连接并暂停重连，恢复时立即重连
      */
-    private void handleMessage(String message) {
+    private void registerNetworkCallback() {
+        networkCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                execute(() -> {
+                    boolean changed = !network.equals(defaultNetwork);
+                    defaultNetwork = network;
+                    if (!started) {
+                        return;
+                    }
+                    if (changed && webSocket != null && !isConnected) {
+                        // 旧网络上的握手不会成功，换到新网络重试
+                        webSocket.cancel();
+                    } else if (webSocket == null) {
+                        Log.d(TAG, "Network available, reconnecting now");
+                        cancelReconnect();
+                        backoff.reset();
+                        openSocket();
+                    }
+                });
+            }
+
+            @Override
+            public void onLost(@NonNull Network network) {
+                execute(() -> {
+                    if (!network.equals(defaultNetwork)) {
+                        return;
+                    }
+                    Log.d(TAG, "Network lost");
+                    defaultNetwork = null;
+                    cancelReconnect();
+                    if (webSocket != null) {
+                        // 不必等Ping超时，直接结束旧连接
+                        webSocket.cancel();
+                    }
+                });
+            }
+        };
         try {
-            // 简单解析消息类型
-            if (message.contains("\"type\":\"SHARE_NOTIFICATION\"") ||
-                message.contains("\"type\":\"NEW_SHARE\"") ||
-                message.contains("\"type\":\"NEW_DIRECT_SHARE\"") ||
-                message.contains("\"type\":\"SHARE_REVOKED\"")) {
-                ShareNotificationMessage notification = gson.fromJson(message, ShareNotificationMessage.class);
-                if (eventListener != null) {
-                    eventListener.onShareNotification(notification);
+            connectivityManager.registerDefaultNetworkCallback(networkCallback);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to register network callback", e);
+            networkCallback = null;
+        }
+    }
+
+    private void unregisterNetworkCallback() {
+        if (connectivityManager != null && networkCallback != null) {
+            try {
+                connectivityManager.unregisterNetworkCallback(networkCallback);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Network callback not registered", e);
+            }
+            networkCallback = null;
+        }
+    }
+
+    private void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 已断开，忽略迟到的回调
+        }
+    }
+
+    /**
+     * 单个连接的监听器，已被替换的连接的回调直接忽略
+     */
+    private class SocketListener extends WebSocketListener {
+        private final String token;
+
+        SocketListener(String token) {
+            this.token = token;
+        }
+
+        @Override
+        public void onOpen(@NonNull WebSocket ws, @NonNull Response response) {
+            execute(() -> {
+                if (ws != webSocket) {
+                    return;
                 }
-            } else if (message.contains("\"type\":\"ONLINE_USER\"")) {
-                OnlineUserMessage userMessage = gson.fromJson(message, OnlineUserMessage.class);
-                if (eventListener != null) {
-                    eventListener.onOnlineUserUpdate(userMessage);
+                isConnected = true;
+                backoff.reset();
+                Log.d(TAG, "WebSocket connected");
+                WebSocketEventListener listener = eventListener;
+                if (listener != null) {
+                    listener.onConnectionOpened();
+                }
+            });
+        }
+
+        @Override
+        public void onMessage(@NonNull WebSocket ws, @NonNull String text) {
+            try {
+                dispatcher.dispatch(text);
+            } catch (RuntimeException e) {
+                // 不记录消息内容，其中可能有分享信息
+                Log.e(TAG, "Failed to handle WebSocket message", e);
+            }
+        }
+
+        @Override
+        public void onClosing(@NonNull WebSocket ws, int code, @NonNull String reason) {
+            Log.d(TAG, "WebSocket closing: " + reason);
+            ws.close(NORMAL_CLOSURE, null);
+        }
+
+        @Override
+        public void onClosed(@NonNull WebSocket ws, int code, @NonNull String reason) {
+            execute(() -> {
+                if (ws != webSocket) {
+                    return;
+                }
+                Log.d(TAG, "WebSocket closed: " + reason);
+                connectionLost();
+                scheduleReconnect();
+            });
+        }
+
+        @Override
+        public void onFailure(@NonNull WebSocket ws, @NonNull Throwable t, @Nullable Response response) {
+            int code = response != null ? response.code() : 0;
+            execute(() -> {
+                if (ws != webSocket) {
+                    return;
                 }
+                Log.e(TAG, "WebSocket error", t);
+                connectionLost();
+                WebSocketEventListener listener = eventListener;
+                if (listener != null) {
+                    listener.onError(t.getMessage());
+                }
+                if (code == 401) {
+                    refreshAndReconnect(token);
+                    return;
+                }
+                scheduleReconnect();
+            });
+        }
+
+        private void connectionLost() {
+            webSocket = null;
+            boolean wasConnected = isConnected;
+            isConnected = false;
+            WebSocketEventListener listener = eventListener;
+            if (wasConnected && listener != null) {
+                listener.onConnectionClosed();
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to parse WebSocket message", e);
         }
     }
     
+    /**
+     * 注册消息处理器，处理器转发给当前的事件监听器
+     */
+    private WebSocketMessageDispatcher createDispatcher(Gson gson) {
+        WebSocketMessageDispatcher.Handler<ShareNotificationMessage> shareHandler = notification -> {
+            WebSocketEventListener listener = eventListener;
+            if (listener != null) {
+                listener.onShareNotification(notification);
+            }
+        };
+        return new WebSocketMessageDispatcher(gson)
+            .register("SHARE_NOTIFICATION", ShareNotificationMessage.class, shareHandler)
+            .register("NEW_SHARE", ShareNotificationMessage.class, shareHandler)
+            .register("NEW_DIRECT_SHARE", ShareNotificationMessage.class, shareHandler)
+            .register("SHARE_REVOKED", ShareNotificationMessage.class, shareHandler)
+            .register("ONLINE_USER", OnlineUserMessage.class, message -> {
+                WebSocketEventListener listener = eventListener;
+                if (listener != null) {
+                    listener.onOnlineUserUpdate(message);
+                }
+            });
+    }
+    
     public boolean isConnected() {
         return isConnected;
     }
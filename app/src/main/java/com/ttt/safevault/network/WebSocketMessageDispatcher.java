@@ -0,0 +1,147 @@
+package com.ttt.safevault.network;
+
+import androidx.annotation.NonNull;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WebSocket消息分发器
+ * 按type字段把消息路由到预先注册的处理器。帧只用JsonReader读取一遍，
+ * 每个事件读出type后用注册时取得的TypeAdapter直接转换，不再对字符串反复扫描。
+ * 一帧可以是单个事件、事件数组，或 {"type":"BATCH","events":[...]}。
+ * 注册在连接前完成，分发期间路由表只读。
+ * 不依赖Android，日志由调用方根据抛出的异常记录。
+ */
+final class WebSocketMessageDispatcher {
+    static final String TYPE_BATCH = "BATCH";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_EVENTS = "events";
+
+    /**
+     * 类型化消息处理器
+     */
+    interface Handler<T> {
+        void handle(@NonNull T message);
+    }
+
+    private static final class Route<T> {
+        final TypeAdapter<T> adapter;
+        final Handler<T> handler;
+
+        Route(TypeAdapter<T> adapter, Handler<T> handler) {
+            this.adapter = adapter;
+            this.handler = handler;
+        }
+
+        void dispatch(JsonElement event) {
+            T message = adapter.fromJsonTree(event);
+            if (message != null) {
+                handler.handle(message);
+            }
+        }
+    }
+
+    private final Gson gson;
+    private final Map<String, Route<?>> routes = new HashMap<>();
+
+    WebSocketMessageDispatcher(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * 注册消息类型的处理器，同一个类可以对应多个消息类型
+     */
+    <T> WebSocketMessageDispatcher register(String type, Class<T> messageClass, Handler<T> handler) {
+        routes.put(type, new Route<>(gson.getAdapter(messageClass), handler));
+        return this;
+    }
+
+    /**
+     * 分发一帧消息
+     * 某个事件转换或处理失败时继续分发同一帧中的其他事件，最后抛出第一个失败
+     *
+     * @return 已分发的事件数
+     * @throws JsonParseException 帧不是合法JSON
+     * @throws RuntimeException 有事件处理失败
+     */
+    int dispatch(String frame) {
+        Failure failure = new Failure();
+        JsonReader reader = new JsonReader(new StringReader(frame));
+        int dispatched = 0;
+        try {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    dispatched += dispatchEvent(JsonParser.parseReader(reader), failure);
+                }
+                reader.endArray();
+            } else {
+                dispatched = dispatchEvent(JsonParser.parseReader(reader), failure);
+            }
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+        if (failure.first != null) {
+            throw failure.first;
+        }
+        return dispatched;
+    }
+
+    private int dispatchEvent(JsonElement event, Failure failure) {
+        if (!event.isJsonObject()) {
+            return 0;
+        }
+        JsonObject object = event.getAsJsonObject();
+        JsonElement typeElement = object.get(FIELD_TYPE);
+        if (typeElement == null || !typeElement.isJsonPrimitive()) {
+            return 0;
+        }
+        String type = typeElement.getAsString();
+
+        if (TYPE_BATCH.equals(type)) {
+            JsonElement events = object.get(FIELD_EVENTS);
+            if (events == null || !events.isJsonArray()) {
+                return 0;
+            }
+            int dispatched = 0;
+            for (JsonElement nested : events.getAsJsonArray()) {
+                dispatched += dispatchEvent(nested, failure);
+            }
+            return dispatched;
+        }
+
+        // 未注册的类型直接忽略
+        Route<?> route = routes.get(type);
+        if (route == null) {
+            return 0;
+        }
+        try {
+            route.dispatch(object);
+            return 1;
+        } catch (RuntimeException e) {
+            if (failure.first == null) {
+                failure.first = e;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * 一帧内第一个失败的事件
+     */
+    private static final class Failure {
+        RuntimeException first;
+    }
+}
@@ -6,6 +6,7 @@ import com.ttt.safevault.dto.request.RegisterRequest;
 import com.ttt.safevault.dto.response.AuthResponse;
 
 import io.reactivex.rxjava3.core.Observable;
+import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.Header;
 import retrofit2.http.POST;
@@ -24,6 +25,9 @@ public interface AuthServiceApi {
     @POST("v1/auth/login/by-username")
     Observable<AuthResponse> loginByUsername(@Body LoginByUsernameRequest request);
 
+    /**
+     * 同步刷新Token，只由 TokenManager 在刷新锁内执行，保证同一时间只有一个刷新请求
+     */
     @POST("v1/auth/refresh")
-    Observable<AuthResponse> refreshToken(@Header("Authorization") String refreshToken);
+    Call<AuthResponse> refreshTokenCall(@Header("Authorization") String refreshToken);
 }
@@ -5,6 +5,7 @@ import com.ttt.safevault.dto.response.NearbyUserResponse;
 
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Observable;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
@@ -17,7 +18,7 @@ import retrofit2.http.Query;
 public interface DiscoveryServiceApi {
     
     @POST("v1/discovery/register")
-    Observable<Void> registerLocation(@Body RegisterLocationRequest request);
+    Completable registerLocation(@Body RegisterLocationRequest request);
     
     @GET("v1/discovery/nearby")
     Observable<List<NearbyUserResponse>> getNearbyUsers(
@@ -27,5 +28,5 @@ public interface DiscoveryServiceApi {
     );
     
     @POST("v1/discovery/heartbeat")
-    Observable<Void> sendHeartbeat();
+    Completable sendHeartbeat();
 }
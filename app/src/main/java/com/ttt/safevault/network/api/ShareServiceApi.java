@@ -1,37 +1,77 @@
 package com.ttt.safevault.network.api;
 
+import com.ttt.safevault.dto.request.CreateMultiShareRequest;
 import com.ttt.safevault.dto.request.CreateShareRequest;
+import com.ttt.safevault.dto.response.MultiShareResponse;
 import com.ttt.safevault.dto.response.ReceivedShareResponse;
 import com.ttt.safevault.dto.response.ShareResponse;
+import com.ttt.safevault.dto.response.UserPublicKeyResponse;
 
 import java.util.List;
 
+import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Observable;
+import retrofit2.Response;
 import retrofit2.http.Body;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Headers;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 /**
  * 分享服务API接口
+ * 返回密码数据的请求带no-store，不写入HTTP磁盘缓存
  */
 public interface ShareServiceApi {
     
     @POST("v1/shares")
     Observable<ShareResponse> createShare(@Body CreateShareRequest request);
+
+    /**
+     * 一次请求为多个接收方创建分享
+     */
+    @POST("v1/shares/batch")
+    Observable<MultiShareResponse> createMultiShare(@Body CreateMultiShareRequest request);
+
+    /**
+     * 批量获取接收方公钥
+     */
+    @GET("v1/shares/recipient-keys")
+    Observable<List<UserPublicKeyResponse>> getRecipientKeys(@Query("userIds") List<String> userIds);
     
+    @Headers("Cache-Control: no-store")
     @GET("v1/shares/{shareId}")
     Observable<ReceivedShareResponse> receiveShare(@Path("shareId") String shareId);
     
     @POST("v1/shares/{shareId}/revoke")
-    Observable<Void> revokeShare(@Path("shareId") String shareId);
+    Completable revokeShare(@Path("shareId") String shareId);
     
     @POST("v1/shares/{shareId}/save")
-    Observable<Void> saveSharedPassword(@Path("shareId") String shareId);
+    Completable saveSharedPassword(@Path("shareId") String shareId);
     
+    @Headers("Cache-Control: no-store")
     @GET("v1/shares/created")
     Observable<List<ReceivedShareResponse>> getMyShares();
     
+    @Headers("Cache-Control: no-store")
     @GET("v1/shares/received")
     Observable<List<ReceivedShareResponse>> getReceivedShares();
+
+    /**
+     * 条件请求我创建的分享，未变化时返回304且没有响应体
+     */
+    @Headers("Cache-Control: no-store")
+    @GET("v1/shares/created")
+    Observable<Response<List<ReceivedShareResponse>>> getMySharesIfChanged(
+        @Header("If-None-Match") String etag, @Header("If-Modified-Since") String lastModified);
+
+    /**
+     * 条件请求我接收的分享，未变化时返回304且没有响应体
+     */
+    @Headers("Cache-Control: no-store")
+    @GET("v1/shares/received")
+    Observable<Response<List<ReceivedShareResponse>>> getReceivedSharesIfChanged(
+        @Header("If-None-Match") String etag, @Header("If-Modified-Since") String lastModified);
 }
@@ -0,0 +1,44 @@
+package com.ttt.safevault.network.api;
+
+import com.ttt.safevault.dto.VaultKey;
+import com.ttt.safevault.dto.request.VaultPushRequest;
+import com.ttt.safevault.dto.response.VaultChangesResponse;
+import com.ttt.safevault.dto.response.VaultPushResponse;
+import com.ttt.safevault.network.GzipRequestInterceptor;
+
+import io.reactivex.rxjava3.core.Single;
+import retrofit2.http.Body;
+import retrofit2.http.GET;
+import retrofit2.http.Headers;
+import retrofit2.http.POST;
+import retrofit2.http.Query;
+
+/**
+ * 密码库增量同步API接口
+ * 只传输游标之后变化的记录（密文），上传请求体gzip压缩
+ */
+public interface VaultServiceApi {
+
+    /**
+     * 拉取游标之后的变更
+     * @param since 上次同步返回的游标，0表示从头拉取
+     */
+    @Headers("Cache-Control: no-store")
+    @GET("v1/vault/changes")
+    Single<VaultChangesResponse> getChanges(@Query("since") long since, @Query("limit") int limit);
+
+    /**
+     * 上传一批本地变更，基于过期修订号的记录作为冲突返回
+     */
+    @Headers({"Cache-Control: no-store", GzipRequestInterceptor.HEADER})
+    @POST("v1/vault/changes")
+    Single<VaultPushResponse> pushChanges(@Body VaultPushRequest request);
+
+    /**
+     * 上传本机包装后的数据密钥，返回服务器上保存的数据密钥
+     * 服务器上还没有数据密钥时保存上传的密钥；keyId相同时更新包装（修改主密码后）；否则保留原来的
+     */
+    @Headers("Cache-Control: no-store")
+    @POST("v1/vault/data-key")
+    Single<VaultKey> claimKey(@Body VaultKey key);
+}
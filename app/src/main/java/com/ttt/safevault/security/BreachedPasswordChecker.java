@@ -0,0 +1,168 @@
+package com.ttt.safevault.security;
+
+import android.content.Context;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * 离线泄露密码检查
+ * 管理应用私有目录中的布隆过滤器文件，检查在本地完成，不会发送任何密码或哈希。
+ * 未导入过滤器时所有检查都返回false。
+ * 过滤器文件在io线程上打开；主线程上的检查不等待，打开完成前返回false。
+ */
+public class BreachedPasswordChecker {
+
+    private static final String TAG = "BreachedPasswordChecker";
+    private static final String FILTER_DIR = "breach";
+    private static final String FILTER_FILE = "breached_passwords.svbf";
+
+    // 默认误报率：千分之一
+    public static final double DEFAULT_FP_RATE = 0.001;
+
+    private static volatile BreachedPasswordChecker INSTANCE;
+
+    private final File filterFile;
+    private volatile BreachedPasswordFilter filter;
+    private volatile boolean opened;
+
+    private BreachedPasswordChecker(Context context) {
+        File dir = new File(context.getApplicationContext().getFilesDir(), FILTER_DIR);
+        this.filterFile = new File(dir, FILTER_FILE);
+    }
+
+    public static BreachedPasswordChecker getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            synchronized (BreachedPasswordChecker.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new BreachedPasswordChecker(context);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 检查密码是否出现在已导入的泄露数据中
+     */
+    public boolean isBreached(String password) {
+        if (password == null || password.isEmpty()) {
+            return false;
+        }
+        if (!opened && Looper.myLooper() == Looper.getMainLooper()) {
+            preload();
+            return false;
+        }
+        BreachedPasswordFilter current = ensureOpened();
+        return current != null && current.mightContain(password);
+    }
+
+    /**
+     * 在io线程上打开过滤器文件，避免首次检查时在主线程读取文件头和建立映射
+     */
+    public void preload() {
+        if (!opened) {
+            Schedulers.io().scheduleDirect(this::ensureOpened);
+        }
+    }
+
+    /**
+     * 是否已导入过滤器
+     */
+    public boolean isAvailable() {
+        return ensureOpened() != null;
+    }
+
+    /**
+     * 导入本地文件：可以是预构建的过滤器文件，也可以是SHA-1哈希列表（每行 "HASH[:次数]"）
+     * 新数据作为新段追加，已有数据保留
+     *
+     * @param source 本地文件
+     * @param fpRate 哈希列表导入时使用的误报率
+     * @return true表示导入成功
+     */
+    public synchronized boolean importFromFile(@NonNull File source, double fpRate) {
+        File dir = filterFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "Failed to create filter directory");
+            return false;
+        }
+
+        try {
+            // 关闭旧映射后再追加，完成后重新映射
+            closeFilter();
+            if (isFilterFile(source)) {
+                int segments = BreachedPasswordFilter.importFilterFile(source, filterFile);
+                Log.d(TAG, "Imported " + segments + " filter segments");
+            } else {
+                long count = BreachedPasswordFilter.importHashList(source, filterFile, fpRate);
+                Log.d(TAG, "Imported " + count + " breached password hashes");
+            }
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            Log.e(TAG, "Failed to import breached password data", e);
+            return false;
+        } finally {
+            opened = false;
+        }
+    }
+
+    /**
+     * 删除已导入的过滤器
+     */
+    public synchronized void clear() {
+        closeFilter();
+        if (filterFile.exists() && !filterFile.delete()) {
+            Log.w(TAG, "Failed to delete filter file");
+        }
+        opened = false;
+    }
+
+    private BreachedPasswordFilter ensureOpened() {
+        if (opened) {
+            return filter;
+        }
+        synchronized (this) {
+            if (!opened) {
+                if (filterFile.exists()) {
+                    try {
+                        filter = BreachedPasswordFilter.open(filterFile);
+                        Log.d(TAG, "Filter opened, items: " + filter.getItemCount());
+                    } catch (IOException e) {
+                        Log.e(TAG, "Failed to open breached password filter", e);
+                        filter = null;
+                    }
+                }
+                opened = true;
+            }
+            return filter;
+        }
+    }
+
+    private void closeFilter() {
+        BreachedPasswordFilter current = filter;
+        filter = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to close filter", e);
+            }
+        }
+    }
+
+    private static boolean isFilterFile(File source) {
+        try {
+            BreachedPasswordFilter.open(source).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,536 @@
+package com.ttt.safevault.security;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 已泄露密码的布隆过滤器（只读内存映射）
+ * 以密码的SHA-1为键，查询时只计算一次哈希并直接读取映射内存，不复制数据、不联网。
+ *
+ * 文件格式（小端序）：
+ * <pre>
+ * 文件头（16字节）: magic "SVBF" | version u16 | reserved u16 | segmentCount u32 | reserved u32
+ * 段头（32字节）:   bitCount u64 | hashCount u32 | reserved u32 | itemCount u64 | fpRatePpm u32 | reserved u32
+ * 段数据:           ceil(bitCount / 64) * 8 字节位图
+ * </pre>
+ * 增量更新通过追加新段实现：先写入段数据，最后更新文件头中的段数量，
+ * 中途失败时旧的段数量仍然有效。查询时依次检查所有段。
+ * 构建时位图直接映射到文件末尾并在映射内存中置位，不在堆上分配；大的导入拆成多段。
+ */
+public final class BreachedPasswordFilter implements Closeable {
+
+    private static final int MAGIC = 0x46425653; // "SVBF"（小端）
+    private static final short VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 16;
+    private static final int SEGMENT_HEADER_SIZE = 32;
+    private static final int SHA1_LENGTH = 20;
+
+    // 单段位图最大字节数（受MappedByteBuffer索引范围限制）
+    private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE & ~7L;
+
+    // 导入哈希列表时单段位图的字节数上限，条目更多时拆成多段
+    private static final long IMPORT_SEGMENT_BYTES = 64L << 20;
+
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    });
+
+    private final RandomAccessFile file;
+    private final Segment[] segments;
+
+    private BreachedPasswordFilter(RandomAccessFile file, Segment[] segments) {
+        this.file = file;
+        this.segments = segments;
+    }
+
+    /**
+     * 以只读内存映射方式打开过滤器文件
+     */
+    @NonNull
+    public static BreachedPasswordFilter open(@NonNull File filterFile) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(filterFile, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            int segmentCount = readFileHeader(channel);
+
+            Segment[] segments = new Segment[segmentCount];
+            long position = FILE_HEADER_SIZE;
+            for (int i = 0; i < segmentCount; i++) {
+                ByteBuffer header = readFully(channel, position, SEGMENT_HEADER_SIZE);
+                long bitCount = header.getLong(0);
+                int hashCount = header.getInt(8);
+                long itemCount = header.getLong(16);
+                int fpRatePpm = header.getInt(24);
+                long byteCount = bitsToBytes(bitCount);
+                if (bitCount <= 0 || hashCount <= 0 || byteCount > MAX_SEGMENT_BYTES
+                        || position + SEGMENT_HEADER_SIZE + byteCount > channel.size()) {
+                    throw new IOException("Corrupt breached password filter segment " + i);
+                }
+
+                MappedByteBuffer bits = channel.map(FileChannel.MapMode.READ_ONLY,
+                        position + SEGMENT_HEADER_SIZE, byteCount);
+                bits.order(ByteOrder.LITTLE_ENDIAN);
+                segments[i] = new Segment(bits, bitCount, hashCount, itemCount, fpRatePpm);
+                position += SEGMENT_HEADER_SIZE + byteCount;
+            }
+            return new BreachedPasswordFilter(raf, segments);
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 检查密码是否可能已泄露
+     * 返回false时一定未收录；返回true时存在配置的误报概率
+     */
+    public boolean mightContain(@NonNull String password) {
+        MessageDigest digest = SHA1.get();
+        byte[] hash = digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        return mightContainSha1(hash);
+    }
+
+    /**
+     * 按SHA-1摘要检查
+     */
+    public boolean mightContainSha1(@NonNull byte[] sha1) {
+        if (sha1.length != SHA1_LENGTH) {
+            throw new IllegalArgumentException("SHA-1 digest must be 20 bytes");
+        }
+        long h1 = readLong(sha1, 0);
+        long h2 = readLong(sha1, 8) | 1L;
+        for (Segment segment : segments) {
+            if (segment.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 已收录的条目总数
+     */
+    public long getItemCount() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.itemCount;
+        }
+        return total;
+    }
+
+    public int getSegmentCount() {
+        return segments.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    // ========== 构建与增量更新 ==========
+
+    /**
+     * 从SHA-1哈希列表文本导入，作为新段追加到过滤器文件（文件不存在时创建）
+     * 每行格式为40位十六进制SHA-1，可带 ":次数" 后缀（与常见泄露哈希列表格式兼容）
+     *
+     * @param hashList   哈希列表文件
+     * @param filterFile 过滤器文件
+     * @param fpRate     期望误报率，例如 0.001
+     * @return 导入的条目数
+     */
+    public static long importHashList(@NonNull File hashList, @NonNull File filterFile,
+                                      double fpRate) throws IOException {
+        return importHashList(hashList, filterFile, fpRate, IMPORT_SEGMENT_BYTES);
+    }
+
+    static long importHashList(File hashList, File filterFile, double fpRate,
+                               long maxSegmentBytes) throws IOException {
+        // 第一遍统计条目数以确定位图大小
+        long count = 0;
+        try (BufferedReader reader = newReader(hashList)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (parseHexSha1(line) != null) {
+                    count++;
+                }
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+
+        long perSegment = Math.min(count, SegmentBuilder.capacity(maxSegmentBytes, fpRate));
+        long imported = 0;
+        try (BufferedReader reader = newReader(hashList)) {
+            boolean more = true;
+            while (more && imported < count) {
+                long expected = Math.min(perSegment, count - imported);
+                try (SegmentBuilder builder = SegmentBuilder.create(filterFile, expected, fpRate)) {
+                    more = fillSegment(reader, builder, expected);
+                    if (builder.getItemCount() > 0) {
+                        builder.commit();
+                        imported += builder.getItemCount();
+                    }
+                }
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * 读取哈希直到段满
+     *
+     * @return false表示哈希列表已读完
+     */
+    private static boolean fillSegment(BufferedReader reader, SegmentBuilder builder,
+                                       long expected) throws IOException {
+        String line;
+        while (builder.getItemCount() < expected) {
+            if ((line = reader.readLine()) == null) {
+                return false;
+            }
+            byte[] sha1 = parseHexSha1(line);
+            if (sha1 != null) {
+                builder.addSha1(sha1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将另一个过滤器文件的所有段追加到目标文件（用于导入预构建的过滤器或增量包）
+     *
+     * @return 追加的段数
+     */
+    public static int importFilterFile(@NonNull File source, @NonNull File filterFile) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(source, "r")) {
+            FileChannel channel = in.getChannel();
+            int segmentCount = readFileHeader(channel);
+            long position = FILE_HEADER_SIZE;
+            for (int i = 0; i < segmentCount; i++) {
+                ByteBuffer header = readFully(channel, position, SEGMENT_HEADER_SIZE);
+                long byteCount = bitsToBytes(header.getLong(0));
+                if (byteCount > MAX_SEGMENT_BYTES
+                        || position + SEGMENT_HEADER_SIZE + byteCount > channel.size()) {
+                    throw new IOException("Corrupt breached password filter segment " + i);
+                }
+                appendRawSegment(filterFile, header, channel, position + SEGMENT_HEADER_SIZE, byteCount);
+                position += SEGMENT_HEADER_SIZE + byteCount;
+            }
+            return segmentCount;
+        }
+    }
+
+    /**
+     * 段构建器
+     * 位图大小与哈希函数数量由期望条目数和误报率决定；位图直接映射在过滤器文件末尾，
+     * 调用 {@link #commit()} 后才计入文件头，未提交就关闭时丢弃。同一文件同时只能有一个构建器
+     */
+    public static final class SegmentBuilder implements Closeable {
+        private final RandomAccessFile file;
+        private final FileChannel channel;
+        private final int segmentCount;
+        private final long position;
+        private final MappedByteBuffer bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final double fpRate;
+        private long itemCount;
+        private boolean committed;
+
+        private SegmentBuilder(RandomAccessFile file, long bitCount, int hashCount, double fpRate) throws IOException {
+            this.file = file;
+            this.channel = file.getChannel();
+            this.segmentCount = prepareForAppend(channel);
+            this.position = channel.size();
+            this.bitCount = bitCount;
+            this.hashCount = hashCount;
+            this.fpRate = fpRate;
+            // 扩展出的区域全部为0
+            long byteCount = bitsToBytes(bitCount);
+            file.setLength(position + SEGMENT_HEADER_SIZE + byteCount);
+            this.bits = channel.map(FileChannel.MapMode.READ_WRITE, position + SEGMENT_HEADER_SIZE, byteCount);
+        }
+
+        /**
+         * 在过滤器文件末尾开始一个新段（文件不存在时创建）
+         */
+        @NonNull
+        public static SegmentBuilder create(@NonNull File filterFile, long expectedItems,
+                                            double fpRate) throws IOException {
+            if (expectedItems <= 0) {
+                throw new IllegalArgumentException("expectedItems must be positive");
+            }
+            if (fpRate <= 0 || fpRate >= 1) {
+                throw new IllegalArgumentException("fpRate must be in (0, 1)");
+            }
+            double ln2 = Math.log(2);
+            long bits = (long) Math.ceil(-expectedItems * Math.log(fpRate) / (ln2 * ln2));
+            bits = Math.max(64, (bits + 63) & ~63L);
+            if (bits / 8 > MAX_SEGMENT_BYTES) {
+                throw new IllegalArgumentException("Segment too large, split the import");
+            }
+            int hashCount = Math.max(1, (int) Math.round((double) bits / expectedItems * ln2));
+
+            RandomAccessFile raf = new RandomAccessFile(filterFile, "rw");
+            try {
+                return new SegmentBuilder(raf, bits, hashCount, fpRate);
+            } catch (IOException | RuntimeException e) {
+                raf.close();
+                throw e;
+            }
+        }
+
+        /**
+         * 给定位图字节数和误报率时单段能容纳的条目数
+         */
+        static long capacity(long segmentBytes, double fpRate) {
+            double ln2 = Math.log(2);
+            return Math.max(1, (long) (segmentBytes * 8 * ln2 * ln2 / -Math.log(fpRate)));
+        }
+
+        public void addPassword(@NonNull String password) {
+            addSha1(SHA1.get().digest(password.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        public void addSha1(@NonNull byte[] sha1) {
+            if (sha1.length != SHA1_LENGTH) {
+                throw new IllegalArgumentException("SHA-1 digest must be 20 bytes");
+            }
+            if (committed) {
+                throw new IllegalStateException("Segment already committed");
+            }
+            long h1 = readLong(sha1, 0);
+            long h2 = readLong(sha1, 8) | 1L;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                int index = (int) (bit >>> 3);
+                bits.put(index, (byte) (bits.get(index) | (1 << (bit & 7))));
+            }
+            itemCount++;
+        }
+
+        public long getItemCount() {
+            return itemCount;
+        }
+
+        /**
+         * 写入段头并更新文件头中的段数量
+         */
+        public void commit() throws IOException {
+            if (committed) {
+                return;
+            }
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(0, bitCount);
+            header.putInt(8, hashCount);
+            header.putLong(16, itemCount);
+            header.putInt(24, (int) Math.round(fpRate * 1_000_000));
+            writeFully(channel, header, position);
+            bits.force();
+            commitSegmentCount(channel, segmentCount + 1);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (!committed) {
+                    // 未提交的尾部不会被读取，下次追加时也会截断，这里提前释放空间
+                    channel.truncate(position);
+                }
+            } finally {
+                file.close();
+            }
+        }
+    }
+
+    // ========== 内部实现 ==========
+
+    private static final class Segment {
+        final MappedByteBuffer bits;
+        final long bitCount;
+        final int hashCount;
+        final long itemCount;
+        final int fpRatePpm;
+
+        Segment(MappedByteBuffer bits, long bitCount, int hashCount, long itemCount, int fpRatePpm) {
+            this.bits = bits;
+            this.bitCount = bitCount;
+            this.hashCount = hashCount;
+            this.itemCount = itemCount;
+            this.fpRatePpm = fpRatePpm;
+        }
+
+        boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                // 绝对位置读取，线程安全且不移动缓冲区位置
+                byte b = bits.get((int) (bit >>> 3));
+                if ((b & (1 << (bit & 7))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static int readFileHeader(FileChannel channel) throws IOException {
+        if (channel.size() < FILE_HEADER_SIZE) {
+            throw new IOException("Not a breached password filter file");
+        }
+        ByteBuffer header = readFully(channel, 0, FILE_HEADER_SIZE);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a breached password filter file");
+        }
+        if (header.getShort(4) != VERSION) {
+            throw new IOException("Unsupported filter version: " + header.getShort(4));
+        }
+        int segmentCount = header.getInt(8);
+        if (segmentCount < 0) {
+            throw new IOException("Corrupt breached password filter header");
+        }
+        return segmentCount;
+    }
+
+    private static void appendRawSegment(File filterFile, ByteBuffer header, FileChannel source,
+                                         long sourcePosition, long byteCount) throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(filterFile, "rw")) {
+            FileChannel channel = out.getChannel();
+            int segmentCount = prepareForAppend(channel);
+            long position = channel.size();
+            header.rewind();
+            writeFully(channel, header, position);
+            long transferred = 0;
+            while (transferred < byteCount) {
+                long n = channel.transferFrom(source.position(sourcePosition + transferred),
+                        position + SEGMENT_HEADER_SIZE + transferred, byteCount - transferred);
+                if (n <= 0) {
+                    throw new IOException("Unexpected end of filter file");
+                }
+                transferred += n;
+            }
+            commitSegmentCount(channel, segmentCount + 1);
+        }
+    }
+
+    /**
+     * 新文件写入文件头；已有文件截断未提交的尾部数据
+     *
+     * @return 当前已提交的段数
+     */
+    private static int prepareForAppend(FileChannel channel) throws IOException {
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC);
+            header.putShort(4, VERSION);
+            writeFully(channel, header, 0);
+            return 0;
+        }
+
+        int segmentCount = readFileHeader(channel);
+        long position = FILE_HEADER_SIZE;
+        for (int i = 0; i < segmentCount; i++) {
+            ByteBuffer header = readFully(channel, position, SEGMENT_HEADER_SIZE);
+            position += SEGMENT_HEADER_SIZE + bitsToBytes(header.getLong(0));
+        }
+        if (position > channel.size()) {
+            throw new IOException("Corrupt breached password filter file");
+        }
+        // 丢弃上次中断的追加
+        channel.truncate(position);
+        return segmentCount;
+    }
+
+    private static void commitSegmentCount(FileChannel channel, int segmentCount) throws IOException {
+        channel.force(false);
+        ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        count.putInt(0, segmentCount);
+        writeFully(channel, count, 8);
+        channel.force(false);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of filter file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        buffer.rewind();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static long bitsToBytes(long bitCount) {
+        return ((bitCount + 63) >>> 6) << 3;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value |= (bytes[offset + i] & 0xFFL) << (8 * i);
+        }
+        return value;
+    }
+
+    private static BufferedReader newReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 解析一行十六进制SHA-1，格式不符时返回null
+     */
+    static byte[] parseHexSha1(String line) {
+        if (line == null) {
+            return null;
+        }
+        int start = 0;
+        while (start < line.length() && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        if (line.length() - start < SHA1_LENGTH * 2) {
+            return null;
+        }
+        int end = start + SHA1_LENGTH * 2;
+        if (end < line.length() && line.charAt(end) != ':' && !Character.isWhitespace(line.charAt(end))) {
+            return null;
+        }
+
+        byte[] sha1 = new byte[SHA1_LENGTH];
+        for (int i = 0; i < SHA1_LENGTH; i++) {
+            int hi = Character.digit(line.charAt(start + 2 * i), 16);
+            int lo = Character.digit(line.charAt(start + 2 * i + 1), 16);
+            if (hi < 0 || lo < 0) {
+                return null;
+            }
+            sha1[i] = (byte) ((hi << 4) | lo);
+        }
+        return sha1;
+    }
+
+}
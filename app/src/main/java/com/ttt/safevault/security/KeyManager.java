@@ -2,21 +2,31 @@ package com.ttt.safevault.security;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.os.Build;
 import android.provider.Settings;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import java.security.KeyFactory;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
-import java.security.NoSuchAlgorithmException;
+import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
 import java.util.Base64;
 
 /**
  * 密钥管理器
- * 负责生成和存储RSA密钥对
+ * Android 13及以上在Keystore中生成X25519身份密钥，私钥不离开Keystore，用于分享信封的密钥协商；
+ * 更低版本没有软件X25519，保留持久化的RSA密钥对仅用于注册，分享改用保险库密钥加密。
  */
 public class KeyManager {
     private static final String TAG = "KeyManager";
@@ -24,6 +34,8 @@ public class KeyManager {
     private static final String KEY_PUBLIC_KEY = "public_key";
     private static final String KEY_PRIVATE_KEY = "private_key";
     private static final String KEY_DEVICE_ID = "device_id";
+    private static final String ANDROID_KEYSTORE = "AndroidKeyStore";
+    private static final String SHARE_KEY_ALIAS = "safevault_share_x25519";
 
     private static volatile KeyManager INSTANCE;
     private final Context context;
@@ -53,22 +65,80 @@ public class KeyManager {
      * 加载或生成密钥对
      */
     private void loadOrGenerateKeys() {
+        try {
+            if (supportsShareKey()) {
+                this.keyPair = loadOrGenerateShareKey();
+            } else {
+                this.keyPair = loadOrGenerateRsaKey();
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to load or generate key pair", e);
+            throw new RuntimeException("Failed to load or generate key pair", e);
+        }
+    }
+
+    /**
+     * 从Keystore加载X25519身份密钥，不存在时生成
+     */
+    private KeyPair loadOrGenerateShareKey() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance(ANDROID_KEYSTORE);
+        keyStore.load(null);
+        if (keyStore.containsAlias(SHARE_KEY_ALIAS)) {
+            PrivateKey privateKey = (PrivateKey) keyStore.getKey(SHARE_KEY_ALIAS, null);
+            Certificate certificate = keyStore.getCertificate(SHARE_KEY_ALIAS);
+            if (privateKey != null && certificate != null) {
+                Log.d(TAG, "Loaded existing share key");
+                return new KeyPair(certificate.getPublicKey(), privateKey);
+            }
+            keyStore.deleteEntry(SHARE_KEY_ALIAS);
+        }
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance(KeyProperties.KEY_ALGORITHM_EC, ANDROID_KEYSTORE);
+        keyGen.initialize(new KeyGenParameterSpec.Builder(SHARE_KEY_ALIAS, KeyProperties.PURPOSE_AGREE_KEY)
+                .setAlgorithmParameterSpec(new ECGenParameterSpec("x25519"))
+                .build());
+        KeyPair generated = keyGen.generateKeyPair();
+        Log.d(TAG, "Generated new share key");
+        return generated;
+    }
+
+    /**
+     * 加载已保存的RSA密钥对，不存在或损坏时生成并保存
+     */
+    private KeyPair loadOrGenerateRsaKey() throws Exception {
         String publicKeyStr = prefs.getString(KEY_PUBLIC_KEY, null);
         String privateKeyStr = prefs.getString(KEY_PRIVATE_KEY, null);
 
         if (publicKeyStr != null && privateKeyStr != null) {
-            // 加载已保存的密钥
             try {
-                this.keyPair = loadKeyPair(publicKeyStr, privateKeyStr);
+                KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+                PublicKey publicKey = keyFactory.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(publicKeyStr)));
+                PrivateKey privateKey = keyFactory.generatePrivate(
+                        new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKeyStr)));
                 Log.d(TAG, "Loaded existing key pair");
+                return new KeyPair(publicKey, privateKey);
             } catch (Exception e) {
                 Log.e(TAG, "Failed to load keys, generating new ones", e);
-                generateAndSaveKeys();
             }
-        } else {
-            // 生成新密钥
-            generateAndSaveKeys();
         }
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair generated = keyGen.generateKeyPair();
+        prefs.edit()
+                .putString(KEY_PUBLIC_KEY, Base64.getEncoder().encodeToString(generated.getPublic().getEncoded()))
+                .putString(KEY_PRIVATE_KEY, Base64.getEncoder().encodeToString(generated.getPrivate().getEncoded()))
+                .apply();
+        Log.d(TAG, "Generated and saved new key pair");
+        return generated;
+    }
+
+    /**
+     * Keystore的X25519需要Android 12，临时密钥的软件X25519需要Android 13
+     */
+    private static boolean supportsShareKey() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU;
     }
 
     /**
@@ -85,31 +155,6 @@ public class KeyManager {
         }
     }
 
-    /**
-     * 生成新的RSA密钥对
-     */
-    private void generateAndSaveKeys() {
-        try {
-            KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
-            keyGen.initialize(2048);
-            this.keyPair = keyGen.generateKeyPair();
-
-            // 保存密钥
-            String publicKeyStr = Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded());
-            String privateKeyStr = Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded());
-
-            prefs.edit()
-                    .putString(KEY_PUBLIC_KEY, publicKeyStr)
-                    .putString(KEY_PRIVATE_KEY, privateKeyStr)
-                    .apply();
-
-            Log.d(TAG, "Generated and saved new key pair");
-        } catch (NoSuchAlgorithmException e) {
-            Log.e(TAG, "Failed to generate key pair", e);
-            throw new RuntimeException("Failed to generate key pair", e);
-        }
-    }
-
     /**
      * 生成设备ID
      */
@@ -117,20 +162,6 @@ public class KeyManager {
         return Settings.Secure.getString(context.getContentResolver(), Settings.Secure.ANDROID_ID);
     }
 
-    /**
-     * 从字符串加载密钥对
-     */
-    private KeyPair loadKeyPair(String publicKeyStr, String privateKeyStr) throws Exception {
-        // 简化实现，实际项目中需要更完整的密钥加载逻辑
-        byte[] publicKeyBytes = Base64.getDecoder().decode(publicKeyStr);
-        byte[] privateKeyBytes = Base64.getDecoder().decode(privateKeyStr);
-
-        // 这里需要使用 KeyFactory 来重建密钥
-        // 由于实现较复杂，这里返回 null，实际使用时会重新生成
-        // 生产环境应该实现完整的密钥加载逻辑
-        throw new UnsupportedOperationException("Key loading not implemented");
-    }
-
     /**
      * 获取公钥（Base64编码）
      */
@@ -141,6 +172,21 @@ public class KeyManager {
         return null;
     }
 
+    /**
+     * 是否有可用于分享信封的X25519身份密钥
+     */
+    public boolean hasShareKey() {
+        return keyPair != null && supportsShareKey();
+    }
+
+    /**
+     * 获取X25519公钥的32字节原始格式，不支持时返回null
+     */
+    @Nullable
+    public byte[] getRawPublicKey() {
+        return hasShareKey() ? ShareEnvelope.rawPublicKey(keyPair.getPublic()) : null;
+    }
+
     /**
      * 获取私钥
      */
@@ -166,8 +212,16 @@ public class KeyManager {
                 .remove(KEY_PUBLIC_KEY)
                 .remove(KEY_PRIVATE_KEY)
                 .apply();
+        try {
+            KeyStore keyStore = KeyStore.getInstance(ANDROID_KEYSTORE);
+            keyStore.load(null);
+            keyStore.deleteEntry(SHARE_KEY_ALIAS);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to delete share key", e);
+        }
+        ShareEnvelope.clearCache();
         keyPair = null;
-        generateAndSaveKeys();
+        loadOrGenerateKeys();
         Log.d(TAG, "Cleared and regenerated keys");
     }
 }
@@ -0,0 +1,211 @@
+package com.ttt.safevault.security;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * 口令短语（Diceware）生成器
+ * 词表以资源文件形式打包（每行一个小写单词，不压缩），首次使用时内存映射并建立偏移索引，
+ * 之后每个单词的抽取都是 O(1)；单词直接从映射内存复制到输出 char[]，不会逐词创建 String。
+ */
+public final class PassphraseGenerator {
+
+    private static final String TAG = "PassphraseGenerator";
+    private static final String WORD_LIST_ASSET = "wordlists/passphrase.words";
+
+    public static final int MIN_WORDS = 3;
+    public static final int MAX_WORDS = 12;
+    public static final int DEFAULT_WORDS = 5;
+    public static final String DEFAULT_SEPARATOR = "-";
+
+    /**
+     * 大小写方式
+     */
+    public enum Capitalization {
+        LOWER,  // 全部小写
+        TITLE,  // 每个单词首字母大写
+        UPPER   // 全部大写
+    }
+
+    private static volatile PassphraseGenerator INSTANCE;
+
+    private final ByteBuffer words;
+    private final int[] starts;
+    private final int[] ends;
+    private final SecureRandomPool random = new SecureRandomPool();
+
+    private PassphraseGenerator(@NonNull ByteBuffer words) {
+        this.words = words;
+
+        // 第一遍计数，第二遍记录每个单词的起止偏移
+        int limit = words.limit();
+        int count = 0;
+        for (int i = 0; i < limit; ) {
+            int end = lineEnd(words, i, limit);
+            if (end > i) {
+                count++;
+            }
+            i = nextLine(words, end, limit);
+        }
+
+        starts = new int[count];
+        ends = new int[count];
+        int index = 0;
+        for (int i = 0; i < limit; ) {
+            int end = lineEnd(words, i, limit);
+            if (end > i) {
+                starts[index] = i;
+                ends[index] = end;
+                index++;
+            }
+            i = nextLine(words, end, limit);
+        }
+        Log.d(TAG, "Word list loaded: " + count + " words");
+    }
+
+    /**
+     * 首次调用会读取词表资源并建立索引，不要在主线程调用
+     */
+    public static PassphraseGenerator getInstance(@NonNull Context context) {
+        if (INSTANCE == null) {
+            synchronized (PassphraseGenerator.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new PassphraseGenerator(loadWordList(context.getApplicationContext()));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 词表大小
+     */
+    public int getWordCount() {
+        return starts.length;
+    }
+
+    /**
+     * 口令短语的熵（位），只与词表大小和单词数有关
+     */
+    public double getEntropyBits(int wordCount) {
+        return clampWordCount(wordCount) * (Math.log(starts.length) / Math.log(2));
+    }
+
+    /**
+     * 生成口令短语
+     *
+     * @param wordCount      单词数（3-12）
+     * @param separator      单词分隔符，可以为空字符串
+     * @param capitalization 大小写方式
+     * @return 口令短语字符数组，使用后可调用 {@link PasswordGenerator#wipe(char[])} 清零
+     */
+    @NonNull
+    public char[] generate(int wordCount, @NonNull String separator, @NonNull Capitalization capitalization) {
+        int count = clampWordCount(wordCount);
+        if (starts.length == 0) {
+            throw new IllegalStateException("Word list is empty");
+        }
+
+        int[] picks = new int[count];
+        int total = separator.length() * (count - 1);
+        for (int i = 0; i < count; i++) {
+            picks[i] = random.nextInt(starts.length);
+            total += ends[picks[i]] - starts[picks[i]];
+        }
+
+        char[] out = new char[total];
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                separator.getChars(0, separator.length(), out, position);
+                position += separator.length();
+            }
+            int start = starts[picks[i]];
+            int end = ends[picks[i]];
+            for (int k = start; k < end; k++) {
+                char c = (char) (words.get(k) & 0xFF);
+                if (capitalization == Capitalization.UPPER
+                        || (capitalization == Capitalization.TITLE && k == start)) {
+                    c = Character.toUpperCase(c);
+                }
+                out[position++] = c;
+            }
+        }
+        Arrays.fill(picks, 0);
+        return out;
+    }
+
+    /**
+     * 生成口令短语字符串（字符数组在转换后立即清零）
+     */
+    @NonNull
+    public String generateString(int wordCount, @NonNull String separator,
+                                 @NonNull Capitalization capitalization) {
+        char[] passphrase = generate(wordCount, separator, capitalization);
+        try {
+            return new String(passphrase);
+        } finally {
+            PasswordGenerator.wipe(passphrase);
+        }
+    }
+
+    private static int clampWordCount(int wordCount) {
+        return Math.max(MIN_WORDS, Math.min(MAX_WORDS, wordCount));
+    }
+
+    private static int lineEnd(ByteBuffer buffer, int from, int limit) {
+        int i = from;
+        while (i < limit && buffer.get(i) != '\n' && buffer.get(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int nextLine(ByteBuffer buffer, int from, int limit) {
+        int i = from;
+        while (i < limit && (buffer.get(i) == '\n' || buffer.get(i) == '\r')) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 词表资源未压缩时直接内存映射，否则一次性读入内存
+     */
+    @NonNull
+    private static ByteBuffer loadWordList(@NonNull Context context) {
+        AssetManager assets = context.getAssets();
+        try (AssetFileDescriptor fd = assets.openFd(WORD_LIST_ASSET);
+             FileInputStream in = fd.createInputStream()) {
+            FileChannel channel = in.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getDeclaredLength());
+        } catch (IOException e) {
+            Log.w(TAG, "Word list is compressed, loading into memory", e);
+        }
+
+        try (InputStream in = assets.open(WORD_LIST_ASSET)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return ByteBuffer.wrap(out.toByteArray());
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to load word list", e);
+            return ByteBuffer.allocate(0);
+        }
+    }
+}
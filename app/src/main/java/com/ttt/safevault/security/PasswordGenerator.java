@@ -0,0 +1,263 @@
+package com.ttt.safevault.security;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * 统一的随机密码生成引擎
+ * 字符表预先计算；随机数取自 {@link SecureRandomPool}，无偏且不逐次调用 SecureRandom；
+ * 必选字符与填充字符写入同一个 char[] 后原地洗牌，生成过程不装箱、不拼接字符串。
+ * 返回的 char[] 可在使用后调用 {@link #wipe(char[])} 清零。
+ */
+public final class PasswordGenerator {
+
+    private static final char[] UPPERCASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final char[] LOWERCASE = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final char[] NUMBERS = "0123456789".toCharArray();
+    // 与原 BackendServiceImpl 的符号表一致，包含引号、分号和斜杠
+    static final char[] SYMBOLS = "!@#$%^&*()_+-=[]{}|;':\",./<>?".toCharArray();
+
+    // 长度上限，超出时构建策略抛出异常
+    public static final int MAX_LENGTH = 256;
+
+    private static final PasswordGenerator INSTANCE = new PasswordGenerator();
+
+    private final SecureRandomPool random = new SecureRandomPool();
+
+    private PasswordGenerator() {
+    }
+
+    public static PasswordGenerator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 按策略生成一个密码
+     */
+    @NonNull
+    public char[] generate(@NonNull Policy policy) {
+        char[] password = new char[policy.length];
+        synchronized (this) {
+            fill(password, policy);
+        }
+        return password;
+    }
+
+    /**
+     * 按策略生成密码字符串（字符数组在转换后立即清零）
+     */
+    @NonNull
+    public String generateString(@NonNull Policy policy) {
+        char[] password = generate(policy);
+        try {
+            return new String(password);
+        } finally {
+            wipe(password);
+        }
+    }
+
+    /**
+     * 批量生成密码，用于批量创建凭据和历史列表
+     * 整批只获取一次锁，共用同一个随机字节池
+     *
+     * @param count  数量
+     * @param policy 生成策略
+     * @return 密码数组，使用后可调用 {@link #wipe(char[][])} 清零
+     */
+    @NonNull
+    public char[][] generateBatch(int count, @NonNull Policy policy) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        char[][] passwords = new char[count][policy.length];
+        synchronized (this) {
+            for (char[] password : passwords) {
+                fill(password, policy);
+            }
+        }
+        return passwords;
+    }
+
+    /**
+     * 清零单个密码
+     */
+    public static void wipe(char[] password) {
+        if (password != null) {
+            Arrays.fill(password, '\0');
+        }
+    }
+
+    /**
+     * 清零一批密码
+     */
+    public static void wipe(char[][] passwords) {
+        if (passwords != null) {
+            for (char[] password : passwords) {
+                wipe(password);
+            }
+        }
+    }
+
+    private void fill(char[] out, Policy policy) {
+        // 先为每种选中的字符类型放入一个字符，保证覆盖
+        int position = 0;
+        for (char[] required : policy.requiredSets) {
+            if (position < out.length) {
+                out[position++] = required[random.nextInt(required.length)];
+            }
+        }
+
+        char[] table = policy.table;
+        while (position < out.length) {
+            out[position++] = table[random.nextInt(table.length)];
+        }
+
+        // Fisher-Yates 原地洗牌
+        for (int i = out.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            char temp = out[i];
+            out[i] = out[j];
+            out[j] = temp;
+        }
+    }
+
+    /**
+     * 生成策略
+     * 构建时合并字符表，同一策略可重复使用
+     */
+    public static final class Policy {
+        private final int length;
+        private final boolean uppercase;
+        private final boolean lowercase;
+        private final boolean numbers;
+        private final boolean symbols;
+        private final char[] table;
+        private final char[][] requiredSets;
+
+        private Policy(Builder builder) {
+            boolean any = builder.uppercase || builder.lowercase || builder.numbers || builder.symbols;
+            // 未选择任何类型时默认使用小写字母和数字
+            this.uppercase = builder.uppercase;
+            this.lowercase = any ? builder.lowercase : true;
+            this.numbers = any ? builder.numbers : true;
+            this.symbols = builder.symbols;
+            if (builder.length < 1 || builder.length > MAX_LENGTH) {
+                throw new IllegalArgumentException("length must be between 1 and " + MAX_LENGTH);
+            }
+            this.length = builder.length;
+
+            int setCount = (uppercase ? 1 : 0) + (lowercase ? 1 : 0) + (numbers ? 1 : 0) + (symbols ? 1 : 0);
+            this.requiredSets = new char[setCount][];
+            int index = 0;
+            int tableSize = 0;
+            if (uppercase) {
+                requiredSets[index++] = UPPERCASE;
+                tableSize += UPPERCASE.length;
+            }
+            if (lowercase) {
+                requiredSets[index++] = LOWERCASE;
+                tableSize += LOWERCASE.length;
+            }
+            if (numbers) {
+                requiredSets[index++] = NUMBERS;
+                tableSize += NUMBERS.length;
+            }
+            if (symbols) {
+                requiredSets[index] = SYMBOLS;
+                tableSize += SYMBOLS.length;
+            }
+
+            this.table = new char[tableSize];
+            int offset = 0;
+            for (char[] set : requiredSets) {
+                System.arraycopy(set, 0, table, offset, set.length);
+                offset += set.length;
+            }
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public boolean isUppercase() {
+            return uppercase;
+        }
+
+        public boolean isLowercase() {
+            return lowercase;
+        }
+
+        public boolean isNumbers() {
+            return numbers;
+        }
+
+        public boolean isSymbols() {
+            return symbols;
+        }
+
+        /**
+         * 密码总熵（位）
+         */
+        public double getEntropyBits() {
+            return length * (Math.log(table.length) / Math.log(2));
+        }
+
+        /**
+         * 按常用参数创建策略
+         * 长度短于选中的类型数时只保证前几种类型各有一个字符
+         *
+         * @throws IllegalArgumentException 长度不在 1 到 {@link #MAX_LENGTH} 之间
+         */
+        public static Policy of(int length, boolean uppercase, boolean lowercase,
+                                boolean numbers, boolean symbols) {
+            return new Builder()
+                    .setLength(length)
+                    .setUppercase(uppercase)
+                    .setLowercase(lowercase)
+                    .setNumbers(numbers)
+                    .setSymbols(symbols)
+                    .build();
+        }
+
+        /**
+         * Builder模式构建Policy
+         */
+        public static class Builder {
+            private int length = 16;
+            private boolean uppercase = true;
+            private boolean lowercase = true;
+            private boolean numbers = true;
+            private boolean symbols = false;
+
+            public Builder setLength(int length) {
+                this.length = length;
+                return this;
+            }
+
+            public Builder setUppercase(boolean uppercase) {
+                this.uppercase = uppercase;
+                return this;
+            }
+
+            public Builder setLowercase(boolean lowercase) {
+                this.lowercase = lowercase;
+                return this;
+            }
+
+            public Builder setNumbers(boolean numbers) {
+                this.numbers = numbers;
+                return this;
+            }
+
+            public Builder setSymbols(boolean symbols) {
+                this.symbols = symbols;
+                return this;
+            }
+
+            public Policy build() {
+                return new Policy(this);
+            }
+        }
+    }
+}
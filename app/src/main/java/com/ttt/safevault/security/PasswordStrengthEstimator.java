@@ -0,0 +1,983 @@
+package com.ttt.safevault.security;
+
+import androidx.annotation.NonNull;
+
+import com.ttt.safevault.model.PasswordStrength;
+
+import java.time.Year;
+
+/**
+ * 基于模式匹配的密码熵估算器（参考 zxcvbn 的思路）
+ * 识别常见密码与单词（含大小写变化、l33t替换、反写）、键盘相邻按键、重复、连续字符和日期，
+ * 再通过动态规划找出攻击者最省力的拆分方式，估算所需猜测次数与离线破解时间。
+ *
+ * 字典和键盘图在首次使用时构建一次；每次估算只复用线程本地工作区，
+ * 适合在输入每个字符时调用。
+ */
+public final class PasswordStrengthEstimator {
+
+    // 只分析前64个字符，其余部分按暴力破解计入
+    private static final int MAX_ANALYZED_LENGTH = 64;
+
+    // 离线攻击慢哈希（如PBKDF2）的猜测速度：次/秒
+    public static final double GUESSES_PER_SECOND = 1e4;
+
+    // 分数阈值（log10猜测次数）：<3 → 0，<6 → 1，<8 → 2，<10 → 3，其余 → 4
+    private static final double[] SCORE_THRESHOLDS = {3, 6, 8, 10};
+
+    private static final double BRUTEFORCE_CARDINALITY = 10;
+    private static final double MIN_GUESSES_SINGLE_CHAR = 10;
+    private static final double MIN_GUESSES_MULTI_CHAR = 50;
+    private static final double LOG10_MIN_GUESSES_BEFORE_GROWING_SEQUENCE = 4;
+    private static final int MIN_YEAR_SPACE = 20;
+
+    // 模式类型
+    static final byte PATTERN_BRUTEFORCE = 0;
+    static final byte PATTERN_DICTIONARY = 1;
+    static final byte PATTERN_SPATIAL = 2;
+    static final byte PATTERN_REPEAT = 3;
+    static final byte PATTERN_SEQUENCE = 4;
+    static final byte PATTERN_DATE = 5;
+
+    // ========== 内置字典（按常见程度排序，越靠前越常见） ==========
+
+    private static final String COMMON_PASSWORDS =
+            "password 123456 qwerty 12345678 111111 iloveyou admin welcome monkey dragon " +
+            "letmein football baseball abc123 sunshine master shadow superman princess qazwsx " +
+            "michael trustno1 batman passw0rd zaq1zaq1 charlie donald freedom whatever hello " +
+            "ninja mustang access flower loveme starwars hottie jordan hunter buster soccer " +
+            "harley ranger cookie pepper killer tigger computer internet samsung google secret " +
+            "summer winter spring autumn love angel qwertyuiop asdfgh zxcvbn 1q2w3e4r 1qaz2wsx " +
+            "q1w2e3r4 aaaaaa 888888 666666 520520 521521 5201314 147258 159753 987654 " +
+            "woaini woaini1314 iloveu changeme default root guest test user login " +
+            "passport matrix pokemon naruto minecraft fuckyou asshole biteme696 chelsea arsenal " +
+            "liverpool barcelona juventus yankees lakers cowboys eagles steelers";
+
+    private static final String ENGLISH_WORDS =
+            "the you and that was for are with his they this have from one had word but not " +
+            "what all were when your can said there use each which she how their will other " +
+            "about out many then them these some her would make like him into time has look " +
+            "two more write see number way could people than first water been call who find " +
+            "long down day did get come made may part over new sound take only little work " +
+            "know place year live back give most very after thing our just name good sentence " +
+            "man think say great where help through much before line right too mean old any " +
+            "same tell boy follow came want show also around form three small set put end " +
+            "does another well large must big even such because turn here why ask went men " +
+            "read need land different home move try kind hand picture again change off play " +
+            "spell air away animal house point page letter mother answer found study still " +
+            "learn should america world high every near add food between own below country " +
+            "plant last school father keep tree never start city earth eye light thought head " +
+            "under story saw left few while along might close something seem next hard open " +
+            "example begin life always those both paper together got group often run " +
+            "money happy family friend baby girl blue black red green orange purple silver " +
+            "golden star moon sun sky fire ice snow rain storm heart soul magic power";
+
+    private static final String NAMES =
+            "james john robert michael william david richard joseph thomas charles mary " +
+            "patricia jennifer linda elizabeth barbara susan jessica sarah karen lisa nancy " +
+            "daniel matthew anthony mark paul steven andrew kevin brian george emma olivia " +
+            "sophia isabella mia amelia harry jack oliver lucy alice tom anna kate " +
+            "wang li zhang liu chen yang huang zhao wu zhou xu sun ma zhu hu guo he lin luo " +
+            "zhangwei wangwei wangfang liwei lina zhangmin lijing wangjing liuwei wangxiuying";
+
+    private static final String PINYIN_WORDS =
+            "woaini aini wode baobei laopo laogong qinai xiaobao tiantian kuaile xingfu " +
+            "mima zhongguo beijing shanghai shenzhen guangzhou nihao xiexie yongyuan aiqing " +
+            "pengyou jiayou mingtian xiaoming xiaohong xiaohua meimei gege jiejie didi " +
+            "baba mama shouji diannao weixin qq zhifubao taobao tencent baidu alibaba huawei " +
+            "xiaomi lenovo haha hehe caonima woshishui shabi";
+
+    // l33t 替换表：密文字符 -> 可能对应的字母
+    private static final String L33T_FROM = "4@83(<{[6901!|$5+7%2";
+    private static final String[] L33T_TO = {
+            "a", "a", "b", "e", "c", "c", "c", "c", "g", "g", "o", "il", "i", "il", "s", "s",
+            "t", "tl", "x", "z"
+    };
+
+    // 序列中视为显而易见起点的字符
+    private static final String OBVIOUS_SEQUENCE_STARTS = "aAzZ019";
+
+    private static final String SEPARATORS = "/-._ \\";
+
+    private static final PasswordStrengthEstimator INSTANCE = new PasswordStrengthEstimator();
+
+    // 字典前缀树（扁平数组表示：首子节点/下一兄弟节点链表）
+    private char[] nodeChar = new char[4096];
+    private int[] firstChild = new int[4096];
+    private int[] nextSibling = new int[4096];
+    private int[] nodeRank = new int[4096];
+    private int nodeCount;
+
+    private final KeyboardGraph qwerty;
+    private final KeyboardGraph keypad;
+    private final int referenceYear;
+
+    private final ThreadLocal<Workspace> workspace = ThreadLocal.withInitial(Workspace::new);
+
+    private PasswordStrengthEstimator() {
+        nodeCount = 1; // 0号为根节点
+        firstChild[0] = -1;
+        nextSibling[0] = -1;
+        addDictionary(COMMON_PASSWORDS);
+        addDictionary(PINYIN_WORDS);
+        addDictionary(NAMES);
+        addDictionary(ENGLISH_WORDS);
+
+        qwerty = KeyboardGraph.slanted(
+                "`~ 1! 2@ 3# 4$ 5% 6^ 7& 8* 9( 0) -_ =+",
+                "qQ wW eE rR tT yY uU iI oO pP [{ ]} \\|",
+                "aA sS dD fF gG hH jJ kK lL ;: '\"",
+                "zZ xX cC vV bB nN mM ,< .> /?");
+        keypad = KeyboardGraph.aligned(
+                " /*-",
+                "789+",
+                "456 ",
+                "123 ",
+                " 0. ");
+        referenceYear = Year.now().getValue();
+    }
+
+    public static PasswordStrengthEstimator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 估算密码强度
+     */
+    @NonNull
+    public Estimate estimate(@NonNull CharSequence password) {
+        int length = password.length();
+        if (length == 0) {
+            return new Estimate(0, 0, PATTERN_BRUTEFORCE);
+        }
+
+        int n = Math.min(length, MAX_ANALYZED_LENGTH);
+        Workspace ws = workspace.get();
+        ws.reset(password, n);
+
+        matchDictionary(ws, n);
+        matchReversedDictionary(ws, n);
+        matchSpatial(ws, n, qwerty);
+        matchSpatial(ws, n, keypad);
+        matchSequence(ws, n);
+        matchDate(ws, n);
+        // 重复模式依赖其他模式对单元的估算，最后计算
+        matchRepeat(ws, n);
+
+        double log10Guesses = mostGuessableSequence(ws, n);
+        // 超出分析长度的部分按暴力破解计入
+        log10Guesses += (length - n) * Math.log10(BRUTEFORCE_CARDINALITY);
+        return new Estimate(log10Guesses, scoreOf(log10Guesses), ws.weakestPattern);
+    }
+
+    /**
+     * 估算并转换为 PasswordStrength
+     */
+    @NonNull
+    public PasswordStrength estimateStrength(@NonNull CharSequence password) {
+        return estimate(password).toPasswordStrength();
+    }
+
+    // ========== 匹配器 ==========
+
+    /**
+     * 字典匹配：在前缀树上行走，同时尝试 l33t 替换，记录大小写变化
+     */
+    private void matchDictionary(Workspace ws, int n) {
+        for (int i = 0; i < n; i++) {
+            walkTrie(ws, n, i, i, 0, 0);
+        }
+    }
+
+    private void walkTrie(Workspace ws, int n, int start, int pos, int node, int substitutions) {
+        if (pos >= n) {
+            return;
+        }
+        char lower = ws.lower[pos];
+        int child = findChild(node, lower);
+        if (child >= 0) {
+            visitDictionaryNode(ws, n, start, pos, child, substitutions);
+        }
+
+        int l33t = L33T_FROM.indexOf(lower);
+        if (l33t >= 0) {
+            String options = L33T_TO[l33t];
+            for (int k = 0; k < options.length(); k++) {
+                child = findChild(node, options.charAt(k));
+                if (child >= 0) {
+                    visitDictionaryNode(ws, n, start, pos, child, substitutions + 1);
+                }
+            }
+        }
+    }
+
+    private void visitDictionaryNode(Workspace ws, int n, int start, int pos, int node, int substitutions) {
+        int rank = nodeRank[node];
+        if (rank > 0) {
+            double guesses = rank * uppercaseVariations(ws, start, pos) * l33tVariations(substitutions);
+            ws.offer(start, pos, guesses, PATTERN_DICTIONARY);
+        }
+        walkTrie(ws, n, start, pos + 1, node, substitutions);
+    }
+
+    /**
+     * 反写的单词（如 drowssap）
+     */
+    private void matchReversedDictionary(Workspace ws, int n) {
+        for (int end = n - 1; end >= 0; end--) {
+            int node = 0;
+            for (int pos = end; pos >= 0; pos--) {
+                node = findChild(node, ws.lower[pos]);
+                if (node < 0) {
+                    break;
+                }
+                int rank = nodeRank[node];
+                if (rank > 0 && end - pos >= 2) {
+                    ws.offer(pos, end, rank * uppercaseVariations(ws, pos, end) * 2, PATTERN_DICTIONARY);
+                }
+            }
+        }
+    }
+
+    /**
+     * 键盘相邻按键（如 qwerty、asdf、1qaz、7896）
+     */
+    private void matchSpatial(Workspace ws, int n, KeyboardGraph graph) {
+        for (int i = 0; i < n - 2; i++) {
+            int prevKey = graph.keyOf(ws.chars[i]);
+            if (prevKey < 0) {
+                continue;
+            }
+            int turns = 0;
+            int shifted = graph.isShifted(ws.chars[i]) ? 1 : 0;
+            int lastDirection = -1;
+            for (int j = i + 1; j < n; j++) {
+                int key = graph.keyOf(ws.chars[j]);
+                int direction = key < 0 ? -1 : graph.direction(prevKey, key);
+                if (direction < 0) {
+                    break;
+                }
+                if (direction != lastDirection) {
+                    turns++;
+                    lastDirection = direction;
+                }
+                if (graph.isShifted(ws.chars[j])) {
+                    shifted++;
+                }
+                int len = j - i + 1;
+                if (len >= 3) {
+                    ws.offer(i, j, spatialGuesses(graph, len, turns, shifted), PATTERN_SPATIAL);
+                }
+                prevKey = key;
+            }
+        }
+    }
+
+    private static double spatialGuesses(KeyboardGraph graph, int length, int turns, int shifted) {
+        double guesses = 0;
+        for (int i = 2; i <= length; i++) {
+            int possibleTurns = Math.min(turns, i - 1);
+            for (int j = 1; j <= possibleTurns; j++) {
+                guesses += nCk(i - 1, j - 1) * graph.startingPositions * Math.pow(graph.averageDegree, j);
+            }
+        }
+        if (shifted > 0) {
+            int unshifted = length - shifted;
+            if (unshifted == 0) {
+                guesses *= 2;
+            } else {
+                double variations = 0;
+                for (int i = 1; i <= Math.min(shifted, unshifted); i++) {
+                    variations += nCk(length, i);
+                }
+                guesses *= variations;
+            }
+        }
+        return guesses;
+    }
+
+    /**
+     * 等差字符序列（如 abcd、9876、aceg）
+     */
+    private void matchSequence(Workspace ws, int n) {
+        for (int i = 0; i < n - 2; i++) {
+            int delta = ws.chars[i + 1] - ws.chars[i];
+            if (delta == 0 || Math.abs(delta) > 5) {
+                continue;
+            }
+            for (int j = i + 1; j < n && ws.chars[j] - ws.chars[j - 1] == delta; j++) {
+                if (j - i >= 2) {
+                    char first = ws.chars[i];
+                    double base;
+                    if (OBVIOUS_SEQUENCE_STARTS.indexOf(first) >= 0) {
+                        base = 4;
+                    } else if (first >= '0' && first <= '9') {
+                        base = 10;
+                    } else {
+                        base = 26;
+                    }
+                    ws.offer(i, j, base * (j - i + 1) * (delta < 0 ? 2 : 1), PATTERN_SEQUENCE);
+                }
+            }
+        }
+    }
+
+    /**
+     * 重复：单字符重复（aaaa）或短单元重复（abcabc）
+     */
+    private void matchRepeat(Workspace ws, int n) {
+        for (int i = 0; i < n; i++) {
+            for (int unit = 1; unit <= 4 && i + unit * 2 <= n; unit++) {
+                int count = 1;
+                int next = i + unit;
+                while (next + unit <= n && regionMatches(ws.chars, i, next, unit)) {
+                    count++;
+                    next += unit;
+                    if (unit > 1 || count >= 3) {
+                        double base = Math.pow(10, ws.cellLog(i, i + unit - 1));
+                        ws.offer(i, next - 1, base * count, PATTERN_REPEAT);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 日期与年份（如 1990、19900512、05/12/90）
+     */
+    private void matchDate(Workspace ws, int n) {
+        for (int i = 0; i <= n - 4; i++) {
+            for (int j = i + 3; j < n && j - i < 10; j++) {
+                int len = j - i + 1;
+                if (len == 4 && isDigits(ws.chars, i, j)) {
+                    int year = parseInt(ws.chars, i, 4);
+                    if (year >= 1900 && year <= 2050) {
+                        ws.offer(i, j, yearSpace(year), PATTERN_DATE);
+                    }
+                }
+
+                int year = dateYear(ws.chars, i, j);
+                if (year > 0) {
+                    boolean hasSeparator = !isDigits(ws.chars, i, j);
+                    ws.offer(i, j, yearSpace(year) * 365 * (hasSeparator ? 4 : 1), PATTERN_DATE);
+                }
+            }
+        }
+    }
+
+    private double yearSpace(int year) {
+        return Math.max(Math.abs(year - referenceYear), MIN_YEAR_SPACE);
+    }
+
+    /**
+     * 判断 [start, end] 是否为日期，是则返回年份，否则返回-1
+     */
+    private static int dateYear(char[] chars, int start, int end) {
+        int len = end - start + 1;
+        if (isDigits(chars, start, end)) {
+            if (len < 4 || len > 8) {
+                return -1;
+            }
+            // 尝试所有三段拆分
+            for (int a = 1; a <= 4 && a < len - 1; a++) {
+                for (int b = 1; b <= 4 && a + b < len; b++) {
+                    int c = len - a - b;
+                    if (c > 4) {
+                        continue;
+                    }
+                    int year = resolveDate(chars, start, a, start + a, b, start + a + b, c);
+                    if (year > 0) {
+                        return year;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        // 带分隔符：数字 sep 数字 sep 数字，两个分隔符相同
+        if (len < 6) {
+            return -1;
+        }
+        int firstSep = -1;
+        int secondSep = -1;
+        for (int k = start; k <= end; k++) {
+            char c = chars[k];
+            if (c >= '0' && c <= '9') {
+                continue;
+            }
+            if (SEPARATORS.indexOf(c) < 0) {
+                return -1;
+            }
+            if (firstSep < 0) {
+                firstSep = k;
+            } else if (secondSep < 0 && chars[firstSep] == c) {
+                secondSep = k;
+            } else {
+                return -1;
+            }
+        }
+        if (secondSep < 0) {
+            return -1;
+        }
+        int a = firstSep - start;
+        int b = secondSep - firstSep - 1;
+        int c = end - secondSep;
+        if (a < 1 || a > 4 || b < 1 || b > 4 || c < 1 || c > 4) {
+            return -1;
+        }
+        return resolveDate(chars, start, a, firstSep + 1, b, secondSep + 1, c);
+    }
+
+    /**
+     * 尝试 年月日、日月年、月日年 三种顺序
+     */
+    private static int resolveDate(char[] chars, int p1, int l1, int p2, int l2, int p3, int l3) {
+        int v1 = parseInt(chars, p1, l1);
+        int v2 = parseInt(chars, p2, l2);
+        int v3 = parseInt(chars, p3, l3);
+        int year = validDate(v1, l1, v2, v3);
+        if (year < 0) {
+            year = validDate(v3, l3, v2, v1);
+        }
+        if (year < 0) {
+            year = validDate(v3, l3, v1, v2);
+        }
+        return year;
+    }
+
+    private static int validDate(int year, int yearDigits, int month, int day) {
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            return -1;
+        }
+        if (yearDigits == 2) {
+            return year > 50 ? 1900 + year : 2000 + year;
+        }
+        if (yearDigits == 4 && year >= 1000 && year <= 2050) {
+            return year;
+        }
+        return -1;
+    }
+
+    // ========== 最优拆分 ==========
+
+    /**
+     * 动态规划求攻击者最省力的匹配序列
+     * 总猜测次数 = k! × Π各段猜测次数 + 10^4^(k-1)，k为段数
+     */
+    private double mostGuessableSequence(Workspace ws, int n) {
+        double[] opt = ws.opt;
+        int[] back = ws.back;
+        int stride = n + 1;
+        // opt[k * stride + j]：用k段覆盖前j个字符的最小log10猜测次数
+        for (int k = 0; k <= n; k++) {
+            for (int j = 0; j <= n; j++) {
+                opt[k * stride + j] = Double.POSITIVE_INFINITY;
+            }
+        }
+        opt[0] = 0;
+
+        for (int k = 1; k <= n; k++) {
+            boolean reachable = false;
+            for (int j = k; j <= n; j++) {
+                double best = Double.POSITIVE_INFINITY;
+                int bestStart = -1;
+                for (int i = k - 1; i < j; i++) {
+                    double prev = opt[(k - 1) * stride + i];
+                    if (prev == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    double candidate = prev + ws.cellLog(i, j - 1);
+                    if (candidate < best) {
+                        best = candidate;
+                        bestStart = i;
+                    }
+                }
+                opt[k * stride + j] = best;
+                back[k * stride + j] = bestStart;
+                reachable |= bestStart >= 0;
+            }
+            if (!reachable) {
+                break;
+            }
+        }
+
+        double bestTotal = Double.POSITIVE_INFINITY;
+        int bestK = 1;
+        double log10Factorial = 0;
+        for (int k = 1; k <= n; k++) {
+            log10Factorial += Math.log10(k);
+            double product = opt[k * stride + n];
+            if (product == Double.POSITIVE_INFINITY) {
+                continue;
+            }
+            double total = log10Add(log10Factorial + product,
+                    LOG10_MIN_GUESSES_BEFORE_GROWING_SEQUENCE * (k - 1));
+            if (total < bestTotal) {
+                bestTotal = total;
+                bestK = k;
+            }
+        }
+
+        // 回溯得到最优序列中贡献最大的非暴力模式
+        byte weakest = PATTERN_BRUTEFORCE;
+        double weakestLength = 0;
+        int j = n;
+        for (int k = bestK; k >= 1 && j > 0; k--) {
+            int i = back[k * stride + j];
+            byte pattern = ws.cellPattern(i, j - 1);
+            if (pattern != PATTERN_BRUTEFORCE && j - i > weakestLength) {
+                weakest = pattern;
+                weakestLength = j - i;
+            }
+            j = i;
+        }
+        ws.weakestPattern = weakest;
+        return bestTotal;
+    }
+
+    private static double log10Add(double a, double b) {
+        double max = Math.max(a, b);
+        double min = Math.min(a, b);
+        return max + Math.log10(1 + Math.pow(10, min - max));
+    }
+
+    static int scoreOf(double log10Guesses) {
+        int score = 0;
+        while (score < SCORE_THRESHOLDS.length && log10Guesses >= SCORE_THRESHOLDS[score]) {
+            score++;
+        }
+        return score;
+    }
+
+    // ========== 工具方法 ==========
+
+    private static double uppercaseVariations(Workspace ws, int start, int end) {
+        int upper = 0;
+        int lower = 0;
+        for (int k = start; k <= end; k++) {
+            char c = ws.chars[k];
+            if (Character.isUpperCase(c)) {
+                upper++;
+            } else if (Character.isLowerCase(c)) {
+                lower++;
+            }
+        }
+        if (upper == 0) {
+            return 1;
+        }
+        // 首字母大写、末字母大写、全大写是最常见的变化
+        if (lower == 0 || (upper == 1 && (Character.isUpperCase(ws.chars[start])
+                || Character.isUpperCase(ws.chars[end])))) {
+            return 2;
+        }
+        double variations = 0;
+        for (int i = 1; i <= Math.min(upper, lower); i++) {
+            variations += nCk(upper + lower, i);
+        }
+        return variations;
+    }
+
+    private static double l33tVariations(int substitutions) {
+        return substitutions == 0 ? 1 : Math.pow(2, substitutions);
+    }
+
+    private static double nCk(int n, int k) {
+        if (k > n) {
+            return 0;
+        }
+        if (k == 0) {
+            return 1;
+        }
+        double r = 1;
+        for (int d = 1; d <= k; d++) {
+            r = r * (n - d + 1) / d;
+        }
+        return r;
+    }
+
+    private static boolean regionMatches(char[] chars, int a, int b, int length) {
+        for (int k = 0; k < length; k++) {
+            if (chars[a + k] != chars[b + k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigits(char[] chars, int start, int end) {
+        for (int k = start; k <= end; k++) {
+            if (chars[k] < '0' || chars[k] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseInt(char[] chars, int start, int length) {
+        int value = 0;
+        for (int k = start; k < start + length; k++) {
+            value = value * 10 + (chars[k] - '0');
+        }
+        return value;
+    }
+
+    private void addDictionary(String words) {
+        int rank = 0;
+        int start = 0;
+        int length = words.length();
+        while (start < length) {
+            int end = words.indexOf(' ', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                rank++;
+                insertWord(words, start, end, rank);
+            }
+            start = end + 1;
+        }
+    }
+
+    private void insertWord(String words, int start, int end, int rank) {
+        int node = 0;
+        for (int k = start; k < end; k++) {
+            char c = words.charAt(k);
+            int child = findChild(node, c);
+            if (child < 0) {
+                child = newNode(c);
+                nextSibling[child] = firstChild[node];
+                firstChild[node] = child;
+            }
+            node = child;
+        }
+        // 同一个词出现在多个字典中时取最常见的排名
+        if (nodeRank[node] == 0 || rank < nodeRank[node]) {
+            nodeRank[node] = rank;
+        }
+    }
+
+    private int newNode(char c) {
+        if (nodeCount == nodeChar.length) {
+            int capacity = nodeChar.length * 2;
+            nodeChar = java.util.Arrays.copyOf(nodeChar, capacity);
+            firstChild = java.util.Arrays.copyOf(firstChild, capacity);
+            nextSibling = java.util.Arrays.copyOf(nextSibling, capacity);
+            nodeRank = java.util.Arrays.copyOf(nodeRank, capacity);
+        }
+        int node = nodeCount++;
+        nodeChar[node] = c;
+        firstChild[node] = -1;
+        nextSibling[node] = -1;
+        nodeRank[node] = 0;
+        return node;
+    }
+
+    private int findChild(int node, char c) {
+        for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+            if (nodeChar[child] == c) {
+                return child;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 线程本地工作区，避免每次估算分配数组
+     */
+    private static final class Workspace {
+        char[] chars = new char[MAX_ANALYZED_LENGTH];
+        char[] lower = new char[MAX_ANALYZED_LENGTH];
+        // cell[i * n + j]：子串 [i, j] 的最小log10猜测次数及其模式
+        double[] cell = new double[MAX_ANALYZED_LENGTH * MAX_ANALYZED_LENGTH];
+        byte[] pattern = new byte[MAX_ANALYZED_LENGTH * MAX_ANALYZED_LENGTH];
+        double[] opt = new double[(MAX_ANALYZED_LENGTH + 1) * (MAX_ANALYZED_LENGTH + 1)];
+        int[] back = new int[(MAX_ANALYZED_LENGTH + 1) * (MAX_ANALYZED_LENGTH + 1)];
+        int n;
+        byte weakestPattern;
+
+        void reset(CharSequence password, int length) {
+            n = length;
+            weakestPattern = PATTERN_BRUTEFORCE;
+            for (int k = 0; k < length; k++) {
+                char c = password.charAt(k);
+                chars[k] = c;
+                lower[k] = Character.toLowerCase(c);
+            }
+            double log10Cardinality = Math.log10(BRUTEFORCE_CARDINALITY);
+            for (int i = 0; i < length; i++) {
+                for (int j = i; j < length; j++) {
+                    int len = j - i + 1;
+                    double min = len == 1 ? MIN_GUESSES_SINGLE_CHAR + 1 : MIN_GUESSES_MULTI_CHAR + 1;
+                    cell[i * length + j] = Math.max(len * log10Cardinality, Math.log10(min));
+                    pattern[i * length + j] = PATTERN_BRUTEFORCE;
+                }
+            }
+        }
+
+        void offer(int start, int end, double guesses, byte matchPattern) {
+            double min = start == end ? MIN_GUESSES_SINGLE_CHAR : MIN_GUESSES_MULTI_CHAR;
+            double log = Math.log10(Math.max(guesses, min));
+            int index = start * n + end;
+            if (log < cell[index]) {
+                cell[index] = log;
+                pattern[index] = matchPattern;
+            }
+        }
+
+        double cellLog(int start, int end) {
+            return cell[start * n + end];
+        }
+
+        byte cellPattern(int start, int end) {
+            return pattern[start * n + end];
+        }
+    }
+
+    /**
+     * 键盘邻接图
+     */
+    private static final class KeyboardGraph {
+        // 字符 -> 按键编号，-1 表示不在该键盘上
+        private final byte[] keyOfChar = new byte[128];
+        private final boolean[] shiftedChar = new boolean[128];
+        // 按键坐标（行、列；错位键盘的列按半个键宽计）
+        private final int[] keyRow = new int[64];
+        private final int[] keyCol = new int[64];
+        private final boolean slanted;
+        double startingPositions;
+        double averageDegree;
+
+        private KeyboardGraph(boolean slanted) {
+            java.util.Arrays.fill(keyOfChar, (byte) -1);
+            this.slanted = slanted;
+        }
+
+        /**
+         * 统计起始位置数与平均邻接度，用于估算猜测次数
+         */
+        private KeyboardGraph finish(int keyCount) {
+            int degrees = 0;
+            for (int a = 0; a < keyCount; a++) {
+                for (int b = 0; b < keyCount; b++) {
+                    if (a != b && direction(a, b) >= 0) {
+                        degrees++;
+                    }
+                }
+            }
+            startingPositions = keyCount;
+            averageDegree = (double) degrees / keyCount;
+            return this;
+        }
+
+        /**
+         * 错位键盘（主键盘）：每行的键以空格分隔，每个键写作 "未按Shift字符+按Shift字符"
+         * 相邻行错开半个键，列坐标按半键计
+         */
+        static KeyboardGraph slanted(String... rows) {
+            KeyboardGraph layout = new KeyboardGraph(true);
+            int[] rowOffset = {0, 3, 4, 5};
+            int count = 0;
+            for (int r = 0; r < rows.length; r++) {
+                String[] keys = rows[r].split(" ");
+                for (int c = 0; c < keys.length; c++) {
+                    String key = keys[c];
+                    layout.keyRow[count] = r;
+                    layout.keyCol[count] = rowOffset[r] + c * 2;
+                    layout.keyOfChar[key.charAt(0)] = (byte) count;
+                    layout.keyOfChar[key.charAt(1)] = (byte) count;
+                    layout.shiftedChar[key.charAt(1)] = true;
+                    count++;
+                }
+            }
+            return layout.finish(count);
+        }
+
+        /**
+         * 对齐键盘（小键盘）：每行每个字符一个键，空格表示空位
+         */
+        static KeyboardGraph aligned(String... rows) {
+            KeyboardGraph layout = new KeyboardGraph(false);
+            int count = 0;
+            for (int r = 0; r < rows.length; r++) {
+                for (int c = 0; c < rows[r].length(); c++) {
+                    char ch = rows[r].charAt(c);
+                    if (ch == ' ') {
+                        continue;
+                    }
+                    layout.keyRow[count] = r;
+                    layout.keyCol[count] = c;
+                    layout.keyOfChar[ch] = (byte) count;
+                    count++;
+                }
+            }
+            return layout.finish(count);
+        }
+
+        int keyOf(char c) {
+            return c < 128 ? keyOfChar[c] : -1;
+        }
+
+        boolean isShifted(char c) {
+            return c < 128 && shiftedChar[c];
+        }
+
+        /**
+         * 两个按键相邻时返回方向编号，否则返回-1
+         */
+        int direction(int from, int to) {
+            int dr = keyRow[to] - keyRow[from];
+            int dc = keyCol[to] - keyCol[from];
+            if (dr < -1 || dr > 1) {
+                return -1;
+            }
+            if (slanted) {
+                // 同行相差一个键（2个半键），相邻行相差半个键
+                if (dr == 0 ? (dc != 2 && dc != -2) : (dc != 1 && dc != -1)) {
+                    return -1;
+                }
+            } else if (dc < -1 || dc > 1 || (dr == 0 && dc == 0)) {
+                return -1;
+            }
+            return (dr + 1) * 8 + (dc + 2);
+        }
+    }
+
+    /**
+     * 估算结果
+     */
+    public static final class Estimate {
+        private final double log10Guesses;
+        private final int score;
+        private final byte weakestPattern;
+
+        Estimate(double log10Guesses, int score, byte weakestPattern) {
+            this.log10Guesses = log10Guesses;
+            this.score = score;
+            this.weakestPattern = weakestPattern;
+        }
+
+        /**
+         * 猜测次数的常用对数
+         */
+        public double getLog10Guesses() {
+            return log10Guesses;
+        }
+
+        /**
+         * 强度分数 0-4
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * 离线破解预计时间（秒）
+         */
+        public double getCrackTimeSeconds() {
+            return Math.pow(10, log10Guesses) / GUESSES_PER_SECOND;
+        }
+
+        /**
+         * 0-100 的百分比，分段与强度分数对齐
+         */
+        public int getPercent() {
+            return toPercent(log10Guesses);
+        }
+
+        /**
+         * 主要弱点描述，没有明显弱点时返回null
+         */
+        public String getWarning() {
+            if (score >= 3) {
+                return null;
+            }
+            switch (weakestPattern) {
+                case PATTERN_DICTIONARY:
+                    return "包含常见密码或单词";
+                case PATTERN_SPATIAL:
+                    return "包含键盘上相邻的按键";
+                case PATTERN_REPEAT:
+                    return "包含重复的字符";
+                case PATTERN_SEQUENCE:
+                    return "包含连续的字符";
+                case PATTERN_DATE:
+                    return "包含日期或年份";
+                default:
+                    return null;
+            }
+        }
+
+        @NonNull
+        public PasswordStrength toPasswordStrength() {
+            PasswordStrength.Level level;
+            String label;
+            if (score <= 1) {
+                level = PasswordStrength.Level.WEAK;
+                label = "弱";
+            } else if (score == 2) {
+                level = PasswordStrength.Level.MEDIUM;
+                label = "中";
+            } else if (score == 3) {
+                level = PasswordStrength.Level.STRONG;
+                label = "强";
+            } else {
+                level = PasswordStrength.Level.VERY_STRONG;
+                label = "很强";
+            }
+
+            StringBuilder description = new StringBuilder("密码强度：").append(label)
+                    .append("（破解约需").append(formatCrackTime(getCrackTimeSeconds())).append("）");
+            String warning = getWarning();
+            if (warning != null) {
+                description.append("，").append(warning);
+            }
+            return new PasswordStrength(score, level, description.toString(), getCrackTimeSeconds());
+        }
+    }
+
+    /**
+     * 将猜测次数换算为 0-100 的百分比，分段与强度分数对齐
+     */
+    public static int toPercent(double log10Guesses) {
+        double percent;
+        if (log10Guesses < 6) {
+            percent = log10Guesses / 6 * 25;
+        } else if (log10Guesses < 8) {
+            percent = 25 + (log10Guesses - 6) / 2 * 25;
+        } else if (log10Guesses < 10) {
+            percent = 50 + (log10Guesses - 8) / 2 * 25;
+        } else {
+            percent = 75 + (log10Guesses - 10) / 6 * 25;
+        }
+        return (int) Math.max(0, Math.min(100, percent));
+    }
+
+    /**
+     * 将秒数格式化为易读的时间
+     */
+    @NonNull
+    public static String formatCrackTime(double seconds) {
+        final double minute = 60;
+        final double hour = minute * 60;
+        final double day = hour * 24;
+        final double month = day * 31;
+        final double year = month * 12;
+        final double century = year * 100;
+        if (seconds < 1) {
+            return "不到1秒";
+        } else if (seconds < minute) {
+            return Math.round(seconds) + "秒";
+        } else if (seconds < hour) {
+            return Math.round(seconds / minute) + "分钟";
+        } else if (seconds < day) {
+            return Math.round(seconds / hour) + "小时";
+        } else if (seconds < month) {
+            return Math.round(seconds / day) + "天";
+        } else if (seconds < year) {
+            return Math.round(seconds / month) + "个月";
+        } else if (seconds < century) {
+            return Math.round(seconds / year) + "年";
+        }
+        return "数百年以上";
+    }
+}
@@ -0,0 +1,52 @@
+package com.ttt.safevault.security;
+
+import java.security.SecureRandom;
+
+/**
+ * 缓冲的 SecureRandom 字节池
+ * 批量取随机字节，按需拒绝采样得到无偏的随机下标；已使用的字节立即清零。
+ */
+final class SecureRandomPool {
+
+    private static final int POOL_SIZE = 256;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final byte[] pool = new byte[POOL_SIZE];
+    private int position = POOL_SIZE;
+
+    /**
+     * 返回 [0, bound) 的无偏随机数
+     * bound 不超过256时每次消耗1字节，否则消耗2字节，超出可整除范围的值被拒绝
+     */
+    synchronized int nextInt(int bound) {
+        if (bound <= 0 || bound > 65536) {
+            throw new IllegalArgumentException("bound out of range: " + bound);
+        }
+        if (bound <= 256) {
+            int limit = 256 - 256 % bound;
+            while (true) {
+                int value = nextByte();
+                if (value < limit) {
+                    return value % bound;
+                }
+            }
+        }
+        int limit = 65536 - 65536 % bound;
+        while (true) {
+            int value = (nextByte() << 8) | nextByte();
+            if (value < limit) {
+                return value % bound;
+            }
+        }
+    }
+
+    private int nextByte() {
+        if (position == POOL_SIZE) {
+            secureRandom.nextBytes(pool);
+            position = 0;
+        }
+        int value = pool[position] & 0xFF;
+        pool[position++] = 0;
+        return value;
+    }
+}
@@ -17,7 +17,6 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
-import java.util.regex.Pattern;
 
 /**
  * 安全工具类
@@ -28,14 +27,6 @@ public final class SecurityUtils {
     private static final String TAG = "SecurityUtils";
     private static final SecureRandom SECURE_RANDOM = new SecureRandom();
 
-    // 密码强度检查的正则表达式
-    private static final Pattern[] PASSWORD_PATTERNS = {
-            Pattern.compile(".*[A-Z].*"), // 至少一个大写字母
-            Pattern.compile(".*[a-z].*"), // 至少一个小写字母
-            Pattern.compile(".*\\d.*"),    // 至少一个数字
-            Pattern.compile(".*[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>\\/?].*") // 至少一个特殊字符
-    };
-
     private SecurityUtils() {
         // 工具类，禁止实例化
     }
@@ -136,113 +127,21 @@ public final class SecurityUtils {
 
     /**
      * 检查密码强度
+     * 基于 {@link PasswordStrengthEstimator} 的猜测次数估算
      * @param password 密码
      * @return 强度等级：0-弱，1-中，2-强
      */
     public static int checkPasswordStrength(@NonNull String password) {
-        if (password.length() < 8) {
-            return 0; // 太短
-        }
-
-        int score = 0;
-
-        // 检查长度
-        if (password.length() >= 12) {
-            score++;
-        }
-
-        // 检查字符类型
-        for (Pattern pattern : PASSWORD_PATTERNS) {
-            if (pattern.matcher(password).matches()) {
-                score++;
-            }
-        }
-
-        // 检查常见弱密码模式
-        if (isCommonWeakPassword(password)) {
-            score = 0;
-        }
-
-        // 转换为强度等级
-        if (score >= 4) {
+        int score = PasswordStrengthEstimator.getInstance().estimate(password).getScore();
+        if (score >= 3) {
             return 2; // 强
-        } else if (score >= 2) {
+        } else if (score == 2) {
             return 1; // 中
         } else {
             return 0; // 弱
         }
     }
 
-    /**
-     * 检查是否为常见的弱密码
-     */
-    private static boolean isCommonWeakPassword(@NonNull String password) {
-        String lowerPassword = password.toLowerCase();
-
-        // 常见弱密码列表
-        String[] weakPasswords = {
-                "password", "123456", "123456789", "qwerty", "abc123",
-                "password123", "admin", "letmein", "welcome", "monkey",
-                "1234567890", "password1", "qwertyuiop", "123123", "starwars"
-        };
-
-        for (String weak : weakPasswords) {
-            if (lowerPassword.contains(weak)) {
-                return true;
-            }
-        }
-
-        // 检查连续字符或重复字符
-        if (hasSequentialChars(password) || hasRepeatingChars(password)) {
-            return true;
-        }
-
-        return false;
-    }
-
-    /**
-     * 检查是否包含连续字符
-     */
-    private static boolean hasSequentialChars(@NonNull String password) {
-        int sequenceCount = 0;
-
-        for (int i = 1; i < password.length(); i++) {
-            char prev = password.charAt(i - 1);
-            char curr = password.charAt(i);
-
-            if (curr == prev + 1 || curr == prev - 1) {
-                sequenceCount++;
-                if (sequenceCount >= 2) {
-                    return true;
-                }
-            } else {
-                sequenceCount = 0;
-            }
-        }
-
-        return false;
-    }
-
-    /**
-     * 检查是否有太多重复字符
-     */
-    private static boolean hasRepeatingChars(@NonNull String password) {
-        int repeatCount = 0;
-
-        for (int i = 1; i < password.length(); i++) {
-            if (password.charAt(i) == password.charAt(i - 1)) {
-                repeatCount++;
-                if (repeatCount >= 2) {
-                    return true;
-                }
-            } else {
-                repeatCount = 0;
-            }
-        }
-
-        return false;
-    }
-
     /**
      * 检查设备是否已root
      */
@@ -0,0 +1,309 @@
+package com.ttt.safevault.security;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * 分享信封：X25519密钥协商 + HKDF-SHA256 + AES-256-GCM
+ *
+ * 结构：版本号(1字节) + 发送方临时公钥(32字节) + 盐(16字节) + nonce(12字节) + 密文
+ * 前49字节（版本号、临时公钥、盐）作为附加认证数据
+ *
+ * 发送方对同一接收方公钥复用一个临时密钥对和协商结果（有效期内），
+ * 每个信封用随机盐经HKDF派生独立的AES密钥，创建分享只需一次HKDF和一次AES-GCM；
+ * 接收方按临时公钥缓存协商结果，同一批分享只做一次X25519。
+ */
+public final class ShareEnvelope {
+
+    private static final byte VERSION = 1;
+    private static final int KEY_LENGTH = 32;
+    private static final int SALT_LENGTH = 16;
+    private static final int NONCE_LENGTH = 12;
+    private static final int HEADER_LENGTH = 1 + KEY_LENGTH + SALT_LENGTH;
+    private static final int GCM_TAG_LENGTH = 128;
+    private static final byte[] INFO = "SafeVault share v1".getBytes(StandardCharsets.US_ASCII);
+
+    // X25519公钥X.509编码的固定前缀（OID 1.3.101.110）
+    private static final byte[] X25519_X509_PREFIX = {
+        0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x6e, 0x03, 0x21, 0x00
+    };
+
+    // 协商结果的缓存有效期，过期后换新的临时密钥，限制单个临时密钥的暴露范围
+    private static final long CACHE_TTL_MS = 10 * 60 * 1000;
+    private static final int MAX_CACHE_SIZE = 32;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // 发送方：接收方公钥 -> 临时密钥和协商结果
+    private static final Map<String, CachedSecret> SENDER_CACHE = newCache();
+    // 接收方：发送方临时公钥 -> 协商结果
+    private static final Map<String, CachedSecret> RECEIVER_CACHE = newCache();
+
+    private static final class CachedSecret {
+        final byte[] ephemeralPublic;
+        final byte[] sharedSecret;
+        final long createdAt;
+
+        CachedSecret(byte[] ephemeralPublic, byte[] sharedSecret, long createdAt) {
+            this.ephemeralPublic = ephemeralPublic;
+            this.sharedSecret = sharedSecret;
+            this.createdAt = createdAt;
+        }
+
+        boolean isFresh(long now) {
+            return now - createdAt < CACHE_TTL_MS;
+        }
+    }
+
+    private ShareEnvelope() {
+    }
+
+    /**
+     * 加密给指定接收方
+     *
+     * @param recipientPublicKey 接收方X25519公钥（32字节原始格式）
+     */
+    @NonNull
+    public static byte[] seal(@NonNull byte[] plaintext, @NonNull byte[] recipientPublicKey)
+            throws GeneralSecurityException {
+        CachedSecret secret = senderSecret(recipientPublicKey);
+
+        ByteBuffer envelope = ByteBuffer.allocate(HEADER_LENGTH + NONCE_LENGTH + plaintext.length + GCM_TAG_LENGTH / 8);
+        byte[] salt = new byte[SALT_LENGTH];
+        byte[] nonce = new byte[NONCE_LENGTH];
+        RANDOM.nextBytes(salt);
+        RANDOM.nextBytes(nonce);
+        envelope.put(VERSION);
+        envelope.put(secret.ephemeralPublic);
+        envelope.put(salt);
+        envelope.put(nonce);
+
+        byte[] key = hkdf(secret.sharedSecret, salt, info(secret.ephemeralPublic, recipientPublicKey));
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new GCMParameterSpec(GCM_TAG_LENGTH, nonce));
+        cipher.updateAAD(envelope.array(), 0, HEADER_LENGTH);
+        cipher.doFinal(plaintext, 0, plaintext.length, envelope.array(), HEADER_LENGTH + NONCE_LENGTH);
+        Arrays.fill(key, (byte) 0);
+        return envelope.array();
+    }
+
+    /**
+     * 用本机私钥解密
+     *
+     * @param privateKey        本机X25519私钥（可以是Keystore中的密钥）
+     * @param ownPublicKey      本机X25519公钥（32字节原始格式）
+     * @throws GeneralSecurityException 格式错误、被篡改或不是发给本机的
+     */
+    @NonNull
+    public static byte[] open(@NonNull byte[] envelope, @NonNull PrivateKey privateKey,
+                              @NonNull byte[] ownPublicKey) throws GeneralSecurityException {
+        if (envelope.length < HEADER_LENGTH + NONCE_LENGTH + GCM_TAG_LENGTH / 8 || envelope[0] != VERSION) {
+            throw new GeneralSecurityException("Unsupported envelope");
+        }
+        byte[] ephemeralPublic = Arrays.copyOfRange(envelope, 1, 1 + KEY_LENGTH);
+        byte[] salt = Arrays.copyOfRange(envelope, 1 + KEY_LENGTH, HEADER_LENGTH);
+        byte[] nonce = Arrays.copyOfRange(envelope, HEADER_LENGTH, HEADER_LENGTH + NONCE_LENGTH);
+
+        byte[] sharedSecret = receiverSecret(ephemeralPublic, privateKey);
+        byte[] key = hkdf(sharedSecret, salt, info(ephemeralPublic, ownPublicKey));
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"), new GCMParameterSpec(GCM_TAG_LENGTH, nonce));
+            cipher.updateAAD(envelope, 0, HEADER_LENGTH);
+            return cipher.doFinal(envelope, HEADER_LENGTH + NONCE_LENGTH, envelope.length - HEADER_LENGTH - NONCE_LENGTH);
+        } finally {
+            Arrays.fill(key, (byte) 0);
+        }
+    }
+
+    /**
+     * 生成随机内容密钥
+     * 多接收方分享时内容只用它加密一次，每个接收方只用信封封装这32字节
+     */
+    @NonNull
+    public static byte[] newContentKey() {
+        byte[] key = new byte[KEY_LENGTH];
+        RANDOM.nextBytes(key);
+        return key;
+    }
+
+    /**
+     * 用内容密钥加密，结构：nonce(12字节) + 密文
+     */
+    @NonNull
+    public static byte[] encryptContent(@NonNull byte[] plaintext, @NonNull byte[] contentKey)
+            throws GeneralSecurityException {
+        byte[] output = new byte[NONCE_LENGTH + plaintext.length + GCM_TAG_LENGTH / 8];
+        byte[] nonce = new byte[NONCE_LENGTH];
+        RANDOM.nextBytes(nonce);
+        System.arraycopy(nonce, 0, output, 0, NONCE_LENGTH);
+
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(contentKey, "AES"), new GCMParameterSpec(GCM_TAG_LENGTH, nonce));
+        cipher.doFinal(plaintext, 0, plaintext.length, output, NONCE_LENGTH);
+        return output;
+    }
+
+    /**
+     * 用内容密钥解密encryptContent的输出
+     */
+    @NonNull
+    public static byte[] decryptContent(@NonNull byte[] data, @NonNull byte[] contentKey)
+            throws GeneralSecurityException {
+        if (data.length < NONCE_LENGTH + GCM_TAG_LENGTH / 8) {
+            throw new GeneralSecurityException("Content too short");
+        }
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(contentKey, "AES"),
+                new GCMParameterSpec(GCM_TAG_LENGTH, data, 0, NONCE_LENGTH));
+        return cipher.doFinal(data, NONCE_LENGTH, data.length - NONCE_LENGTH);
+    }
+
+    /**
+     * 清除缓存的协商结果（锁定或重置密钥时调用）
+     */
+    public static void clearCache() {
+        synchronized (SENDER_CACHE) {
+            SENDER_CACHE.clear();
+        }
+        synchronized (RECEIVER_CACHE) {
+            RECEIVER_CACHE.clear();
+        }
+    }
+
+    /**
+     * X25519公钥的32字节原始格式
+     */
+    @NonNull
+    public static byte[] rawPublicKey(@NonNull PublicKey publicKey) {
+        byte[] encoded = publicKey.getEncoded();
+        if (encoded.length != X25519_X509_PREFIX.length + KEY_LENGTH) {
+            throw new IllegalArgumentException("Not an X25519 public key");
+        }
+        return Arrays.copyOfRange(encoded, X25519_X509_PREFIX.length, encoded.length);
+    }
+
+    /**
+     * 从32字节原始格式还原X25519公钥
+     */
+    @NonNull
+    public static PublicKey publicKeyFromRaw(@NonNull byte[] raw) throws GeneralSecurityException {
+        if (raw.length != KEY_LENGTH) {
+            throw new InvalidKeyException("Invalid X25519 public key length: " + raw.length);
+        }
+        byte[] encoded = Arrays.copyOf(X25519_X509_PREFIX, X25519_X509_PREFIX.length + KEY_LENGTH);
+        System.arraycopy(raw, 0, encoded, X25519_X509_PREFIX.length, KEY_LENGTH);
+        return KeyFactory.getInstance("XDH").generatePublic(new X509EncodedKeySpec(encoded));
+    }
+
+    private static CachedSecret senderSecret(byte[] recipientPublicKey) throws GeneralSecurityException {
+        String cacheKey = Base64.getEncoder().encodeToString(recipientPublicKey);
+        long now = System.currentTimeMillis();
+        synchronized (SENDER_CACHE) {
+            CachedSecret cached = SENDER_CACHE.get(cacheKey);
+            if (cached != null && cached.isFresh(now)) {
+                return cached;
+            }
+        }
+
+        KeyPair ephemeral = KeyPairGenerator.getInstance("X25519").generateKeyPair();
+        byte[] sharedSecret = agree(ephemeral.getPrivate(), publicKeyFromRaw(recipientPublicKey));
+        CachedSecret secret = new CachedSecret(rawPublicKey(ephemeral.getPublic()), sharedSecret, now);
+        synchronized (SENDER_CACHE) {
+            SENDER_CACHE.put(cacheKey, secret);
+        }
+        return secret;
+    }
+
+    private static byte[] receiverSecret(byte[] ephemeralPublic, PrivateKey privateKey)
+            throws GeneralSecurityException {
+        String cacheKey = Base64.getEncoder().encodeToString(ephemeralPublic);
+        long now = System.currentTimeMillis();
+        synchronized (RECEIVER_CACHE) {
+            CachedSecret cached = RECEIVER_CACHE.get(cacheKey);
+            if (cached != null && cached.isFresh(now)) {
+                return cached.sharedSecret;
+            }
+        }
+
+        byte[] sharedSecret = agree(privateKey, publicKeyFromRaw(ephemeralPublic));
+        synchronized (RECEIVER_CACHE) {
+            RECEIVER_CACHE.put(cacheKey, new CachedSecret(ephemeralPublic, sharedSecret, now));
+        }
+        return sharedSecret;
+    }
+
+    private static byte[] agree(PrivateKey privateKey, PublicKey publicKey) throws GeneralSecurityException {
+        KeyAgreement agreement;
+        try {
+            agreement = KeyAgreement.getInstance("XDH");
+            agreement.init(privateKey);
+        } catch (InvalidKeyException e) {
+            // Keystore中的私钥只能由AndroidKeyStore提供者使用
+            agreement = KeyAgreement.getInstance("XDH", "AndroidKeyStore");
+            agreement.init(privateKey);
+        }
+        agreement.doPhase(publicKey, true);
+        byte[] secret = agreement.generateSecret();
+
+        // 拒绝低阶点产生的全零结果
+        if (MessageDigest.isEqual(secret, new byte[secret.length])) {
+            throw new InvalidKeyException("Invalid X25519 shared secret");
+        }
+        return secret;
+    }
+
+    private static byte[] info(byte[] ephemeralPublic, byte[] recipientPublic) {
+        byte[] info = Arrays.copyOf(INFO, INFO.length + KEY_LENGTH * 2);
+        System.arraycopy(ephemeralPublic, 0, info, INFO.length, KEY_LENGTH);
+        System.arraycopy(recipientPublic, 0, info, INFO.length + KEY_LENGTH, KEY_LENGTH);
+        return info;
+    }
+
+    /**
+     * HKDF-SHA256（RFC 5869），输出32字节
+     */
+    private static byte[] hkdf(byte[] ikm, byte[] salt, byte[] info) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(salt, "HmacSHA256"));
+        byte[] prk = mac.doFinal(ikm);
+
+        mac.init(new SecretKeySpec(prk, "HmacSHA256"));
+        mac.update(info);
+        mac.update((byte) 1);
+        byte[] okm = mac.doFinal();
+        Arrays.fill(prk, (byte) 0);
+        return okm;
+    }
+
+    private static Map<String, CachedSecret> newCache() {
+        return new LinkedHashMap<String, CachedSecret>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSecret> eldest) {
+                return size() > MAX_CACHE_SIZE;
+            }
+        };
+    }
+}
@@ -0,0 +1,271 @@
+package com.ttt.safevault.service;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.ttt.safevault.dto.PasswordData;
+import com.ttt.safevault.dto.request.CreateMultiShareRequest;
+import com.ttt.safevault.dto.request.CreateShareRequest;
+import com.ttt.safevault.dto.request.LoginRequest;
+import com.ttt.safevault.dto.request.RegisterLocationRequest;
+import com.ttt.safevault.dto.request.RegisterRequest;
+import com.ttt.safevault.dto.response.AuthResponse;
+import com.ttt.safevault.dto.response.MultiShareResponse;
+import com.ttt.safevault.dto.response.NearbyUserResponse;
+import com.ttt.safevault.dto.response.ReceivedShareResponse;
+import com.ttt.safevault.dto.response.ShareResponse;
+import com.ttt.safevault.dto.response.UserPublicKeyResponse;
+import com.ttt.safevault.model.AsyncBackendService;
+import com.ttt.safevault.model.BackendService;
+import com.ttt.safevault.model.PasswordItem;
+import com.ttt.safevault.model.SharePermission;
+import com.ttt.safevault.network.RetrofitClient;
+import com.ttt.safevault.network.TokenManager;
+import com.ttt.safevault.security.KeyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * AsyncBackendService的实现
+ * 网络部分直接组合Retrofit的Rx调用；本地解密、密钥读取等耗时操作放在io调度器，
+ * 加解密放在computation调度器，不在调用线程上阻塞。
+ */
+public class AsyncBackendServiceImpl implements AsyncBackendService {
+
+    private static final String TAG = "AsyncBackendService";
+
+    private final Context context;
+    private final BackendService backendService;
+    private final RetrofitClient retrofitClient;
+    private final TokenManager tokenManager;
+
+    public AsyncBackendServiceImpl(@NonNull Context context, @NonNull BackendService backendService) {
+        this.context = context.getApplicationContext();
+        this.backendService = backendService;
+        this.retrofitClient = RetrofitClient.getInstance(context);
+        this.tokenManager = retrofitClient.getTokenManager();
+    }
+
+    @Override
+    public Single<AuthResponse> register(String username, String password, String displayName) {
+        return Single.fromCallable(() -> {
+                    KeyManager keyManager = KeyManager.getInstance(context);
+                    return new RegisterRequest(keyManager.getDeviceId(), username, displayName,
+                            keyManager.getPublicKey());
+                })
+                .subscribeOn(Schedulers.io())
+                .flatMap(request -> retrofitClient.getAuthServiceApi().register(request).singleOrError())
+                .doOnSuccess(response -> {
+                    tokenManager.saveTokens(response);
+                    Log.d(TAG, "User registered successfully: " + response.getUserId());
+                });
+    }
+
+    @Override
+    public Single<AuthResponse> login(String username, String password) {
+        return Single.fromCallable(() -> {
+                    String userId = tokenManager.getUserId();
+                    if (userId == null) {
+                        throw new IllegalStateException("No userId found, please register first");
+                    }
+                    String deviceId = KeyManager.getInstance(context).getDeviceId();
+                    return new LoginRequest(userId, deviceId, generateSignature(userId, deviceId));
+                })
+                .subscribeOn(Schedulers.io())
+                .flatMap(request -> retrofitClient.getAuthServiceApi().login(request).singleOrError())
+                .doOnSuccess(response -> {
+                    tokenManager.saveTokens(response);
+                    Log.d(TAG, "User logged in successfully: " + response.getUserId());
+                });
+    }
+
+    /**
+     * 生成签名（简化版本）
+     */
+    private String generateSignature(String userId, String deviceId) throws Exception {
+        String data = userId + deviceId + System.currentTimeMillis();
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    @Override
+    public Single<ShareResponse> createCloudShare(int passwordId, String toUserId, int expireInMinutes,
+                                                  SharePermission permission, String shareType) {
+        return loadItem(passwordId)
+                .map(item -> {
+                    CreateShareRequest request = new CreateShareRequest();
+                    request.setPasswordId(String.valueOf(passwordId));
+                    request.setTitle(item.getTitle());
+                    request.setUsername(item.getUsername());
+                    request.setEncryptedPassword(item.getPassword());
+                    request.setUrl(item.getUrl());
+                    request.setNotes(item.getNotes());
+                    request.setToUserId(toUserId);
+                    request.setExpireInMinutes(expireInMinutes);
+                    request.setPermission(permission);
+                    request.setShareType(shareType);
+                    return request;
+                })
+                .flatMap(request -> retrofitClient.getShareServiceApi().createShare(request).singleOrError())
+                .doOnSuccess(response -> Log.d(TAG, "Cloud share created: " + response.getShareId()));
+    }
+
+    @Override
+    public Single<MultiShareResponse> createMultiRecipientShare(int passwordId, List<String> toUserIds,
+                                                                int expireInMinutes, SharePermission permission,
+                                                                String shareType) {
+        Single<Map<String, String>> publicKeys = retrofitClient.getShareServiceApi()
+                .getRecipientKeys(toUserIds)
+                .singleOrError()
+                .map(keys -> {
+                    Map<String, String> byUser = new HashMap<>();
+                    for (UserPublicKeyResponse key : keys) {
+                        byUser.put(key.getUserId(), key.getPublicKey());
+                    }
+                    return byUser;
+                });
+
+        // 本地解密与公钥查询并行，加密在computation调度器上进行
+        return Single.zip(loadItem(passwordId), publicKeys, AbstractMap.SimpleImmutableEntry::new)
+                .observeOn(Schedulers.computation())
+                .flatMap(prepared -> uploadMultiShare(prepared.getKey(), prepared.getValue(), passwordId,
+                        toUserIds, expireInMinutes, permission, shareType));
+    }
+
+    private Single<MultiShareResponse> uploadMultiShare(PasswordItem item, Map<String, String> publicKeys,
+                                                        int passwordId, List<String> toUserIds,
+                                                        int expireInMinutes, SharePermission permission,
+                                                        String shareType) throws Exception {
+        List<String> failedUserIds = new ArrayList<>();
+        CreateMultiShareRequest request = CloudShareCodec.buildMultiShare(item, toUserIds, publicKeys, failedUserIds);
+
+        Single<MultiShareResponse> upload;
+        if (request == null) {
+            upload = Single.just(new MultiShareResponse());
+        } else {
+            request.setPasswordId(String.valueOf(passwordId));
+            request.setExpireInMinutes(expireInMinutes);
+            request.setPermission(permission);
+            request.setShareType(shareType);
+            upload = retrofitClient.getShareServiceApi().createMultiShare(request).singleOrError();
+        }
+        return upload.map(response -> {
+            if (response.getFailedUserIds() == null) {
+                response.setFailedUserIds(new ArrayList<>());
+            }
+            response.getFailedUserIds().addAll(failedUserIds);
+            Log.d(TAG, "Multi-recipient share created: " + response.getShares().size()
+                    + " recipients, " + failedUserIds.size() + " skipped");
+            return response;
+        });
+    }
+
+    @Override
+    public Single<ReceivedShareResponse> receiveCloudShare(String shareId) {
+        return retrofitClient.getShareServiceApi()
+                .receiveShare(shareId)
+                .singleOrError()
+                .observeOn(Schedulers.computation())
+                .map(response -> {
+                    CloudShareCodec.openPayload(KeyManager.getInstance(context), response);
+                    Log.d(TAG, "Cloud share received: " + shareId);
+                    return response;
+                });
+    }
+
+    @Override
+    public Completable revokeCloudShare(String shareId) {
+        return retrofitClient.getShareServiceApi()
+                .revokeShare(shareId)
+                .doOnComplete(() -> Log.d(TAG, "Cloud share revoked: " + shareId));
+    }
+
+    @Override
+    public Completable saveCloudShare(String shareId) {
+        return receiveCloudShare(shareId)
+                .flatMapCompletable(response -> retrofitClient.getShareServiceApi()
+                        .saveSharedPassword(shareId)
+                        .observeOn(Schedulers.io())
+                        .andThen(Completable.fromAction(() -> {
+                            PasswordData passwordData = response.getPasswordData();
+                            if (passwordData == null) {
+                                throw new IllegalStateException("Invalid share response: " + shareId);
+                            }
+                            PasswordItem item = new PasswordItem();
+                            item.setTitle(passwordData.getTitle() != null ? passwordData.getTitle() : "未命名密码");
+                            item.setUsername(passwordData.getUsername());
+                            item.setPassword(passwordData.getPassword());
+                            item.setUrl(passwordData.getUrl());
+                            item.setNotes(passwordData.getNotes());
+                            backendService.saveItem(item);
+                            Log.d(TAG, "Cloud share saved to local: " + shareId);
+                        })));
+    }
+
+    @Override
+    public Single<List<ReceivedShareResponse>> getMyCloudShares() {
+        return retrofitClient.getShareServiceApi().getMyShares().singleOrError();
+    }
+
+    @Override
+    public Single<List<ReceivedShareResponse>> getReceivedCloudShares() {
+        return retrofitClient.getShareServiceApi().getReceivedShares().singleOrError();
+    }
+
+    @Override
+    public Completable registerLocation(double latitude, double longitude, double radius) {
+        return retrofitClient.getDiscoveryServiceApi()
+                .registerLocation(new RegisterLocationRequest(latitude, longitude, radius))
+                .doOnComplete(() -> Log.d(TAG, "Location registered"));
+    }
+
+    @Override
+    public Single<List<NearbyUserResponse>> getNearbyUsers(double latitude, double longitude, double radius) {
+        return retrofitClient.getDiscoveryServiceApi()
+                .getNearbyUsers(latitude, longitude, radius)
+                .singleOrError();
+    }
+
+    @Override
+    public Completable sendHeartbeat() {
+        return retrofitClient.getDiscoveryServiceApi().sendHeartbeat();
+    }
+
+    @Override
+    public Completable syncVault() {
+        return Completable.fromAction(() -> {
+                    VaultSyncEngine.Result result =
+                            com.ttt.safevault.ServiceLocator.getInstance().getVaultSyncEngine().sync();
+                    Log.d(TAG, "Vault synced: pulled " + result.pulled + ", pushed " + result.pushed
+                            + ", conflicts " + result.conflicts);
+                })
+                .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * 在io调度器上解密本地密码
+     */
+    private Single<PasswordItem> loadItem(int passwordId) {
+        return Single.fromCallable(() -> {
+                    PasswordItem item = backendService.decryptItem(passwordId);
+                    if (item == null) {
+                        throw new IllegalArgumentException("Password not found: " + passwordId);
+                    }
+                    return item;
+                })
+                .subscribeOn(Schedulers.io());
+    }
+}
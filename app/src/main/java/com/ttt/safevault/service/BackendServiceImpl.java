@@ -9,25 +9,31 @@ import androidx.annotation.Nullable;
 
 import com.ttt.safevault.crypto.CryptoManager;
 import com.ttt.safevault.data.AppDatabase;
+import com.ttt.safevault.data.ShareDao;
+import com.ttt.safevault.data.ShareEntity;
 import com.ttt.safevault.data.EncryptedPasswordEntity;
 import com.ttt.safevault.data.PasswordDao;
+import com.ttt.safevault.data.SyncChangeDao;
 import com.ttt.safevault.model.BackendService;
+import com.ttt.safevault.model.ItemUsage;
 import com.ttt.safevault.model.PasswordItem;
 import com.ttt.safevault.model.PasswordShare;
 import com.ttt.safevault.model.SharePermission;
 import com.ttt.safevault.model.ShareStatus;
 import com.ttt.safevault.security.BiometricKeyManager;
+import com.ttt.safevault.security.PasswordGenerator;
 import com.ttt.safevault.security.SecurityConfig;
+import com.ttt.safevault.security.ShareEnvelope;
 
-import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * BackendService接口的具体实现
@@ -43,39 +49,71 @@ public class BackendServiceImpl implements BackendService {
     private static final String PREF_BIOMETRIC_IV = "biometric_iv";
     private static final String PREF_USER_ID = "user_id";
 
-    // 密码生成字符集
-    private static final String UPPERCASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-    private static final String LOWERCASE = "abcdefghijklmnopqrstuvwxyz";
-    private static final String NUMBERS = "0123456789";
-    private static final String SYMBOLS = "!@#$%^&*()_+-=[]{}|;':\",./<>?";
+    // 分享数据前缀：X25519分享信封 / 保险库密钥加密（无身份密钥的设备）
+    private static final String SHARE_ENVELOPE_PREFIX = "sve1:";
+    private static final String SHARE_VAULT_PREFIX = "svv1:";
+
+    // 本地修改后延迟同步的时间（毫秒），连续修改合并为一次同步
+    private static final long SYNC_DELAY_MS = 5000;
 
     private final Context context;
     private final CryptoManager cryptoManager;
     private final PasswordDao passwordDao;
+    private final SyncChangeDao syncChangeDao;
     private final SecurityConfig securityConfig;
     private final SharedPreferences prefs;
-    private final SecureRandom secureRandom;
+    private final UsageTracker usageTracker;
+    private final VaultAuditEngine auditEngine;
+    private final com.ttt.safevault.security.BreachedPasswordChecker breachChecker;
     private BiometricKeyManager biometricKeyManager;
 
     // 分享功能相关的内存存储（简化实现，生产环境应使用数据库）
-    private final Map<String, PasswordShare> sharesMap = new ConcurrentHashMap<>();
+    private final ShareDao shareDao;
+    private final ShareExpiryScheduler expiryScheduler;
+
+    // 当前用户ID缓存，避免每次查询分享都读取偏好设置
+    private volatile String currentUserId;
 
-    // 云端服务API客户端
-    private com.ttt.safevault.network.RetrofitClient retrofitClient;
+    // 云端登录状态
     private com.ttt.safevault.network.TokenManager tokenManager;
 
+    // 本地修改后的延迟同步，syncTask 受 syncScheduler 保护
+    private final ScheduledExecutorService syncScheduler = Executors.newSingleThreadScheduledExecutor();
+    private ScheduledFuture<?> syncTask;
+
     public BackendServiceImpl(@NonNull Context context) {
         this.context = context.getApplicationContext();
         // 使用 ServiceLocator 的共享 CryptoManager，确保解锁状态同步
         this.cryptoManager = com.ttt.safevault.ServiceLocator.getInstance().getCryptoManager();
         this.passwordDao = AppDatabase.getInstance(context).passwordDao();
+        this.syncChangeDao = AppDatabase.getInstance(context).syncChangeDao();
+        this.shareDao = AppDatabase.getInstance(context).shareDao();
+        this.expiryScheduler = new ShareExpiryScheduler(shareDao);
+        this.expiryScheduler.start();
         this.securityConfig = new SecurityConfig(context);
         this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        this.secureRandom = new SecureRandom();
+        this.usageTracker = com.ttt.safevault.ServiceLocator.getInstance().getUsageTracker();
+        this.breachChecker = com.ttt.safevault.security.BreachedPasswordChecker.getInstance(context);
+        this.breachChecker.preload();
+        this.auditEngine = new VaultAuditEngine(
+                AppDatabase.getInstance(context).itemAuditDao(), cryptoManager, breachChecker);
+        // 同步改写的条目不一定改变updatedAt（合并时可能只取了远端的部分字段），审计事实直接标记过期；
+        // 被远端删除的条目同时清理使用统计
+        com.ttt.safevault.ServiceLocator.getInstance().getVaultSyncEngine().setListener(new VaultSyncEngine.Listener() {
+            @Override
+            public void onItemChanged(int itemId) {
+                auditEngine.invalidate(itemId);
+            }
+
+            @Override
+            public void onItemDeleted(int itemId) {
+                auditEngine.onItemDeleted(itemId);
+                usageTracker.remove(itemId);
+            }
+        });
         
-        // 初始化云端API客户端
-        this.retrofitClient = com.ttt.safevault.network.RetrofitClient.getInstance(context);
-        this.tokenManager = this.retrofitClient.getTokenManager();
+        // 云端请求由AsyncBackendService发出，这里只需要登录状态
+        this.tokenManager = com.ttt.safevault.network.RetrofitClient.getInstance(context).getTokenManager();
         
         // 初始化生物识别密钥管理器
         try {
@@ -94,6 +132,7 @@ public class BackendServiceImpl implements BackendService {
         
         // 解锁成功后保存密码
         if (success) {
+            adoptPendingVaultKey(masterPassword);
             saveMasterPasswordForBiometric(masterPassword);
             // 保存一份用于自动填充服务
             savePasswordForAutofill(masterPassword);
@@ -101,6 +140,63 @@ public class BackendServiceImpl implements BackendService {
         
         return success;
     }
+
+    /**
+     * 同步时发现服务器上已有其他设备的数据密钥：用主密码解开后把本机条目改用它重新加密，
+     * 此后本机与其他设备的密文可以互相解密，同步不再被拒绝。
+     * 主密码不是包装该密钥的主密码时保持原状，同步继续被拒绝
+     */
+    private void adoptPendingVaultKey(String masterPassword) {
+        if (cryptoManager.getPendingVaultKey() == null) {
+            return;
+        }
+        javax.crypto.SecretKey sharedKey = cryptoManager.unwrapPendingVaultKey(masterPassword);
+        if (sharedKey == null) {
+            Log.w(TAG, "Pending vault key was wrapped under a different master password");
+            return;
+        }
+        try {
+            AppDatabase.getInstance(context).runInTransaction(() -> {
+                for (EncryptedPasswordEntity entity : passwordDao.getAll()) {
+                    entity.setEncryptedTitle(reencryptField(entity.getEncryptedTitle(), sharedKey));
+                    entity.setEncryptedUsername(reencryptField(entity.getEncryptedUsername(), sharedKey));
+                    entity.setEncryptedPassword(reencryptField(entity.getEncryptedPassword(), sharedKey));
+                    entity.setEncryptedUrl(reencryptField(entity.getEncryptedUrl(), sharedKey));
+                    entity.setEncryptedNotes(reencryptField(entity.getEncryptedNotes(), sharedKey));
+                    passwordDao.update(entity);
+                }
+                // 条目全部改写后才切换密钥，任何一步失败都回滚，本机继续使用原来的数据密钥
+                if (!cryptoManager.adoptPendingVaultKey(sharedKey, masterPassword)) {
+                    throw new IllegalStateException("Failed to store vault key");
+                }
+            });
+            com.ttt.safevault.ServiceLocator.getInstance().getVaultSyncEngine().onKeyChanged();
+            // 复用检测的子密钥随数据密钥变化，审计事实全部重算
+            auditEngine.clear();
+            Log.d(TAG, "Adopted shared vault key");
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to adopt shared vault key", e);
+        }
+    }
+
+    /**
+     * 用当前数据密钥解密字段，再用新的数据密钥加密
+     */
+    @Nullable
+    private String reencryptField(@Nullable String encrypted, javax.crypto.SecretKey key) {
+        if (encrypted == null || encrypted.isEmpty()) {
+            return encrypted;
+        }
+        String plaintext = decryptField(encrypted);
+        if (plaintext == null) {
+            throw new IllegalStateException("Cannot decrypt item");
+        }
+        CryptoManager.EncryptedData data = cryptoManager.encrypt(plaintext, key);
+        if (data == null) {
+            throw new IllegalStateException("Cannot encrypt item");
+        }
+        return data.iv + ":" + data.ciphertext;
+    }
     
     /**
      * 保存密码供自动填充服务使用
@@ -119,6 +215,7 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public void lock() {
         cryptoManager.lock();
+        ShareEnvelope.clearCache();
     }
 
     @Override
@@ -146,6 +243,8 @@ public class BackendServiceImpl implements BackendService {
             }
         }
 
+        // 常用条目优先
+        ItemUsage.sortByScore(results, usageTracker.getUsageStats());
         return results;
     }
 
@@ -159,34 +258,153 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public int saveItem(PasswordItem item) {
         try {
-            EncryptedPasswordEntity entity = encryptItem(item);
+            VaultSyncEngine syncEngine = com.ttt.safevault.ServiceLocator.getInstance().getVaultSyncEngine();
+            EncryptedPasswordEntity entity;
+            boolean[] changed = {true};
 
+            // 条目和变更日志在同一事务中写入
             if (item.getId() > 0) {
-                // 更新现有记录
-                entity.setId(item.getId());
-                passwordDao.update(entity);
-                return item.getId();
+                EncryptedPasswordEntity[] updated = new EncryptedPasswordEntity[1];
+                AppDatabase.getInstance(context).runInTransaction(() -> {
+                    // 更新现有记录，只改写有变化的字段，保留同步ID，修订号加一
+                    EncryptedPasswordEntity existing = passwordDao.getById(item.getId());
+                    if (existing == null) {
+                        throw new IllegalStateException("Item not found: " + item.getId());
+                    }
+                    updated[0] = existing;
+                    long previousRevision = existing.getRevision();
+                    changed[0] = applyFieldChanges(existing, item, syncEngine);
+                    if (!changed[0]) {
+                        return;
+                    }
+                    existing.setUpdatedAt(item.getUpdatedAt() > 0 ? item.getUpdatedAt() : System.currentTimeMillis());
+                    existing.setRevision(previousRevision + 1);
+                    passwordDao.update(existing);
+                    VaultSyncEngine.recordLocalChange(syncChangeDao, existing.getId(),
+                            previousRevision, existing.getRevision());
+                });
+                entity = updated[0];
             } else {
-                // 插入新记录
-                long newId = passwordDao.insert(entity);
-                return (int) newId;
+                entity = encryptItem(item);
+                stampAllFields(entity, syncEngine.newStamp());
+                AppDatabase.getInstance(context).runInTransaction(() -> {
+                    // 插入新记录
+                    entity.setSyncId(VaultSyncEngine.newSyncId());
+                    entity.setRevision(1);
+                    entity.setId((int) passwordDao.insert(entity));
+                    VaultSyncEngine.recordLocalChange(syncChangeDao, entity.getId(), 0, entity.getRevision());
+                });
             }
+            int savedId = entity.getId();
+            if (!changed[0]) {
+                return savedId;
+            }
+
+            // 增量更新该条目的健康审计事实
+            auditEngine.onItemSaved(savedId, item.getPassword(), entity.getUpdatedAt());
+            scheduleVaultSync();
+            return savedId;
         } catch (Exception e) {
             Log.e(TAG, "Failed to save item", e);
             return -1;
         }
     }
 
+    @Override
+    public int saveItems(List<PasswordItem> items) {
+        try {
+            VaultSyncEngine syncEngine = com.ttt.safevault.ServiceLocator.getInstance().getVaultSyncEngine();
+            List<EncryptedPasswordEntity> entities = new ArrayList<>(items.size());
+            for (PasswordItem item : items) {
+                EncryptedPasswordEntity entity = encryptItem(item);
+                stampAllFields(entity, syncEngine.newStamp());
+                entity.setSyncId(VaultSyncEngine.newSyncId());
+                entity.setRevision(1);
+                entities.add(entity);
+            }
+
+            // 整批在一个事务中插入，避免逐条提交，也避免中途失败留下半批数据
+            int[] ids = new int[entities.size()];
+            AppDatabase.getInstance(context).runInTransaction(() -> {
+                for (int i = 0; i < entities.size(); i++) {
+                    ids[i] = (int) passwordDao.insert(entities.get(i));
+                    VaultSyncEngine.recordLocalChange(syncChangeDao, ids[i], 0, 1);
+                }
+            });
+
+            for (int i = 0; i < ids.length; i++) {
+                auditEngine.onItemSaved(ids[i], items.get(i).getPassword(), entities.get(i).getUpdatedAt());
+            }
+            Log.d(TAG, "saveItems: saved " + ids.length + " items");
+            scheduleVaultSync();
+            return ids.length;
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to save items", e);
+            return -1;
+        }
+    }
+
     @Override
     public boolean deleteItem(int id) {
         try {
-            return passwordDao.deleteById(id) > 0;
+            // 留下墓碑，删除同步到其他设备后再清理
+            boolean[] deleted = new boolean[1];
+            AppDatabase.getInstance(context).runInTransaction(() -> {
+                EncryptedPasswordEntity existing = passwordDao.getById(id);
+                if (existing == null) {
+                    return;
+                }
+                deleted[0] = passwordDao.markDeleted(id, System.currentTimeMillis()) > 0;
+                VaultSyncEngine.recordLocalChange(syncChangeDao, id,
+                        existing.getRevision(), existing.getRevision() + 1);
+            });
+            if (deleted[0]) {
+                usageTracker.remove(id);
+                auditEngine.onItemDeleted(id);
+                scheduleVaultSync();
+            }
+            return deleted[0];
         } catch (Exception e) {
             Log.e(TAG, "Failed to delete item", e);
             return false;
         }
     }
 
+    /**
+     * 本地修改只写入变更日志，延迟后上传；延迟期间再有修改时重新计时
+     * WebSocket 连接建立时的同步只补上离线期间的变更，在线时的修改靠这里上传
+     */
+    private void scheduleVaultSync() {
+        if (!tokenManager.isLoggedIn()) {
+            return;
+        }
+        synchronized (syncScheduler) {
+            if (syncTask != null) {
+                syncTask.cancel(false);
+            }
+            syncTask = syncScheduler.schedule(this::runScheduledSync, SYNC_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void runScheduledSync() {
+        synchronized (syncScheduler) {
+            syncTask = null;
+        }
+        if (!tokenManager.isLoggedIn()) {
+            return;
+        }
+        try {
+            VaultSyncEngine.Result result = com.ttt.safevault.ServiceLocator.getInstance().getVaultSyncEngine().sync();
+            Log.d(TAG, "Scheduled vault sync: pulled " + result.pulled + ", pushed " + result.pushed);
+        } catch (VaultSyncEngine.KeyMismatchException e) {
+            // 待采用的数据密钥已保存，密码列表会提示用户用其他设备的主密码解锁
+            Log.w(TAG, "Scheduled vault sync paused: " + e.getMessage());
+        } catch (Exception e) {
+            // 修改仍在变更日志中，下次同步时上传
+            Log.e(TAG, "Scheduled vault sync failed", e);
+        }
+    }
+
     @Override
     public String generatePassword(int length, boolean symbols) {
         return generatePassword(length, true, true, true, symbols);
@@ -195,50 +413,9 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public String generatePassword(int length, boolean useUppercase, boolean useLowercase,
                                    boolean useNumbers, boolean useSymbols) {
-        StringBuilder charPool = new StringBuilder();
-
-        if (useUppercase) charPool.append(UPPERCASE);
-        if (useLowercase) charPool.append(LOWERCASE);
-        if (useNumbers) charPool.append(NUMBERS);
-        if (useSymbols) charPool.append(SYMBOLS);
-
-        // 默认至少包含小写字母和数字
-        if (charPool.length() == 0) {
-            charPool.append(LOWERCASE).append(NUMBERS);
-        }
-
-        StringBuilder password = new StringBuilder(length);
-        String pool = charPool.toString();
-
-        // 确保密码包含所选的每种字符类型
-        List<String> requiredChars = new ArrayList<>();
-        if (useUppercase) requiredChars.add(UPPERCASE);
-        if (useLowercase) requiredChars.add(LOWERCASE);
-        if (useNumbers) requiredChars.add(NUMBERS);
-        if (useSymbols) requiredChars.add(SYMBOLS);
-
-        // 先添加每种类型至少一个字符
-        for (String chars : requiredChars) {
-            if (password.length() < length) {
-                password.append(chars.charAt(secureRandom.nextInt(chars.length())));
-            }
-        }
-
-        // 填充剩余长度
-        while (password.length() < length) {
-            password.append(pool.charAt(secureRandom.nextInt(pool.length())));
-        }
-
-        // 打乱顺序
-        char[] passwordArray = password.toString().toCharArray();
-        for (int i = passwordArray.length - 1; i > 0; i--) {
-            int j = secureRandom.nextInt(i + 1);
-            char temp = passwordArray[i];
-            passwordArray[i] = passwordArray[j];
-            passwordArray[j] = temp;
-        }
-
-        return new String(passwordArray);
+        // 未选择任何类型时策略默认使用小写字母和数字
+        return PasswordGenerator.getInstance().generateString(
+                PasswordGenerator.Policy.of(length, useUppercase, useLowercase, useNumbers, useSymbols));
     }
 
     @Override
@@ -294,17 +471,9 @@ public class BackendServiceImpl implements BackendService {
             return false;
         }
 
-        // 需要重新加密所有数据
-        try {
-            List<PasswordItem> items = getAllItems();
-            for (PasswordItem item : items) {
-                saveItem(item);
-            }
-            return true;
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to re-encrypt data", e);
-            return false;
-        }
+        // 数据密钥不变，条目不需要重新加密；重新包装的数据密钥在下次同步时上传
+        com.ttt.safevault.ServiceLocator.getInstance().getVaultSyncEngine().onKeyChanged();
+        return true;
     }
 
     @Override
@@ -322,49 +491,61 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public AppStats getStats() {
         try {
-            List<PasswordItem> items = getAllItems();
-            int totalItems = items.size();
-            int weakPasswords = 0;
-            int duplicatePasswords = 0;
-
-            Set<String> passwordSet = new HashSet<>();
-            for (PasswordItem item : items) {
-                String pwd = item.getPassword();
-                if (pwd != null) {
-                    // 检查弱密码
-                    if (isWeakPassword(pwd)) {
-                        weakPasswords++;
-                    }
-                    // 检查重复密码
-                    if (!passwordSet.add(pwd)) {
-                        duplicatePasswords++;
+            // 只对没有事实或已变化的条目补算，其余直接使用内存中的汇总
+            List<PasswordDao.ItemStamp> stamps = passwordDao.getAllStamps();
+            List<Integer> staleIds = auditEngine.reconcile(stamps);
+            if (!staleIds.isEmpty() && cryptoManager.isUnlocked()) {
+                Log.d(TAG, "getStats: recomputing audit facts for " + staleIds.size() + " items");
+                for (int id : staleIds) {
+                    EncryptedPasswordEntity entity = passwordDao.getById(id);
+                    if (entity != null) {
+                        auditEngine.onItemSaved(id, decryptField(entity.getEncryptedPassword()),
+                                entity.getUpdatedAt());
                     }
                 }
             }
 
+            VaultAuditEngine.AuditSummary summary = auditEngine.getSummary();
+
             long lastBackup = prefs.getLong(PREF_LAST_BACKUP, 0);
             int daysSinceBackup = lastBackup > 0 ?
                     (int) ((System.currentTimeMillis() - lastBackup) / (1000 * 60 * 60 * 24)) : -1;
 
-            return new AppStats(totalItems, weakPasswords, duplicatePasswords, daysSinceBackup);
+            return new AppStats(stamps.size(), summary.weakPasswords, summary.duplicatePasswords,
+                    daysSinceBackup, summary.oldPasswords, summary.breachedPasswords);
         } catch (Exception e) {
             Log.e(TAG, "Failed to get stats", e);
             return new AppStats(0, 0, 0, -1);
         }
     }
 
-    private boolean isWeakPassword(String password) {
-        if (password == null || password.length() < 8) {
-            return true;
-        }
+    @Override
+    public void recordItemUsage(int id) {
+        usageTracker.recordUsage(id);
+    }
 
-        boolean hasUpper = password.matches(".*[A-Z].*");
-        boolean hasLower = password.matches(".*[a-z].*");
-        boolean hasNumber = password.matches(".*\\d.*");
-        boolean hasSymbol = password.matches(".*[!@#$%^&*()_+\\-=\\[\\]{};':\"\\\\|,.<>/?].*");
+    @Override
+    public Map<Integer, ItemUsage> getItemUsageStats() {
+        return usageTracker.getUsageStats();
+    }
 
-        int types = (hasUpper ? 1 : 0) + (hasLower ? 1 : 0) + (hasNumber ? 1 : 0) + (hasSymbol ? 1 : 0);
-        return types < 3;
+    @Override
+    public boolean isPasswordBreached(String password) {
+        return breachChecker.isBreached(password);
+    }
+
+    @Override
+    public boolean importBreachedPasswords(String importPath) {
+        if (importPath == null || importPath.isEmpty()) {
+            return false;
+        }
+        boolean imported = breachChecker.importFromFile(new java.io.File(importPath),
+                com.ttt.safevault.security.BreachedPasswordChecker.DEFAULT_FP_RATE);
+        if (imported) {
+            // 泄露数据变化后所有条目的泄露标记都需要重新计算
+            auditEngine.invalidateAll();
+        }
+        return imported;
     }
 
     @Override
@@ -411,6 +592,56 @@ public class BackendServiceImpl implements BackendService {
         return entity;
     }
 
+    /**
+     * 把编辑后的条目写到现有记录上
+     * 只重新加密有变化的字段并给它新的版本戳，未变化的字段保留原密文和版本戳，
+     * 其他设备同时修改的其他字段在合并时不会被这次保存覆盖
+     *
+     * @return 是否有字段变化
+     */
+    private boolean applyFieldChanges(EncryptedPasswordEntity entity, PasswordItem item,
+                                      VaultSyncEngine syncEngine) {
+        PasswordItem current = decryptEntity(entity);
+        if (current == null) {
+            throw new IllegalStateException("Cannot decrypt item: " + entity.getId());
+        }
+        boolean changed = false;
+        changed |= applyFieldChange(current.getTitle(), item.getTitle(),
+                entity::setEncryptedTitle, entity::setTitleStamp, syncEngine);
+        changed |= applyFieldChange(current.getUsername(), item.getUsername(),
+                entity::setEncryptedUsername, entity::setUsernameStamp, syncEngine);
+        changed |= applyFieldChange(current.getPassword(), item.getPassword(),
+                entity::setEncryptedPassword, entity::setPasswordStamp, syncEngine);
+        changed |= applyFieldChange(current.getUrl(), item.getUrl(),
+                entity::setEncryptedUrl, entity::setUrlStamp, syncEngine);
+        changed |= applyFieldChange(current.getNotes(), item.getNotes(),
+                entity::setEncryptedNotes, entity::setNotesStamp, syncEngine);
+        return changed;
+    }
+
+    private boolean applyFieldChange(@Nullable String oldValue, @Nullable String newValue,
+                                     java.util.function.Consumer<String> setEncrypted,
+                                     java.util.function.Consumer<String> setStamp,
+                                     VaultSyncEngine syncEngine) {
+        // 空字段按null存储
+        String before = oldValue != null ? oldValue : "";
+        String after = newValue != null ? newValue : "";
+        if (before.equals(after)) {
+            return false;
+        }
+        setEncrypted.accept(encryptField(newValue));
+        setStamp.accept(syncEngine.newStamp());
+        return true;
+    }
+
+    private void stampAllFields(EncryptedPasswordEntity entity, String stamp) {
+        entity.setTitleStamp(stamp);
+        entity.setUsernameStamp(stamp);
+        entity.setPasswordStamp(stamp);
+        entity.setUrlStamp(stamp);
+        entity.setNotesStamp(stamp);
+    }
+
     /**
      * 加密单个字段，返回格式: iv:ciphertext
      */
@@ -503,6 +734,9 @@ public class BackendServiceImpl implements BackendService {
             for (PasswordItem item : items) {
                 deleteItem(item.getId());
             }
+            // 清除使用统计和审计数据
+            usageTracker.clear();
+            auditEngine.clear();
             // 清除加密密钥
             cryptoManager.lock();
             // 清除所有设置
@@ -536,7 +770,11 @@ public class BackendServiceImpl implements BackendService {
         }
         
         // 使用主密码解锁
-        return cryptoManager.unlock(masterPassword);
+        if (!cryptoManager.unlock(masterPassword)) {
+            return false;
+        }
+        adoptPendingVaultKey(masterPassword);
+        return true;
     }
 
     @Override
@@ -636,13 +874,22 @@ public class BackendServiceImpl implements BackendService {
      * 获取当前用户ID
      */
     private String getCurrentUserId() {
-        String userId = prefs.getString(PREF_USER_ID, null);
-        if (userId == null) {
-            // 创建新用户
-            userId = "user_" + UUID.randomUUID().toString();
-            prefs.edit().putString(PREF_USER_ID, userId).apply();
+        String userId = currentUserId;
+        if (userId != null) {
+            return userId;
+        }
+        synchronized (this) {
+            if (currentUserId == null) {
+                userId = prefs.getString(PREF_USER_ID, null);
+                if (userId == null) {
+                    // 创建新用户
+                    userId = "user_" + UUID.randomUUID().toString();
+                    prefs.edit().putString(PREF_USER_ID, userId).apply();
+                }
+                currentUserId = userId;
+            }
+            return currentUserId;
         }
-        return userId;
     }
 
     // ========== 新增：分享管理接口实现 ==========
@@ -680,12 +927,13 @@ public class BackendServiceImpl implements BackendService {
             share.setPermission(permission);
             share.setStatus(ShareStatus.ACTIVE);
             
-            // 加密密码数据（简化实现，直接存储JSON）
+            // 加密密码数据
             String encryptedData = encryptPasswordForShare(item);
             share.setEncryptedData(encryptedData);
             
             // 保存分享
-            sharesMap.put(shareId, share);
+            shareDao.upsert(ShareEntity.fromShare(share));
+            expiryScheduler.schedule(shareId, share.getExpireTime());
             Log.d(TAG, "Share created: " + shareId);
             
             return shareId;
@@ -722,6 +970,7 @@ public class BackendServiceImpl implements BackendService {
             
             // 更新分享状态
             share.setStatus(ShareStatus.ACCEPTED);
+            shareDao.updateStatus(shareId, ShareStatus.ACCEPTED.name());
             
             Log.d(TAG, "Share received: " + shareId);
             return item;
@@ -734,7 +983,7 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public boolean revokePasswordShare(String shareId) {
         try {
-            PasswordShare share = sharesMap.get(shareId);
+            PasswordShare share = getShareDetails(shareId);
             if (share == null) {
                 return false;
             }
@@ -752,7 +1001,8 @@ public class BackendServiceImpl implements BackendService {
             }
             
             // 更新状态
-            share.setStatus(ShareStatus.REVOKED);
+            shareDao.updateStatus(shareId, ShareStatus.REVOKED.name());
+            expiryScheduler.cancel(shareId);
             Log.d(TAG, "Share revoked: " + shareId);
             return true;
         } catch (Exception e) {
@@ -763,30 +1013,34 @@ public class BackendServiceImpl implements BackendService {
 
     @Override
     public List<PasswordShare> getMyShares() {
-        List<PasswordShare> myShares = new ArrayList<>();
-        String currentUserId = getCurrentUserId();
-        
-        for (PasswordShare share : sharesMap.values()) {
-            if (currentUserId.equals(share.getFromUserId())) {
-                myShares.add(share);
-            }
-        }
-        
-        return myShares;
+        return getMyShares(null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<PasswordShare> getMyShares(@Nullable PasswordShare after, int limit) {
+        return toShares(shareDao.getByFromUser(getCurrentUserId(),
+                after != null ? after.getCreatedAt() : Long.MAX_VALUE,
+                after != null ? after.getShareId() : "", limit));
     }
 
     @Override
     public List<PasswordShare> getReceivedShares() {
-        List<PasswordShare> receivedShares = new ArrayList<>();
-        String currentUserId = getCurrentUserId();
-        
-        for (PasswordShare share : sharesMap.values()) {
-            if (currentUserId.equals(share.getToUserId()) || share.getToUserId() == null) {
-                receivedShares.add(share);
-            }
+        return getReceivedShares(null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<PasswordShare> getReceivedShares(@Nullable PasswordShare after, int limit) {
+        return toShares(shareDao.getReceived(getCurrentUserId(),
+                after != null ? after.getCreatedAt() : Long.MAX_VALUE,
+                after != null ? after.getShareId() : "", limit));
+    }
+
+    private List<PasswordShare> toShares(List<ShareEntity> entities) {
+        List<PasswordShare> shares = new ArrayList<>(entities.size());
+        for (ShareEntity entity : entities) {
+            shares.add(entity.toShare());
         }
-        
-        return receivedShares;
+        return shares;
     }
 
     @Override
@@ -807,7 +1061,8 @@ public class BackendServiceImpl implements BackendService {
 
     @Override
     public PasswordShare getShareDetails(String shareId) {
-        return sharesMap.get(shareId);
+        ShareEntity entity = shareDao.getById(shareId);
+        return entity != null ? entity.toShare() : null;
     }
 
     // ========== 新增：加密传输接口实现 ==========
@@ -817,8 +1072,11 @@ public class BackendServiceImpl implements BackendService {
                                    String receiverPublicKey,
                                    SharePermission permission) {
         try {
-            // 简化实现：直接序列化为JSON（生产环境应使用真正的加密）
-            return encryptPasswordForShare(passwordItem);
+            byte[] recipient = null;
+            if (receiverPublicKey != null && !receiverPublicKey.isEmpty()) {
+                recipient = CloudShareCodec.rawShareKey(receiverPublicKey);
+            }
+            return encryptPasswordForShare(passwordItem, recipient);
         } catch (Exception e) {
             Log.e(TAG, "Failed to generate share data", e);
             return null;
@@ -828,7 +1086,6 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public PasswordItem parseShareData(String shareData) {
         try {
-            // 简化实现：从JSON解析（生产环境应使用真正的解密）
             return decryptPasswordFromShare(shareData);
         } catch (Exception e) {
             Log.e(TAG, "Failed to parse share data", e);
@@ -837,65 +1094,78 @@ public class BackendServiceImpl implements BackendService {
     }
 
     /**
-     * 加密密码用于分享（简化实现）
+     * 加密密码用于本地分享，信封发给本机身份密钥
      */
-    private String encryptPasswordForShare(PasswordItem item) {
-        // 简化实现：返回JSON字符串
-        // 生产环境应使用真正的端到端加密
-        return "{\"title\":\"" + (item.getTitle() != null ? item.getTitle() : "") + 
-               "\",\"username\":\"" + (item.getUsername() != null ? item.getUsername() : "") + 
-               "\",\"password\":\"" + (item.getPassword() != null ? item.getPassword() : "") + 
-               "\",\"url\":\"" + (item.getUrl() != null ? item.getUrl() : "") + 
-               "\",\"notes\":\"" + (item.getNotes() != null ? item.getNotes() : "") + "\"}";
+    private String encryptPasswordForShare(PasswordItem item) throws Exception {
+        return encryptPasswordForShare(item, null);
     }
 
     /**
-     * 从分享数据解密密码（简化实现）
+     * 加密密码用于分享
+     * 有X25519身份密钥时封装为分享信封（recipient为null时发给本机），
+     * 否则只能用保险库密钥加密，仅本机可解
      */
-    private PasswordItem decryptPasswordFromShare(String encryptedData) {
-        // 简化实现：从JSON解析
-        // 生产环境应使用真正的解密
-        try {
-            PasswordItem item = new PasswordItem();
-            // 简单的JSON解析（生产环境应使用JSON库）
-            if (encryptedData.contains("\"title\":\"")) {
-                String title = extractJsonValue(encryptedData, "title");
-                String username = extractJsonValue(encryptedData, "username");
-                String password = extractJsonValue(encryptedData, "password");
-                String url = extractJsonValue(encryptedData, "url");
-                String notes = extractJsonValue(encryptedData, "notes");
-                
-                item.setTitle(title);
-                item.setUsername(username);
-                item.setPassword(password);
-                item.setUrl(url);
-                item.setNotes(notes);
-            }
-            return item;
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to decrypt password from share", e);
-            return null;
+    private String encryptPasswordForShare(PasswordItem item, @Nullable byte[] recipient) throws Exception {
+        String plaintext = CloudShareCodec.toJson(item);
+
+        com.ttt.safevault.security.KeyManager keyManager = com.ttt.safevault.security.KeyManager.getInstance(context);
+        if (recipient == null) {
+            recipient = keyManager.getRawPublicKey();
+        }
+        if (recipient != null) {
+            byte[] envelope = ShareEnvelope.seal(
+                    plaintext.getBytes(java.nio.charset.StandardCharsets.UTF_8), recipient);
+            return SHARE_ENVELOPE_PREFIX + java.util.Base64.getEncoder().encodeToString(envelope);
         }
+
+        String encrypted = encryptField(plaintext);
+        if (encrypted == null) {
+            throw new IllegalStateException("Vault is locked");
+        }
+        return SHARE_VAULT_PREFIX + encrypted;
     }
 
     /**
-     * 从JSON字符串提取值（简化实现）
+     * 从分享数据解密密码，兼容旧版明文JSON
      */
-    private String extractJsonValue(String json, String key) {
+    private PasswordItem decryptPasswordFromShare(String encryptedData) {
         try {
-            String searchKey = "\"" + key + "\":\"";
-            int startIndex = json.indexOf(searchKey);
-            if (startIndex == -1) {
-                return "";
+            String plaintext;
+            if (encryptedData.startsWith(SHARE_ENVELOPE_PREFIX)) {
+                com.ttt.safevault.security.KeyManager keyManager =
+                        com.ttt.safevault.security.KeyManager.getInstance(context);
+                byte[] ownPublicKey = keyManager.getRawPublicKey();
+                if (ownPublicKey == null) {
+                    Log.e(TAG, "No share key to open envelope");
+                    return null;
+                }
+                byte[] envelope = java.util.Base64.getDecoder()
+                        .decode(encryptedData.substring(SHARE_ENVELOPE_PREFIX.length()));
+                plaintext = new String(ShareEnvelope.open(envelope, keyManager.getPrivateKey(), ownPublicKey),
+                        java.nio.charset.StandardCharsets.UTF_8);
+            } else if (encryptedData.startsWith(SHARE_VAULT_PREFIX)) {
+                plaintext = decryptField(encryptedData.substring(SHARE_VAULT_PREFIX.length()));
+                if (plaintext == null) {
+                    Log.e(TAG, "Failed to decrypt vault share data");
+                    return null;
+                }
+            } else {
+                plaintext = encryptedData;
             }
-            startIndex += searchKey.length();
-            int endIndex = json.indexOf("\"", startIndex);
-            if (endIndex == -1) {
-                return "";
+
+            PasswordItem item = new PasswordItem();
+            if (plaintext.contains("\"title\"")) {
+                org.json.JSONObject json = new org.json.JSONObject(plaintext);
+                item.setTitle(json.optString("title"));
+                item.setUsername(json.optString("username"));
+                item.setPassword(json.optString("password"));
+                item.setUrl(json.optString("url"));
+                item.setNotes(json.optString("notes"));
             }
-            return json.substring(startIndex, endIndex);
+            return item;
         } catch (Exception e) {
-            return "";
+            Log.e(TAG, "Failed to decrypt password from share", e);
+            return null;
         }
     }
 
@@ -954,100 +1224,67 @@ public class BackendServiceImpl implements BackendService {
         }
     }
 
-    // ========== 云端分享接口实现 ==========
-
     @Override
-    public com.ttt.safevault.dto.response.AuthResponse register(String username, String password, String displayName) {
+    public byte[] createBatchShare(int[] passwordIds, int expireInMinutes, SharePermission permission) {
         try {
-            // 获取设备ID和公钥
-            String deviceId = com.ttt.safevault.security.KeyManager.getInstance(context).getDeviceId();
-            String publicKey = com.ttt.safevault.security.KeyManager.getInstance(context).getPublicKey();
-
-            com.ttt.safevault.dto.request.RegisterRequest request = new com.ttt.safevault.dto.request.RegisterRequest(
-                deviceId, username, displayName, publicKey
-            );
-
-            com.ttt.safevault.dto.response.AuthResponse response = retrofitClient.getAuthServiceApi()
-                .register(request)
-                .blockingFirst();
-
-            if (response != null) {
-                tokenManager.saveTokens(response);
-                Log.d(TAG, "User registered successfully: " + response.getUserId());
+            List<PasswordItem> items = new ArrayList<>(passwordIds.length);
+            for (int id : passwordIds) {
+                PasswordItem item = decryptItem(id);
+                if (item == null) {
+                    Log.w(TAG, "Password not found, skipped: " + id);
+                    continue;
+                }
+                items.add(item);
+            }
+            if (items.isEmpty()) {
+                Log.e(TAG, "No items to share");
+                return null;
             }
 
-            return response;
+            byte[] archive = com.ttt.safevault.utils.BatchShareArchive.create(items, expireInMinutes, permission);
+            Log.d(TAG, "Batch share created: " + items.size() + " items, " + archive.length + " bytes");
+            return archive;
         } catch (Exception e) {
-            Log.e(TAG, "Failed to register", e);
+            Log.e(TAG, "Failed to create batch share", e);
             return null;
         }
     }
 
     @Override
-    public com.ttt.safevault.dto.response.AuthResponse login(String username, String password) {
+    public List<PasswordItem> receiveBatchShare(byte[] archive) {
         try {
-            // 获取保存的userId和设备ID
-            String userId = tokenManager.getUserId();
-            String deviceId = com.ttt.safevault.security.KeyManager.getInstance(context).getDeviceId();
-
-            if (userId == null) {
-                Log.e(TAG, "No userId found, please register first");
-                return null;
-            }
-
-            // 生成签名
-            String signature = generateSignature(userId, deviceId);
-
-            com.ttt.safevault.dto.request.LoginRequest request = new com.ttt.safevault.dto.request.LoginRequest(
-                userId, deviceId, signature
-            );
-
-            com.ttt.safevault.dto.response.AuthResponse response = retrofitClient.getAuthServiceApi()
-                .login(request)
-                .blockingFirst();
-
-            if (response != null) {
-                tokenManager.saveTokens(response);
-                Log.d(TAG, "User logged in successfully: " + response.getUserId());
-            }
-
-            return response;
+            List<PasswordItem> items = com.ttt.safevault.utils.BatchShareArchive.parse(archive, null);
+            Log.d(TAG, "Batch share received: " + items.size() + " items");
+            return items;
         } catch (Exception e) {
-            Log.e(TAG, "Failed to login", e);
+            Log.e(TAG, "Failed to receive batch share", e);
             return null;
         }
     }
 
-    /**
-     * 生成签名（简化版本）
-     */
-    private String generateSignature(String userId, String deviceId) {
+    // ========== 云端分享接口实现 ==========
+    // 同步版本只是AsyncBackendService的阻塞包装，保留给现有调用方；新代码应直接使用异步接口
+
+    private com.ttt.safevault.model.AsyncBackendService async() {
+        return com.ttt.safevault.ServiceLocator.getInstance().getAsyncBackendService();
+    }
+
+    @Override
+    public com.ttt.safevault.dto.response.AuthResponse register(String username, String password, String displayName) {
         try {
-            String data = userId + deviceId + System.currentTimeMillis();
-            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(data.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            return java.util.Base64.getEncoder().encodeToString(hash);
+            return async().register(username, password, displayName).blockingGet();
         } catch (Exception e) {
-            Log.e(TAG, "Failed to generate signature", e);
-            return "";
+            Log.e(TAG, "Failed to register", e);
+            return null;
         }
     }
 
     @Override
-    public com.ttt.safevault.dto.response.AuthResponse refreshToken(String refreshToken) {
+    public com.ttt.safevault.dto.response.AuthResponse login(String username, String password) {
         try {
-            com.ttt.safevault.dto.response.AuthResponse response = retrofitClient.getAuthServiceApi()
-                .refreshToken("Bearer " + refreshToken)
-                .blockingFirst();
-            
-            if (response != null) {
-                tokenManager.saveTokens(response);
-                Log.d(TAG, "Token refreshed successfully");
-            }
-            
-            return response;
+            return async().login(username, password).blockingGet();
         } catch (Exception e) {
-            Log.e(TAG, "Failed to refresh token", e);
+            Log.e(TAG, "Failed to login", e);
             return null;
         }
     }
@@ -1057,48 +1294,33 @@ public class BackendServiceImpl implements BackendService {
                                                                           int expireInMinutes, SharePermission permission,
                                                                           String shareType) {
         try {
-            // 获取密码数据
-            PasswordItem item = decryptItem(passwordId);
-            if (item == null) {
-                Log.e(TAG, "Password not found: " + passwordId);
-                return null;
-            }
-            
-            // 构建请求
-            com.ttt.safevault.dto.request.CreateShareRequest request = new com.ttt.safevault.dto.request.CreateShareRequest();
-            request.setPasswordId(String.valueOf(passwordId));
-            request.setTitle(item.getTitle());
-            request.setUsername(item.getUsername());
-            request.setEncryptedPassword(item.getPassword()); // 密码已加密
-            request.setUrl(item.getUrl());
-            request.setNotes(item.getNotes());
-            request.setToUserId(toUserId);
-            request.setExpireInMinutes(expireInMinutes);
-            request.setPermission(permission);
-            request.setShareType(shareType);
-            
-            // 调用API
-            com.ttt.safevault.dto.response.ShareResponse response = retrofitClient.getShareServiceApi()
-                .createShare(request)
-                .blockingFirst();
-            
-            Log.d(TAG, "Cloud share created: " + response.getShareId());
-            return response;
+            return async().createCloudShare(passwordId, toUserId, expireInMinutes, permission, shareType)
+                .blockingGet();
         } catch (Exception e) {
             Log.e(TAG, "Failed to create cloud share", e);
             return null;
         }
     }
 
+    @Override
+    public com.ttt.safevault.dto.response.MultiShareResponse createMultiRecipientShare(int passwordId,
+                                                                                    List<String> toUserIds,
+                                                                                    int expireInMinutes,
+                                                                                    SharePermission permission,
+                                                                                    String shareType) {
+        try {
+            return async().createMultiRecipientShare(passwordId, toUserIds, expireInMinutes, permission, shareType)
+                .blockingGet();
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to create multi-recipient share", e);
+            return null;
+        }
+    }
+
     @Override
     public com.ttt.safevault.dto.response.ReceivedShareResponse receiveCloudShare(String shareId) {
         try {
-            com.ttt.safevault.dto.response.ReceivedShareResponse response = retrofitClient.getShareServiceApi()
-                .receiveShare(shareId)
-                .blockingFirst();
-            
-            Log.d(TAG, "Cloud share received: " + shareId);
-            return response;
+            return async().receiveCloudShare(shareId).blockingGet();
         } catch (Exception e) {
             Log.e(TAG, "Failed to receive cloud share", e);
             return null;
@@ -1108,11 +1330,7 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public void revokeCloudShare(String shareId) {
         try {
-            retrofitClient.getShareServiceApi()
-                .revokeShare(shareId)
-                .blockingSubscribe();
-            
-            Log.d(TAG, "Cloud share revoked: " + shareId);
+            async().revokeCloudShare(shareId).blockingAwait();
         } catch (Exception e) {
             Log.e(TAG, "Failed to revoke cloud share", e);
         }
@@ -1121,35 +1339,7 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public void saveCloudShare(String shareId) {
         try {
-            // 先获取分享数据
-            com.ttt.safevault.dto.response.ReceivedShareResponse response =
-                retrofitClient.getShareServiceApi()
-                    .receiveShare(shareId)
-                    .blockingFirst();
-
-            // 告知后端已保存
-            retrofitClient.getShareServiceApi()
-                .saveSharedPassword(shareId)
-                .blockingSubscribe();
-
-            // 将密码数据保存到本地
-            if (response != null && response.getPasswordData() != null) {
-                com.ttt.safevault.dto.PasswordData passwordData = response.getPasswordData();
-
-                // 创建 PasswordItem 并保存到本地
-                PasswordItem item = new PasswordItem();
-                item.setTitle(passwordData.getTitle() != null ? passwordData.getTitle() : "未命名密码");
-                item.setUsername(passwordData.getUsername());
-                item.setPassword(passwordData.getPassword());
-                item.setUrl(passwordData.getUrl());
-                item.setNotes(passwordData.getNotes());
-
-                saveItem(item);
-
-                Log.d(TAG, "Cloud share saved to local: " + shareId);
-            } else {
-                Log.e(TAG, "Failed to save cloud share: invalid response");
-            }
+            async().saveCloudShare(shareId).blockingAwait();
         } catch (Exception e) {
             Log.e(TAG, "Failed to save cloud share", e);
             throw new RuntimeException("保存云端分享失败: " + e.getMessage());
@@ -1159,9 +1349,7 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public java.util.List<com.ttt.safevault.dto.response.ReceivedShareResponse> getMyCloudShares() {
         try {
-            return retrofitClient.getShareServiceApi()
-                .getMyShares()
-                .blockingFirst();
+            return async().getMyCloudShares().blockingGet();
         } catch (Exception e) {
             Log.e(TAG, "Failed to get my cloud shares", e);
             return new ArrayList<>();
@@ -1171,9 +1359,7 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public java.util.List<com.ttt.safevault.dto.response.ReceivedShareResponse> getReceivedCloudShares() {
         try {
-            return retrofitClient.getShareServiceApi()
-                .getReceivedShares()
-                .blockingFirst();
+            return async().getReceivedCloudShares().blockingGet();
         } catch (Exception e) {
             Log.e(TAG, "Failed to get received cloud shares", e);
             return new ArrayList<>();
@@ -1183,14 +1369,7 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public void registerLocation(double latitude, double longitude, double radius) {
         try {
-            com.ttt.safevault.dto.request.RegisterLocationRequest request = 
-                new com.ttt.safevault.dto.request.RegisterLocationRequest(latitude, longitude, radius);
-            
-            retrofitClient.getDiscoveryServiceApi()
-                .registerLocation(request)
-                .blockingSubscribe();
-            
-            Log.d(TAG, "Location registered");
+            async().registerLocation(latitude, longitude, radius).blockingAwait();
         } catch (Exception e) {
             Log.e(TAG, "Failed to register location", e);
         }
@@ -1199,9 +1378,7 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public java.util.List<com.ttt.safevault.dto.response.NearbyUserResponse> getNearbyUsers(double latitude, double longitude, double radius) {
         try {
-            return retrofitClient.getDiscoveryServiceApi()
-                .getNearbyUsers(latitude, longitude, radius)
-                .blockingFirst();
+            return async().getNearbyUsers(latitude, longitude, radius).blockingGet();
         } catch (Exception e) {
             Log.e(TAG, "Failed to get nearby users", e);
             return new ArrayList<>();
@@ -1211,9 +1388,7 @@ public class BackendServiceImpl implements BackendService {
     @Override
     public void sendHeartbeat() {
         try {
-            retrofitClient.getDiscoveryServiceApi()
-                .sendHeartbeat()
-                .blockingSubscribe();
+            async().sendHeartbeat().blockingAwait();
         } catch (Exception e) {
             Log.e(TAG, "Failed to send heartbeat", e);
         }
@@ -1224,9 +1399,22 @@ public class BackendServiceImpl implements BackendService {
         return tokenManager.isLoggedIn();
     }
 
+    @Override
+    public boolean isVaultSyncPaused() {
+        return cryptoManager.getPendingVaultKey() != null;
+    }
+
     @Override
     public void logoutCloud() {
         tokenManager.clearTokens();
+        // 云端分享缓存属于当前账号
+        com.ttt.safevault.data.CloudShareRepository.getInstance(context).clear()
+            .subscribe(() -> { }, e -> Log.e(TAG, "Failed to clear cloud share cache", e));
+        // 同步游标属于当前账号，下次登录后整库重新上传
+        io.reactivex.rxjava3.core.Completable
+            .fromAction(() -> com.ttt.safevault.ServiceLocator.getInstance().getVaultSyncEngine().reset())
+            .subscribeOn(io.reactivex.rxjava3.schedulers.Schedulers.io())
+            .subscribe(() -> { }, e -> Log.e(TAG, "Failed to reset vault sync", e));
         Log.d(TAG, "Logged out from cloud");
     }
 }
\ No newline at end of file
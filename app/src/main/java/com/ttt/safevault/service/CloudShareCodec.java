@@ -0,0 +1,138 @@
+package com.ttt.safevault.service;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.ttt.safevault.dto.PasswordData;
+import com.ttt.safevault.dto.request.CreateMultiShareRequest;
+import com.ttt.safevault.dto.response.ReceivedShareResponse;
+import com.ttt.safevault.model.PasswordItem;
+import com.ttt.safevault.security.KeyManager;
+import com.ttt.safevault.security.ShareEnvelope;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.KeyFactory;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分享内容的序列化和多接收方加解密
+ * 同步和异步两套分享接口共用
+ */
+final class CloudShareCodec {
+
+    private static final String TAG = "CloudShareCodec";
+
+    private CloudShareCodec() {
+    }
+
+    /**
+     * 分享内容的JSON序列化
+     */
+    @NonNull
+    static String toJson(@NonNull PasswordItem item) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("title", item.getTitle() != null ? item.getTitle() : "");
+        json.put("username", item.getUsername() != null ? item.getUsername() : "");
+        json.put("password", item.getPassword() != null ? item.getPassword() : "");
+        json.put("url", item.getUrl() != null ? item.getUrl() : "");
+        json.put("notes", item.getNotes() != null ? item.getNotes() : "");
+        return json.toString();
+    }
+
+    /**
+     * Base64的X.509公钥转为X25519原始格式，不是X25519公钥时抛出异常
+     */
+    @NonNull
+    static byte[] rawShareKey(@NonNull String publicKey) throws GeneralSecurityException {
+        return ShareEnvelope.rawPublicKey(KeyFactory.getInstance("XDH")
+                .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKey))));
+    }
+
+    /**
+     * 构建多接收方分享请求
+     * 内容只序列化和加密一次，每个接收方只封装32字节的内容密钥；
+     * 没有可用X25519公钥的接收方加入failedUserIds
+     *
+     * @return 请求，没有可分享的接收方时返回null
+     */
+    @Nullable
+    static CreateMultiShareRequest buildMultiShare(@NonNull PasswordItem item,
+                                                   @NonNull List<String> toUserIds,
+                                                   @NonNull Map<String, String> publicKeys,
+                                                   @NonNull List<String> failedUserIds)
+            throws GeneralSecurityException, JSONException {
+        byte[] contentKey = ShareEnvelope.newContentKey();
+        try {
+            String payload = Base64.getEncoder().encodeToString(ShareEnvelope.encryptContent(
+                    toJson(item).getBytes(StandardCharsets.UTF_8), contentKey));
+            List<CreateMultiShareRequest.Recipient> recipients = new ArrayList<>();
+            for (String userId : toUserIds) {
+                String publicKey = publicKeys.get(userId);
+                try {
+                    if (publicKey == null) {
+                        throw new InvalidKeyException("No public key");
+                    }
+                    byte[] wrapped = ShareEnvelope.seal(contentKey, rawShareKey(publicKey));
+                    recipients.add(new CreateMultiShareRequest.Recipient(
+                            userId, Base64.getEncoder().encodeToString(wrapped)));
+                } catch (Exception e) {
+                    Log.w(TAG, "Skipping recipient without usable share key: " + userId, e);
+                    failedUserIds.add(userId);
+                }
+            }
+            if (recipients.isEmpty()) {
+                return null;
+            }
+
+            CreateMultiShareRequest request = new CreateMultiShareRequest();
+            request.setEncryptedPayload(payload);
+            request.setRecipients(recipients);
+            return request;
+        } finally {
+            Arrays.fill(contentKey, (byte) 0);
+        }
+    }
+
+    /**
+     * 多接收方分享：用本机私钥解开内容密钥，再解密密码数据填入passwordData
+     * 不是多接收方分享时不做处理
+     */
+    static void openPayload(@NonNull KeyManager keyManager, @Nullable ReceivedShareResponse response)
+            throws GeneralSecurityException, JSONException {
+        if (response == null || response.getEncryptedPayload() == null || response.getWrappedKey() == null) {
+            return;
+        }
+        byte[] ownPublicKey = keyManager.getRawPublicKey();
+        if (ownPublicKey == null) {
+            throw new InvalidKeyException("No share key to open multi-recipient share");
+        }
+        byte[] contentKey = ShareEnvelope.open(Base64.getDecoder().decode(response.getWrappedKey()),
+                keyManager.getPrivateKey(), ownPublicKey);
+        try {
+            byte[] plaintext = ShareEnvelope.decryptContent(
+                    Base64.getDecoder().decode(response.getEncryptedPayload()), contentKey);
+            JSONObject json = new JSONObject(new String(plaintext, StandardCharsets.UTF_8));
+            PasswordData passwordData = new PasswordData();
+            passwordData.setTitle(json.optString("title"));
+            passwordData.setUsername(json.optString("username"));
+            passwordData.setPassword(json.optString("password"));
+            passwordData.setUrl(json.optString("url"));
+            passwordData.setNotes(json.optString("notes"));
+            response.setPasswordData(passwordData);
+        } finally {
+            Arrays.fill(contentKey, (byte) 0);
+        }
+    }
+}
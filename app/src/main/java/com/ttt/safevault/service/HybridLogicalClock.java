@@ -0,0 +1,87 @@
+package com.ttt.safevault.service;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * 混合逻辑时钟
+ * 时间值高48位是物理毫秒，低16位是逻辑计数：本地事件取max(物理时间, 上次+1)，
+ * 收到远端时间后把上次时间推进到远端时间。时间值单调递增，且大于本设备见过的所有时间值，
+ * 不依赖各设备的时钟严格同步。
+ * 远端时间无论超前多少都跟随：时钟超前的设备写入一个字段后，其他设备之后的修改仍然更新，
+ * 只是在物理时间追上之前本机时间值按+1递增。
+ * 版本戳格式为“16位十六进制时间@设备ID”，按字符串比较即先比时间、再比设备ID，两台设备比较结果一致。
+ */
+public final class HybridLogicalClock {
+
+    private static final int LOGICAL_BITS = 16;
+
+    private final LongSupplier wallClock;
+    private long last;
+
+    /**
+     * @param last 上次保存的时间值，0表示没有
+     * @param wallClock 物理时钟（毫秒）
+     */
+    public HybridLogicalClock(long last, LongSupplier wallClock) {
+        this.last = last;
+        this.wallClock = wallClock;
+    }
+
+    /**
+     * 本地事件的时间值
+     */
+    public synchronized long now() {
+        last = Math.max(physical(), last + 1);
+        return last;
+    }
+
+    /**
+     * 收到远端时间值，之后的本地时间值都大于它
+     */
+    public synchronized void receive(long remote) {
+        last = Math.max(physical(), Math.max(last, remote));
+    }
+
+    /**
+     * 当前时间值，用于持久化
+     */
+    public synchronized long current() {
+        return last;
+    }
+
+    private long physical() {
+        return wallClock.getAsLong() << LOGICAL_BITS;
+    }
+
+    /**
+     * 生成版本戳
+     */
+    public static String stamp(long time, String deviceId) {
+        return String.format(Locale.ROOT, "%016x@%s", time, deviceId);
+    }
+
+    /**
+     * 版本戳中的时间值，无法解析时返回0
+     */
+    public static long timeOf(String stamp) {
+        if (stamp == null || stamp.length() < 16) {
+            return 0;
+        }
+        try {
+            return Long.parseUnsignedLong(stamp.substring(0, 16), 16);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 比较两个版本戳，null最旧
+     */
+    public static int compare(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+}
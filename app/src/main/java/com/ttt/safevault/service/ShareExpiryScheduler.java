@@ -0,0 +1,139 @@
+package com.ttt.safevault.service;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.ttt.safevault.data.ShareDao;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分享到期调度器
+ * 到期时间放在进程内的分层时间轮中，到期时把分享标记为EXPIRED并清除加密数据，
+ * 列表中不再残留过期的ACTIVE分享。
+ * 进程启动时先用expireTime索引范围更新补处理停止期间到期的分享，再把未到期的分享装入时间轮；
+ * 没有周期性的唤醒：每次只安排一个一次性任务，在时间轮下一个非空格的时间唤醒，
+ * 推进或新增任务后重新安排；只有高层格有任务时按高层格的粒度唤醒。
+ */
+public class ShareExpiryScheduler {
+
+    private static final String TAG = "ShareExpiryScheduler";
+
+    // 时间轮精度（毫秒）
+    private static final long TICK_MS = 1000;
+
+    // 每层格数
+    private static final int WHEEL_SIZE = 64;
+
+    // 单条UPDATE的IN参数上限，低于SQLite的变量数限制
+    private static final int MAX_BATCH = 500;
+
+    private final ShareDao shareDao;
+    private final ScheduledExecutorService scheduler;
+
+    // 只在scheduler线程上访问
+    private final TimingWheel<String> wheel;
+    private ScheduledFuture<?> wakeupTask;
+    private long wakeupAt = Long.MAX_VALUE;
+
+    public ShareExpiryScheduler(@NonNull ShareDao shareDao) {
+        this.shareDao = shareDao;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    /**
+     * 补处理已到期的分享并装载未到期的分享
+     */
+    public void start() {
+        scheduler.execute(() -> {
+            try {
+                long now = System.currentTimeMillis();
+                int expired = shareDao.markExpired(now);
+                List<ShareDao.ExpiryTuple> pending = shareDao.getPendingExpiries(now);
+                for (ShareDao.ExpiryTuple tuple : pending) {
+                    wheel.add(tuple.shareId, tuple.expireTime);
+                }
+                Log.d(TAG, "Recovered: expired " + expired + ", scheduled " + pending.size());
+                rearm();
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to recover share expiries", e);
+            }
+        });
+    }
+
+    /**
+     * 安排分享在到期时间过期
+     *
+     * @param expireTime 到期时间戳，0表示永不过期
+     */
+    public void schedule(@NonNull String shareId, long expireTime) {
+        if (expireTime <= 0) {
+            return;
+        }
+        scheduler.execute(() -> {
+            if (wheel.add(shareId, expireTime)) {
+                // 新任务早于已安排的唤醒时才需要提前
+                if (wheel.nextWakeup() < wakeupAt) {
+                    rearm();
+                }
+            } else {
+                expire(Collections.singletonList(shareId));
+            }
+        });
+    }
+
+    /**
+     * 取消到期任务（分享已撤销或已删除）
+     */
+    public void cancel(@NonNull String shareId) {
+        scheduler.execute(() -> wheel.cancel(shareId));
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 按时间轮的下一个非空格安排一次性唤醒，没有任务时不安排
+     */
+    private void rearm() {
+        if (wakeupTask != null) {
+            wakeupTask.cancel(false);
+            wakeupTask = null;
+        }
+        wakeupAt = wheel.nextWakeup();
+        if (wakeupAt == Long.MAX_VALUE) {
+            return;
+        }
+        long delay = Math.max(0, wakeupAt - System.currentTimeMillis());
+        wakeupTask = scheduler.schedule(this::wakeUp, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void wakeUp() {
+        wakeupTask = null;
+        try {
+            List<String> due = wheel.advance(System.currentTimeMillis());
+            if (!due.isEmpty()) {
+                expire(due);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to advance expiry wheel", e);
+        }
+        rearm();
+    }
+
+    private void expire(List<String> shareIds) {
+        int updated = 0;
+        for (int from = 0; from < shareIds.size(); from += MAX_BATCH) {
+            updated += shareDao.expire(shareIds.subList(from, Math.min(shareIds.size(), from + MAX_BATCH)));
+        }
+        Log.d(TAG, "Expired " + updated + " shares");
+    }
+}
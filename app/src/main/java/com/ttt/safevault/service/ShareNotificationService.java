@@ -19,10 +19,13 @@ import com.ttt.safevault.R;
 import com.ttt.safevault.dto.ShareNotificationMessage;
 import com.ttt.safevault.network.TokenManager;
 import com.ttt.safevault.network.WebSocketManager;
+import com.ttt.safevault.ui.LoginActivity;
 import com.ttt.safevault.ui.share.ReceiveShareActivity;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+
 /**
  * 分享通知服务
  * 维护 WebSocket 连接并处理实时分享通知
@@ -33,11 +36,13 @@ public class ShareNotificationService extends Service {
     private static final String CHANNEL_ID = "share_notification_channel";
     private static final int NOTIFICATION_ID = 1001;
     private static final int SERVICE_NOTIFICATION_ID = 2001;
+    private static final int SYNC_PAUSED_NOTIFICATION_ID = 3001;
 
     private WebSocketManager webSocketManager;
     private TokenManager tokenManager;
     private Gson gson;
     private final AtomicBoolean isRunning = new AtomicBoolean(false);
+    private final CompositeDisposable disposables = new CompositeDisposable();
 
     @Override
     public void onCreate() {
@@ -46,7 +51,7 @@ public class ShareNotificationService extends Service {
 
         tokenManager = TokenManager.getInstance(this);
         gson = new Gson();
-        webSocketManager = new WebSocketManager();
+        webSocketManager = new WebSocketManager(this);
 
         createNotificationChannel();
     }
@@ -72,15 +77,11 @@ public class ShareNotificationService extends Service {
         return START_STICKY;
     }
 
+    /**
+     * 连接 WebSocket，断线重连由 WebSocketManager 负责
+     */
     private void connectWebSocket() {
-        String token = tokenManager.getAccessToken();
-        if (token == null || token.isEmpty()) {
-            Log.e(TAG, "No access token available");
-            stopSelf();
-            return;
-        }
-
-        webSocketManager.connect(token, new WebSocketManager.WebSocketEventListener() {
+        webSocketManager.connect(new WebSocketManager.WebSocketEventListener() {
             @Override
             public void onShareNotification(ShareNotificationMessage notification) {
                 handleShareNotification(notification);
@@ -94,14 +95,16 @@ public class ShareNotificationService extends Service {
             @Override
             public void onConnectionOpened() {
                 Log.d(TAG, "WebSocket connection opened");
+                // 连接（重连）后增量同步，补上离线期间的变更
+                syncVault();
             }
 
             @Override
             public void onConnectionClosed() {
                 Log.d(TAG, "WebSocket connection closed");
-                // 自动重连
-                if (isRunning.get()) {
-                    connectWebSocket();
+                // 登录已失效时不再重连，停止服务
+                if (isRunning.get() && !tokenManager.isLoggedIn()) {
+                    stopSelf();
                 }
             }
 
@@ -112,6 +115,59 @@ public class ShareNotificationService extends Service {
         });
     }
 
+    private void syncVault() {
+        disposables.add(com.ttt.safevault.ServiceLocator.getInstance().getAsyncBackendService().syncVault()
+            .subscribe(
+                () -> {
+                    Log.d(TAG, "Vault sync finished");
+                    cancelSyncPausedNotification();
+                },
+                error -> {
+                    Log.e(TAG, "Vault sync failed", error);
+                    if (error instanceof VaultSyncEngine.KeyMismatchException) {
+                        showSyncPausedNotification();
+                    }
+                }
+            ));
+    }
+
+    /**
+     * 同步因数据密钥不一致被拒绝，提示用户用其他设备的主密码解锁
+     */
+    private void showSyncPausedNotification() {
+        NotificationManager notificationManager =
+            (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+
+        Intent intent = new Intent(this, LoginActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+
+        PendingIntent pendingIntent = PendingIntent.getActivity(
+            this,
+            0,
+            intent,
+            PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        String message = getString(R.string.vault_sync_paused_message);
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
+            .setSmallIcon(R.drawable.ic_share)
+            .setContentTitle(getString(R.string.vault_sync_paused_title))
+            .setContentText(message)
+            .setStyle(new NotificationCompat.BigTextStyle().bigText(message))
+            .setPriority(NotificationCompat.PRIORITY_DEFAULT)
+            .setOnlyAlertOnce(true)
+            .setAutoCancel(true)
+            .setContentIntent(pendingIntent);
+
+        notificationManager.notify(SYNC_PAUSED_NOTIFICATION_ID, builder.build());
+    }
+
+    private void cancelSyncPausedNotification() {
+        NotificationManager notificationManager =
+            (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+        notificationManager.cancel(SYNC_PAUSED_NOTIFICATION_ID);
+    }
+
     private void handleShareNotification(ShareNotificationMessage notification) {
         Log.d(TAG, "Received share notification: " + notification.getShareId());
 
@@ -185,6 +241,7 @@ public class ShareNotificationService extends Service {
         Log.d(TAG, "Service destroyed");
 
         isRunning.set(false);
+        disposables.clear();
 
         if (webSocketManager != null) {
             webSocketManager.disconnect();
@@ -0,0 +1,211 @@
+package com.ttt.safevault.service;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分层时间轮
+ * 第0层每格一个tick，第i层每格为第i-1层一整圈；到期时间落在离当前最近、能容纳它的一层。
+ * 插入和取消都是O(1)；推进时只处理当前格，高层格在低层转满一圈时降级到低层，不需要扫描全部任务。
+ * 推进时跳过空格，调用方可以按 {@link #nextWakeup()} 只在有事可做时唤醒，而不是每个tick唤醒一次。
+ *
+ * 非线程安全，由调用方串行访问
+ */
+final class TimingWheel<K> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<ArrayDeque<Entry<K>>[]> levels = new ArrayList<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    // 已推进到的时间，按tick对齐
+    private long currentTime;
+
+    private static final class Entry<K> {
+        final K key;
+        final long deadline;
+        boolean cancelled;
+
+        Entry(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Invalid wheel: tick=" + tickMs + ", size=" + wheelSize);
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - startMs % tickMs;
+    }
+
+    /**
+     * 添加或重新安排任务
+     *
+     * @return false表示已经到期，调用方应立即处理
+     */
+    boolean add(@NonNull K key, long deadlineMs) {
+        cancel(key);
+        Entry<K> entry = new Entry<>(key, deadlineMs);
+        if (!place(entry)) {
+            return false;
+        }
+        entries.put(key, entry);
+        return true;
+    }
+
+    /**
+     * 取消任务（标记取消，推进到所在格时丢弃）
+     */
+    void cancel(@NonNull K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    /**
+     * 推进到指定时间
+     *
+     * @return 到期的任务
+     */
+    @NonNull
+    List<K> advance(long nowMs) {
+        List<K> expired = new ArrayList<>();
+        if (entries.isEmpty()) {
+            // 空轮直接跳到当前时间，长时间休眠后不需要逐格推进
+            currentTime = Math.max(currentTime, nowMs - nowMs % tickMs);
+            return expired;
+        }
+        while (currentTime + tickMs <= nowMs) {
+            // 直接跳到下一个非空格，空格不需要逐个推进
+            long next = nextWakeup();
+            if (next > nowMs) {
+                currentTime = nowMs - nowMs % tickMs;
+                break;
+            }
+            currentTime = next;
+            // 从高层往低层降级，保证降级的任务能落到本次要处理的低层格
+            for (int level = levels.size() - 1; level >= 1; level--) {
+                long levelTick = levelTick(level);
+                if (currentTime % levelTick == 0) {
+                    cascade(level, (int) ((currentTime / levelTick) % wheelSize), expired);
+                }
+            }
+            drain(levels.isEmpty() ? null : levels.get(0)[(int) ((currentTime / tickMs) % wheelSize)], expired);
+            if (entries.isEmpty()) {
+                currentTime = Math.max(currentTime, nowMs - nowMs % tickMs);
+                break;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 下一次需要推进的时间：各层最近一个非空格的处理时间（第0层为到期，高层为降级）
+     * 只有高层有任务时返回的是高层格的降级时间，间隔为该层一格的长度
+     *
+     * @return 没有任务时返回Long.MAX_VALUE
+     */
+    long nextWakeup() {
+        long next = Long.MAX_VALUE;
+        if (entries.isEmpty()) {
+            return next;
+        }
+        for (int level = 0; level < levels.size(); level++) {
+            long levelTick = levelTick(level);
+            long base = currentTime / levelTick;
+            ArrayDeque<Entry<K>>[] slots = levels.get(level);
+            // 任务总是放在当前格之后的wheelSize-1格内
+            for (int k = 1; k < wheelSize; k++) {
+                if (!slots[(int) ((base + k) % wheelSize)].isEmpty()) {
+                    next = Math.min(next, (base + k) * levelTick);
+                    break;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * 未到期的任务数
+     */
+    int size() {
+        return entries.size();
+    }
+
+    private boolean place(Entry<K> entry) {
+        // 向上取整到tick，保证任务不会早于到期时间触发
+        long deadline = entry.deadline + tickMs - 1;
+        for (int level = 0; ; level++) {
+            long levelTick = levelTick(level);
+            long delta = deadline / levelTick - currentTime / levelTick;
+            if (delta <= 0) {
+                // 只有第0层会出现，高层差值为0时低层一定能容纳
+                return false;
+            }
+            if (delta < wheelSize) {
+                slots(level)[(int) ((deadline / levelTick) % wheelSize)].add(entry);
+                return true;
+            }
+        }
+    }
+
+    private void cascade(int level, int slot, List<K> expired) {
+        if (level >= levels.size()) {
+            return;
+        }
+        ArrayDeque<Entry<K>> bucket = levels.get(level)[slot];
+        int count = bucket.size();
+        for (int i = 0; i < count; i++) {
+            Entry<K> entry = bucket.poll();
+            if (entry.cancelled) {
+                continue;
+            }
+            if (!place(entry)) {
+                entries.remove(entry.key);
+                expired.add(entry.key);
+            }
+        }
+    }
+
+    private void drain(ArrayDeque<Entry<K>> bucket, List<K> expired) {
+        if (bucket == null) {
+            return;
+        }
+        Entry<K> entry;
+        while ((entry = bucket.poll()) != null) {
+            if (!entry.cancelled) {
+                entries.remove(entry.key);
+                expired.add(entry.key);
+            }
+        }
+    }
+
+    private long levelTick(int level) {
+        long tick = tickMs;
+        for (int i = 0; i < level; i++) {
+            tick = Math.multiplyExact(tick, wheelSize);
+        }
+        return tick;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArrayDeque<Entry<K>>[] slots(int level) {
+        while (levels.size() <= level) {
+            ArrayDeque<Entry<K>>[] slots = new ArrayDeque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                slots[i] = new ArrayDeque<>();
+            }
+            levels.add(slots);
+        }
+        return levels.get(level);
+    }
+}
@@ -0,0 +1,209 @@
+package com.ttt.safevault.service;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.ttt.safevault.data.AppDatabase;
+import com.ttt.safevault.data.ItemUsageDao;
+import com.ttt.safevault.data.ItemUsageEntity;
+import com.ttt.safevault.model.ItemUsage;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 使用统计跟踪器
+ * 记录自动填充选择、复制、打开详情等使用事件。
+ * 事件先在内存中合并，延迟后在一个事务内批量写入数据库，而不是每个事件一次UPDATE。
+ */
+public class UsageTracker {
+
+    private static final String TAG = "UsageTracker";
+
+    // 合并写入的延迟时间（毫秒）
+    private static final long FLUSH_DELAY_MS = 5000;
+
+    private final AppDatabase database;
+    private final ItemUsageDao usageDao;
+    private final ScheduledExecutorService scheduler;
+
+    // 待写入的增量（itemId -> 合并后的增量），受 this 保护
+    private Map<Integer, ItemUsage> pending = new HashMap<>();
+    private ScheduledFuture<?> flushTask;
+
+    // 内存中的完整统计快照，首次访问时从数据库加载
+    private final Map<Integer, ItemUsage> snapshot = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public UsageTracker(@NonNull Context context) {
+        this.database = AppDatabase.getInstance(context);
+        this.usageDao = database.itemUsageDao();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    /**
+     * 记录一次使用
+     * 只更新内存，数据库写入会被合并和延迟
+     */
+    public void recordUsage(int itemId) {
+        if (itemId <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            ItemUsage delta = pending.get(itemId);
+            pending.put(itemId, delta != null
+                    ? delta.plus(1, now)
+                    : new ItemUsage(itemId, now, 1));
+
+            if (loaded) {
+                mergeIntoSnapshot(itemId, 1, now);
+            }
+
+            if (flushTask == null) {
+                flushTask = scheduler.schedule(this::flushPending, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 获取单个条目的使用统计
+     */
+    @Nullable
+    public ItemUsage getUsage(int itemId) {
+        ensureLoaded();
+        return snapshot.get(itemId);
+    }
+
+    /**
+     * 获取全部使用统计（只读视图）
+     * 首次调用会访问数据库，不要在主线程调用
+     */
+    @NonNull
+    public Map<Integer, ItemUsage> getUsageStats() {
+        ensureLoaded();
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * 删除条目的使用统计
+     */
+    public void remove(int itemId) {
+        synchronized (this) {
+            pending.remove(itemId);
+            snapshot.remove(itemId);
+        }
+        scheduler.execute(() -> {
+            try {
+                usageDao.deleteById(itemId);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to delete usage for item " + itemId, e);
+            }
+        });
+    }
+
+    /**
+     * 清除所有使用统计
+     */
+    public void clear() {
+        synchronized (this) {
+            pending.clear();
+            snapshot.clear();
+        }
+        scheduler.execute(() -> {
+            try {
+                usageDao.deleteAll();
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to clear usage", e);
+            }
+        });
+    }
+
+    /**
+     * 立即写入待处理的统计（例如应用进入后台时）
+     */
+    public void flush() {
+        scheduler.execute(this::flushPending);
+    }
+
+    private void flushPending() {
+        Map<Integer, ItemUsage> batch;
+        synchronized (this) {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+                flushTask = null;
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+
+        try {
+            database.runInTransaction(() -> {
+                for (ItemUsage delta : batch.values()) {
+                    usageDao.addUsage(delta.getItemId(), delta.getUseCount(), delta.getLastUsedAt());
+                }
+            });
+            Log.d(TAG, "Flushed usage for " + batch.size() + " items");
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to flush usage, re-queueing", e);
+            synchronized (this) {
+                for (ItemUsage delta : batch.values()) {
+                    ItemUsage existing = pending.get(delta.getItemId());
+                    pending.put(delta.getItemId(), existing != null
+                            ? existing.plus(delta.getUseCount(), delta.getLastUsedAt())
+                            : delta);
+                }
+                // 重新排一次写入，否则没有新的使用事件时这批增量一直留在内存中
+                if (flushTask == null) {
+                    flushTask = scheduler.schedule(this::flushPending, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            try {
+                List<ItemUsageEntity> entities = usageDao.getAll();
+                for (ItemUsageEntity entity : entities) {
+                    snapshot.put(entity.getItemId(), new ItemUsage(
+                            entity.getItemId(), entity.getLastUsedAt(), entity.getUseCount()));
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load usage stats", e);
+            }
+            // 合并尚未写入数据库的增量
+            for (ItemUsage delta : pending.values()) {
+                mergeIntoSnapshot(delta.getItemId(), delta.getUseCount(), delta.getLastUsedAt());
+            }
+            loaded = true;
+        }
+    }
+
+    private void mergeIntoSnapshot(int itemId, int count, long usedAt) {
+        ItemUsage current = snapshot.get(itemId);
+        snapshot.put(itemId, current != null
+                ? current.plus(count, usedAt)
+                : new ItemUsage(itemId, usedAt, count));
+    }
+}
@@ -0,0 +1,374 @@
+package com.ttt.safevault.service;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.ttt.safevault.crypto.CryptoManager;
+import com.ttt.safevault.data.ItemAuditDao;
+import com.ttt.safevault.data.ItemAuditEntity;
+import com.ttt.safevault.data.PasswordDao;
+import com.ttt.safevault.security.BreachedPasswordChecker;
+import com.ttt.safevault.security.PasswordStrengthEstimator;
+import com.ttt.safevault.security.SecurityUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * 增量密码健康审计引擎
+ * 为每个条目保存派生事实（强度分数、带密钥的密码哈希、密码年龄），
+ * 只在条目变化时重新计算，汇总结果直接从内存提供，全程不持有明文密码集合。
+ */
+public class VaultAuditEngine {
+
+    private static final String TAG = "VaultAuditEngine";
+
+    // 重复密码哈希的子密钥用途标签
+    private static final String REUSE_KEY_LABEL = "safevault.audit.reuse.v1";
+
+    // 强度分数（0-4）不高于该值的密码视为弱密码，约等于离线100秒内可破解
+    private static final int WEAK_SCORE_THRESHOLD = 1;
+
+    // 超过该时间未修改的密码视为过旧：180天
+    public static final long OLD_PASSWORD_AGE_MS = 180L * 24 * 60 * 60 * 1000;
+
+    private final ItemAuditDao auditDao;
+    private final CryptoManager cryptoManager;
+    @Nullable
+    private final BreachedPasswordChecker breachChecker;
+
+    // 内存中的事实与汇总，受 this 保护
+    private final Map<Integer, ItemAuditEntity> facts = new HashMap<>();
+    private final Map<String, Integer> reuseCounts = new HashMap<>();
+    private int weakCount;
+    private int duplicateCount;
+    private int breachedCount;
+    private boolean loaded;
+
+    public VaultAuditEngine(@NonNull ItemAuditDao auditDao, @NonNull CryptoManager cryptoManager) {
+        this(auditDao, cryptoManager, null);
+    }
+
+    public VaultAuditEngine(@NonNull ItemAuditDao auditDao, @NonNull CryptoManager cryptoManager,
+                            @Nullable BreachedPasswordChecker breachChecker) {
+        this.auditDao = auditDao;
+        this.cryptoManager = cryptoManager;
+        this.breachChecker = breachChecker;
+    }
+
+    /**
+     * 条目保存后重新计算其事实
+     *
+     * @param itemId    条目ID
+     * @param password  条目密码（只用于本次计算，不会被保存）
+     * @param updatedAt 条目更新时间
+     */
+    public synchronized void onItemSaved(int itemId, @Nullable String password, long updatedAt) {
+        ensureLoaded();
+
+        ItemAuditEntity previous = facts.get(itemId);
+        ItemAuditEntity fact = computeFact(itemId, password, updatedAt, previous);
+        if (fact == null) {
+            // 无法计算（例如未解锁），移除旧事实，下次审计时补算
+            removeFact(itemId);
+            return;
+        }
+
+        if (previous != null) {
+            unapply(previous);
+        }
+        facts.put(itemId, fact);
+        apply(fact);
+
+        try {
+            auditDao.upsert(fact);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to persist audit fact for item " + itemId, e);
+        }
+    }
+
+    /**
+     * 条目删除后移除其事实
+     */
+    public synchronized void onItemDeleted(int itemId) {
+        ensureLoaded();
+        removeFact(itemId);
+    }
+
+    /**
+     * 将单个条目的事实标记为过期（例如同步改写了条目），下次审计时重新计算
+     */
+    public synchronized void invalidate(int itemId) {
+        ensureLoaded();
+        ItemAuditEntity fact = facts.get(itemId);
+        if (fact == null) {
+            return;
+        }
+        fact.setItemUpdatedAt(-1);
+        try {
+            auditDao.upsert(fact);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to invalidate audit fact for item " + itemId, e);
+        }
+    }
+
+    /**
+     * 找出需要（重新）计算事实的条目：没有事实或事实已过期
+     * 同时清理已不存在条目的事实
+     *
+     * @param stamps 当前所有条目的ID与更新时间
+     * @return 需要补算的条目ID
+     */
+    @NonNull
+    public synchronized List<Integer> reconcile(@NonNull List<PasswordDao.ItemStamp> stamps) {
+        ensureLoaded();
+
+        List<Integer> stale = new ArrayList<>();
+        Set<Integer> existing = new HashSet<>(stamps.size() * 2);
+        for (PasswordDao.ItemStamp stamp : stamps) {
+            existing.add(stamp.id);
+            ItemAuditEntity fact = facts.get(stamp.id);
+            if (fact == null || fact.getItemUpdatedAt() != stamp.updatedAt) {
+                stale.add(stamp.id);
+            }
+        }
+
+        if (existing.size() != facts.size()) {
+            for (Integer itemId : new ArrayList<>(facts.keySet())) {
+                if (!existing.contains(itemId)) {
+                    removeFact(itemId);
+                }
+            }
+        }
+        return stale;
+    }
+
+    /**
+     * 获取审计汇总（仅内存计算，不解密）
+     */
+    @NonNull
+    public synchronized AuditSummary getSummary() {
+        ensureLoaded();
+
+        long now = System.currentTimeMillis();
+        int oldCount = 0;
+        for (ItemAuditEntity fact : facts.values()) {
+            if (fact.getPasswordHash() != null
+                    && now - fact.getPasswordChangedAt() >= OLD_PASSWORD_AGE_MS) {
+                oldCount++;
+            }
+        }
+        return new AuditSummary(facts.size(), weakCount, duplicateCount, oldCount, breachedCount);
+    }
+
+    /**
+     * 获取重复密码分组（每组为使用同一密码的条目ID）
+     */
+    @NonNull
+    public synchronized List<List<Integer>> getReuseGroups() {
+        ensureLoaded();
+
+        Map<String, List<Integer>> groups = new HashMap<>();
+        for (ItemAuditEntity fact : facts.values()) {
+            String hash = fact.getPasswordHash();
+            if (hash != null && reuseCounts.getOrDefault(hash, 0) > 1) {
+                groups.computeIfAbsent(hash, k -> new ArrayList<>()).add(fact.getItemId());
+            }
+        }
+        return new ArrayList<>(groups.values());
+    }
+
+    /**
+     * 获取单个条目的事实
+     */
+    @Nullable
+    public synchronized ItemAuditEntity getFact(int itemId) {
+        ensureLoaded();
+        return facts.get(itemId);
+    }
+
+    /**
+     * 将所有事实标记为过期（例如导入了新的泄露数据后），下次审计时全部重新计算
+     * 汇总在重新计算前保持不变，密码修改时间会被保留
+     */
+    public synchronized void invalidateAll() {
+        ensureLoaded();
+        for (ItemAuditEntity fact : facts.values()) {
+            fact.setItemUpdatedAt(-1);
+        }
+        try {
+            auditDao.invalidateAll();
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to invalidate audit facts", e);
+        }
+    }
+
+    /**
+     * 清除所有审计数据
+     */
+    public synchronized void clear() {
+        facts.clear();
+        reuseCounts.clear();
+        weakCount = 0;
+        duplicateCount = 0;
+        breachedCount = 0;
+        try {
+            auditDao.deleteAll();
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to clear audit facts", e);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        try {
+            for (ItemAuditEntity fact : auditDao.getAll()) {
+                facts.put(fact.getItemId(), fact);
+                apply(fact);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to load audit facts", e);
+        }
+        loaded = true;
+    }
+
+    private void removeFact(int itemId) {
+        ItemAuditEntity previous = facts.remove(itemId);
+        if (previous != null) {
+            unapply(previous);
+        }
+        try {
+            auditDao.deleteById(itemId);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to delete audit fact for item " + itemId, e);
+        }
+    }
+
+    /**
+     * 将事实计入汇总
+     */
+    private void apply(ItemAuditEntity fact) {
+        if (fact.isWeak()) {
+            weakCount++;
+        }
+        if (fact.isBreached()) {
+            breachedCount++;
+        }
+        String hash = fact.getPasswordHash();
+        if (hash != null) {
+            int count = reuseCounts.getOrDefault(hash, 0) + 1;
+            reuseCounts.put(hash, count);
+            if (count > 1) {
+                duplicateCount++;
+            }
+        }
+    }
+
+    /**
+     * 从汇总中撤销事实
+     */
+    private void unapply(ItemAuditEntity fact) {
+        if (fact.isWeak()) {
+            weakCount--;
+        }
+        if (fact.isBreached()) {
+            breachedCount--;
+        }
+        String hash = fact.getPasswordHash();
+        if (hash != null) {
+            int count = reuseCounts.getOrDefault(hash, 0);
+            if (count <= 1) {
+                reuseCounts.remove(hash);
+            } else {
+                reuseCounts.put(hash, count - 1);
+                duplicateCount--;
+            }
+        }
+    }
+
+    @Nullable
+    private ItemAuditEntity computeFact(int itemId, @Nullable String password, long updatedAt,
+                                        @Nullable ItemAuditEntity previous) {
+        ItemAuditEntity fact = new ItemAuditEntity();
+        fact.setItemId(itemId);
+        fact.setItemUpdatedAt(updatedAt);
+
+        if (password == null || password.isEmpty()) {
+            fact.setStrengthScore(0);
+            fact.setWeak(false);
+            fact.setPasswordHash(null);
+            fact.setPasswordChangedAt(updatedAt);
+            return fact;
+        }
+
+        String hash = keyedHash(password);
+        if (hash == null) {
+            return null;
+        }
+
+        PasswordStrengthEstimator.Estimate estimate = PasswordStrengthEstimator.getInstance().estimate(password);
+        boolean breached = breachChecker != null && breachChecker.isBreached(password);
+        fact.setStrengthScore(estimate.getScore());
+        // 已泄露的密码无论复杂度如何都视为弱密码
+        fact.setWeak(breached || estimate.getScore() <= WEAK_SCORE_THRESHOLD);
+        fact.setBreached(breached);
+        fact.setPasswordHash(hash);
+        // 密码未变化时保留原来的修改时间
+        fact.setPasswordChangedAt(previous != null && hash.equals(previous.getPasswordHash())
+                ? previous.getPasswordChangedAt() : updatedAt);
+        return fact;
+    }
+
+    /**
+     * 使用由主密钥派生的子密钥计算密码的HMAC
+     */
+    @Nullable
+    private String keyedHash(@NonNull String password) {
+        byte[] key = cryptoManager.deriveSubKey(REUSE_KEY_LABEL);
+        if (key == null) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return SecurityUtils.bytesToHex(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to compute keyed hash", e);
+            return null;
+        } finally {
+            SecurityUtils.clearByteArray(key);
+        }
+    }
+
+    /**
+     * 审计汇总
+     */
+    public static class AuditSummary {
+        public final int totalItems;
+        public final int weakPasswords;
+        public final int duplicatePasswords;
+        public final int oldPasswords;
+        public final int breachedPasswords;
+
+        public AuditSummary(int totalItems, int weakPasswords, int duplicatePasswords, int oldPasswords,
+                            int breachedPasswords) {
+            this.totalItems = totalItems;
+            this.weakPasswords = weakPasswords;
+            this.duplicatePasswords = duplicatePasswords;
+            this.oldPasswords = oldPasswords;
+            this.breachedPasswords = breachedPasswords;
+        }
+    }
+}
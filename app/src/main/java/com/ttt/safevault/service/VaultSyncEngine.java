@@ -0,0 +1,656 @@
+package com.ttt.safevault.service;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.ttt.safevault.ServiceLocator;
+import com.ttt.safevault.crypto.CryptoManager;
+import com.ttt.safevault.data.AppDatabase;
+import com.ttt.safevault.data.EncryptedPasswordEntity;
+import com.ttt.safevault.data.PasswordDao;
+import com.ttt.safevault.data.SyncChangeDao;
+import com.ttt.safevault.data.SyncChangeEntity;
+import com.ttt.safevault.dto.VaultKey;
+import com.ttt.safevault.dto.VaultRecord;
+import com.ttt.safevault.dto.request.VaultPushRequest;
+import com.ttt.safevault.dto.response.VaultChangesResponse;
+import com.ttt.safevault.dto.response.VaultPushResponse;
+import com.ttt.safevault.network.RetrofitClient;
+import com.ttt.safevault.network.api.VaultServiceApi;
+import com.ttt.safevault.security.KeyManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 密码库增量同步引擎
+ * 本地修改写入变更日志（每个条目一行），同步时先按游标拉取服务器上的变更，再分批上传变更日志中的条目；
+ * 只传输变化条目的密文，一万条的密码库修改一条只移动一条记录。
+ * 冲突按字段合并：每个加密字段带混合逻辑时钟版本戳，双方都修改了同一条目时逐字段取版本戳较新的一方，
+ * 不同设备修改不同字段时两处修改都保留；合并只比较版本戳和密文，不需要解密。
+ * 密文只有在各设备使用同一个数据密钥时才能互相解密，服务器上的数据密钥不是本机的时拒绝同步。
+ * 同步方法是阻塞的，在io线程上调用。
+ */
+public class VaultSyncEngine {
+
+    private static final String PREFS_NAME = "vault_sync";
+    private static final String KEY_CURSOR = "cursor";
+    private static final String KEY_CLOCK = "clock";
+    private static final String KEY_KEY_SHARED = "key_shared";
+
+    // 每页拉取的记录数
+    static final int PULL_PAGE_SIZE = 500;
+
+    // 每批上传的记录数
+    static final int PUSH_BATCH_SIZE = 200;
+
+    // 已同步的墓碑保留时间，长期离线的设备在此期间仍能收到删除
+    private static final long TOMBSTONE_TTL_MS = TimeUnit.DAYS.toMillis(90);
+
+    // 合并结果标志
+    private static final int TOOK_REMOTE = 1;
+    private static final int KEPT_LOCAL = 2;
+
+    /**
+     * 同步状态：服务器游标、时钟、本设备ID和数据密钥
+     */
+    interface State {
+        long getCursor();
+
+        void setCursor(long cursor);
+
+        long getClock();
+
+        void setClock(long clock);
+
+        String getDeviceId();
+
+        /**
+         * 本机包装后的数据密钥，还没有时为null
+         */
+        @Nullable
+        VaultKey getLocalKey();
+
+        /**
+         * 服务器是否已确认保存的是本机的数据密钥
+         */
+        boolean isKeyShared();
+
+        void setKeyShared(boolean shared);
+
+        /**
+         * 服务器上已有其他设备的数据密钥，保存下来等下次用主密码解锁时采用；null表示丢弃
+         */
+        void setPendingKey(@Nullable VaultKey key);
+    }
+
+    /**
+     * 同步改写本地条目时的回调，在同步线程上调用，用于更新审计事实和使用统计
+     */
+    public interface Listener {
+        /**
+         * 条目被服务器上的版本新增或改写
+         */
+        void onItemChanged(int itemId);
+
+        /**
+         * 条目被服务器上的墓碑删除
+         */
+        void onItemDeleted(int itemId);
+    }
+
+    /**
+     * 服务器上的数据密钥不是本机的，同步暂停到用包装该密钥的主密码解锁为止
+     */
+    public static final class KeyMismatchException extends IllegalStateException {
+        KeyMismatchException() {
+            super("Vault key differs from server, unlock with master password to adopt it");
+        }
+    }
+
+    /**
+     * 一次同步的结果
+     */
+    public static final class Result {
+        public final int pulled;
+        public final int pushed;
+        public final int conflicts;
+
+        Result(int pulled, int pushed, int conflicts) {
+            this.pulled = pulled;
+            this.pushed = pushed;
+            this.conflicts = conflicts;
+        }
+    }
+
+    private final PasswordDao passwordDao;
+    private final SyncChangeDao syncChangeDao;
+    private final VaultServiceApi vaultServiceApi;
+    private final State state;
+    private final Consumer<Runnable> transaction;
+    private final HybridLogicalClock clock;
+    private volatile Listener listener;
+
+    public VaultSyncEngine(@NonNull Context context) {
+        AppDatabase database = AppDatabase.getInstance(context);
+        this.passwordDao = database.passwordDao();
+        this.syncChangeDao = database.syncChangeDao();
+        this.vaultServiceApi = RetrofitClient.getInstance(context).getVaultServiceApi();
+        this.state = new PrefsState(context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE),
+                KeyManager.getInstance(context).getDeviceId(), ServiceLocator.getInstance().getCryptoManager());
+        this.transaction = database::runInTransaction;
+        this.clock = new HybridLogicalClock(state.getClock(), System::currentTimeMillis);
+    }
+
+    VaultSyncEngine(PasswordDao passwordDao, SyncChangeDao syncChangeDao, VaultServiceApi vaultServiceApi,
+                    State state, Consumer<Runnable> transaction, LongSupplier wallClock) {
+        this.passwordDao = passwordDao;
+        this.syncChangeDao = syncChangeDao;
+        this.vaultServiceApi = vaultServiceApi;
+        this.state = state;
+        this.transaction = transaction;
+        this.clock = new HybridLogicalClock(state.getClock(), wallClock);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 新条目的同步ID
+     */
+    public static String newSyncId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * 本地修改字段的版本戳，比本设备见过的所有版本戳都新
+     */
+    public String newStamp() {
+        long time = clock.now();
+        state.setClock(time);
+        return HybridLogicalClock.stamp(time, state.getDeviceId());
+    }
+
+    /**
+     * 记录本地修改，在写入条目的同一事务中调用
+     * 条目已有待上传的变更时只更新修订号，保留原来的baseRevision
+     *
+     * @param previousRevision 修改前的修订号，新条目为0
+     */
+    public static void recordLocalChange(SyncChangeDao syncChangeDao, int itemId,
+                                         long previousRevision, long revision) {
+        if (syncChangeDao.updateRevision(itemId, revision) == 0) {
+            syncChangeDao.insert(new SyncChangeEntity(itemId, previousRevision, revision));
+        }
+    }
+
+    /**
+     * 拉取并应用服务器上的变更，再上传本地变更
+     *
+     * @throws KeyMismatchException 本机的数据密钥不是服务器上的数据密钥
+     */
+    public synchronized Result sync() {
+        claimKey();
+        Changes changes = new Changes();
+        int pulled;
+        int pushed;
+        try {
+            pulled = pull(changes);
+            pushed = push(changes);
+        } finally {
+            // 中途失败时已提交的改写也要通知
+            notifyListener(changes);
+        }
+        passwordDao.purgeTombstones(System.currentTimeMillis() - TOMBSTONE_TTL_MS);
+        return new Result(pulled, pushed, changes.conflicts);
+    }
+
+    private void notifyListener(Changes changes) {
+        Listener current = listener;
+        if (current == null) {
+            return;
+        }
+        for (int itemId : changes.changed) {
+            current.onItemChanged(itemId);
+        }
+        for (int itemId : changes.deleted) {
+            current.onItemDeleted(itemId);
+        }
+    }
+
+    /**
+     * 切换账号：游标归零，所有未删除的条目作为新条目重新上传；
+     * 原账号的数据密钥确认和待采用的数据密钥一并丢弃，避免解锁时改用原账号的数据密钥
+     */
+    public synchronized void reset() {
+        transaction.accept(() -> {
+            syncChangeDao.deleteAll();
+            passwordDao.purgeTombstones(Long.MAX_VALUE);
+            syncChangeDao.enqueueAll();
+        });
+        state.setCursor(0);
+        state.setKeyShared(false);
+        state.setPendingKey(null);
+    }
+
+    /**
+     * 本机数据密钥的包装变化后（修改主密码、采用服务器上的数据密钥）调用，下次同步前重新上传
+     */
+    public synchronized void onKeyChanged() {
+        state.setKeyShared(false);
+    }
+
+    /**
+     * 确认服务器上的数据密钥就是本机的数据密钥，否则拉取的密文在本机无法解密，本机上传的密文其他设备也无法解密
+     * 服务器上还没有数据密钥时保存本机的，先上传的设备为准
+     */
+    private void claimKey() {
+        if (state.isKeyShared()) {
+            return;
+        }
+        VaultKey local = state.getLocalKey();
+        if (local == null) {
+            throw new IllegalStateException("Vault key not available, unlock first");
+        }
+        VaultKey stored = vaultServiceApi.claimKey(local).blockingGet();
+        if (!local.getKeyId().equals(stored.getKeyId())) {
+            state.setPendingKey(stored);
+            throw new KeyMismatchException();
+        }
+        state.setKeyShared(true);
+    }
+
+    private int pull(Changes rewritten) {
+        long cursor = state.getCursor();
+        int applied = 0;
+        while (true) {
+            VaultChangesResponse page = vaultServiceApi.getChanges(cursor, PULL_PAGE_SIZE).blockingGet();
+            List<VaultRecord> records = page.getRecords();
+            int[] count = new int[1];
+            Changes pageChanges = new Changes();
+            transaction.accept(() -> {
+                for (VaultRecord record : records) {
+                    if (applyRemote(record, pageChanges)) {
+                        count[0]++;
+                    }
+                }
+            });
+            // 事务提交后才计入，回滚的改写不通知
+            rewritten.addAll(pageChanges);
+            applied += count[0];
+            state.setClock(clock.current());
+            // 应用后再保存游标；中途失败时重新拉取这一页，按修订号跳过已应用的记录
+            cursor = page.getCursor();
+            state.setCursor(cursor);
+            if (!page.isHasMore() || records.isEmpty()) {
+                return applied;
+            }
+        }
+    }
+
+    private int push(Changes rewritten) {
+        int pushed = 0;
+        int afterItemId = 0;
+        while (true) {
+            List<SyncChangeEntity> changes = syncChangeDao.getPage(afterItemId, PUSH_BATCH_SIZE);
+            if (changes.isEmpty()) {
+                return pushed;
+            }
+            afterItemId = changes.get(changes.size() - 1).getItemId();
+
+            List<Integer> ids = new ArrayList<>(changes.size());
+            for (SyncChangeEntity change : changes) {
+                ids.add(change.getItemId());
+            }
+            Map<Integer, EncryptedPasswordEntity> entities = new HashMap<>();
+            for (EncryptedPasswordEntity entity : passwordDao.getByIds(ids)) {
+                entities.put(entity.getId(), entity);
+            }
+
+            List<VaultRecord> records = new ArrayList<>(changes.size());
+            Map<String, Integer> itemIds = new HashMap<>();
+            for (SyncChangeEntity change : changes) {
+                EncryptedPasswordEntity entity = entities.get(change.getItemId());
+                if (entity == null) {
+                    // 条目已被物理删除，没有可上传的内容
+                    syncChangeDao.delete(change.getItemId());
+                    continue;
+                }
+                VaultRecord record = toRecord(entity, state.getDeviceId());
+                record.setBaseRevision(change.getBaseRevision());
+                records.add(record);
+                itemIds.put(record.getSyncId(), entity.getId());
+            }
+            if (records.isEmpty()) {
+                continue;
+            }
+
+            VaultPushResponse response = vaultServiceApi
+                    .pushChanges(new VaultPushRequest(state.getDeviceId(), records))
+                    .blockingGet();
+            int[] accepted = new int[1];
+            Changes batchChanges = new Changes();
+            transaction.accept(() -> {
+                Set<String> rejected = new HashSet<>();
+                for (VaultRecord current : response.getConflicts()) {
+                    rejected.add(current.getSyncId());
+                    applyRemote(current, batchChanges);
+                }
+                state.setClock(clock.current());
+                for (VaultRecord record : records) {
+                    if (rejected.contains(record.getSyncId())) {
+                        continue;
+                    }
+                    int itemId = itemIds.get(record.getSyncId());
+                    // 上传期间又被修改的条目保留在变更日志中，改为基于刚上传的修订号
+                    if (syncChangeDao.deleteIfUnchanged(itemId, record.getRevision()) == 0) {
+                        syncChangeDao.rebase(itemId, record.getRevision());
+                    }
+                    accepted[0]++;
+                }
+            });
+            rewritten.addAll(batchChanges);
+            pushed += accepted[0];
+            advanceCursorPast(response.getSequences());
+        }
+    }
+
+    /**
+     * 本设备写入的序号紧接在游标之后时，把游标移过它们，下次拉取不再下载自己刚上传的记录；
+     * 中间夹有其他设备的写入时不移动，由下次拉取一并取回
+     */
+    private void advanceCursorPast(List<Long> sequences) {
+        if (sequences == null || sequences.isEmpty()) {
+            return;
+        }
+        long cursor = state.getCursor();
+        for (long sequence : sequences) {
+            if (sequence != cursor + 1) {
+                return;
+            }
+            cursor = sequence;
+        }
+        state.setCursor(cursor);
+    }
+
+    /**
+     * 应用一条服务器记录
+     *
+     * @return 是否修改了本地数据
+     */
+    private boolean applyRemote(VaultRecord remote, Changes changes) {
+        for (Field field : FIELDS) {
+            clock.receive(HybridLogicalClock.timeOf(field.recordStamp.apply(remote)));
+        }
+        EncryptedPasswordEntity local = passwordDao.getBySyncId(remote.getSyncId());
+        if (local == null) {
+            if (remote.isDeleted()) {
+                return false;
+            }
+            EncryptedPasswordEntity entity = new EncryptedPasswordEntity();
+            copyRecord(remote, entity);
+            changes.changed.add((int) passwordDao.insert(entity));
+            return true;
+        }
+
+        SyncChangeEntity pending = syncChangeDao.get(local.getId());
+        // 本地已知的服务器修订号；不高于它的记录已经应用过（包括本设备上传后的回显）
+        long known = pending != null ? pending.getBaseRevision() : local.getRevision();
+        if (remote.getRevision() <= known) {
+            return false;
+        }
+        if (pending == null) {
+            copyRecord(remote, local);
+            passwordDao.update(local);
+            changes.add(local);
+            return true;
+        }
+
+        // 双方都修改了该条目，按字段合并
+        changes.conflicts++;
+        int merged = merge(remote, local);
+        if ((merged & TOOK_REMOTE) != 0) {
+            changes.add(local);
+        }
+        if ((merged & KEPT_LOCAL) == 0) {
+            // 合并结果与服务器版本相同，没有需要上传的内容
+            local.setRevision(remote.getRevision());
+            passwordDao.update(local);
+            syncChangeDao.delete(local.getId());
+            return true;
+        }
+        // 合并结果含有本地较新的字段，改为基于服务器当前修订号，下次上传时覆盖
+        long revision = Math.max(local.getRevision(), remote.getRevision()) + 1;
+        local.setRevision(revision);
+        passwordDao.update(local);
+        syncChangeDao.rebase(local.getId(), remote.getRevision());
+        syncChangeDao.updateRevision(local.getId(), revision);
+        return (merged & TOOK_REMOTE) != 0;
+    }
+
+    /**
+     * 把远端记录按字段合并到本地条目
+     * 每个字段取版本戳较新的一方，版本戳相同时取密文较大的一方，两台设备对同一对版本得出相同结果；
+     * 删除不可撤销，任一方删除即删除。
+     *
+     * @return TOOK_REMOTE（采用了远端内容）和KEPT_LOCAL（保留了远端没有的本地内容）的组合
+     */
+    private static int merge(VaultRecord remote, EncryptedPasswordEntity local) {
+        if (remote.isDeleted() || local.isDeleted()) {
+            // 墓碑不含内容，不再合并字段
+            if (remote.isDeleted() == local.isDeleted()) {
+                return 0;
+            }
+            if (local.isDeleted()) {
+                return KEPT_LOCAL;
+            }
+            copyRecord(remote, local);
+            return TOOK_REMOTE;
+        }
+        int result = 0;
+        for (Field field : FIELDS) {
+            String remoteValue = field.recordValue.apply(remote);
+            String localValue = field.entityValue.apply(local);
+            String remoteStamp = field.recordStamp.apply(remote);
+            int order = HybridLogicalClock.compare(remoteStamp, field.entityStamp.apply(local));
+            if (order == 0) {
+                order = compareValue(remoteValue, localValue);
+            }
+            if (order > 0) {
+                field.setEntityValue.accept(local, remoteValue);
+                field.setEntityStamp.accept(local, remoteStamp);
+                result |= TOOK_REMOTE;
+            } else if (order < 0) {
+                result |= KEPT_LOCAL;
+            }
+        }
+        local.setUpdatedAt(Math.max(local.getUpdatedAt(), remote.getUpdatedAt()));
+        return result;
+    }
+
+    /**
+     * 一次同步中的冲突数和被改写的本地条目
+     */
+    private static final class Changes {
+        int conflicts;
+        final List<Integer> changed = new ArrayList<>();
+        final List<Integer> deleted = new ArrayList<>();
+
+        void add(EncryptedPasswordEntity entity) {
+            (entity.isDeleted() ? deleted : changed).add(entity.getId());
+        }
+
+        void addAll(Changes other) {
+            conflicts += other.conflicts;
+            changed.addAll(other.changed);
+            deleted.addAll(other.deleted);
+        }
+    }
+
+    private static int compareValue(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    static VaultRecord toRecord(EncryptedPasswordEntity entity, String deviceId) {
+        VaultRecord record = new VaultRecord();
+        record.setSyncId(entity.getSyncId());
+        record.setRevision(entity.getRevision());
+        record.setDeleted(entity.isDeleted());
+        record.setUpdatedAt(entity.getUpdatedAt());
+        record.setDeviceId(deviceId);
+        record.setEncryptedTitle(entity.getEncryptedTitle());
+        record.setEncryptedUsername(entity.getEncryptedUsername());
+        record.setEncryptedPassword(entity.getEncryptedPassword());
+        record.setEncryptedUrl(entity.getEncryptedUrl());
+        record.setEncryptedNotes(entity.getEncryptedNotes());
+        for (Field field : FIELDS) {
+            field.setRecordStamp.accept(record, field.entityStamp.apply(entity));
+        }
+        return record;
+    }
+
+    private static void copyRecord(VaultRecord record, EncryptedPasswordEntity entity) {
+        entity.setSyncId(record.getSyncId());
+        entity.setRevision(record.getRevision());
+        entity.setDeleted(record.isDeleted());
+        entity.setUpdatedAt(record.getUpdatedAt());
+        entity.setEncryptedTitle(record.getEncryptedTitle());
+        entity.setEncryptedUsername(record.getEncryptedUsername());
+        entity.setEncryptedPassword(record.getEncryptedPassword());
+        entity.setEncryptedUrl(record.getEncryptedUrl());
+        entity.setEncryptedNotes(record.getEncryptedNotes());
+        for (Field field : FIELDS) {
+            field.setEntityStamp.accept(entity, field.recordStamp.apply(record));
+        }
+    }
+
+    /**
+     * 一个加密字段在同步记录和本地条目上的读写方法
+     */
+    private static final class Field {
+        final Function<VaultRecord, String> recordValue;
+        final Function<VaultRecord, String> recordStamp;
+        final BiConsumer<VaultRecord, String> setRecordStamp;
+        final Function<EncryptedPasswordEntity, String> entityValue;
+        final Function<EncryptedPasswordEntity, String> entityStamp;
+        final BiConsumer<EncryptedPasswordEntity, String> setEntityValue;
+        final BiConsumer<EncryptedPasswordEntity, String> setEntityStamp;
+
+        Field(Function<VaultRecord, String> recordValue,
+              Function<VaultRecord, String> recordStamp,
+              BiConsumer<VaultRecord, String> setRecordStamp,
+              Function<EncryptedPasswordEntity, String> entityValue,
+              Function<EncryptedPasswordEntity, String> entityStamp,
+              BiConsumer<EncryptedPasswordEntity, String> setEntityValue,
+              BiConsumer<EncryptedPasswordEntity, String> setEntityStamp) {
+            this.recordValue = recordValue;
+            this.recordStamp = recordStamp;
+            this.setRecordStamp = setRecordStamp;
+            this.entityValue = entityValue;
+            this.entityStamp = entityStamp;
+            this.setEntityValue = setEntityValue;
+            this.setEntityStamp = setEntityStamp;
+        }
+    }
+
+    private static final List<Field> FIELDS = List.of(
+            new Field(VaultRecord::getEncryptedTitle, VaultRecord::getTitleStamp, VaultRecord::setTitleStamp,
+                    EncryptedPasswordEntity::getEncryptedTitle, EncryptedPasswordEntity::getTitleStamp,
+                    EncryptedPasswordEntity::setEncryptedTitle, EncryptedPasswordEntity::setTitleStamp),
+            new Field(VaultRecord::getEncryptedUsername, VaultRecord::getUsernameStamp, VaultRecord::setUsernameStamp,
+                    EncryptedPasswordEntity::getEncryptedUsername, EncryptedPasswordEntity::getUsernameStamp,
+                    EncryptedPasswordEntity::setEncryptedUsername, EncryptedPasswordEntity::setUsernameStamp),
+            new Field(VaultRecord::getEncryptedPassword, VaultRecord::getPasswordStamp, VaultRecord::setPasswordStamp,
+                    EncryptedPasswordEntity::getEncryptedPassword, EncryptedPasswordEntity::getPasswordStamp,
+                    EncryptedPasswordEntity::setEncryptedPassword, EncryptedPasswordEntity::setPasswordStamp),
+            new Field(VaultRecord::getEncryptedUrl, VaultRecord::getUrlStamp, VaultRecord::setUrlStamp,
+                    EncryptedPasswordEntity::getEncryptedUrl, EncryptedPasswordEntity::getUrlStamp,
+                    EncryptedPasswordEntity::setEncryptedUrl, EncryptedPasswordEntity::setUrlStamp),
+            new Field(VaultRecord::getEncryptedNotes, VaultRecord::getNotesStamp, VaultRecord::setNotesStamp,
+                    EncryptedPasswordEntity::getEncryptedNotes, EncryptedPasswordEntity::getNotesStamp,
+                    EncryptedPasswordEntity::setEncryptedNotes, EncryptedPasswordEntity::setNotesStamp));
+
+    /**
+     * 保存在偏好设置中的同步状态
+     */
+    private static final class PrefsState implements State {
+        private final SharedPreferences prefs;
+        private final String deviceId;
+        private final CryptoManager cryptoManager;
+
+        PrefsState(SharedPreferences prefs, String deviceId, CryptoManager cryptoManager) {
+            this.prefs = prefs;
+            this.deviceId = deviceId;
+            this.cryptoManager = cryptoManager;
+        }
+
+        @Override
+        public long getCursor() {
+            return prefs.getLong(KEY_CURSOR, 0);
+        }
+
+        @Override
+        public void setCursor(long cursor) {
+            prefs.edit().putLong(KEY_CURSOR, cursor).apply();
+        }
+
+        @Override
+        public long getClock() {
+            return prefs.getLong(KEY_CLOCK, 0);
+        }
+
+        @Override
+        public void setClock(long clock) {
+            prefs.edit().putLong(KEY_CLOCK, clock).apply();
+        }
+
+        @Override
+        public String getDeviceId() {
+            return deviceId;
+        }
+
+        @Nullable
+        @Override
+        public VaultKey getLocalKey() {
+            CryptoManager.WrappedKey key = cryptoManager.getVaultKey();
+            return key != null ? new VaultKey(key.keyId, key.encryptedKey, key.iv, key.salt) : null;
+        }
+
+        @Override
+        public boolean isKeyShared() {
+            return prefs.getBoolean(KEY_KEY_SHARED, false);
+        }
+
+        @Override
+        public void setKeyShared(boolean shared) {
+            prefs.edit().putBoolean(KEY_KEY_SHARED, shared).apply();
+        }
+
+        @Override
+        public void setPendingKey(@Nullable VaultKey key) {
+            if (key == null) {
+                cryptoManager.clearPendingVaultKey();
+                return;
+            }
+            cryptoManager.setPendingVaultKey(new CryptoManager.WrappedKey(
+                    key.getKeyId(), key.getEncryptedKey(), key.getIv(), key.getSalt()));
+        }
+    }
+}
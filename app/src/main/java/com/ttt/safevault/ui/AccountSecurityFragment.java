@@ -1,5 +1,6 @@
 package com.ttt.safevault.ui;
 
+import android.net.Uri;
 import android.os.Bundle;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import android.view.LayoutInflater;
@@ -8,6 +9,8 @@ import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -16,6 +19,12 @@ import com.ttt.safevault.R;
 import com.ttt.safevault.databinding.FragmentAccountSecurityBinding;
 import com.ttt.safevault.security.SecurityConfig;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 /**
  * 账户安全设置 Fragment
  * 管理解锁选项、生物识别、PIN码、主密码等安全设置
@@ -25,6 +34,14 @@ public class AccountSecurityFragment extends BaseFragment {
     private FragmentAccountSecurityBinding binding;
     private SecurityConfig securityConfig;
 
+    // 通过系统文件选择器选择泄露密码数据文件
+    private final ActivityResultLauncher<String[]> pickBreachedFile =
+        registerForActivityResult(new ActivityResultContracts.OpenDocument(), uri -> {
+            if (uri != null) {
+                importBreachedPasswords(uri);
+            }
+        });
+
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
@@ -160,6 +177,10 @@ public class AccountSecurityFragment extends BaseFragment {
             Toast.makeText(requireContext(), "更改主密码功能待实现", Toast.LENGTH_SHORT).show();
         });
 
+        // 导入泄露密码数据
+        binding.cardImportBreached.setOnClickListener(v ->
+                pickBreachedFile.launch(new String[]{"*/*"}));
+
         // 注销登录
         binding.cardLogout.setOnClickListener(v -> showLogoutDialog());
 
@@ -392,6 +413,55 @@ public class AccountSecurityFragment extends BaseFragment {
                 .show();
     }
 
+    /**
+     * 导入泄露密码数据
+     * 选择的文档先复制到缓存目录，再交给后端按文件导入，完成后删除副本
+     */
+    private void importBreachedPasswords(Uri uri) {
+        setImportingBreached(true);
+        android.content.Context appContext = requireContext().getApplicationContext();
+        new Thread(() -> {
+            File copy = new File(appContext.getCacheDir(), "breached_import.tmp");
+            boolean imported = false;
+            try (InputStream in = appContext.getContentResolver().openInputStream(uri);
+                 OutputStream out = new FileOutputStream(copy)) {
+                if (in != null) {
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                    out.close();
+                    imported = com.ttt.safevault.ServiceLocator.getInstance().getBackendService()
+                            .importBreachedPasswords(copy.getAbsolutePath());
+                }
+            } catch (IOException | SecurityException e) {
+                android.util.Log.e("AccountSecurityFragment", "Failed to read breached password file", e);
+            } finally {
+                copy.delete();
+            }
+
+            boolean result = imported;
+            if (getActivity() == null) {
+                return;
+            }
+            getActivity().runOnUiThread(() -> {
+                if (binding == null) {
+                    return;
+                }
+                setImportingBreached(false);
+                Toast.makeText(appContext, result ? R.string.import_breached_passwords_success
+                        : R.string.import_breached_passwords_failed, Toast.LENGTH_SHORT).show();
+            });
+        }).start();
+    }
+
+    private void setImportingBreached(boolean importing) {
+        binding.cardImportBreached.setEnabled(!importing);
+        binding.progressImportBreached.setVisibility(importing ? View.VISIBLE : View.GONE);
+        binding.ivImportBreachedNext.setVisibility(importing ? View.GONE : View.VISIBLE);
+    }
+
     /**
      * 应用截图设置到所有Activity
      */
@@ -283,6 +283,7 @@ public class EditPasswordFragment extends Fragment {
                 if (strengthBar3 != null) strengthBar3.setAlpha(1.0f);
                 strengthColor = getResources().getColor(R.color.strength_strong, null);
                 break;
+            case VERY_STRONG:
             default:
                 if (strengthBar1 != null) strengthBar1.setAlpha(1.0f);
                 if (strengthBar2 != null) strengthBar2.setAlpha(1.0f);
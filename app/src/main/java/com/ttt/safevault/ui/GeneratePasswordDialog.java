@@ -16,11 +16,8 @@ import com.google.android.material.materialswitch.MaterialSwitch;
 import com.google.android.material.slider.Slider;
 import com.google.android.material.textfield.TextInputEditText;
 import com.ttt.safevault.R;
+import com.ttt.safevault.security.PasswordGenerator;
 
-import java.security.SecureRandom;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * 密码生成器对话框
@@ -173,60 +170,8 @@ public class GeneratePasswordDialog extends DialogFragment {
 
     private String generateSecurePassword(int length, boolean uppercase, boolean lowercase,
                                           boolean numbers, boolean symbols) {
-        List<Character> allChars = new ArrayList<>();
-        List<Character> requiredChars = new ArrayList<>();
-
-        if (uppercase) {
-            addChars(allChars, "ABCDEFGHIJKLMNOPQRSTUVWXYZ");
-            addChar(requiredChars, getRandomChar("ABCDEFGHIJKLMNOPQRSTUVWXYZ"));
-        }
-        if (lowercase) {
-            addChars(allChars, "abcdefghijklmnopqrstuvwxyz");
-            addChar(requiredChars, getRandomChar("abcdefghijklmnopqrstuvwxyz"));
-        }
-        if (numbers) {
-            addChars(allChars, "0123456789");
-            addChar(requiredChars, getRandomChar("0123456789"));
-        }
-        if (symbols) {
-            addChars(allChars, "!@#$%^&*()_+-=[]{}|;:,.<>?");
-            addChar(requiredChars, getRandomChar("!@#$%^&*()_+-=[]{}|;:,.<>?"));
-        }
-
-        // 确保包含至少一个每种选中的字符类型
-        List<Character> passwordChars = new ArrayList<>(requiredChars);
-
-        // 填充剩余位置
-        SecureRandom random = new SecureRandom();
-        for (int i = requiredChars.size(); i < length; i++) {
-            passwordChars.add(allChars.get(random.nextInt(allChars.size())));
-        }
-
-        // 打乱顺序
-        Collections.shuffle(passwordChars, random);
-
-        // 转换为字符串
-        StringBuilder password = new StringBuilder();
-        for (char c : passwordChars) {
-            password.append(c);
-        }
-
-        return password.toString();
-    }
-
-    private void addChars(List<Character> list, String chars) {
-        for (char c : chars.toCharArray()) {
-            list.add(c);
-        }
-    }
-
-    private void addChar(List<Character> list, char c) {
-        list.add(c);
-    }
-
-    private char getRandomChar(String chars) {
-        SecureRandom random = new SecureRandom();
-        return chars.charAt(random.nextInt(chars.length()));
+        return PasswordGenerator.getInstance().generateString(
+                PasswordGenerator.Policy.of(length, uppercase, lowercase, numbers, symbols));
     }
 
     private void showError(String message) {
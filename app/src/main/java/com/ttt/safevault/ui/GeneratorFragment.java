@@ -14,11 +14,13 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.google.android.material.card.MaterialCardView;
+import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.materialswitch.MaterialSwitch;
 import com.google.android.material.slider.Slider;
 import com.google.android.material.textfield.TextInputEditText;
 import com.ttt.safevault.R;
 import com.ttt.safevault.databinding.FragmentGeneratorBinding;
+import com.ttt.safevault.security.PassphraseGenerator;
 import com.ttt.safevault.viewmodel.GeneratorViewModel;
 import com.ttt.safevault.utils.ClipboardManager;
 
@@ -43,11 +45,17 @@ public class GeneratorFragment extends BaseFragment {
     private MaterialCardView pinPresetCard;
     private MaterialCardView strongPresetCard;
     private MaterialCardView memorablePresetCard;
+    private MaterialCardView passphrasePresetCard;
     private View strengthBar1;
     private View strengthBar2;
     private View strengthBar3;
     private View strengthBar4;
     private TextView strengthText;
+    private TextView entropyText;
+    private Slider wordCountSlider;
+    private TextView wordCountText;
+    private ChipGroup separatorChipGroup;
+    private ChipGroup capitalizationChipGroup;
 
     @Nullable
     @Override
@@ -78,11 +86,17 @@ public class GeneratorFragment extends BaseFragment {
         pinPresetCard = binding.pinPresetCard;
         strongPresetCard = binding.strongPresetCard;
         memorablePresetCard = binding.memorablePresetCard;
+        passphrasePresetCard = binding.passphrasePresetCard;
         strengthBar1 = binding.strengthBar1;
         strengthBar2 = binding.strengthBar2;
         strengthBar3 = binding.strengthBar3;
         strengthBar4 = binding.strengthBar4;
         strengthText = binding.strengthText;
+        entropyText = binding.entropyText;
+        wordCountSlider = binding.wordCountSlider;
+        wordCountText = binding.wordCountText;
+        separatorChipGroup = binding.separatorChipGroup;
+        capitalizationChipGroup = binding.capitalizationChipGroup;
 
         // 设置默认值
         lengthSlider.setValue(16);
@@ -110,6 +124,11 @@ public class GeneratorFragment extends BaseFragment {
         viewModel.getPasswordStrength().observe(getViewLifecycleOwner(), strength -> {
             updateStrengthIndicator(strength);
         });
+
+        // 观察熵
+        viewModel.getEntropyBits().observe(getViewLifecycleOwner(), bits -> {
+            entropyText.setText(getString(R.string.generator_entropy_bits, Math.round(bits)));
+        });
     }
 
     private void setupClickListeners() {
@@ -127,7 +146,7 @@ public class GeneratorFragment extends BaseFragment {
         symbolsSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> generatePassword());
 
         // 生成按钮
-        generateButton.setOnClickListener(v -> generatePassword());
+        generateButton.setOnClickListener(v -> viewModel.regenerate());
 
         // 点击生成的密码文本复制
         generatedPasswordText.setOnClickListener(v -> copyPasswordToClipboard());
@@ -136,6 +155,17 @@ public class GeneratorFragment extends BaseFragment {
         pinPresetCard.setOnClickListener(v -> applyPreset(GeneratorViewModel.Preset.PIN));
         strongPresetCard.setOnClickListener(v -> applyPreset(GeneratorViewModel.Preset.STRONG));
         memorablePresetCard.setOnClickListener(v -> applyPreset(GeneratorViewModel.Preset.MEMORABLE));
+        passphrasePresetCard.setOnClickListener(v -> applyPreset(GeneratorViewModel.Preset.PASSPHRASE));
+
+        // 口令短语设置变化时按新设置生成口令短语
+        wordCountSlider.addOnChangeListener((slider, value, fromUser) -> {
+            wordCountText.setText(String.valueOf((int) value));
+            if (fromUser) {
+                generatePassphrase();
+            }
+        });
+        separatorChipGroup.setOnCheckedStateChangeListener((group, checkedIds) -> generatePassphrase());
+        capitalizationChipGroup.setOnCheckedStateChangeListener((group, checkedIds) -> generatePassphrase());
     }
 
     private void generateInitialPassword() {
@@ -152,6 +182,37 @@ public class GeneratorFragment extends BaseFragment {
         viewModel.generatePassword(length, uppercase, lowercase, numbers, symbols);
     }
 
+    /**
+     * 按界面上的单词数、分隔符和大小写设置生成口令短语
+     */
+    private void generatePassphrase() {
+        int wordCount = (int) wordCountSlider.getValue();
+
+        String separator;
+        int separatorId = separatorChipGroup.getCheckedChipId();
+        if (separatorId == R.id.separator_space) {
+            separator = " ";
+        } else if (separatorId == R.id.separator_dot) {
+            separator = ".";
+        } else if (separatorId == R.id.separator_underscore) {
+            separator = "_";
+        } else {
+            separator = PassphraseGenerator.DEFAULT_SEPARATOR;
+        }
+
+        PassphraseGenerator.Capitalization capitalization;
+        int capitalizationId = capitalizationChipGroup.getCheckedChipId();
+        if (capitalizationId == R.id.capitalization_lower) {
+            capitalization = PassphraseGenerator.Capitalization.LOWER;
+        } else if (capitalizationId == R.id.capitalization_upper) {
+            capitalization = PassphraseGenerator.Capitalization.UPPER;
+        } else {
+            capitalization = PassphraseGenerator.Capitalization.TITLE;
+        }
+
+        viewModel.generatePassphrase(wordCount, separator, capitalization);
+    }
+
     private void copyPasswordToClipboard() {
         String password = generatedPasswordText.getText() != null
                 ? generatedPasswordText.getText().toString()
@@ -170,6 +231,11 @@ public class GeneratorFragment extends BaseFragment {
     }
 
     private void applyPreset(GeneratorViewModel.Preset preset) {
+        if (preset == GeneratorViewModel.Preset.PASSPHRASE) {
+            // 口令短语使用界面上的设置
+            generatePassphrase();
+            return;
+        }
         viewModel.applyPreset(preset);
 
         // 更新 UI
@@ -195,6 +261,8 @@ public class GeneratorFragment extends BaseFragment {
                 numbersSwitch.setChecked(true);
                 symbolsSwitch.setChecked(false);
                 break;
+            default:
+                break;
         }
     }
 
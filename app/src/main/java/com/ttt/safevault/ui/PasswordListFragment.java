@@ -20,6 +20,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.android.material.snackbar.Snackbar;
 import com.ttt.safevault.R;
 import com.ttt.safevault.adapter.PasswordListAdapter;
 import com.ttt.safevault.model.BackendService;
@@ -46,6 +47,7 @@ public class PasswordListFragment extends Fragment implements PasswordListAdapte
     private View loadingLayout;
     private PasswordListAdapter adapter;
     private BackendService backendService;
+    private Snackbar syncPausedSnackbar;
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -363,5 +365,22 @@ public class PasswordListFragment extends Fragment implements PasswordListAdapte
         super.onResume();
         // 每次返回时静默刷新数据（不显示加载动画）
         viewModel.refreshSilently();
+        showSyncPausedNotice();
+    }
+
+    /**
+     * 数据密钥与云端不一致时同步暂停，解锁后仍未恢复说明用的不是其他设备的主密码
+     */
+    private void showSyncPausedNotice() {
+        if (syncPausedSnackbar != null && syncPausedSnackbar.isShownOrQueued()) {
+            return;
+        }
+        if (!backendService.isCloudLoggedIn() || !backendService.isVaultSyncPaused()) {
+            return;
+        }
+        syncPausedSnackbar = Snackbar.make(requireView(), R.string.vault_sync_paused_message,
+                Snackbar.LENGTH_INDEFINITE);
+        syncPausedSnackbar.setAction(R.string.got_it, v -> syncPausedSnackbar.dismiss());
+        syncPausedSnackbar.show();
     }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.ttt.safevault.R;
 import com.ttt.safevault.ServiceLocator;
+import com.ttt.safevault.autofill.cache.PackageMetadataCache;
 import com.ttt.safevault.autofill.matcher.AutofillMatcher;
 import com.ttt.safevault.autofill.model.AutofillRequest;
 import com.ttt.safevault.model.BackendService;
@@ -175,7 +176,8 @@ public class AutofillCredentialSelectorActivity extends AppCompatActivity {
         executor.execute(() -> {
             try {
                 // 使用AutofillMatcher匹配凭据
-                AutofillMatcher matcher = new AutofillMatcher(backendService);
+                AutofillMatcher matcher = new AutofillMatcher(backendService,
+                        PackageMetadataCache.getInstance(getApplicationContext()));
                 List<PasswordItem> matchedCredentials = matcher.matchCredentials(autofillRequest);
 
                 // 切换到主线程更新UI
@@ -231,6 +233,11 @@ public class AutofillCredentialSelectorActivity extends AppCompatActivity {
         Dataset dataset = buildDatasetForCredential(credential);
 
         if (dataset != null) {
+            // 记录使用统计
+            if (backendService != null) {
+                backendService.recordItemUsage(credential.getId());
+            }
+
             // 使用EXTRA_AUTHENTICATION_RESULT返回Dataset（而非FillResponse）
             // 返回Dataset会立即自动填充到视图，无需用户再次点击
             Intent resultIntent = new Intent();
@@ -0,0 +1,52 @@
+package com.ttt.safevault.ui.share;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批量分享归档的进程内交接
+ * 归档内含解密密钥，不放进Intent（会经过Binder和system_server，且可能超过事务大小限制），
+ * Intent里只传ID；接收方结束时移除并清零。
+ */
+final class BatchArchiveHolder {
+
+    private static final Map<String, byte[]> ARCHIVES = new ConcurrentHashMap<>();
+
+    private BatchArchiveHolder() {
+    }
+
+    /**
+     * 暂存归档
+     *
+     * @return 放入Intent的ID
+     */
+    @NonNull
+    static String put(@NonNull byte[] archive) {
+        String id = UUID.randomUUID().toString();
+        ARCHIVES.put(id, archive);
+        return id;
+    }
+
+    /**
+     * 读取归档，不移除（界面重建时仍可读取）
+     */
+    @Nullable
+    static byte[] get(@Nullable String id) {
+        return id != null ? ARCHIVES.get(id) : null;
+    }
+
+    /**
+     * 移除归档并清零
+     */
+    static void remove(@Nullable String id) {
+        byte[] archive = id != null ? ARCHIVES.remove(id) : null;
+        if (archive != null) {
+            Arrays.fill(archive, (byte) 0);
+        }
+    }
+}
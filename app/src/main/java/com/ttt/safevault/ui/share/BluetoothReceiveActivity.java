@@ -11,12 +11,21 @@ import android.widget.Toast;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.ttt.safevault.R;
+import com.ttt.safevault.ServiceLocator;
 import com.ttt.safevault.databinding.ActivityBluetoothReceiveBinding;
+import com.ttt.safevault.model.BackendService;
+import com.ttt.safevault.model.PasswordItem;
+import com.ttt.safevault.utils.BatchShareArchive;
 import com.ttt.safevault.utils.BluetoothTransferManager;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * 蓝牙接收界面
  * 监听蓝牙连接并接收分享数据
@@ -27,6 +36,8 @@ public class BluetoothReceiveActivity extends AppCompatActivity {
     private BluetoothTransferManager bluetoothManager;
     private ActivityResultLauncher<String[]> bluetoothPermissionLauncher;
     private boolean isListening = false;
+    // 批量分享的解析和导入在后台执行
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor();
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -148,7 +159,13 @@ public class BluetoothReceiveActivity extends AppCompatActivity {
 
             @Override
             public void onTransferProgress(int progress) {
-                // 可以添加进度更新
+                runOnUiThread(() -> {
+                    if (binding == null) {
+                        return;
+                    }
+                    binding.progressBar.setVisibility(View.VISIBLE);
+                    binding.textStatus.setText(getString(R.string.bluetooth_receiving_progress, progress));
+                });
             }
 
             @Override
@@ -167,6 +184,17 @@ public class BluetoothReceiveActivity extends AppCompatActivity {
                 });
             }
 
+            @Override
+            public void onBatchReceived(byte[] archive) {
+                runOnUiThread(() -> {
+                    if (binding == null) {
+                        return;
+                    }
+                    binding.textStatus.setText(R.string.batch_share_parsing);
+                });
+                parseBatch(archive);
+            }
+
             @Override
             public void onTransferFailed(String error) {
                 runOnUiThread(() -> {
@@ -191,6 +219,64 @@ public class BluetoothReceiveActivity extends AppCompatActivity {
         binding.iconBluetooth.setVisibility(View.VISIBLE);
     }
 
+    private void parseBatch(byte[] archive) {
+        BackendService backendService = ServiceLocator.getInstance().getBackendService();
+        importExecutor.execute(() -> {
+            List<PasswordItem> items = backendService.receiveBatchShare(archive);
+            runOnUiThread(() -> {
+                if (binding == null) {
+                    return;
+                }
+                binding.progressBar.setVisibility(View.GONE);
+                if (items == null || items.isEmpty()) {
+                    binding.textStatus.setText(R.string.waiting_for_receiver);
+                    Toast.makeText(this, R.string.batch_share_invalid, Toast.LENGTH_LONG).show();
+                    bluetoothManager.startListening();
+                    return;
+                }
+                showBatchImportDialog(items, BatchShareArchive.canSave(archive));
+            });
+        });
+    }
+
+    /**
+     * 列出收到的条目，确认后在一个事务中全部导入
+     */
+    private void showBatchImportDialog(List<PasswordItem> items, boolean canSave) {
+        String[] titles = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            titles[i] = items.get(i).getDisplayName();
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this)
+            .setTitle(getString(R.string.batch_share_received, items.size()))
+            .setItems(titles, null)
+            .setNegativeButton(R.string.cancel, (dialog, which) -> finish())
+            .setCancelable(false);
+        if (canSave) {
+            builder.setPositiveButton(R.string.batch_share_import, (dialog, which) -> importBatch(items));
+        }
+        builder.show();
+    }
+
+    private void importBatch(List<PasswordItem> items) {
+        binding.progressBar.setVisibility(View.VISIBLE);
+        binding.textStatus.setText(getString(R.string.batch_share_importing, items.size()));
+        BackendService backendService = ServiceLocator.getInstance().getBackendService();
+        importExecutor.execute(() -> {
+            int saved = backendService.saveItems(items);
+            runOnUiThread(() -> {
+                if (saved < 0) {
+                    Toast.makeText(this, R.string.batch_share_import_failed, Toast.LENGTH_LONG).show();
+                } else {
+                    Toast.makeText(this, getString(R.string.batch_share_imported, saved),
+                        Toast.LENGTH_SHORT).show();
+                }
+                finish();
+            });
+        });
+    }
+
     private void stopListening() {
         bluetoothManager.stopListening();
         isListening = false;
@@ -206,6 +292,7 @@ public class BluetoothReceiveActivity extends AppCompatActivity {
         if (bluetoothManager != null) {
             bluetoothManager.close();
         }
+        importExecutor.shutdown();
         binding = null;
     }
 }
@@ -44,6 +44,7 @@ public class ReceiveShareActivity extends AppCompatActivity {
     private boolean isCloudShare = false;  // 是否为云端分享
     private String actualPassword = "";
     private NFCTransferManager nfcManager;
+    private boolean waitingForNextTap = false;  // NFC分块未收齐，等待下一次触碰
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -67,7 +68,7 @@ public class ReceiveShareActivity extends AppCompatActivity {
 
         // 获取分享ID，支持多种方式：
         // 1. 通过Intent Extra传递：getStringExtra("SHARE_ID") 或 "SHARE_TOKEN"
-        // 2. 通过URI传递：safevault://share/{shareId} 或 safevault://offline/{data}
+        // 2. 通过URI传递：safevault://share/{shareId} 或 safevault://offline/{data}（版本2离线分享）
         // 3. 通过NFC传递
         shareId = getIntent().getStringExtra("SHARE_ID");
         
@@ -99,7 +100,9 @@ public class ReceiveShareActivity extends AppCompatActivity {
         }
         
         if (shareId == null || shareId.isEmpty()) {
-            Toast.makeText(this, "分享链接无效", Toast.LENGTH_SHORT).show();
+            if (!waitingForNextTap) {
+                Toast.makeText(this, "分享链接无效", Toast.LENGTH_SHORT).show();
+            }
             finish();
             return;
         }
@@ -298,6 +301,12 @@ public class ReceiveShareActivity extends AppCompatActivity {
                 if (data != null && !data.isEmpty()) {
                     Toast.makeText(this, R.string.nfc_read_success, Toast.LENGTH_SHORT).show();
                     return data;
+                } else if (nfcManager.hasPendingChunks()) {
+                    // 分多次触碰传输，等待下一部分
+                    Toast.makeText(this, getString(R.string.nfc_chunk_progress,
+                        nfcManager.getReceivedChunkCount(), nfcManager.getTotalChunkCount()),
+                        Toast.LENGTH_LONG).show();
+                    waitingForNextTap = true;
                 } else {
                     Toast.makeText(this, R.string.nfc_read_failed, Toast.LENGTH_SHORT).show();
                 }
@@ -4,6 +4,7 @@ import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.util.Log;
 import android.widget.Toast;
 
 import androidx.activity.result.ActivityResultLauncher;
@@ -19,6 +20,8 @@ import com.journeyapps.barcodescanner.DecoratedBarcodeView;
 import com.journeyapps.barcodescanner.DefaultDecoderFactory;
 import com.google.zxing.BarcodeFormat;
 import com.ttt.safevault.R;
+import com.ttt.safevault.utils.OfflineShareUtils;
+import com.ttt.safevault.utils.QRFountainCodec;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -34,6 +37,7 @@ public class ScanQRCodeActivity extends AppCompatActivity {
     private DecoratedBarcodeView barcodeView;
     private BeepManager beepManager;
     private String scanType; // "share" 或 "friend"
+    private final QRFountainCodec.Decoder fountainDecoder = new QRFountainCodec.Decoder();
 
     private final ActivityResultLauncher<String> requestCameraPermission =
         registerForActivityResult(new ActivityResultContracts.RequestPermission(), granted -> {
@@ -52,6 +56,12 @@ public class ScanQRCodeActivity extends AppCompatActivity {
                 return;
             }
 
+            // 多帧喷泉码：不暂停，持续收集帧直到可以还原
+            if (QRFountainCodec.isFountainFrame(result.getText())) {
+                handleFountainFrame(result.getText());
+                return;
+            }
+
             // 播放提示音
             beepManager.playBeepSoundAndVibrate();
 
@@ -112,6 +122,36 @@ public class ScanQRCodeActivity extends AppCompatActivity {
         barcodeView.resume();
     }
 
+    private void handleFountainFrame(String frame) {
+        if ("friend".equals(scanType)) {
+            return;
+        }
+        boolean first = fountainDecoder.getReceivedCount() == 0;
+        if (!fountainDecoder.accept(frame)) {
+            return;
+        }
+        if (first) {
+            beepManager.playBeepSoundAndVibrate();
+        }
+
+        if (fountainDecoder.isComplete()) {
+            String content = fountainDecoder.getContent();
+            if (content != null) {
+                beepManager.playBeepSoundAndVibrate();
+                handleScanResult(content);
+            } else {
+                // 校验失败，丢弃已收集的帧重新开始
+                Log.w(TAG, "Fountain payload checksum mismatch");
+                Toast.makeText(this, "多帧二维码校验失败，请重新扫描", Toast.LENGTH_SHORT).show();
+                fountainDecoder.reset();
+            }
+            return;
+        }
+
+        barcodeView.setStatusText("正在接收多帧二维码 " + fountainDecoder.getDecodedCount()
+                + "/" + fountainDecoder.getBlockCount() + "（" + fountainDecoder.getProgress() + "%）");
+    }
+
     private void handleScanResult(String result) {
         // 暂停扫描
         barcodeView.pause();
@@ -137,6 +177,12 @@ public class ScanQRCodeActivity extends AppCompatActivity {
                 intent.setData(android.net.Uri.parse(result));
                 startActivity(intent);
                 finish();
+            } else if (OfflineShareUtils.isOfflineShare(result)) {
+                // 离线分享：版本3内容含空格等非URI字符，直接作为Extra传递
+                Intent intent = new Intent(this, ReceiveShareActivity.class);
+                intent.putExtra("SHARE_ID", result);
+                startActivity(intent);
+                finish();
             } else {
                 Toast.makeText(this, "无效的分享二维码", Toast.LENGTH_SHORT).show();
                 // 继续扫描
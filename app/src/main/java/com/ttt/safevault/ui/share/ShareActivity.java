@@ -41,6 +41,9 @@ public class ShareActivity extends AppCompatActivity {
     private BackendService backendService;
     private BiometricAuthHelper biometricAuthHelper;
     private int passwordId;
+    // 批量分享的密码ID，非空时为批量模式（仅支持蓝牙）
+    @Nullable
+    private int[] batchPasswordIds;
 
     // 传输方式
     private enum TransmissionMethod {
@@ -75,7 +78,8 @@ public class ShareActivity extends AppCompatActivity {
 
         // 获取要分享的密码ID
         passwordId = getIntent().getIntExtra("PASSWORD_ID", -1);
-        if (passwordId == -1) {
+        batchPasswordIds = getIntent().getIntArrayExtra("PASSWORD_IDS");
+        if (passwordId == -1 && (batchPasswordIds == null || batchPasswordIds.length == 0)) {
             Toast.makeText(this, "参数错误", Toast.LENGTH_SHORT).show();
             finish();
             return;
@@ -94,8 +98,10 @@ public class ShareActivity extends AppCompatActivity {
         );
         viewModel = new ViewModelProvider(this, factory).get(ShareViewModel.class);
 
-        // 加载密码信息
-        viewModel.loadPasswordItem(passwordId);
+        // 加载密码信息（批量模式不需要）
+        if (batchPasswordIds == null) {
+            viewModel.loadPasswordItem(passwordId);
+        }
     }
 
     private void setupToolbar() {
@@ -162,6 +168,27 @@ public class ShareActivity extends AppCompatActivity {
                 }
             }
         });
+
+        if (batchPasswordIds != null) {
+            setupBatchMode();
+        }
+    }
+
+    /**
+     * 批量模式：多个条目打包成一个归档，只能通过蓝牙一次连接传输
+     * 不支持NFC：写入标签的归档连同其中的解密密钥会留在标签上，且归档通常超出有限次触碰能写完的容量
+     */
+    private void setupBatchMode() {
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setTitle(getString(R.string.batch_share_title, batchPasswordIds.length));
+        }
+        binding.chipBluetooth.setChecked(true);
+        binding.chipQrCode.setVisibility(View.GONE);
+        binding.chipNfc.setVisibility(View.GONE);
+        binding.chipCloudDirect.setVisibility(View.GONE);
+        binding.chipCloudUser.setVisibility(View.GONE);
+        binding.chipCloudNearby.setVisibility(View.GONE);
+        binding.switchRevocable.setVisibility(View.GONE);
     }
 
     private void observeViewModel() {
@@ -179,9 +206,23 @@ public class ShareActivity extends AppCompatActivity {
             }
         });
 
+        // 观察批量归档
+        viewModel.batchArchive.observe(this, archive -> {
+            if (archive != null) {
+                // 归档含密钥且可能很大，只在Intent中传递进程内暂存的ID
+                Intent intent = new Intent(this, ShareResultActivity.class);
+                intent.putExtra("BATCH_ARCHIVE_ID", BatchArchiveHolder.put(archive));
+                viewModel.clearBatchArchive();
+                intent.putExtra("TRANSMISSION_METHOD", TransmissionMethod.BLUETOOTH.name());
+                intent.putExtra("IS_OFFLINE_SHARE", true);
+                startActivity(intent);
+                finish();
+            }
+        });
+
         // 观察分享成功
         viewModel.shareSuccess.observe(this, success -> {
-            if (success) {
+            if (success && batchPasswordIds == null) {
                 // 用户对用户分享（直接通知接收方）或附近用户分享，直接返回
                 if (selectedTransmissionMethod == TransmissionMethod.CLOUD_USER
                         || selectedTransmissionMethod == TransmissionMethod.CLOUD_NEARBY) {
@@ -345,6 +386,11 @@ public class ShareActivity extends AppCompatActivity {
         permission.setCanSave(binding.switchAllowSave.isChecked());
         permission.setRevocable(binding.switchRevocable.isChecked());
 
+        if (batchPasswordIds != null) {
+            viewModel.createBatchShare(batchPasswordIds, expireInMinutes, permission);
+            return;
+        }
+
         // 根据传输方式决定分享类型
         switch (selectedTransmissionMethod) {
             case CLOUD_DIRECT:
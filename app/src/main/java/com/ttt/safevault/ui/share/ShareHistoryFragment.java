@@ -16,6 +16,7 @@ import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.appcompat.app.AlertDialog;
 import androidx.core.content.ContextCompat;
 import androidx.core.view.MenuProvider;
 import androidx.fragment.app.Fragment;
@@ -26,6 +27,12 @@ import androidx.viewpager2.widget.ViewPager2;
 import com.google.android.material.tabs.TabLayout;
 import com.google.android.material.tabs.TabLayoutMediator;
 import com.ttt.safevault.R;
+import com.ttt.safevault.ServiceLocator;
+import com.ttt.safevault.model.PasswordItem;
+import com.ttt.safevault.utils.BatchShareArchive;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 分享历史Fragment
@@ -81,6 +88,9 @@ public class ShareHistoryFragment extends Fragment {
                 } else if (menuItem.getItemId() == R.id.action_bluetooth_receive) {
                     onBluetoothReceiveClick();
                     return true;
+                } else if (menuItem.getItemId() == R.id.action_batch_share) {
+                    onBatchShareClick();
+                    return true;
                 }
                 return false;
             }
@@ -113,6 +123,68 @@ public class ShareHistoryFragment extends Fragment {
         startActivity(intent);
     }
 
+    private void onBatchShareClick() {
+        new Thread(() -> {
+            List<PasswordItem> items = ServiceLocator.getInstance().getBackendService().getAllItems();
+            if (!isAdded()) {
+                return;
+            }
+            requireActivity().runOnUiThread(() -> {
+                if (isAdded()) {
+                    showBatchSelectDialog(items);
+                }
+            });
+        }).start();
+    }
+
+    /**
+     * 多选要批量分享的条目
+     */
+    private void showBatchSelectDialog(List<PasswordItem> items) {
+        if (items.isEmpty()) {
+            Toast.makeText(requireContext(), R.string.batch_share_no_items, Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String[] titles = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            titles[i] = items.get(i).getDisplayName();
+        }
+        boolean[] checked = new boolean[items.size()];
+
+        new AlertDialog.Builder(requireContext())
+            .setTitle(R.string.batch_share)
+            .setMultiChoiceItems(titles, checked, (dialog, which, isChecked) -> checked[which] = isChecked)
+            .setPositiveButton(R.string.share, (dialog, which) -> {
+                List<Integer> selected = new ArrayList<>();
+                for (int i = 0; i < checked.length; i++) {
+                    if (checked[i]) {
+                        selected.add(items.get(i).getId());
+                    }
+                }
+                if (selected.isEmpty()) {
+                    Toast.makeText(requireContext(), R.string.batch_share_no_selection, Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                if (selected.size() > BatchShareArchive.MAX_ITEMS) {
+                    Toast.makeText(requireContext(),
+                        getString(R.string.batch_share_too_many, BatchShareArchive.MAX_ITEMS),
+                        Toast.LENGTH_SHORT).show();
+                    return;
+                }
+
+                int[] ids = new int[selected.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = selected.get(i);
+                }
+                Intent intent = new Intent(requireContext(), ShareActivity.class);
+                intent.putExtra("PASSWORD_IDS", ids);
+                startActivity(intent);
+            })
+            .setNegativeButton(R.string.cancel, null)
+            .show();
+    }
+
     private void setupViewPager() {
         SharePagerAdapter adapter = new SharePagerAdapter(this);
         viewPager.setAdapter(adapter);
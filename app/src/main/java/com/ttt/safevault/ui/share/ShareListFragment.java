@@ -136,6 +136,21 @@ public class ShareListFragment extends Fragment {
 
         RecyclerView recyclerView = requireView().findViewById(R.id.recycler_view);
         recyclerView.setAdapter(adapter);
+
+        // 本地分享滚动到底部时加载下一页
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView view, int dx, int dy) {
+                if (dy <= 0 || showCloudShares || view.canScrollVertically(1)) {
+                    return;
+                }
+                if (isMyShares) {
+                    viewModel.loadMoreMyShares();
+                } else {
+                    viewModel.loadMoreReceivedShares();
+                }
+            }
+        });
     }
 
     private void setupObservers() {
@@ -10,11 +10,12 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
 import android.nfc.NfcAdapter;
 import android.nfc.Tag;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
 import android.widget.Toast;
 
@@ -27,9 +28,12 @@ import androidx.core.app.ActivityCompat;
 
 import com.ttt.safevault.R;
 import com.ttt.safevault.databinding.ActivityShareResultBinding;
+import com.ttt.safevault.utils.BatchShareArchive;
 import com.ttt.safevault.utils.BluetoothTransferManager;
 import com.ttt.safevault.utils.NFCTransferManager;
+import com.ttt.safevault.utils.OfflineShareUtils;
 import com.ttt.safevault.utils.QRCodeUtils;
+import com.ttt.safevault.utils.QRFountainCodec;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -46,6 +50,9 @@ public class ShareResultActivity extends AppCompatActivity {
     private boolean isOfflineShare;
     private int passwordId;
     private String transmissionMethod;
+    // 批量分享归档，非空时通过蓝牙一次发送多个条目
+    private byte[] batchArchive;
+    private String batchArchiveId;
 
     private BluetoothTransferManager bluetoothManager;
     private NFCTransferManager nfcManager;
@@ -53,6 +60,31 @@ public class ShareResultActivity extends AppCompatActivity {
     private ActivityResultLauncher<String[]> bluetoothPermissionLauncher;
     private ActivityResultLauncher<Intent> enableBluetoothLauncher;
 
+    private static final int QR_SIZE = 600;
+
+    // 多帧喷泉码动画（约5帧/秒）
+    private static final long FOUNTAIN_FRAME_INTERVAL_MS = 200;
+    private final Handler frameHandler = new Handler(Looper.getMainLooper());
+    private QRFountainCodec.Encoder fountainEncoder;
+    private final Runnable frameTicker = new Runnable() {
+        @Override
+        public void run() {
+            if (binding == null || fountainEncoder == null) {
+                return;
+            }
+            // 帧在后台渲染，渲染完成后再排下一帧，避免帧堆积
+            QRCodeUtils.renderFrameAsync(fountainEncoder.nextFrame(), QR_SIZE, frame -> {
+                if (binding == null) {
+                    return;
+                }
+                if (frame != null) {
+                    binding.imageQRCode.setImageBitmap(frame);
+                }
+                frameHandler.postDelayed(frameTicker, FOUNTAIN_FRAME_INTERVAL_MS);
+            });
+        }
+    };
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -85,12 +117,18 @@ public class ShareResultActivity extends AppCompatActivity {
         passwordId = getIntent().getIntExtra("PASSWORD_ID", -1);
         isOfflineShare = getIntent().getBooleanExtra("IS_OFFLINE_SHARE", false);
         transmissionMethod = getIntent().getStringExtra("TRANSMISSION_METHOD");
+        batchArchiveId = getIntent().getStringExtra("BATCH_ARCHIVE_ID");
+        batchArchive = BatchArchiveHolder.get(batchArchiveId);
 
-        if (shareToken == null || shareToken.isEmpty()) {
+        if ((shareToken == null || shareToken.isEmpty()) && batchArchive == null) {
             Toast.makeText(this, "分享数据无效", Toast.LENGTH_SHORT).show();
             finish();
             return;
         }
+        // 批量归档只走蓝牙，NFC和二维码只传单条分享码
+        if (batchArchive != null) {
+            transmissionMethod = "BLUETOOTH";
+        }
 
         setupToolbar();
         setupViews();
@@ -150,14 +188,25 @@ public class ShareResultActivity extends AppCompatActivity {
     }
 
     private void generateQRCode() {
-        // 使用QRCodeUtils生成二维码
-        Bitmap qrBitmap = QRCodeUtils.generatePasswordShareQRCode(shareToken);
-
-        if (qrBitmap != null) {
-            binding.imageQRCode.setImageBitmap(qrBitmap);
-        } else {
-            Toast.makeText(this, "生成二维码失败", Toast.LENGTH_SHORT).show();
+        // 超过单个二维码容量的离线分享改为循环播放喷泉码帧，接收方扫到足够多的任意帧即可还原
+        if (OfflineShareUtils.requiresMultiFrame(shareToken)) {
+            fountainEncoder = new QRFountainCodec.Encoder(shareToken);
+            frameHandler.removeCallbacks(frameTicker);
+            frameHandler.post(frameTicker);
+            return;
         }
+
+        // 使用QRCodeUtils在后台生成二维码
+        QRCodeUtils.generateQRCodeAsync(shareToken, QR_SIZE, QR_SIZE, qrBitmap -> {
+            if (binding == null) {
+                return;
+            }
+            if (qrBitmap != null) {
+                binding.imageQRCode.setImageBitmap(qrBitmap);
+            } else {
+                Toast.makeText(this, "生成二维码失败", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void copyTokenToClipboard() {
@@ -170,6 +219,14 @@ public class ShareResultActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        frameHandler.removeCallbacks(frameTicker);
+        fountainEncoder = null;
+        if (isFinishing()) {
+            QRCodeUtils.clearCache();
+            // 发送完成或放弃分享，清零归档
+            BatchArchiveHolder.remove(batchArchiveId);
+            batchArchive = null;
+        }
         if (bluetoothManager != null) {
             bluetoothManager.close();
         }
@@ -247,6 +304,11 @@ public class ShareResultActivity extends AppCompatActivity {
         binding.cardShareToken.setVisibility(View.GONE);
         binding.btnCopyToken.setVisibility(View.GONE);
 
+        if (batchArchive != null) {
+            binding.toolbar.setTitle(getString(R.string.batch_share_title,
+                BatchShareArchive.getItemCount(batchArchive)));
+        }
+
         // 显示蓝牙传输按钮
         binding.btnDone.setText(R.string.select_bluetooth_device);
         binding.btnDone.setOnClickListener(v -> startBluetoothTransfer());
@@ -340,7 +402,15 @@ public class ShareResultActivity extends AppCompatActivity {
             @Override
             public void onTransferProgress(int progress) {
                 runOnUiThread(() -> {
-                    binding.btnDone.setText(getString(R.string.bluetooth_sending));
+                    binding.btnDone.setText(getString(R.string.bluetooth_sending_progress, progress));
+                });
+            }
+
+            @Override
+            public void onItemProgress(int transferredItems, int totalItems) {
+                runOnUiThread(() -> {
+                    binding.btnDone.setText(getString(R.string.bluetooth_sending_items,
+                        transferredItems, totalItems));
                 });
             }
 
@@ -366,7 +436,11 @@ public class ShareResultActivity extends AppCompatActivity {
         });
 
         // 发送数据
-        bluetoothManager.sendData(device, shareToken);
+        if (batchArchive != null) {
+            bluetoothManager.sendBatch(device, batchArchive);
+        } else {
+            bluetoothManager.sendData(device, shareToken);
+        }
     }
 
     // ========== NFC传输相关 ==========
@@ -377,6 +451,12 @@ public class ShareResultActivity extends AppCompatActivity {
         binding.cardShareToken.setVisibility(View.GONE);
         binding.btnCopyToken.setVisibility(View.GONE);
 
+        // 数据过大时直接改用蓝牙
+        if (NFCTransferManager.requiresBluetooth(shareToken)) {
+            fallbackToBluetooth();
+            return;
+        }
+
         // 显示NFC提示
         binding.btnDone.setText(R.string.nfc_ready);
         binding.btnDone.setOnClickListener(null);
@@ -405,6 +485,18 @@ public class ShareResultActivity extends AppCompatActivity {
         Toast.makeText(this, R.string.nfc_tap_hint, Toast.LENGTH_LONG).show();
     }
 
+    /**
+     * NFC无法在有限的触碰次数内传完，改用蓝牙
+     */
+    private void fallbackToBluetooth() {
+        Toast.makeText(this, R.string.nfc_fallback_bluetooth, Toast.LENGTH_LONG).show();
+        disableNfcForegroundDispatch();
+        transmissionMethod = "BLUETOOTH";
+        updateToolbarTitle();
+        binding.btnDone.setEnabled(true);
+        showBluetoothTransferUI();
+    }
+
     // ========== 云端传输相关 ==========
 
     private void showCloudTransferUI() {
@@ -511,6 +603,18 @@ public class ShareResultActivity extends AppCompatActivity {
                 });
             }
 
+            @Override
+            public void onTapProgress(int completedTaps, int totalTaps) {
+                runOnUiThread(() -> {
+                    binding.btnDone.setText(getString(R.string.nfc_tap_progress, completedTaps, totalTaps));
+                });
+            }
+
+            @Override
+            public void onPayloadTooLarge() {
+                runOnUiThread(() -> fallbackToBluetooth());
+            }
+
             @Override
             public void onDataReceived(String data) {
                 // 发送端不需要处理接收
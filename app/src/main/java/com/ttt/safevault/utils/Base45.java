@@ -0,0 +1,103 @@
+package com.ttt.safevault.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Base45编码（RFC 9285）
+ * 输出只包含二维码字母数字模式的45个字符，每个字符只占5.5位，
+ * 同样的字节数比 Base64 + 字节模式生成的二维码小约四分之一
+ */
+public final class Base45 {
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base45() {
+    }
+
+    /**
+     * 编码：每2字节输出3个字符，末尾单字节输出2个字符
+     */
+    @NonNull
+    public static String encode(@NonNull byte[] data) {
+        char[] out = new char[data.length / 2 * 3 + (data.length % 2) * 2];
+        int position = 0;
+        int i = 0;
+        for (; i + 1 < data.length; i += 2) {
+            int value = ((data[i] & 0xFF) << 8) | (data[i + 1] & 0xFF);
+            out[position++] = ALPHABET[value % 45];
+            value /= 45;
+            out[position++] = ALPHABET[value % 45];
+            out[position++] = ALPHABET[value / 45];
+        }
+        if (i < data.length) {
+            int value = data[i] & 0xFF;
+            out[position++] = ALPHABET[value % 45];
+            out[position] = ALPHABET[value / 45];
+        }
+        return new String(out);
+    }
+
+    /**
+     * 解码
+     *
+     * @throws IllegalArgumentException 包含非法字符或长度不合法
+     */
+    @NonNull
+    public static byte[] decode(@NonNull String text) {
+        int length = text.length();
+        if (length % 3 == 1) {
+            throw new IllegalArgumentException("Invalid Base45 length: " + length);
+        }
+        byte[] out = new byte[length / 3 * 2 + (length % 3 == 2 ? 1 : 0)];
+        int position = 0;
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int value = digit(text, i) + digit(text, i + 1) * 45 + digit(text, i + 2) * 45 * 45;
+            if (value > 0xFFFF) {
+                throw new IllegalArgumentException("Invalid Base45 triplet at " + i);
+            }
+            out[position++] = (byte) (value >> 8);
+            out[position++] = (byte) value;
+        }
+        if (i < length) {
+            int value = digit(text, i) + digit(text, i + 1) * 45;
+            if (value > 0xFF) {
+                throw new IllegalArgumentException("Invalid Base45 pair at " + i);
+            }
+            out[position] = (byte) value;
+        }
+        return out;
+    }
+
+    /**
+     * 是否只包含二维码字母数字模式字符
+     */
+    public static boolean isAlphanumeric(@NonNull CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 128 || DECODE[c] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digit(String text, int index) {
+        char c = text.charAt(index);
+        int value = c < 128 ? DECODE[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid Base45 character: " + c);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,259 @@
+package com.ttt.safevault.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.ttt.safevault.model.PasswordItem;
+import com.ttt.safevault.model.SharePermission;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * 批量分享归档
+ * 多个密码条目打包为一个压缩加密的归档，通过一次连接传输
+ *
+ * 结构：
+ * - 魔数"SVBA"(4字节) + 版本号(1字节) + 权限标志(1字节) + 过期时间(4字节，Unix秒) + 条目数(2字节)
+ * - 嵌入密钥(32字节) - 一次性AES-256密钥
+ * - 每个条目一条记录：密文长度(4字节) + 密文
+ *
+ * 所有条目共用一个DEFLATE流（同一批条目的网址、用户名高度重复），每个条目后同步刷新，
+ * 刷新后的输出单独用AES-GCM加密（nonce为记录序号，头部为附加认证数据），
+ * 接收端可以逐条解密、解压，发送端可以按记录边界换算出逐条进度。
+ */
+public final class BatchShareArchive {
+
+    private static final byte[] MAGIC = {'S', 'V', 'B', 'A'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 12;
+    private static final int KEY_LENGTH = 32;
+    private static final int GCM_TAG_LENGTH = 128;
+    private static final int NONCE_LENGTH = 12;
+
+    /** 单个归档的条目数上限 */
+    public static final int MAX_ITEMS = 500;
+
+    private static final int FLAG_CAN_VIEW = 0x01;
+    private static final int FLAG_CAN_SAVE = 0x02;
+    private static final int FLAG_REVOCABLE = 0x04;
+
+    private static final int MAX_ITEM_LENGTH = 64 * 1024;
+
+    private BatchShareArchive() {
+    }
+
+    /**
+     * 逐条解析回调
+     */
+    public interface ItemListener {
+        void onItem(int index, int total);
+    }
+
+    /**
+     * 是否为批量分享归档
+     */
+    public static boolean isArchive(@Nullable byte[] data) {
+        return data != null && data.length >= HEADER_LENGTH
+            && data[0] == MAGIC[0] && data[1] == MAGIC[1] && data[2] == MAGIC[2] && data[3] == MAGIC[3];
+    }
+
+    /**
+     * 打包
+     *
+     * @param items           要分享的条目
+     * @param expireInMinutes 过期时间（分钟），0表示永不过期
+     * @param permission      分享权限
+     */
+    @NonNull
+    public static byte[] create(@NonNull List<PasswordItem> items, int expireInMinutes,
+                                @NonNull SharePermission permission) throws GeneralSecurityException {
+        if (items.isEmpty() || items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("Invalid item count: " + items.size());
+        }
+
+        long expireSeconds = 0;
+        if (expireInMinutes > 0) {
+            expireSeconds = (System.currentTimeMillis() + expireInMinutes * 60 * 1000L + 999) / 1000;
+        }
+        int flags = (permission.isCanView() ? FLAG_CAN_VIEW : 0)
+            | (permission.isCanSave() ? FLAG_CAN_SAVE : 0)
+            | (permission.isRevocable() ? FLAG_REVOCABLE : 0);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.put(MAGIC);
+        header.put(VERSION);
+        header.put((byte) flags);
+        header.putInt((int) expireSeconds);
+        header.putShort((short) items.size());
+        byte[] headerBytes = header.array();
+
+        byte[] keyBytes = new byte[KEY_LENGTH];
+        new SecureRandom().nextBytes(keyBytes);
+        SecretKey key = new SecretKeySpec(keyBytes, "AES");
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * items.size());
+        out.write(headerBytes, 0, headerBytes.length);
+        out.write(keyBytes, 0, keyBytes.length);
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        byte[] buffer = new byte[4096];
+        ByteArrayOutputStream record = new ByteArrayOutputStream(512);
+        try {
+            for (int i = 0; i < items.size(); i++) {
+                deflater.setInput(OfflineShareUtils.encodeFields(items.get(i)));
+                record.reset();
+                int len;
+                while ((len = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH)) > 0) {
+                    record.write(buffer, 0, len);
+                }
+
+                cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, nonce(i)));
+                cipher.updateAAD(headerBytes);
+                byte[] encrypted = cipher.doFinal(record.toByteArray());
+
+                out.write(encrypted.length >>> 24);
+                out.write(encrypted.length >>> 16);
+                out.write(encrypted.length >>> 8);
+                out.write(encrypted.length);
+                out.write(encrypted, 0, encrypted.length);
+            }
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 条目数
+     */
+    public static int getItemCount(@NonNull byte[] archive) {
+        return isArchive(archive) ? ((archive[10] & 0xFF) << 8) | (archive[11] & 0xFF) : 0;
+    }
+
+    /**
+     * 每条记录在归档中的结束偏移，用于把已传输字节数换算成已传输条目数
+     */
+    @NonNull
+    public static int[] getItemEnds(@NonNull byte[] archive) {
+        int count = getItemCount(archive);
+        int[] ends = new int[count];
+        int position = HEADER_LENGTH + KEY_LENGTH;
+        for (int i = 0; i < count && position + 4 <= archive.length; i++) {
+            int length = ByteBuffer.wrap(archive, position, 4).getInt();
+            position += 4 + length;
+            ends[i] = Math.min(position, archive.length);
+        }
+        return ends;
+    }
+
+    /**
+     * 已传输的完整条目数
+     */
+    public static int countItemsWithin(@NonNull int[] itemEnds, long transferredBytes) {
+        int index = Arrays.binarySearch(itemEnds, (int) Math.min(Integer.MAX_VALUE, transferredBytes));
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * 解析归档，逐条解密和解压
+     *
+     * @throws GeneralSecurityException 归档被篡改、格式错误或已过期
+     */
+    @NonNull
+    public static List<PasswordItem> parse(@NonNull byte[] archive, @Nullable ItemListener listener)
+            throws GeneralSecurityException {
+        if (!isArchive(archive) || archive[4] != VERSION || archive.length < HEADER_LENGTH + KEY_LENGTH) {
+            throw new GeneralSecurityException("Unsupported archive");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(archive);
+        buffer.position(6);
+        long expireSeconds = buffer.getInt() & 0xFFFFFFFFL;
+        if (expireSeconds > 0 && System.currentTimeMillis() > expireSeconds * 1000) {
+            throw new GeneralSecurityException("Archive has expired");
+        }
+        int count = buffer.getShort() & 0xFFFF;
+        if (count == 0 || count > MAX_ITEMS) {
+            throw new GeneralSecurityException("Invalid item count: " + count);
+        }
+
+        byte[] headerBytes = Arrays.copyOf(archive, HEADER_LENGTH);
+        byte[] keyBytes = new byte[KEY_LENGTH];
+        buffer.get(keyBytes);
+        SecretKey key = new SecretKeySpec(keyBytes, "AES");
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+
+        List<PasswordItem> items = new ArrayList<>(count);
+        Inflater inflater = new Inflater(true);
+        byte[] chunk = new byte[4096];
+        ByteArrayOutputStream plain = new ByteArrayOutputStream(512);
+        try {
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < 4) {
+                    throw new GeneralSecurityException("Archive truncated");
+                }
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    throw new GeneralSecurityException("Invalid record length: " + length);
+                }
+
+                cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH, nonce(i)));
+                cipher.updateAAD(headerBytes);
+                byte[] compressed = cipher.doFinal(archive, buffer.position(), length);
+                buffer.position(buffer.position() + length);
+
+                inflater.setInput(compressed);
+                plain.reset();
+                int len;
+                while ((len = inflater.inflate(chunk)) > 0) {
+                    plain.write(chunk, 0, len);
+                    if (plain.size() > MAX_ITEM_LENGTH) {
+                        throw new GeneralSecurityException("Item too large");
+                    }
+                }
+                items.add(OfflineShareUtils.decodeFields(plain.toByteArray()));
+                if (listener != null) {
+                    listener.onItem(i + 1, count);
+                }
+            }
+        } catch (DataFormatException | IllegalArgumentException e) {
+            throw new GeneralSecurityException("Malformed archive", e);
+        } finally {
+            inflater.end();
+        }
+        if (buffer.hasRemaining()) {
+            throw new GeneralSecurityException("Trailing data in archive");
+        }
+        return items;
+    }
+
+    /**
+     * 是否允许接收方保存
+     */
+    public static boolean canSave(@NonNull byte[] archive) {
+        return isArchive(archive) && (archive[5] & FLAG_CAN_SAVE) != 0;
+    }
+
+    private static byte[] nonce(int index) {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        nonce[NONCE_LENGTH - 4] = (byte) (index >>> 24);
+        nonce[NONCE_LENGTH - 3] = (byte) (index >>> 16);
+        nonce[NONCE_LENGTH - 2] = (byte) (index >>> 8);
+        nonce[NONCE_LENGTH - 1] = (byte) index;
+        return nonce;
+    }
+}
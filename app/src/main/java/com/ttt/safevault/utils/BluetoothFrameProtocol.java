@@ -0,0 +1,381 @@
+package com.ttt.safevault.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * 蓝牙分块传输协议
+ * 帧格式：类型(1字节) + 长度(4字节) + 内容 + CRC32(4字节，覆盖类型、长度和内容)
+ *
+ * 流程：
+ * 1. 发送端发 HELLO（协议版本、传输ID、总大小、整体CRC32、块大小）
+ * 2. 接收端回 RESUME（已收到的字节数，新传输为0，断线重连后为已确认的位置）
+ * 3. 发送端以滑动窗口连续发送 DATA（偏移 + 数据），接收端逐块校验并回复累计 ACK；
+ *    块校验失败回复 NAK，发送端从该偏移重发
+ * 4. 全部收到后接收端校验整体CRC32，回复 COMPLETE
+ */
+final class BluetoothFrameProtocol {
+
+    static final byte VERSION = 1;
+    static final int CHUNK_SIZE = 16 * 1024;
+    static final int MAX_DATA_SIZE = 1024 * 1024;
+
+    // 未确认的块数上限，ACK往返期间链路不空闲
+    private static final int WINDOW_CHUNKS = 4;
+    private static final int MAX_FRAME_LENGTH = CHUNK_SIZE + 64;
+    private static final int STREAM_BUFFER_SIZE = 32 * 1024;
+    private static final int TRANSFER_ID_LENGTH = 16;
+
+    private static final byte TYPE_HELLO = 1;
+    private static final byte TYPE_RESUME = 2;
+    private static final byte TYPE_DATA = 3;
+    private static final byte TYPE_ACK = 4;
+    private static final byte TYPE_NAK = 5;
+    private static final byte TYPE_COMPLETE = 6;
+
+    private static final byte STATUS_OK = 0;
+    private static final byte STATUS_CHECKSUM_MISMATCH = 1;
+    private static final byte STATUS_UNSUPPORTED = 2;
+
+    private BluetoothFrameProtocol() {
+    }
+
+    /**
+     * 进度回调（已确认字节数 / 总字节数）
+     */
+    interface ProgressListener {
+        void onProgress(int transferred, int total);
+    }
+
+    /**
+     * 发送端：同一个实例可在断线重连后继续发送
+     */
+    static final class Sender {
+        private final byte[] data;
+        private final byte[] transferId = new byte[TRANSFER_ID_LENGTH];
+        private final int crc;
+        private final byte[] frameBuffer = new byte[MAX_FRAME_LENGTH];
+        private int acked;
+
+        Sender(@NonNull byte[] data) {
+            if (data.length > MAX_DATA_SIZE) {
+                throw new IllegalArgumentException("Data too large: " + data.length);
+            }
+            this.data = data;
+            this.crc = crc32(data, 0, data.length);
+            new SecureRandom().nextBytes(transferId);
+        }
+
+        int getProgress() {
+            return percent(acked, data.length);
+        }
+
+        /**
+         * 在已建立的连接上发送，直到接收端确认完成
+         *
+         * @throws IOException 链路断开或对方拒绝
+         */
+        void run(@NonNull InputStream rawIn, @NonNull OutputStream rawOut,
+                 @Nullable ProgressListener listener) throws IOException {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(rawIn, STREAM_BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(rawOut, STREAM_BUFFER_SIZE));
+            FrameReader reader = new FrameReader(in, new byte[MAX_FRAME_LENGTH]);
+
+            // 握手
+            int helloLength = 1 + TRANSFER_ID_LENGTH + 12;
+            int p = 0;
+            frameBuffer[p++] = VERSION;
+            System.arraycopy(transferId, 0, frameBuffer, p, TRANSFER_ID_LENGTH);
+            p += TRANSFER_ID_LENGTH;
+            p = putInt(frameBuffer, p, data.length);
+            p = putInt(frameBuffer, p, crc);
+            putInt(frameBuffer, p, CHUNK_SIZE);
+            writeFrame(out, TYPE_HELLO, frameBuffer, helloLength);
+            out.flush();
+
+            reader.read();
+            if (reader.type == TYPE_COMPLETE) {
+                throw new IOException("Receiver rejected transfer: " + reader.payload[0]);
+            }
+            expect(reader, TYPE_RESUME);
+            int resumeOffset = reader.getInt(0);
+            if (resumeOffset < 0 || resumeOffset > data.length) {
+                throw new IOException("Invalid resume offset: " + resumeOffset);
+            }
+            acked = resumeOffset;
+            int position = resumeOffset;
+            notifyProgress(listener, acked, data.length);
+
+            while (true) {
+                // 窗口内连续发送
+                while (position < data.length && position - acked < WINDOW_CHUNKS * CHUNK_SIZE) {
+                    int length = Math.min(CHUNK_SIZE, data.length - position);
+                    putInt(frameBuffer, 0, position);
+                    System.arraycopy(data, position, frameBuffer, 4, length);
+                    writeFrame(out, TYPE_DATA, frameBuffer, 4 + length);
+                    position += length;
+                }
+                out.flush();
+
+                reader.read();
+                switch (reader.type) {
+                    case TYPE_ACK: {
+                        int offset = reader.getInt(0);
+                        if (offset > acked && offset <= data.length) {
+                            acked = offset;
+                            notifyProgress(listener, acked, data.length);
+                        }
+                        break;
+                    }
+                    case TYPE_NAK: {
+                        // 回退重发
+                        int offset = reader.getInt(0);
+                        if (offset < 0 || offset > data.length) {
+                            throw new IOException("Invalid NAK offset: " + offset);
+                        }
+                        acked = Math.max(acked, offset);
+                        position = offset;
+                        break;
+                    }
+                    case TYPE_COMPLETE:
+                        if (reader.payload[0] != STATUS_OK) {
+                            throw new IOException("Transfer failed with status " + reader.payload[0]);
+                        }
+                        acked = data.length;
+                        notifyProgress(listener, acked, data.length);
+                        return;
+                    default:
+                        throw new IOException("Unexpected frame type: " + reader.type);
+                }
+            }
+        }
+    }
+
+    /**
+     * 接收端：断线时保留已收到的部分，同一传输重连后从断点继续
+     */
+    static final class Receiver {
+        private byte[] transferId;
+        private byte[] data;
+        private int crc;
+        private int received;
+        private final byte[] frameBuffer = new byte[MAX_FRAME_LENGTH];
+
+        /**
+         * 是否有未完成的传输
+         */
+        boolean hasPartial() {
+            return data != null && received < data.length;
+        }
+
+        int getProgress() {
+            return data != null ? percent(received, data.length) : 0;
+        }
+
+        void reset() {
+            transferId = null;
+            data = null;
+            received = 0;
+        }
+
+        /**
+         * 在已建立的连接上接收，返回完整数据
+         *
+         * @throws IOException 链路断开或数据校验失败；链路断开时保留进度
+         */
+        @NonNull
+        byte[] run(@NonNull InputStream rawIn, @NonNull OutputStream rawOut,
+                   @Nullable ProgressListener listener) throws IOException {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(rawIn, STREAM_BUFFER_SIZE));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(rawOut, STREAM_BUFFER_SIZE));
+            FrameReader reader = new FrameReader(in, frameBuffer);
+
+            reader.read();
+            expect(reader, TYPE_HELLO);
+            if (reader.length < 1 + TRANSFER_ID_LENGTH + 12 || reader.payload[0] != VERSION) {
+                sendStatus(out, STATUS_UNSUPPORTED);
+                throw new IOException("Unsupported protocol version");
+            }
+            byte[] id = Arrays.copyOfRange(reader.payload, 1, 1 + TRANSFER_ID_LENGTH);
+            int total = reader.getInt(1 + TRANSFER_ID_LENGTH);
+            int totalCrc = reader.getInt(5 + TRANSFER_ID_LENGTH);
+            if (total < 0 || total > MAX_DATA_SIZE) {
+                sendStatus(out, STATUS_UNSUPPORTED);
+                throw new IOException("Invalid transfer size: " + total);
+            }
+
+            // 同一传输的重连从断点继续，否则重新开始
+            boolean resume = data != null && Arrays.equals(transferId, id)
+                && data.length == total && crc == totalCrc;
+            if (!resume) {
+                transferId = id;
+                data = new byte[total];
+                crc = totalCrc;
+                received = 0;
+            }
+            putInt(frameBuffer, 0, received);
+            writeFrame(out, TYPE_RESUME, frameBuffer, 4);
+            out.flush();
+            notifyProgress(listener, received, data.length);
+
+            while (received < data.length) {
+                boolean valid = reader.readOrCorrupt();
+                if (!valid) {
+                    // 块校验失败，要求从当前位置重发
+                    putInt(frameBuffer, 0, received);
+                    writeFrame(out, TYPE_NAK, frameBuffer, 4);
+                    out.flush();
+                    continue;
+                }
+                expect(reader, TYPE_DATA);
+                int offset = reader.getInt(0);
+                int length = reader.length - 4;
+                // NAK 之后仍在途中的块直接丢弃
+                if (offset != received || length <= 0 || length > data.length - received) {
+                    continue;
+                }
+                System.arraycopy(reader.payload, 4, data, received, length);
+                received += length;
+
+                putInt(frameBuffer, 0, received);
+                writeFrame(out, TYPE_ACK, frameBuffer, 4);
+                out.flush();
+                notifyProgress(listener, received, data.length);
+            }
+
+            if (crc32(data, 0, data.length) != crc) {
+                reset();
+                sendStatus(out, STATUS_CHECKSUM_MISMATCH);
+                throw new IOException("Checksum mismatch");
+            }
+            sendStatus(out, STATUS_OK);
+
+            byte[] result = data;
+            reset();
+            return result;
+        }
+
+        private void sendStatus(DataOutputStream out, byte status) throws IOException {
+            frameBuffer[0] = status;
+            writeFrame(out, TYPE_COMPLETE, frameBuffer, 1);
+            out.flush();
+        }
+    }
+
+    /**
+     * 帧读取器，内容读入复用的缓冲区
+     */
+    private static final class FrameReader {
+        private final DataInputStream in;
+        private final byte[] payload;
+        private final CRC32 crc32 = new CRC32();
+        byte type;
+        int length;
+
+        FrameReader(DataInputStream in, byte[] payload) {
+            this.in = in;
+            this.payload = payload;
+        }
+
+        void read() throws IOException {
+            if (!readOrCorrupt()) {
+                throw new IOException("Frame checksum mismatch");
+            }
+        }
+
+        /**
+         * 读取一帧
+         *
+         * @return false 表示帧校验失败
+         */
+        boolean readOrCorrupt() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Link closed");
+            }
+            type = (byte) b;
+            length = in.readInt();
+            if (length < 0 || length > payload.length) {
+                throw new IOException("Invalid frame length: " + length);
+            }
+            in.readFully(payload, 0, length);
+            int expected = in.readInt();
+
+            crc32.reset();
+            crc32.update(type);
+            updateInt(crc32, length);
+            crc32.update(payload, 0, length);
+            return (int) crc32.getValue() == expected;
+        }
+
+        int getInt(int offset) throws IOException {
+            if (offset + 4 > length) {
+                throw new IOException("Frame too short");
+            }
+            return ((payload[offset] & 0xFF) << 24) | ((payload[offset + 1] & 0xFF) << 16)
+                | ((payload[offset + 2] & 0xFF) << 8) | (payload[offset + 3] & 0xFF);
+        }
+    }
+
+    private static void writeFrame(DataOutputStream out, byte type, byte[] payload, int length)
+            throws IOException {
+        CRC32 crc32 = new CRC32();
+        crc32.update(type);
+        updateInt(crc32, length);
+        crc32.update(payload, 0, length);
+
+        out.writeByte(type);
+        out.writeInt(length);
+        out.write(payload, 0, length);
+        out.writeInt((int) crc32.getValue());
+    }
+
+    private static void expect(FrameReader reader, byte type) throws IOException {
+        if (reader.type != type) {
+            throw new IOException("Unexpected frame type: " + reader.type + ", expected " + type);
+        }
+    }
+
+    private static int putInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+        return offset + 4;
+    }
+
+    private static void updateInt(CRC32 crc32, int value) {
+        crc32.update(value >>> 24);
+        crc32.update(value >>> 16);
+        crc32.update(value >>> 8);
+        crc32.update(value);
+    }
+
+    private static int crc32(byte[] data, int offset, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, offset, length);
+        return (int) crc32.getValue();
+    }
+
+    private static int percent(int done, int total) {
+        return total == 0 ? 100 : (int) (done * 100L / total);
+    }
+
+    private static void notifyProgress(@Nullable ProgressListener listener, int transferred, int total) {
+        if (listener != null) {
+            listener.onProgress(transferred, total);
+        }
+    }
+}
@@ -16,8 +16,7 @@ import androidx.annotation.RequiresApi;
 import androidx.core.app.ActivityCompat;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Set;
 import java.util.UUID;
 
@@ -36,7 +35,11 @@ public class BluetoothTransferManager {
     private static final UUID SERVICE_UUID = UUID.fromString("00001101-0000-1000-8000-00805F9B34FB");
     
     // 最大传输数据大小（1MB）
-    private static final int MAX_DATA_SIZE = 1024 * 1024;
+    private static final int MAX_DATA_SIZE = BluetoothFrameProtocol.MAX_DATA_SIZE;
+
+    // 发送端断线重连次数和间隔
+    private static final int MAX_RECONNECT_ATTEMPTS = 3;
+    private static final long RECONNECT_DELAY_MS = 1000;
     
     private final Context context;
     private BluetoothAdapter bluetoothAdapter;
@@ -44,6 +47,8 @@ public class BluetoothTransferManager {
     private ConnectThread connectThread;
     private TransferThread transferThread;
     private TransferCallback callback;
+    // 接收端未完成的传输，断线重连后继续
+    private final BluetoothFrameProtocol.Receiver receiver = new BluetoothFrameProtocol.Receiver();
 
     /**
      * 传输回调接口
@@ -53,6 +58,18 @@ public class BluetoothTransferManager {
         void onTransferProgress(int progress);
         void onTransferSuccess(String data);
         void onTransferFailed(String error);
+
+        /**
+         * 批量分享的逐条进度：已被对方确认收到的完整条目数
+         */
+        default void onItemProgress(int transferredItems, int totalItems) {
+        }
+
+        /**
+         * 收到批量分享归档（接收端）
+         */
+        default void onBatchReceived(byte[] archive) {
+        }
     }
 
     public BluetoothTransferManager(@NonNull Context context) {
@@ -177,20 +194,44 @@ public class BluetoothTransferManager {
             return;
         }
 
-        if (data.length() > MAX_DATA_SIZE) {
+        startSending(device, data.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    /**
+     * 通过一次连接发送批量分享归档（发送端），按记录边界回调逐条进度
+     *
+     * @param archive {@link BatchShareArchive#create} 生成的归档
+     */
+    public void sendBatch(@NonNull BluetoothDevice device, @NonNull byte[] archive) {
+        if (!isBluetoothAvailable()) {
+            notifyError("蓝牙不可用");
+            return;
+        }
+
+        if (!hasBluetoothPermissions()) {
+            notifyError("缺少蓝牙权限");
+            return;
+        }
+
+        startSending(device, archive, BatchShareArchive.getItemEnds(archive));
+    }
+
+    private void startSending(@NonNull BluetoothDevice device, @NonNull byte[] bytes,
+                              @Nullable int[] itemEnds) {
+        if (bytes.length > MAX_DATA_SIZE) {
             notifyError("数据过大，无法通过蓝牙传输");
             return;
         }
 
         Log.d(TAG, "Connecting to device: " + device.getName());
-        
+
         // 停止现有的连接线程
         if (connectThread != null) {
             connectThread.cancel();
             connectThread = null;
         }
 
-        connectThread = new ConnectThread(device, data);
+        connectThread = new ConnectThread(device, new BluetoothFrameProtocol.Sender(bytes), itemEnds);
         connectThread.start();
     }
 
@@ -274,143 +315,132 @@ public class BluetoothTransferManager {
 
     /**
      * 发起连接的线程
+     * 链路中途断开时重新连接，由接收端告知断点后继续发送
      */
     private class ConnectThread extends Thread {
-        private final BluetoothSocket socket;
         private final BluetoothDevice device;
-        private final String dataToSend;
-
-        public ConnectThread(BluetoothDevice device, String data) {
+        private final BluetoothFrameProtocol.Sender sender;
+        @Nullable
+        private final int[] itemEnds;
+        private volatile BluetoothSocket socket;
+        private volatile boolean canceled;
+
+        public ConnectThread(BluetoothDevice device, BluetoothFrameProtocol.Sender sender,
+                             @Nullable int[] itemEnds) {
             this.device = device;
-            this.dataToSend = data;
-            BluetoothSocket tmp = null;
-
-            try {
-                if (ActivityCompat.checkSelfPermission(context, 
-                    Manifest.permission.BLUETOOTH_CONNECT) == PackageManager.PERMISSION_GRANTED) {
-                    tmp = device.createRfcommSocketToServiceRecord(SERVICE_UUID);
-                } else {
-                    Log.e(TAG, "Missing BLUETOOTH_CONNECT permission");
-                }
-            } catch (IOException e) {
-                Log.e(TAG, "Failed to create socket", e);
-            }
-            socket = tmp;
+            this.sender = sender;
+            this.itemEnds = itemEnds;
         }
 
         @Override
         public void run() {
-            if (socket == null) {
-                notifyError("无法创建蓝牙连接");
+            // 取消发现设备，以提高连接速度
+            if (ActivityCompat.checkSelfPermission(context,
+                Manifest.permission.BLUETOOTH_SCAN) == PackageManager.PERMISSION_GRANTED) {
+                bluetoothAdapter.cancelDiscovery();
+            }
+            if (ActivityCompat.checkSelfPermission(context,
+                Manifest.permission.BLUETOOTH_CONNECT) != PackageManager.PERMISSION_GRANTED) {
+                notifyError("缺少蓝牙权限");
                 return;
             }
 
-            try {
-                // 取消发现设备，以提高连接速度
-                if (ActivityCompat.checkSelfPermission(context, 
-                    Manifest.permission.BLUETOOTH_SCAN) == PackageManager.PERMISSION_GRANTED) {
-                    bluetoothAdapter.cancelDiscovery();
+            notifyStarted();
+            IOException lastError = null;
+            for (int attempt = 0; attempt <= MAX_RECONNECT_ATTEMPTS && !canceled; attempt++) {
+                if (attempt > 0) {
+                    Log.d(TAG, "Reconnecting (" + attempt + "), progress " + sender.getProgress() + "%");
+                    try {
+                        Thread.sleep(RECONNECT_DELAY_MS * attempt);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
                 }
 
-                Log.d(TAG, "Connecting...");
-                if (ActivityCompat.checkSelfPermission(context, 
-                    Manifest.permission.BLUETOOTH_CONNECT) != PackageManager.PERMISSION_GRANTED) {
-                    notifyError("缺少蓝牙权限");
-                    return;
-                }
-                socket.connect();
-                Log.d(TAG, "Connected");
-                
-                // 连接成功，发送数据
-                sendDataThroughSocket(socket, dataToSend);
-                
-            } catch (IOException e) {
-                Log.e(TAG, "Connection failed", e);
-                notifyError("连接失败：" + e.getMessage());
                 try {
-                    socket.close();
-                } catch (IOException e2) {
-                    Log.e(TAG, "Failed to close socket", e2);
+                    socket = device.createRfcommSocketToServiceRecord(SERVICE_UUID);
+                    Log.d(TAG, "Connecting...");
+                    socket.connect();
+                    Log.d(TAG, "Connected");
+
+                    sender.run(socket.getInputStream(), socket.getOutputStream(), (transferred, total) -> {
+                        notifyProgress(transferred, total);
+                        if (itemEnds != null && callback != null) {
+                            callback.onItemProgress(
+                                BatchShareArchive.countItemsWithin(itemEnds, transferred), itemEnds.length);
+                        }
+                    });
+                    Log.d(TAG, "Data sent");
+                    closeQuietly(socket);
+                    notifySuccess(null);
+                    return;
+                } catch (IOException e) {
+                    Log.e(TAG, "Transfer interrupted", e);
+                    lastError = e;
+                    closeQuietly(socket);
                 }
             }
+
+            if (!canceled) {
+                notifyError("发送数据失败：" + (lastError != null ? lastError.getMessage() : ""));
+            }
         }
 
         public void cancel() {
-            try {
-                if (socket != null) {
-                    socket.close();
-                }
-            } catch (IOException e) {
-                Log.e(TAG, "Failed to close socket", e);
-            }
+            canceled = true;
+            closeQuietly(socket);
         }
     }
 
     /**
-     * 数据传输线程
+     * 数据传输线程（接收端）
      */
     private class TransferThread extends Thread {
         private final BluetoothSocket socket;
-        private final InputStream inputStream;
-        private final OutputStream outputStream;
 
         public TransferThread(BluetoothSocket socket) {
             this.socket = socket;
-            InputStream tmpIn = null;
-            OutputStream tmpOut = null;
-
-            try {
-                tmpIn = socket.getInputStream();
-                tmpOut = socket.getOutputStream();
-            } catch (IOException e) {
-                Log.e(TAG, "Failed to get streams", e);
-            }
-
-            inputStream = tmpIn;
-            outputStream = tmpOut;
         }
 
         @Override
         public void run() {
-            byte[] buffer = new byte[1024];
-            StringBuilder dataBuilder = new StringBuilder();
-
             try {
-                notifyStarted();
-                
-                int bytes;
-                while ((bytes = inputStream.read(buffer)) != -1) {
-                    String chunk = new String(buffer, 0, bytes);
-                    dataBuilder.append(chunk);
-                    
-                    // TODO: 实现进度回调
+                if (!receiver.hasPartial()) {
+                    notifyStarted();
+                }
+                byte[] bytes = receiver.run(socket.getInputStream(), socket.getOutputStream(),
+                    BluetoothTransferManager.this::notifyProgress);
+                closeQuietly(socket);
+
+                if (BatchShareArchive.isArchive(bytes)) {
+                    Log.d(TAG, "Batch archive received: " + BatchShareArchive.getItemCount(bytes) + " items");
+                    if (callback != null) {
+                        callback.onBatchReceived(bytes);
+                    }
+                    return;
                 }
 
-                String receivedData = dataBuilder.toString();
-                Log.d(TAG, "Data received: " + receivedData.length() + " bytes");
+                // 整体收齐后再解码，避免多字节字符跨块被截断
+                String receivedData = new String(bytes, StandardCharsets.UTF_8);
+                Log.d(TAG, "Data received: " + bytes.length + " bytes");
                 notifySuccess(receivedData);
-                
-            } catch (IOException e) {
-                Log.e(TAG, "Failed to read data", e);
-                notifyError("接收数据失败");
-            }
-        }
 
-        public void write(byte[] bytes) {
-            try {
-                outputStream.write(bytes);
             } catch (IOException e) {
-                Log.e(TAG, "Failed to write data", e);
-                notifyError("发送数据失败");
+                closeQuietly(socket);
+                if (receiver.hasPartial()) {
+                    // 链路断开，保留进度并等待发送端重连
+                    Log.w(TAG, "Link dropped at " + receiver.getProgress() + "%, waiting for reconnect", e);
+                    startListening();
+                } else {
+                    Log.e(TAG, "Failed to read data", e);
+                    notifyError("接收数据失败");
+                }
             }
         }
 
         public void cancel() {
-            try {
-                socket.close();
-            } catch (IOException e) {
-                Log.e(TAG, "Failed to close socket", e);
-            }
+            closeQuietly(socket);
         }
     }
 
@@ -427,22 +457,14 @@ public class BluetoothTransferManager {
         transferThread.start();
     }
 
-    private void sendDataThroughSocket(BluetoothSocket socket, String data) {
+    private static void closeQuietly(@Nullable BluetoothSocket socket) {
+        if (socket == null) {
+            return;
+        }
         try {
-            notifyStarted();
-            
-            OutputStream outputStream = socket.getOutputStream();
-            byte[] bytes = data.getBytes("UTF-8");
-            outputStream.write(bytes);
-            outputStream.flush();
-            
-            Log.d(TAG, "Data sent: " + bytes.length + " bytes");
-            notifySuccess(null);
-            
             socket.close();
         } catch (IOException e) {
-            Log.e(TAG, "Failed to send data", e);
-            notifyError("发送数据失败：" + e.getMessage());
+            Log.e(TAG, "Failed to close socket", e);
         }
     }
 
@@ -452,9 +474,9 @@ public class BluetoothTransferManager {
         }
     }
 
-    private void notifyProgress(int progress) {
+    private void notifyProgress(int transferred, int total) {
         if (callback != null) {
-            callback.onTransferProgress(progress);
+            callback.onTransferProgress(total == 0 ? 100 : (int) (transferred * 100L / total));
         }
     }
 
@@ -16,27 +16,56 @@ import androidx.annotation.Nullable;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * NFC传输管理器
  * 负责通过NFC发送和接收密码分享数据
  * 注意：Android 10+ 已移除Android Beam功能，主要用于读取NFC标签
+ *
+ * 数据按{@link NdefChunkCodec}拆成带序号的分块记录：标签容量足够时一次写入多个记录，
+ * 不够时分多次触碰写入，接收端跨触碰累积重组；需要的触碰次数过多时回调改用蓝牙
+ * 只传输单条分享数据；批量分享归档不经过NFC（见 ShareActivity 的批量模式），只通过蓝牙发送
  */
 public class NFCTransferManager {
     
     private static final String TAG = "NFCTransfer";
     
-    // MIME类型 - 用于SafeVault密码分享
+    // MIME类型 - 用于SafeVault密码分享（旧版单记录格式，仅读取）
     private static final String MIME_TYPE = "application/vnd.safevault.share";
-    
-    // 最大NFC数据大小（约32KB，根据实际设备可能有所不同）
+
+    // MIME类型 - 分块记录
+    private static final String CHUNK_MIME_TYPE = "application/vnd.safevault.chunk";
+
+    // 最大NFC数据大小（紧凑编码后，约32KB，根据实际设备可能有所不同）
     private static final int MAX_NFC_SIZE = 32 * 1024;
-    
+
+    // 单个分块记录的数据上限，过大的记录在部分设备上读取不稳定
+    private static final int CHUNK_SIZE = 1024;
+
+    // 分块数据的下限，标签容量低于此值时不再拆分
+    private static final int MIN_CHUNK_SIZE = 32;
+
+    // 最多触碰次数，超过时改用蓝牙
+    private static final int MAX_TAPS = 4;
+
+    // 长格式记录头（标志1 + 类型长度1 + 负载长度4）
+    private static final int RECORD_HEADER_LENGTH = 6;
+
+    // 接收端重组状态，每次触碰可能启动新的Activity，需要在进程内共享
+    private static final NdefChunkCodec.Reassembler RECEIVER = new NdefChunkCodec.Reassembler();
+
     private final Context context;
     private NfcAdapter nfcAdapter;
     private String pendingShareData;
     private TransferCallback callback;
 
+    // 发送端：按触碰预先组好的消息，触碰时只需连接和写入
+    @Nullable
+    private List<NdefMessage> pendingMessages;
+    private int nextTap;
+
     /**
      * 传输回调接口
      */
@@ -45,6 +74,32 @@ public class NFCTransferManager {
         void onTransferSuccess();
         void onTransferFailed(String error);
         void onDataReceived(String data);
+
+        /**
+         * 多次触碰写入时，每次触碰完成后回调（发送端）
+         */
+        default void onTapProgress(int completedTaps, int totalTaps) {
+        }
+
+        /**
+         * 收到部分分块，等待下一次触碰（接收端）
+         */
+        default void onChunkReceived(int receivedChunks, int totalChunks) {
+        }
+
+        /**
+         * 数据过大，需要的触碰次数超过上限，应改用蓝牙传输
+         */
+        default void onPayloadTooLarge() {
+        }
+    }
+
+    /**
+     * 数据是否过大，无法通过NFC传输
+     * 用于在选择传输方式时提前切换到蓝牙
+     */
+    public static boolean requiresBluetooth(@NonNull String data) {
+        return NdefChunkCodec.encodedLength(data) > MAX_NFC_SIZE;
     }
 
     public NFCTransferManager(@NonNull Context context) {
@@ -105,6 +160,7 @@ public class NFCTransferManager {
     @Deprecated
     public void stopSending(@NonNull Activity activity) {
         pendingShareData = null;
+        pendingMessages = null;
     }
 
     /**
@@ -117,14 +173,12 @@ public class NFCTransferManager {
     @Nullable
     public NdefMessage createShareMessage(@NonNull String data) {
         try {
-            // 创建NDEF记录
-            NdefRecord mimeRecord = createMimeRecord(MIME_TYPE, data);
-            NdefRecord appRecord = NdefRecord.createApplicationRecord(context.getPackageName());
-            
-            // 创建NDEF消息
-            NdefMessage message = new NdefMessage(new NdefRecord[]{mimeRecord, appRecord});
-            
-            Log.d(TAG, "NDEF message created: " + data.length() + " bytes");
+            // 所有分块放在同一条消息中
+            List<byte[]> chunks = NdefChunkCodec.split(data, CHUNK_SIZE);
+            NdefMessage message = createChunkMessage(chunks, 0, chunks.size());
+
+            Log.d(TAG, "NDEF message created: " + chunks.size() + " records, "
+                + message.getByteArrayLength() + " bytes");
             return message;
             
         } catch (Exception e) {
@@ -155,24 +209,8 @@ public class NFCTransferManager {
                 return null;
             }
 
-            NdefRecord[] records = message.getRecords();
-            for (NdefRecord record : records) {
-                String mimeType = new String(record.getType(), StandardCharsets.US_ASCII);
-                
-                if (MIME_TYPE.equals(mimeType)) {
-                    byte[] payload = record.getPayload();
-                    String data = new String(payload, StandardCharsets.UTF_8);
-                    
-                    Log.d(TAG, "Data read from NFC: " + data.length() + " bytes");
-                    notifyDataReceived(data);
-                    
-                    return data;
-                }
-            }
+            return extractDataFromMessage(message);
 
-            Log.w(TAG, "No matching MIME type found");
-            return null;
-            
         } catch (Exception e) {
             Log.e(TAG, "Failed to read from NFC tag", e);
             notifyError("读取NFC数据失败：" + e.getMessage());
@@ -182,14 +220,17 @@ public class NFCTransferManager {
 
     /**
      * 将数据写入NFC标签（需要可写标签）
-     * 
+     * 标签容量不足以一次写完时分多次触碰写入，每次调用写入下一部分，
+     * 全部写完后回调{@link TransferCallback#onTransferSuccess()}
+     *
      * @param tag  NFC标签
      * @param data 要写入的数据
-     * @return true表示写入成功
+     * @return true表示本次写入成功
      */
     public boolean writeToTag(@NonNull Tag tag, @NonNull String data) {
-        if (data.length() > MAX_NFC_SIZE) {
-            notifyError("数据过大，无法写入NFC标签");
+        if (requiresBluetooth(data)) {
+            Log.w(TAG, "Payload too large for NFC");
+            notifyPayloadTooLarge();
             return false;
         }
 
@@ -211,8 +252,15 @@ public class NFCTransferManager {
                 return false;
             }
 
-            // 检查标签容量
-            int size = data.getBytes(StandardCharsets.UTF_8).length;
+            // 第一次触碰时按标签容量拆分，后续触碰沿用同一组消息
+            if (pendingMessages == null || !data.equals(pendingShareData)) {
+                if (!prepareMessages(data, ndef.getMaxSize())) {
+                    return false;
+                }
+            }
+
+            NdefMessage message = pendingMessages.get(nextTap);
+            int size = message.getByteArrayLength();
             if (ndef.getMaxSize() < size) {
                 Log.w(TAG, "Tag size insufficient");
                 notifyError("NFC标签容量不足");
@@ -221,19 +269,21 @@ public class NFCTransferManager {
 
             notifyStarted();
 
-            // 创建NDEF消息
-            NdefRecord mimeRecord = createMimeRecord(MIME_TYPE, data);
-            NdefRecord appRecord = NdefRecord.createApplicationRecord(context.getPackageName());
-            NdefMessage message = new NdefMessage(new NdefRecord[]{mimeRecord, appRecord});
-
             // 写入标签
             ndef.writeNdefMessage(message);
-            
-            Log.d(TAG, "Data written to NFC tag: " + size + " bytes");
-            notifySuccess();
-            
+            nextTap++;
+
+            Log.d(TAG, "Tap " + nextTap + "/" + pendingMessages.size() + " written: " + size + " bytes");
+            if (nextTap < pendingMessages.size()) {
+                notifyTapProgress(nextTap, pendingMessages.size());
+            } else {
+                pendingMessages = null;
+                pendingShareData = null;
+                notifySuccess();
+            }
+
             return true;
-            
+
         } catch (IOException e) {
             Log.e(TAG, "Failed to write to NFC tag", e);
             notifyError("写入NFC标签失败：" + e.getMessage());
@@ -253,34 +303,91 @@ public class NFCTransferManager {
         }
     }
 
+    /**
+     * 按标签容量拆分分块并组好每次触碰的消息
+     */
+    private boolean prepareMessages(@NonNull String data, int tagCapacity) {
+        int appRecordLength = createAppRecord().toByteArray().length;
+        int recordOverhead = RECORD_HEADER_LENGTH + CHUNK_MIME_TYPE.length() + NdefChunkCodec.HEADER_LENGTH;
+        int chunkSize = Math.min(CHUNK_SIZE, tagCapacity - appRecordLength - recordOverhead);
+        if (chunkSize < MIN_CHUNK_SIZE) {
+            Log.w(TAG, "Tag capacity too small: " + tagCapacity);
+            notifyError("NFC标签容量不足");
+            return false;
+        }
+
+        List<byte[]> chunks = NdefChunkCodec.split(data, chunkSize);
+        int recordsPerTap = Math.max(1, (tagCapacity - appRecordLength) / (recordOverhead + chunkSize));
+        int taps = (chunks.size() + recordsPerTap - 1) / recordsPerTap;
+        if (taps > MAX_TAPS) {
+            Log.w(TAG, "Payload needs " + taps + " taps, falling back to Bluetooth");
+            notifyPayloadTooLarge();
+            return false;
+        }
+
+        List<NdefMessage> messages = new ArrayList<>(taps);
+        for (int from = 0; from < chunks.size(); from += recordsPerTap) {
+            messages.add(createChunkMessage(chunks, from, Math.min(chunks.size(), from + recordsPerTap)));
+        }
+        pendingMessages = messages;
+        pendingShareData = data;
+        nextTap = 0;
+        Log.d(TAG, "Prepared " + chunks.size() + " chunks in " + taps + " taps, chunk size " + chunkSize);
+        return true;
+    }
+
     /**
      * 从NDEF消息中提取数据
-     * 
+     * 分块消息会累积到收齐为止，未收齐时回调{@link TransferCallback#onChunkReceived}并返回null
+     *
      * @param message NDEF消息
-     * @return 提取的数据，失败返回null
+     * @return 提取的数据，失败或未收齐返回null
      */
     @Nullable
     public String extractDataFromMessage(@NonNull NdefMessage message) {
         try {
             NdefRecord[] records = message.getRecords();
-            
+            boolean chunked = false;
+
             for (NdefRecord record : records) {
                 String mimeType = new String(record.getType(), StandardCharsets.US_ASCII);
-                
-                if (MIME_TYPE.equals(mimeType)) {
+
+                if (CHUNK_MIME_TYPE.equals(mimeType)) {
+                    chunked |= RECEIVER.accept(record.getPayload());
+                } else if (MIME_TYPE.equals(mimeType)) {
+                    // 旧版单记录格式
                     byte[] payload = record.getPayload();
                     String data = new String(payload, StandardCharsets.UTF_8);
-                    
+
                     Log.d(TAG, "Data extracted: " + data.length() + " bytes");
                     notifyDataReceived(data);
-                    
+
                     return data;
                 }
             }
 
-            Log.w(TAG, "No matching MIME type in message");
-            return null;
-            
+            if (!chunked) {
+                Log.w(TAG, "No matching MIME type in message");
+                return null;
+            }
+
+            if (!RECEIVER.isComplete()) {
+                Log.d(TAG, "Chunks received: " + RECEIVER.getReceivedCount() + "/" + RECEIVER.getChunkCount());
+                notifyChunkReceived(RECEIVER.getReceivedCount(), RECEIVER.getChunkCount());
+                return null;
+            }
+
+            String data = RECEIVER.take();
+            if (data == null) {
+                Log.w(TAG, "Chunk checksum mismatch");
+                notifyError("NFC数据校验失败，请重新触碰");
+                return null;
+            }
+
+            Log.d(TAG, "Data reassembled: " + data.length() + " chars");
+            notifyDataReceived(data);
+            return data;
+
         } catch (Exception e) {
             Log.e(TAG, "Failed to extract data from message", e);
             notifyError("解析NFC消息失败");
@@ -288,20 +395,63 @@ public class NFCTransferManager {
         }
     }
 
+    /**
+     * 是否有未收齐的分块（接收端）
+     */
+    public boolean hasPendingChunks() {
+        return RECEIVER.hasPartial();
+    }
+
+    /**
+     * 已收到的分块数（接收端）
+     */
+    public int getReceivedChunkCount() {
+        return RECEIVER.getReceivedCount();
+    }
+
+    /**
+     * 分块总数（接收端）
+     */
+    public int getTotalChunkCount() {
+        return RECEIVER.getChunkCount();
+    }
+
+    /**
+     * 清除未收齐的分块
+     */
+    public void clearPendingChunks() {
+        RECEIVER.reset();
+    }
+
     // ========== 辅助方法 ==========
 
+    /**
+     * 创建分块消息：分块记录在前（NDEF_DISCOVERED按第一个记录的MIME类型分发），应用记录在后
+     */
+    private NdefMessage createChunkMessage(List<byte[]> chunks, int from, int to) {
+        NdefRecord[] records = new NdefRecord[to - from + 1];
+        for (int i = from; i < to; i++) {
+            records[i - from] = createMimeRecord(CHUNK_MIME_TYPE, chunks.get(i));
+        }
+        records[records.length - 1] = createAppRecord();
+        return new NdefMessage(records);
+    }
+
+    private NdefRecord createAppRecord() {
+        return NdefRecord.createApplicationRecord(context.getPackageName());
+    }
+
     /**
      * 创建MIME类型的NDEF记录
      */
-    private NdefRecord createMimeRecord(String mimeType, String data) {
+    private NdefRecord createMimeRecord(String mimeType, byte[] data) {
         byte[] mimeBytes = mimeType.getBytes(StandardCharsets.US_ASCII);
-        byte[] dataBytes = data.getBytes(StandardCharsets.UTF_8);
-        
+
         return new NdefRecord(
             NdefRecord.TNF_MIME_MEDIA,
             mimeBytes,
             new byte[0],
-            dataBytes
+            data
         );
     }
 
@@ -323,6 +473,24 @@ public class NFCTransferManager {
         }
     }
 
+    private void notifyTapProgress(int completedTaps, int totalTaps) {
+        if (callback != null) {
+            callback.onTapProgress(completedTaps, totalTaps);
+        }
+    }
+
+    private void notifyChunkReceived(int receivedChunks, int totalChunks) {
+        if (callback != null) {
+            callback.onChunkReceived(receivedChunks, totalChunks);
+        }
+    }
+
+    private void notifyPayloadTooLarge() {
+        if (callback != null) {
+            callback.onPayloadTooLarge();
+        }
+    }
+
     private void notifyDataReceived(String data) {
         if (callback != null) {
             callback.onDataReceived(data);
@@ -0,0 +1,213 @@
+package com.ttt.safevault.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * NFC分块编码
+ * 大于一个NDEF记录或一张标签容量的分享数据拆成按序号排列的分块，
+ * 分块可以放在同一条NDEF消息的多个记录中，也可以分多次触碰传输，接收端收齐后重组校验
+ *
+ * 分块结构：版本号(1字节) + 编码(1字节) + 整体CRC32(4字节) + 序号(2字节) + 总块数(2字节) + 数据
+ * 整体CRC32同时作为会话标识，同一份数据的分块重复到达时自然去重
+ *
+ * 紧凑编码：v3离线分享（"SAFEVAULT3:" + Base45）还原成原始字节传输，
+ * NFC不受二维码字符集限制，省去Base45约50%的膨胀
+ */
+final class NdefChunkCodec {
+
+    static final int HEADER_LENGTH = 10;
+    static final int MAX_CHUNKS = 0xFFFF;
+
+    private static final byte VERSION = 1;
+    private static final byte ENCODING_UTF8 = 0;
+    private static final byte ENCODING_V3_PACKET = 1;
+    private static final String V3_PREFIX = "SAFEVAULT3:";
+
+    /** 重组后的数据上限，防止伪造的总块数耗尽内存 */
+    private static final int MAX_PAYLOAD_LENGTH = 256 * 1024;
+
+    private NdefChunkCodec() {
+    }
+
+    /**
+     * 紧凑编码后的字节数，用于估算需要的记录数和触碰次数
+     */
+    static int encodedLength(@NonNull String content) {
+        return encode(content).length - 1;
+    }
+
+    /**
+     * 拆分为分块
+     *
+     * @param content   分享数据
+     * @param chunkSize 每块数据部分的最大字节数
+     */
+    @NonNull
+    static List<byte[]> split(@NonNull String content, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        byte[] encoded = encode(content);
+        byte encoding = encoded[0];
+        int dataLength = encoded.length - 1;
+        int count = Math.max(1, (dataLength + chunkSize - 1) / chunkSize);
+        if (count > MAX_CHUNKS) {
+            throw new IllegalArgumentException("Too many chunks: " + count);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(encoded, 1, dataLength);
+        int checksum = (int) crc.getValue();
+
+        List<byte[]> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int offset = i * chunkSize;
+            int length = Math.min(chunkSize, dataLength - offset);
+            ByteBuffer chunk = ByteBuffer.allocate(HEADER_LENGTH + length);
+            chunk.put(VERSION);
+            chunk.put(encoding);
+            chunk.putInt(checksum);
+            chunk.putShort((short) i);
+            chunk.putShort((short) count);
+            chunk.put(encoded, 1 + offset, length);
+            chunks.add(chunk.array());
+        }
+        return chunks;
+    }
+
+    private static byte[] encode(String content) {
+        byte[] data = null;
+        byte encoding = ENCODING_UTF8;
+        if (content.startsWith(V3_PREFIX)) {
+            try {
+                data = Base45.decode(content.substring(V3_PREFIX.length()));
+                encoding = ENCODING_V3_PACKET;
+            } catch (IllegalArgumentException e) {
+                data = null;
+            }
+        }
+        if (data == null) {
+            data = content.getBytes(StandardCharsets.UTF_8);
+            encoding = ENCODING_UTF8;
+        }
+        byte[] out = new byte[data.length + 1];
+        out[0] = encoding;
+        System.arraycopy(data, 0, out, 1, data.length);
+        return out;
+    }
+
+    /**
+     * 分块重组器
+     * 可以跨多条NDEF消息（多次触碰）累积，收到其他会话的分块时丢弃旧进度
+     */
+    static final class Reassembler {
+
+        private byte[][] chunks;
+        private int checksum;
+        private byte encoding;
+        private int received;
+
+        /**
+         * 接收一个分块
+         *
+         * @return true表示分块有效（包括重复分块）
+         */
+        synchronized boolean accept(@NonNull byte[] chunk) {
+            if (chunk.length < HEADER_LENGTH || chunk[0] != VERSION) {
+                return false;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            buffer.position(1);
+            byte chunkEncoding = buffer.get();
+            int chunkChecksum = buffer.getInt();
+            int index = buffer.getShort() & 0xFFFF;
+            int count = buffer.getShort() & 0xFFFF;
+            if (count == 0 || index >= count || (long) count * (chunk.length - HEADER_LENGTH) > MAX_PAYLOAD_LENGTH * 2L) {
+                return false;
+            }
+
+            if (chunks == null || chunks.length != count || checksum != chunkChecksum || encoding != chunkEncoding) {
+                chunks = new byte[count][];
+                checksum = chunkChecksum;
+                encoding = chunkEncoding;
+                received = 0;
+            }
+            if (chunks[index] == null) {
+                byte[] data = new byte[chunk.length - HEADER_LENGTH];
+                System.arraycopy(chunk, HEADER_LENGTH, data, 0, data.length);
+                chunks[index] = data;
+                received++;
+            }
+            return true;
+        }
+
+        synchronized boolean isComplete() {
+            return chunks != null && received == chunks.length;
+        }
+
+        synchronized boolean hasPartial() {
+            return chunks != null && received > 0 && received < chunks.length;
+        }
+
+        synchronized int getReceivedCount() {
+            return received;
+        }
+
+        synchronized int getChunkCount() {
+            return chunks != null ? chunks.length : 0;
+        }
+
+        /**
+         * 取出重组结果并清空状态
+         *
+         * @return 还原的分享数据，未收齐或校验失败返回null
+         */
+        @Nullable
+        synchronized String take() {
+            if (!isComplete()) {
+                return null;
+            }
+            int length = 0;
+            for (byte[] data : chunks) {
+                length += data.length;
+            }
+            if (length > MAX_PAYLOAD_LENGTH) {
+                reset();
+                return null;
+            }
+            byte[] payload = new byte[length];
+            int position = 0;
+            for (byte[] data : chunks) {
+                System.arraycopy(data, 0, payload, position, data.length);
+                position += data.length;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, payload.length);
+            boolean valid = (int) crc.getValue() == checksum;
+            byte payloadEncoding = encoding;
+            reset();
+            if (!valid) {
+                return null;
+            }
+            if (payloadEncoding == ENCODING_V3_PACKET) {
+                return V3_PREFIX + Base45.encode(payload);
+            }
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+
+        synchronized void reset() {
+            chunks = null;
+            checksum = 0;
+            encoding = 0;
+            received = 0;
+        }
+    }
+}
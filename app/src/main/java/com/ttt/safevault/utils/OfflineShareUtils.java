@@ -17,8 +17,11 @@ import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
@@ -29,7 +32,17 @@ import javax.crypto.spec.SecretKeySpec;
  * 离线分享工具类
  * 实现密码的离线加密传输（通过二维码）
  *
- * 数据格式：safevault://offline/{base64EncodedData}
+ * 版本3（当前）：SAFEVAULT3:{base45EncodedData}
+ * 整段内容只含二维码字母数字模式字符，每字符5.5位，比版本2的Base64字节模式更紧凑
+ * base45EncodedData 结构：
+ * - 版本号(1字节) = 3
+ * - 标志(1字节)：bit0 明文经过DEFLATE压缩，bit1-3 权限（查看/保存/可撤销）
+ * - 过期时间(4字节，Unix秒，0表示永不过期)
+ * - 嵌入密钥(32字节) - 一次性AES-256密钥
+ * - 密文(变长，含16字节GCM标签)，前6字节头部作为附加认证数据
+ * 明文为标签字段序列：标签(1字节) + 长度(varint) + UTF-8内容，空字段省略
+ *
+ * 版本2（仅解析）：safevault://offline/{base64EncodedData}
  * base64EncodedData 结构：
  * - 版本号(1字节) = 2
  * - 保留(1字节)
@@ -45,7 +58,8 @@ public class OfflineShareUtils {
     private static final String TAG = "OfflineShareUtils";
 
     // 协议版本
-    private static final byte VERSION = 2;
+    private static final byte VERSION_2 = 2;
+    private static final byte VERSION_3 = 3;
 
     // 加密参数
     private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
@@ -55,6 +69,27 @@ public class OfflineShareUtils {
 
     // 协议前缀
     private static final String OFFLINE_PREFIX = "safevault://offline/";
+    private static final String OFFLINE_V3_PREFIX = "SAFEVAULT3:";
+
+    // 版本3头部：版本号 + 标志 + 过期时间
+    private static final int V3_HEADER_LENGTH = 6;
+    private static final int FLAG_DEFLATED = 0x01;
+    private static final int FLAG_CAN_VIEW = 0x02;
+    private static final int FLAG_CAN_SAVE = 0x04;
+    private static final int FLAG_REVOCABLE = 0x08;
+
+    // 密钥每个包随机生成且只用一次，固定的全零nonce不会造成nonce重用
+    private static final byte[] V3_NONCE = new byte[IV_LENGTH];
+
+    // 版本3字段标签
+    private static final int FIELD_TITLE = 1;
+    private static final int FIELD_USERNAME = 2;
+    private static final int FIELD_PASSWORD = 3;
+    private static final int FIELD_URL = 4;
+    private static final int FIELD_NOTES = 5;
+
+    // 解压后明文上限，防止压缩炸弹
+    private static final int MAX_PLAINTEXT_LENGTH = 64 * 1024;
 
     /**
      * 离线分享数据包
@@ -70,6 +105,13 @@ public class OfflineShareUtils {
             this.expireTime = expireTime;
             this.permission = permission;
         }
+
+        /**
+         * 内容超过单个二维码容量，需要以多帧喷泉码动画传输
+         */
+        public boolean isMultiFrame() {
+            return requiresMultiFrame(qrContent);
+        }
     }
 
     /**
@@ -86,63 +128,55 @@ public class OfflineShareUtils {
                                                         int expireInMinutes,
                                                         @NonNull SharePermission permission) {
         try {
-            // 1. 将密码数据转为JSON
-            JSONObject jsonData = new JSONObject();
-            jsonData.put("title", passwordItem.getTitle());
-            jsonData.put("username", passwordItem.getUsername());
-            jsonData.put("password", passwordItem.getPassword());
-            jsonData.put("url", passwordItem.getUrl() != null ? passwordItem.getUrl() : "");
-            jsonData.put("notes", passwordItem.getNotes() != null ? passwordItem.getNotes() : "");
-
-            String jsonString = jsonData.toString();
-            Log.d(TAG, "JSON data size: " + jsonString.length() + " bytes");
-
-            // 2. 压缩数据
-            byte[] compressedData = compressData(jsonString.getBytes(StandardCharsets.UTF_8));
-            Log.d(TAG, "Compressed data size: " + compressedData.length + " bytes");
-
-            // 3. 生成随机IV和密钥
-            SecureRandom random = new SecureRandom();
-            byte[] iv = new byte[IV_LENGTH];
+            // 1. 字段编码，压缩只在确实变小时使用
+            byte[] fields = encodeFields(passwordItem);
+            byte[] deflated = deflate(fields);
+            boolean useDeflate = deflated.length < fields.length;
+            byte[] plaintext = useDeflate ? deflated : fields;
+            Log.d(TAG, "Plaintext size: " + fields.length + " bytes, deflated: " + deflated.length);
+
+            // 2. 计算过期时间（秒精度）
+            long expireTime = 0;
+            if (expireInMinutes > 0) {
+                expireTime = System.currentTimeMillis() + (expireInMinutes * 60 * 1000L);
+            }
+            long expireSeconds = (expireTime + 999) / 1000;
+
+            // 3. 头部
+            int flags = (useDeflate ? FLAG_DEFLATED : 0)
+                | (permission.isCanView() ? FLAG_CAN_VIEW : 0)
+                | (permission.isCanSave() ? FLAG_CAN_SAVE : 0)
+                | (permission.isRevocable() ? FLAG_REVOCABLE : 0);
+            ByteBuffer header = ByteBuffer.allocate(V3_HEADER_LENGTH);
+            header.put(VERSION_3);
+            header.put((byte) flags);
+            header.putInt((int) expireSeconds);
+
+            // 4. 一次性密钥加密，头部作为附加认证数据防止篡改过期时间和权限
             byte[] embeddedKey = new byte[EMBEDDED_KEY_LENGTH];
-            random.nextBytes(iv);
-            random.nextBytes(embeddedKey);
-
-            // 4. 创建密钥对象
-            SecretKey key = new SecretKeySpec(embeddedKey, "AES");
-
-            // 5. 加密数据
-            byte[] encryptedData = encryptData(compressedData, key, iv);
+            new SecureRandom().nextBytes(embeddedKey);
+            byte[] encryptedData = encryptData(plaintext, new SecretKeySpec(embeddedKey, "AES"),
+                V3_NONCE, header.array());
             if (encryptedData == null) {
                 Log.e(TAG, "Failed to encrypt data");
                 return null;
             }
-            Log.d(TAG, "Encrypted data size: " + encryptedData.length + " bytes");
-
-            // 6. 计算过期时间
-            long expireTime = 0;
-            if (expireInMinutes > 0) {
-                expireTime = System.currentTimeMillis() + (expireInMinutes * 60 * 1000L);
-            }
-
-            // 7. 构建数据包（包含嵌入密钥）
-            byte[] packet = buildPacket(iv, encryptedData, expireTime, permission, embeddedKey);
-
-            // 8. Base64编码
-            String base64Data = Base64.encodeToString(packet, Base64.NO_WRAP | Base64.URL_SAFE);
 
-            // 9. 构建二维码内容
-            String qrContent = OFFLINE_PREFIX + base64Data;
+            // 5. 拼接并编码为二维码内容
+            ByteBuffer packet = ByteBuffer.allocate(V3_HEADER_LENGTH + EMBEDDED_KEY_LENGTH + encryptedData.length);
+            packet.put(header.array());
+            packet.put(embeddedKey);
+            packet.put(encryptedData);
+            String qrContent = OFFLINE_V3_PREFIX + Base45.encode(packet.array());
 
             Log.d(TAG, "QR content size: " + qrContent.length() + " characters");
 
-            // 检查大小
-            if (!QRCodeUtils.isContentSizeValid(qrContent)) {
-                Log.w(TAG, "QR content too large: " + qrContent.length());
-                // 继续处理，让调用者决定是否使用
+            // 超过单个二维码容量时由显示端切换为多帧喷泉码动画
+            if (requiresMultiFrame(qrContent)) {
+                Log.d(TAG, "QR content exceeds single frame, using fountain frames: " + qrContent.length());
             }
 
-            return new OfflineSharePacket(qrContent, expireTime, permission);
+            return new OfflineSharePacket(qrContent, expireSeconds * 1000, permission);
 
         } catch (Exception e) {
             Log.e(TAG, "Failed to create offline share", e);
@@ -158,6 +192,64 @@ public class OfflineShareUtils {
      */
     @Nullable
     public static PasswordItem parseOfflineShare(@NonNull String qrContent) {
+        if (qrContent.startsWith(OFFLINE_V3_PREFIX)) {
+            return parseV3(qrContent);
+        }
+        return parseV2(qrContent);
+    }
+
+    /**
+     * 解析版本3数据包
+     */
+    @Nullable
+    private static PasswordItem parseV3(@NonNull String qrContent) {
+        try {
+            byte[] packet = Base45.decode(qrContent.substring(OFFLINE_V3_PREFIX.length()));
+            if (packet.length < V3_HEADER_LENGTH + EMBEDDED_KEY_LENGTH + GCM_TAG_LENGTH / 8
+                    || packet[0] != VERSION_3) {
+                Log.e(TAG, "Invalid v3 offline share");
+                return null;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(packet);
+            buffer.get();
+            int flags = buffer.get() & 0xFF;
+            long expireSeconds = buffer.getInt() & 0xFFFFFFFFL;
+            if (expireSeconds > 0 && System.currentTimeMillis() > expireSeconds * 1000) {
+                Log.e(TAG, "Share has expired");
+                return null;
+            }
+
+            byte[] embeddedKey = new byte[EMBEDDED_KEY_LENGTH];
+            buffer.get(embeddedKey);
+            byte[] encryptedData = new byte[buffer.remaining()];
+            buffer.get(encryptedData);
+
+            byte[] plaintext = decryptData(encryptedData, new SecretKeySpec(embeddedKey, "AES"),
+                V3_NONCE, Arrays.copyOf(packet, V3_HEADER_LENGTH));
+            if (plaintext == null) {
+                Log.e(TAG, "Failed to decrypt data");
+                return null;
+            }
+            if ((flags & FLAG_DEFLATED) != 0) {
+                plaintext = inflate(plaintext);
+            }
+
+            PasswordItem item = decodeFields(plaintext);
+            Log.d(TAG, "Successfully parsed offline share");
+            return item;
+
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to parse offline share", e);
+            return null;
+        }
+    }
+
+    /**
+     * 解析版本2数据包
+     */
+    @Nullable
+    private static PasswordItem parseV2(@NonNull String qrContent) {
         try {
             // 1. 验证前缀
             if (!qrContent.startsWith(OFFLINE_PREFIX)) {
@@ -176,7 +268,7 @@ public class OfflineShareUtils {
 
             // 读取版本号
             byte version = buffer.get();
-            if (version != VERSION) {
+            if (version != VERSION_2) {
                 Log.e(TAG, "Unsupported version: " + version);
                 return null;
             }
@@ -271,11 +363,12 @@ public class OfflineShareUtils {
     /**
      * 加密数据
      */
-    private static byte[] encryptData(byte[] data, SecretKey key, byte[] iv) {
+    private static byte[] encryptData(byte[] data, SecretKey key, byte[] iv, byte[] aad) {
         try {
             Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
             GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
             cipher.init(Cipher.ENCRYPT_MODE, key, parameterSpec);
+            cipher.updateAAD(aad);
             return cipher.doFinal(data);
         } catch (Exception e) {
             Log.e(TAG, "Encryption failed", e);
@@ -287,10 +380,20 @@ public class OfflineShareUtils {
      * 解密数据
      */
     private static byte[] decryptData(byte[] encryptedData, SecretKey key, byte[] iv) {
+        return decryptData(encryptedData, key, iv, null);
+    }
+
+    /**
+     * 解密数据（带附加认证数据）
+     */
+    private static byte[] decryptData(byte[] encryptedData, SecretKey key, byte[] iv, @Nullable byte[] aad) {
         try {
             Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
             GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
             cipher.init(Cipher.DECRYPT_MODE, key, parameterSpec);
+            if (aad != null) {
+                cipher.updateAAD(aad);
+            }
             return cipher.doFinal(encryptedData);
         } catch (Exception e) {
             Log.e(TAG, "Decryption failed", e);
@@ -298,17 +401,6 @@ public class OfflineShareUtils {
         }
     }
 
-    /**
-     * 压缩数据
-     */
-    private static byte[] compressData(byte[] data) throws Exception {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (GZIPOutputStream gzipOut = new GZIPOutputStream(baos)) {
-            gzipOut.write(data);
-        }
-        return baos.toByteArray();
-    }
-
     /**
      * 解压数据
      */
@@ -326,64 +418,145 @@ public class OfflineShareUtils {
     }
 
     /**
-     * 构建数据包
+     * 原始DEFLATE压缩（无gzip头尾）
      */
-    private static byte[] buildPacket(byte[] iv, byte[] encryptedData,
-                                     long expireTime, SharePermission permission,
-                                     byte[] embeddedKey) {
-        // 计算总大小
-        int totalSize = 1 +  // version
-                       1 +  // reserved
-                       IV_LENGTH +  // iv
-                       4 +  // encrypted data length
-                       encryptedData.length +  // encrypted data
-                       8 +  // expire time
-                       1 +  // permission flags
-                       EMBEDDED_KEY_LENGTH;  // embedded key
-
-        ByteBuffer buffer = ByteBuffer.allocate(totalSize);
-
-        // 写入版本号
-        buffer.put(VERSION);
-
-        // 写入保留字节
-        buffer.put((byte) 0);
-
-        // 写入IV
-        buffer.put(iv);
-
-        // 写入加密数据长度
-        buffer.putInt(encryptedData.length);
-
-        // 写入加密数据
-        buffer.put(encryptedData);
-
-        // 写入过期时间
-        buffer.putLong(expireTime);
-
-        // 写入权限标志
-        byte permissionFlags = 0;
-        if (permission.isCanView()) {
-            permissionFlags |= 0x01;
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(data.length);
+            byte[] buffer = new byte[512];
+            while (!deflater.finished()) {
+                int len = deflater.deflate(buffer);
+                baos.write(buffer, 0, len);
+            }
+            return baos.toByteArray();
+        } finally {
+            deflater.end();
         }
-        if (permission.isCanSave()) {
-            permissionFlags |= 0x02;
+    }
+
+    /**
+     * 原始DEFLATE解压
+     */
+    private static byte[] inflate(byte[] data) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[512];
+            while (!inflater.finished()) {
+                int len = inflater.inflate(buffer);
+                if (len == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated deflate stream");
+                }
+                baos.write(buffer, 0, len);
+                if (baos.size() > MAX_PLAINTEXT_LENGTH) {
+                    throw new DataFormatException("Plaintext too large");
+                }
+            }
+            return baos.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 字段编码：标签 + varint长度 + UTF-8内容
+     */
+    static byte[] encodeFields(@NonNull PasswordItem item) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        writeField(out, FIELD_TITLE, item.getTitle());
+        writeField(out, FIELD_USERNAME, item.getUsername());
+        writeField(out, FIELD_PASSWORD, item.getPassword());
+        writeField(out, FIELD_URL, item.getUrl());
+        writeField(out, FIELD_NOTES, item.getNotes());
+        return out.toByteArray();
+    }
+
+    private static void writeField(ByteArrayOutputStream out, int tag, @Nullable String value) {
+        if (value == null || value.isEmpty()) {
+            return;
         }
-        if (permission.isRevocable()) {
-            permissionFlags |= 0x04;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(tag);
+        int length = bytes.length;
+        while (length >= 0x80) {
+            out.write((length & 0x7F) | 0x80);
+            length >>>= 7;
         }
-        buffer.put(permissionFlags);
+        out.write(length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 字段解码，未知标签跳过以兼容后续新增字段
+     */
+    @NonNull
+    static PasswordItem decodeFields(@NonNull byte[] data) {
+        PasswordItem item = new PasswordItem();
+        item.setTitle("");
+        item.setUsername("");
+        item.setPassword("");
+        item.setUrl("");
+        item.setNotes("");
+
+        int position = 0;
+        while (position < data.length) {
+            int tag = data[position++] & 0xFF;
+            int length = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (position >= data.length || shift > 28) {
+                    throw new IllegalArgumentException("Malformed field length");
+                }
+                b = data[position++] & 0xFF;
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            if (length < 0 || length > data.length - position) {
+                throw new IllegalArgumentException("Field overflows packet");
+            }
 
-        // 写入嵌入的密钥
-        buffer.put(embeddedKey);
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            switch (tag) {
+                case FIELD_TITLE:
+                    item.setTitle(value);
+                    break;
+                case FIELD_USERNAME:
+                    item.setUsername(value);
+                    break;
+                case FIELD_PASSWORD:
+                    item.setPassword(value);
+                    break;
+                case FIELD_URL:
+                    item.setUrl(value);
+                    break;
+                case FIELD_NOTES:
+                    item.setNotes(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return item;
+    }
 
-        return buffer.array();
+    /**
+     * 检查内容是否需要多帧二维码传输
+     */
+    public static boolean requiresMultiFrame(@Nullable String qrContent) {
+        return qrContent != null && !QRCodeUtils.isContentSizeValid(qrContent);
     }
 
     /**
      * 检查是否为离线分享二维码
      */
     public static boolean isOfflineShare(@Nullable String qrContent) {
-        return qrContent != null && qrContent.startsWith(OFFLINE_PREFIX);
+        return qrContent != null
+            && (qrContent.startsWith(OFFLINE_V3_PREFIX) || qrContent.startsWith(OFFLINE_PREFIX));
     }
 }
@@ -2,7 +2,11 @@ package com.ttt.safevault.utils;
 
 import android.graphics.Bitmap;
 import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
 import android.util.Log;
+import android.util.LruCache;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -10,12 +14,21 @@ import androidx.annotation.Nullable;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
 
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * 二维码工具类
@@ -34,6 +47,30 @@ public class QRCodeUtils {
     // 默认背景色（白色）
     private static final int DEFAULT_BACKGROUND_COLOR = Color.WHITE;
 
+    // 位图缓存上限（KB）
+    private static final int CACHE_SIZE_KB = 4 * 1024;
+
+    // 纠错级别自适应的目标版本：不超过该版本（57×57模块）时尽量使用更高纠错级别
+    private static final int TARGET_QR_VERSION = 10;
+
+    // 单个二维码的内容上限：字节模式1000字符，字母数字模式每字符只占5.5位，可放1450字符
+    private static final int MAX_BYTE_MODE_LENGTH = 1000;
+    private static final int MAX_ALPHANUMERIC_LENGTH = 1450;
+
+    private static final ErrorCorrectionLevel[] ADAPTIVE_LEVELS = {
+        ErrorCorrectionLevel.H, ErrorCorrectionLevel.Q, ErrorCorrectionLevel.M, ErrorCorrectionLevel.L
+    };
+
+    private static final LruCache<String, Bitmap> BITMAP_CACHE = new LruCache<String, Bitmap>(CACHE_SIZE_KB) {
+        @Override
+        protected int sizeOf(String key, Bitmap value) {
+            return value.getByteCount() / 1024;
+        }
+    };
+
+    private static final ExecutorService RENDER_EXECUTOR = Executors.newSingleThreadExecutor();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
     /**
      * 生成二维码（使用默认尺寸和颜色）
      *
@@ -61,6 +98,7 @@ public class QRCodeUtils {
 
     /**
      * 生成二维码（完整参数）
+     * 结果会放入LRU缓存，相同内容和尺寸的二维码直接复用；返回的位图可能被共享，调用者不要回收
      *
      * @param content         二维码内容
      * @param width           宽度（像素）
@@ -82,30 +120,109 @@ public class QRCodeUtils {
             return null;
         }
 
+        String key = cacheKey(content, width, height, foregroundColor, backgroundColor);
+        Bitmap cached = BITMAP_CACHE.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Bitmap bitmap = render(content, width, height, foregroundColor, backgroundColor);
+        if (bitmap != null) {
+            BITMAP_CACHE.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * 在后台线程生成二维码，结果在主线程回调
+     * 缓存命中时在调用线程直接回调
+     *
+     * @param content  二维码内容
+     * @param width    宽度（像素）
+     * @param height   高度（像素）
+     * @param callback 结果回调，失败时位图为null
+     */
+    public static void generateQRCodeAsync(@NonNull String content, int width, int height,
+                                           @NonNull QRCodeCallback callback) {
+        if (content != null && !content.isEmpty()) {
+            Bitmap cached = BITMAP_CACHE.get(cacheKey(content, width, height,
+                DEFAULT_FOREGROUND_COLOR, DEFAULT_BACKGROUND_COLOR));
+            if (cached != null) {
+                callback.onResult(cached);
+                return;
+            }
+        }
+        RENDER_EXECUTOR.execute(() -> {
+            Bitmap bitmap = generateQRCode(content, width, height);
+            MAIN_HANDLER.post(() -> callback.onResult(bitmap));
+        });
+    }
+
+    /**
+     * 在后台线程生成一帧动画二维码（多帧传输），不进入缓存
+     *
+     * @param content  帧内容
+     * @param size     边长（像素）
+     * @param callback 结果回调，在主线程执行
+     */
+    public static void renderFrameAsync(@NonNull String content, int size,
+                                        @NonNull QRCodeCallback callback) {
+        RENDER_EXECUTOR.execute(() -> {
+            Bitmap bitmap = render(content, size, size, DEFAULT_FOREGROUND_COLOR, DEFAULT_BACKGROUND_COLOR);
+            MAIN_HANDLER.post(() -> callback.onResult(bitmap));
+        });
+    }
+
+    /**
+     * 清空二维码缓存（离开分享界面时调用，避免分享内容的位图长期驻留内存）
+     */
+    public static void clearCache() {
+        BITMAP_CACHE.evictAll();
+    }
+
+    /**
+     * 按模块分辨率编码后直接填充像素数组：每个模块行只计算一次，
+     * 其余像素行整行复制，最后一次 setPixels 写入位图
+     */
+    @Nullable
+    private static Bitmap render(@NonNull String content, int width, int height,
+                                 int foregroundColor, int backgroundColor) {
         try {
-            // 配置二维码参数
-            Map<EncodeHintType, Object> hints = new HashMap<>();
+            Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
             hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-            hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+            hints.put(EncodeHintType.ERROR_CORRECTION, chooseErrorCorrection(content, hints));
             hints.put(EncodeHintType.MARGIN, 1); // 边距
 
-            // 生成二维码矩阵
-            QRCodeWriter writer = new QRCodeWriter();
-            BitMatrix bitMatrix = writer.encode(content, BarcodeFormat.QR_CODE, width, height, hints);
+            // 尺寸传0得到每个模块1像素的矩阵（含边距）
+            BitMatrix modules = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0, hints);
+            int qrWidth = modules.getWidth();
+            int qrHeight = modules.getHeight();
+            int multiple = Math.min(width / qrWidth, height / qrHeight);
 
-            // 创建位图
-            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
-            
-            // 填充像素
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    bitmap.setPixel(x, y, bitMatrix.get(x, y) ? foregroundColor : backgroundColor);
+            if (multiple == 0) {
+                // 目标尺寸小于模块数，按模块分辨率绘制后最近邻缩放
+                Bitmap small = Bitmap.createBitmap(
+                    fillPixels(modules, qrWidth, qrHeight, 1, 0, 0, foregroundColor, backgroundColor),
+                    qrWidth, qrHeight, Bitmap.Config.RGB_565);
+                Bitmap scaled = Bitmap.createScaledBitmap(small, width, height, false);
+                if (scaled != small) {
+                    small.recycle();
                 }
+                return scaled;
             }
 
+            // 与ZXing一致：整数倍放大后居中
+            int left = (width - qrWidth * multiple) / 2;
+            int top = (height - qrHeight * multiple) / 2;
+            int[] pixels = fillPixels(modules, width, height, multiple, left, top,
+                foregroundColor, backgroundColor);
+
+            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+            bitmap.setPixels(pixels, 0, width, 0, 0, width, height);
+
             Log.d(TAG, "QR code generated successfully: " + width + "x" + height);
             return bitmap;
-            
+
         } catch (WriterException e) {
             Log.e(TAG, "Failed to generate QR code", e);
             return null;
@@ -115,6 +232,74 @@ public class QRCodeUtils {
         }
     }
 
+    /**
+     * 自适应纠错级别：短内容使用H级，内容变长时逐级降低，
+     * 优先保证二维码版本（模块密度）不超过目标版本，模块越大越容易扫描
+     */
+    @NonNull
+    static ErrorCorrectionLevel chooseErrorCorrection(@NonNull String content,
+                                                      @NonNull Map<EncodeHintType, ?> hints) {
+        for (ErrorCorrectionLevel level : ADAPTIVE_LEVELS) {
+            try {
+                QRCode code = Encoder.encode(content, level, hints);
+                if (code.getVersion().getVersionNumber() <= TARGET_QR_VERSION) {
+                    return level;
+                }
+            } catch (WriterException e) {
+                // 该纠错级别下容量不足，尝试更低级别
+            }
+        }
+        return ErrorCorrectionLevel.L;
+    }
+
+    @NonNull
+    private static int[] fillPixels(@NonNull BitMatrix modules, int width, int height, int multiple,
+                                    int left, int top, int foregroundColor, int backgroundColor) {
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, backgroundColor);
+
+        BitArray row = new BitArray(modules.getWidth());
+        for (int y = 0; y < modules.getHeight(); y++) {
+            row = modules.getRow(y, row);
+            int offset = (top + y * multiple) * width + left;
+            for (int x = 0; x < modules.getWidth(); x++) {
+                if (row.get(x)) {
+                    int start = offset + x * multiple;
+                    Arrays.fill(pixels, start, start + multiple, foregroundColor);
+                }
+            }
+            int rowStart = (top + y * multiple) * width;
+            for (int r = 1; r < multiple; r++) {
+                System.arraycopy(pixels, rowStart, pixels, rowStart + r * width, width);
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * 缓存键使用内容摘要，缓存中不保留分享内容明文
+     */
+    @NonNull
+    private static String cacheKey(@NonNull String content, int width, int height,
+                                   int foregroundColor, int backgroundColor) {
+        String digest;
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(content.getBytes(StandardCharsets.UTF_8));
+            digest = Base64.encodeToString(hash, Base64.NO_WRAP);
+        } catch (NoSuchAlgorithmException e) {
+            digest = Integer.toHexString(content.hashCode()) + ":" + content.length();
+        }
+        return digest + ":" + width + "x" + height + ":" + foregroundColor + ":" + backgroundColor;
+    }
+
+    /**
+     * 二维码生成回调
+     */
+    public interface QRCodeCallback {
+        void onResult(@Nullable Bitmap bitmap);
+    }
+
     /**
      * 生成用户分享二维码
      * 使用更大的尺寸和更高的纠错级别
@@ -147,9 +332,13 @@ public class QRCodeUtils {
      * @return true表示内容长度合适
      */
     public static boolean isContentSizeValid(@NonNull String content) {
-        // 使用UTF-8编码，高纠错级别(H)，最大容量约为1273字符
-        // 为了保险起见，限制在1000字符以内
-        return content != null && content.length() <= 1000;
+        // 字节模式高纠错级别(H)最大容量约为1273字符，为了保险起见限制在1000字符以内；
+        // 纯字母数字内容（如Base45）编码密度更高，按相同的位数上限计算
+        if (content == null) {
+            return false;
+        }
+        int limit = Base45.isAlphanumeric(content) ? MAX_ALPHANUMERIC_LENGTH : MAX_BYTE_MODE_LENGTH;
+        return content.length() <= limit;
     }
 
     /**
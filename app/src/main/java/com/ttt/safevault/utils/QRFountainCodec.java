@@ -0,0 +1,450 @@
+package com.ttt.safevault.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 多帧二维码喷泉码（LT码）
+ * 超过单个二维码容量的内容被切成 K 个等长块，发送端循环播放无限多的编码帧：
+ * 前 K 帧为原始块（系统码），之后每帧是按鲁棒孤子分布随机选出的若干块的异或。
+ * 接收端收到任意约 K 帧（略多于 K）即可通过剥离译码恢复原文，漏扫的帧无需等待重播。
+ *
+ * 帧格式：safevault://fountain/{base64url}
+ * - 版本号(1字节)
+ * - 会话ID(4字节)
+ * - 原文长度(4字节)
+ * - 原文CRC32(4字节)
+ * - 块大小(2字节)
+ * - 帧序号(4字节)，同时作为该帧编码随机数的种子
+ * - 编码块(块大小)
+ */
+public final class QRFountainCodec {
+
+    public static final String FRAME_PREFIX = "safevault://fountain/";
+
+    /** 默认块大小，帧内容约 370 字符，低端摄像头也能稳定识别 */
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+
+    /** 单次传输的最大原文长度，防止伪造帧头申请过大内存 */
+    public static final int MAX_PAYLOAD_LENGTH = 64 * 1024;
+
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 19;
+
+    // 鲁棒孤子分布参数
+    private static final double SOLITON_C = 0.1;
+    private static final double SOLITON_DELTA = 0.05;
+
+    private QRFountainCodec() {
+    }
+
+    /**
+     * 是否为喷泉码帧
+     */
+    public static boolean isFountainFrame(@Nullable String content) {
+        return content != null && content.startsWith(FRAME_PREFIX);
+    }
+
+    /**
+     * 编码器：可无限产生新帧
+     */
+    public static final class Encoder {
+        private final byte[][] blocks;
+        private final int blockSize;
+        private final int sessionId;
+        private final int length;
+        private final int crc;
+        private final double[] degreeCdf;
+        private int nextSeq;
+
+        public Encoder(@NonNull String content) {
+            this(content.getBytes(StandardCharsets.UTF_8), DEFAULT_BLOCK_SIZE);
+        }
+
+        public Encoder(@NonNull byte[] payload, int blockSize) {
+            if (blockSize <= 0 || blockSize > 0xFFFF) {
+                throw new IllegalArgumentException("Invalid block size: " + blockSize);
+            }
+            if (payload.length == 0 || payload.length > MAX_PAYLOAD_LENGTH) {
+                throw new IllegalArgumentException("Invalid payload length: " + payload.length);
+            }
+            this.blockSize = blockSize;
+            this.length = payload.length;
+            this.crc = crc32(payload);
+            this.sessionId = new SecureRandom().nextInt();
+
+            int k = (payload.length + blockSize - 1) / blockSize;
+            blocks = new byte[k][blockSize];
+            for (int i = 0; i < k; i++) {
+                int from = i * blockSize;
+                System.arraycopy(payload, from, blocks[i], 0, Math.min(blockSize, payload.length - from));
+            }
+            degreeCdf = robustSolitonCdf(k);
+        }
+
+        /**
+         * 原始块数 K
+         */
+        public int getBlockCount() {
+            return blocks.length;
+        }
+
+        /**
+         * 生成下一帧的二维码内容
+         */
+        @NonNull
+        public String nextFrame() {
+            return frame(nextSeq++);
+        }
+
+        /**
+         * 生成指定序号的帧
+         */
+        @NonNull
+        public String frame(int seq) {
+            byte[] data = new byte[blockSize];
+            int[] indices = chooseBlocks(seq, blocks.length, degreeCdf);
+            for (int index : indices) {
+                xorInto(data, blocks[index]);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + blockSize);
+            buffer.put(VERSION);
+            buffer.putInt(sessionId);
+            buffer.putInt(length);
+            buffer.putInt(crc);
+            buffer.putShort((short) blockSize);
+            buffer.putInt(seq);
+            buffer.put(data);
+            return FRAME_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+        }
+    }
+
+    /**
+     * 解码器：逐帧喂入，可随时查询进度
+     * 每个待定帧按其包含的未知块挂到对应块的等待表上，块被解出时只处理相关的帧，
+     * 总工作量与收到的帧数成正比。
+     */
+    public static final class Decoder {
+        private int sessionId;
+        private int length;
+        private int crc;
+        private int blockSize;
+        private byte[][] blocks;
+        private int decodedCount;
+        private double[] degreeCdf;
+        private List<Symbol>[] waiting;
+        private final Set<Integer> seenSeqs = new HashSet<>();
+        private boolean started;
+
+        /**
+         * 喂入一帧
+         *
+         * @return true 表示该帧带来了新信息
+         */
+        public synchronized boolean accept(@NonNull String frame) {
+            if (!isFountainFrame(frame)) {
+                return false;
+            }
+            byte[] raw;
+            try {
+                raw = Base64.getUrlDecoder().decode(frame.substring(FRAME_PREFIX.length()));
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+            if (raw.length < HEADER_LENGTH || raw[0] != VERSION) {
+                return false;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(raw);
+            buffer.get();
+            int frameSession = buffer.getInt();
+            int frameLength = buffer.getInt();
+            int frameCrc = buffer.getInt();
+            int frameBlockSize = buffer.getShort() & 0xFFFF;
+            int seq = buffer.getInt();
+            if (frameLength <= 0 || frameLength > MAX_PAYLOAD_LENGTH
+                    || frameBlockSize == 0 || raw.length != HEADER_LENGTH + frameBlockSize) {
+                return false;
+            }
+
+            // 扫到了另一个分享的帧，从头开始
+            if (!started || frameSession != sessionId) {
+                start(frameSession, frameLength, frameCrc, frameBlockSize);
+            } else if (frameLength != length || frameCrc != crc || frameBlockSize != blockSize) {
+                return false;
+            }
+            if (isComplete() || !seenSeqs.add(seq)) {
+                return false;
+            }
+
+            byte[] data = Arrays.copyOfRange(raw, HEADER_LENGTH, raw.length);
+            int[] indices = chooseBlocks(seq, blocks.length, degreeCdf);
+            return addSymbol(indices, data);
+        }
+
+        /**
+         * 是否已恢复全部块
+         */
+        public synchronized boolean isComplete() {
+            return started && decodedCount == blocks.length;
+        }
+
+        /**
+         * 已恢复的块数
+         */
+        public synchronized int getDecodedCount() {
+            return decodedCount;
+        }
+
+        /**
+         * 原始块总数，尚未收到任何帧时为0
+         */
+        public synchronized int getBlockCount() {
+            return started ? blocks.length : 0;
+        }
+
+        /**
+         * 已收到的不重复帧数
+         */
+        public synchronized int getReceivedCount() {
+            return seenSeqs.size();
+        }
+
+        /**
+         * 进度（0-100）
+         */
+        public synchronized int getProgress() {
+            return started ? decodedCount * 100 / blocks.length : 0;
+        }
+
+        /**
+         * 获取恢复的原文，未完成或校验失败返回null
+         */
+        @Nullable
+        public synchronized byte[] getPayload() {
+            if (!isComplete()) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            for (int i = 0; i < blocks.length; i++) {
+                int from = i * blockSize;
+                System.arraycopy(blocks[i], 0, payload, from, Math.min(blockSize, length - from));
+            }
+            return crc32(payload) == crc ? payload : null;
+        }
+
+        /**
+         * 获取恢复的原文字符串
+         */
+        @Nullable
+        public String getContent() {
+            byte[] payload = getPayload();
+            return payload != null ? new String(payload, StandardCharsets.UTF_8) : null;
+        }
+
+        /**
+         * 丢弃已收集的帧
+         */
+        public synchronized void reset() {
+            started = false;
+            blocks = null;
+            waiting = null;
+            decodedCount = 0;
+            seenSeqs.clear();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void start(int session, int payloadLength, int payloadCrc, int size) {
+            sessionId = session;
+            length = payloadLength;
+            crc = payloadCrc;
+            blockSize = size;
+            int k = (payloadLength + size - 1) / size;
+            blocks = new byte[k][];
+            waiting = new List[k];
+            degreeCdf = robustSolitonCdf(k);
+            decodedCount = 0;
+            seenSeqs.clear();
+            started = true;
+        }
+
+        private boolean addSymbol(int[] indices, byte[] data) {
+            // 先消去已知块
+            int unknown = 0;
+            for (int i = 0; i < indices.length; i++) {
+                int index = indices[i];
+                if (blocks[index] != null) {
+                    xorInto(data, blocks[index]);
+                } else {
+                    indices[unknown++] = index;
+                }
+            }
+            if (unknown == 0) {
+                return false;
+            }
+            if (unknown == 1) {
+                resolve(indices[0], data);
+                return true;
+            }
+
+            Symbol symbol = new Symbol(Arrays.copyOf(indices, unknown), data);
+            for (int index : symbol.indices) {
+                if (waiting[index] == null) {
+                    waiting[index] = new ArrayList<>(4);
+                }
+                waiting[index].add(symbol);
+            }
+            return true;
+        }
+
+        /**
+         * 剥离译码：块被解出后，依次从等待它的帧中消去，度数降为1的帧继续解出新块
+         */
+        private void resolve(int firstIndex, byte[] firstData) {
+            List<Integer> queue = new ArrayList<>();
+            List<byte[]> queueData = new ArrayList<>();
+            queue.add(firstIndex);
+            queueData.add(firstData);
+
+            for (int head = 0; head < queue.size(); head++) {
+                int index = queue.get(head);
+                if (blocks[index] != null) {
+                    continue;
+                }
+                byte[] data = queueData.get(head);
+                blocks[index] = data;
+                decodedCount++;
+
+                List<Symbol> symbols = waiting[index];
+                waiting[index] = null;
+                if (symbols == null) {
+                    continue;
+                }
+                for (Symbol symbol : symbols) {
+                    if (symbol.remaining == 0) {
+                        continue;
+                    }
+                    xorInto(symbol.data, data);
+                    symbol.remaining--;
+                    if (symbol.remaining == 1) {
+                        for (int candidate : symbol.indices) {
+                            if (blocks[candidate] == null) {
+                                symbol.remaining = 0;
+                                queue.add(candidate);
+                                queueData.add(symbol.data);
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Symbol {
+        final int[] indices;
+        final byte[] data;
+        int remaining;
+
+        Symbol(int[] indices, byte[] data) {
+            this.indices = indices;
+            this.data = data;
+            this.remaining = indices.length;
+        }
+    }
+
+    /**
+     * 由帧序号确定该帧包含的块，编码端与解码端必须一致
+     */
+    static int[] chooseBlocks(int seq, int k, double[] degreeCdf) {
+        if (seq >= 0 && seq < k) {
+            return new int[]{seq};
+        }
+        long state = seq * 0x9E3779B97F4A7C15L + k;
+        state = splitMix(state);
+        double u = (state >>> 11) * 0x1.0p-53;
+        int degree = 1;
+        while (degree < k && u > degreeCdf[degree]) {
+            degree++;
+        }
+
+        int[] indices = new int[degree];
+        int count = 0;
+        while (count < degree) {
+            state = splitMix(state);
+            int candidate = (int) ((state >>> 33) % k);
+            boolean duplicate = false;
+            for (int i = 0; i < count; i++) {
+                if (indices[i] == candidate) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                indices[count++] = candidate;
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * 鲁棒孤子分布的累积分布，cdf[d] 为度数不超过 d 的概率
+     */
+    static double[] robustSolitonCdf(int k) {
+        double[] pdf = new double[k + 1];
+        double r = SOLITON_C * Math.log(k / SOLITON_DELTA) * Math.sqrt(k);
+        int spike = r > 0 ? (int) Math.max(1, Math.min(k, Math.floor(k / r))) : k;
+        double sum = 0;
+        for (int d = 1; d <= k; d++) {
+            double rho = d == 1 ? 1.0 / k : 1.0 / ((double) d * (d - 1));
+            double tau = 0;
+            if (d < spike) {
+                tau = r / ((double) d * k);
+            } else if (d == spike) {
+                tau = r * Math.log(r / SOLITON_DELTA) / k;
+            }
+            pdf[d] = rho + Math.max(0, tau);
+            sum += pdf[d];
+        }
+
+        double[] cdf = new double[k + 1];
+        double running = 0;
+        for (int d = 1; d <= k; d++) {
+            running += pdf[d] / sum;
+            cdf[d] = running;
+        }
+        cdf[k] = 1.0;
+        return cdf;
+    }
+
+    private static long splitMix(long state) {
+        long z = state + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void xorInto(byte[] target, byte[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] ^= source[i];
+        }
+    }
+
+    private static int crc32(byte[] data) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data);
+        return (int) crc32.getValue();
+    }
+}
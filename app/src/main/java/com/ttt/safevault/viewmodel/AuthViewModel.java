@@ -187,36 +187,6 @@ public class AuthViewModel extends AndroidViewModel {
         }
     }
 
-    /**
-     * 刷新Token
-     */
-    public void refreshToken() {
-        String refreshToken = tokenManager.getRefreshToken();
-        if (refreshToken == null) {
-            errorLiveData.setValue("无刷新Token");
-            return;
-        }
-
-        Disposable disposable = retrofitClient.getAuthServiceApi()
-            .refreshToken("Bearer " + refreshToken)
-            .subscribeOn(Schedulers.io())
-            .observeOn(AndroidSchedulers.mainThread())
-            .subscribe(
-                response -> {
-                    tokenManager.saveTokens(response);
-                    authResponseLiveData.setValue(response);
-                    Log.d(TAG, "Token refreshed");
-                },
-                error -> {
-                    tokenManager.clearTokens();
-                    errorLiveData.setValue("Token刷新失败，请重新登录");
-                    Log.e(TAG, "Token refresh failed", error);
-                }
-            );
-
-        disposables.add(disposable);
-    }
-
     /**
      * 检查登录状态
      */
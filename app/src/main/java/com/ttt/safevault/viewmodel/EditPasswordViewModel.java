@@ -10,6 +10,7 @@ import androidx.lifecycle.MutableLiveData;
 import com.ttt.safevault.model.BackendService;
 import com.ttt.safevault.model.PasswordItem;
 import com.ttt.safevault.model.PasswordStrength;
+import com.ttt.safevault.security.PasswordStrengthEstimator;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -223,30 +224,16 @@ public class EditPasswordViewModel extends AndroidViewModel {
      * 检查密码强度
      */
     public PasswordStrength checkPasswordStrength(String password) {
-        if (password == null || password.length() < 8) {
+        if (password == null || password.isEmpty()) {
             return PasswordStrength.weak();
         }
 
-        var hasUpper = false;
-        var hasLower = false;
-        var hasDigit = false;
-        var hasSymbol = false;
-
-        for (char c : password.toCharArray()) {
-            if (Character.isUpperCase(c)) hasUpper = true;
-            else if (Character.isLowerCase(c)) hasLower = true;
-            else if (Character.isDigit(c)) hasDigit = true;
-            else hasSymbol = true;
+        // 本地布隆过滤器查询，单次哈希即可完成，可在输入时调用
+        if (backendService.isPasswordBreached(password)) {
+            return PasswordStrength.breached();
         }
 
-        var score = 0;
-        if (hasUpper) score++;
-        if (hasLower) score++;
-        if (hasDigit) score++;
-        if (hasSymbol) score++;
-        if (password.length() >= 12) score++;
-
-        return PasswordStrength.fromScore(score);
+        return PasswordStrengthEstimator.getInstance().estimateStrength(password);
     }
 
     /**
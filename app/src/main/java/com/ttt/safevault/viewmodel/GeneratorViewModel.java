@@ -1,6 +1,7 @@
 package com.ttt.safevault.viewmodel;
 
 import android.app.Application;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
@@ -10,24 +11,33 @@ import androidx.lifecycle.MutableLiveData;
 import com.ttt.safevault.model.BackendService;
 import com.ttt.safevault.model.GeneratedPassword;
 import com.ttt.safevault.ServiceLocator;
+import com.ttt.safevault.security.PassphraseGenerator;
+import com.ttt.safevault.security.PasswordGenerator;
+import com.ttt.safevault.security.PasswordStrengthEstimator;
 
-import java.security.SecureRandom;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
 /**
  * 密码生成器 ViewModel
  * 负责处理密码生成逻辑和状态管理
  */
 public class GeneratorViewModel extends AndroidViewModel {
 
+    private static final String TAG = "GeneratorViewModel";
+
     private final BackendService backendService;
     private final MutableLiveData<String> generatedPassword = new MutableLiveData<>();
     private final MutableLiveData<Integer> passwordStrength = new MutableLiveData<>();
+    private final MutableLiveData<Double> entropyBits = new MutableLiveData<>();
     private final MutableLiveData<List<GeneratedPassword>> generatedHistory = new MutableLiveData<>();
-    private final SecureRandom secureRandom;
 
     // 当前配置
     private int currentLength = 16;
@@ -36,6 +46,18 @@ public class GeneratorViewModel extends AndroidViewModel {
     private boolean currentNumbers = true;
     private boolean currentSymbols = false;
 
+    // 口令短语配置
+    private boolean passphraseMode = false;
+    private int currentWordCount = PassphraseGenerator.DEFAULT_WORDS;
+    private String currentSeparator = PassphraseGenerator.DEFAULT_SEPARATOR;
+    private PassphraseGenerator.Capitalization currentCapitalization =
+            PassphraseGenerator.Capitalization.TITLE;
+
+    // 口令短语生成器，词表在io线程上加载一次
+    private final Single<PassphraseGenerator> passphraseGenerator;
+    private final CompositeDisposable disposables = new CompositeDisposable();
+    private Disposable passphraseRequest;
+
     // 生成历史
     private static final int MAX_HISTORY_SIZE = 10;
     private final List<GeneratedPassword> historyList = new ArrayList<>();
@@ -43,16 +65,24 @@ public class GeneratorViewModel extends AndroidViewModel {
     public enum Preset {
         PIN,        // 4-6 位数字
         STRONG,     // 16 位所有字符
-        MEMORABLE   // 12 位字母+数字
+        MEMORABLE,  // 12 位字母+数字
+        PASSPHRASE  // 5 个单词的口令短语
     }
 
     public GeneratorViewModel(@NonNull Application application) {
         super(application);
         this.backendService = ServiceLocator.getInstance().getBackendService();
-        this.secureRandom = new SecureRandom();
 
         // 初始化历史记录
         generatedHistory.setValue(new ArrayList<>());
+
+        // 预加载词表，首次读取资源文件不放在主线程上
+        passphraseGenerator = Single.fromCallable(() -> PassphraseGenerator.getInstance(application))
+                .subscribeOn(Schedulers.io())
+                .cache();
+        disposables.add(passphraseGenerator.subscribe(
+                generator -> Log.d(TAG, "Passphrase word list preloaded"),
+                error -> Log.e(TAG, "Failed to load passphrase word list", error)));
     }
 
     /**
@@ -61,6 +91,7 @@ public class GeneratorViewModel extends AndroidViewModel {
     public void generatePassword(int length, boolean uppercase, boolean lowercase,
                                  boolean numbers, boolean symbols) {
         // 保存当前配置
+        passphraseMode = false;
         currentLength = length;
         currentUppercase = uppercase;
         currentLowercase = lowercase;
@@ -74,6 +105,8 @@ public class GeneratorViewModel extends AndroidViewModel {
 
         String password = generateSecurePassword(length, uppercase, lowercase, numbers, symbols);
         generatedPassword.setValue(password);
+        entropyBits.setValue(PasswordGenerator.Policy.of(length, uppercase, lowercase, numbers, symbols)
+                .getEntropyBits());
 
         // 计算密码强度
         int strength = calculatePasswordStrength(password);
@@ -81,98 +114,65 @@ public class GeneratorViewModel extends AndroidViewModel {
     }
 
     /**
-     * 使用 SecureRandom 生成安全密码
+     * 生成口令短语
+     * @param wordCount 单词数
+     * @param separator 分隔符
+     * @param capitalization 大小写方式
      */
-    private String generateSecurePassword(int length, boolean uppercase, boolean lowercase,
-                                          boolean numbers, boolean symbols) {
-        List<Character> allChars = new ArrayList<>();
-        List<Character> requiredChars = new ArrayList<>();
-
-        if (uppercase) {
-            addChars(allChars, "ABCDEFGHIJKLMNOPQRSTUVWXYZ");
-            addChar(requiredChars, getRandomChar("ABCDEFGHIJKLMNOPQRSTUVWXYZ"));
-        }
-        if (lowercase) {
-            addChars(allChars, "abcdefghijklmnopqrstuvwxyz");
-            addChar(requiredChars, getRandomChar("abcdefghijklmnopqrstuvwxyz"));
-        }
-        if (numbers) {
-            addChars(allChars, "0123456789");
-            addChar(requiredChars, getRandomChar("0123456789"));
+    public void generatePassphrase(int wordCount, @NonNull String separator,
+                                   @NonNull PassphraseGenerator.Capitalization capitalization) {
+        passphraseMode = true;
+        currentWordCount = wordCount;
+        currentSeparator = separator;
+        currentCapitalization = capitalization;
+
+        // 只保留最近一次请求，连续调整参数时旧请求不再生效
+        if (passphraseRequest != null) {
+            passphraseRequest.dispose();
         }
-        if (symbols) {
-            addChars(allChars, "!@#$%^&*()_+-=[]{}|;:,.<>?");
-            addChar(requiredChars, getRandomChar("!@#$%^&*()_+-=[]{}|;:,.<>?"));
-        }
-
-        // 确保包含至少一个每种选中的字符类型
-        List<Character> passwordChars = new ArrayList<>(requiredChars);
-
-        // 填充剩余位置
-        for (int i = requiredChars.size(); i < length; i++) {
-            passwordChars.add(allChars.get(secureRandom.nextInt(allChars.size())));
-        }
-
-        // 打乱顺序
-        Collections.shuffle(passwordChars, secureRandom);
-
-        // 转换为字符串
-        StringBuilder password = new StringBuilder();
-        for (char c : passwordChars) {
-            password.append(c);
-        }
-
-        return password.toString();
+        passphraseRequest = passphraseGenerator
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(generator -> {
+                    // 词表加载期间已切换回密码模式
+                    if (!passphraseMode) {
+                        return;
+                    }
+                    generatedPassword.setValue(generator.generateString(wordCount, separator, capitalization));
+
+                    // 随机抽取的单词组合按词表熵计算强度，字典匹配会严重低估
+                    double bits = generator.getEntropyBits(wordCount);
+                    entropyBits.setValue(bits);
+                    passwordStrength.setValue(PasswordStrengthEstimator.toPercent(bits * Math.log10(2)));
+                }, error -> Log.e(TAG, "Failed to generate passphrase", error));
     }
 
-    private void addChars(List<Character> list, String chars) {
-        for (char c : chars.toCharArray()) {
-            list.add(c);
+    /**
+     * 按当前模式和配置重新生成
+     */
+    public void regenerate() {
+        if (passphraseMode) {
+            generatePassphrase(currentWordCount, currentSeparator, currentCapitalization);
+        } else {
+            generatePassword(currentLength, currentUppercase, currentLowercase,
+                    currentNumbers, currentSymbols);
         }
     }
 
-    private void addChar(List<Character> list, char c) {
-        list.add(c);
-    }
-
-    private char getRandomChar(String chars) {
-        return chars.charAt(secureRandom.nextInt(chars.length()));
+    /**
+     * 使用统一的生成引擎生成安全密码
+     */
+    private String generateSecurePassword(int length, boolean uppercase, boolean lowercase,
+                                          boolean numbers, boolean symbols) {
+        return PasswordGenerator.getInstance().generateString(
+                PasswordGenerator.Policy.of(length, uppercase, lowercase, numbers, symbols));
     }
 
     /**
      * 计算密码强度
-     * 返回: 0-100 的分数
-     * 评分规则：
-     * - 长度：最高 30 分（8位10分，12位10分，16位10分，20位+5分）
-     * - 字符类型：最高 40 分（每种类型 10 分）
-     * - 复杂度奖励：最高 30 分（3种类型15分，4种类型15分）
+     * 返回: 0-100 的分数，由熵估算器的猜测次数换算，分段与强度等级一致
      */
     private int calculatePasswordStrength(String password) {
-        int score = 0;
-
-        // 长度评分 (0-35分)
-        if (password.length() >= 8) score += 10;
-        if (password.length() >= 12) score += 10;
-        if (password.length() >= 16) score += 10;
-        if (password.length() >= 20) score += 5;
-
-        // 字符类型评分 (0-40分)
-        boolean hasLowercase = password.matches(".*[a-z].*");
-        boolean hasUppercase = password.matches(".*[A-Z].*");
-        boolean hasDigit = password.matches(".*\\d.*");
-        boolean hasSymbol = password.matches(".*[!@#$%^&*()_+\\-=\\[\\]{}|;:,.<>?].*");
-
-        int typeCount = 0;
-        if (hasLowercase) { typeCount++; score += 10; }
-        if (hasUppercase) { typeCount++; score += 10; }
-        if (hasDigit) { typeCount++; score += 10; }
-        if (hasSymbol) { typeCount++; score += 10; }
-
-        // 复杂度奖励 (0-25分)
-        if (typeCount >= 3) score += 15;
-        if (typeCount == 4) score += 10;
-
-        return Math.min(score, 100);
+        return PasswordStrengthEstimator.getInstance().estimate(password).getPercent();
     }
 
     /**
@@ -189,6 +189,10 @@ public class GeneratorViewModel extends AndroidViewModel {
             case MEMORABLE:
                 generatePassword(12, true, true, true, false);
                 break;
+            case PASSPHRASE:
+                generatePassphrase(PassphraseGenerator.DEFAULT_WORDS,
+                        PassphraseGenerator.DEFAULT_SEPARATOR, PassphraseGenerator.Capitalization.TITLE);
+                break;
         }
     }
 
@@ -240,7 +244,24 @@ public class GeneratorViewModel extends AndroidViewModel {
         return passwordStrength;
     }
 
+    public LiveData<Double> getEntropyBits() {
+        return entropyBits;
+    }
+
+    public boolean isPassphraseMode() {
+        return passphraseMode;
+    }
+
     public LiveData<List<GeneratedPassword>> getGeneratedHistory() {
         return generatedHistory;
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        disposables.clear();
+        if (passphraseRequest != null) {
+            passphraseRequest.dispose();
+        }
+    }
 }
@@ -9,17 +9,15 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.ttt.safevault.dto.response.NearbyUserResponse;
-import com.ttt.safevault.model.BackendService;
+import com.ttt.safevault.model.AsyncBackendService;
 import com.ttt.safevault.network.RetrofitClient;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
-import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.disposables.Disposable;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * 附近用户发现ViewModel
@@ -27,7 +25,7 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 public class NearbyUsersViewModel extends AndroidViewModel {
     private static final String TAG = "NearbyUsersViewModel";
     
-    private final BackendService backendService;
+    private final AsyncBackendService asyncBackendService;
     private final RetrofitClient retrofitClient;
     private final CompositeDisposable disposables = new CompositeDisposable();
     
@@ -38,7 +36,7 @@ public class NearbyUsersViewModel extends AndroidViewModel {
     
     public NearbyUsersViewModel(@NonNull Application application) {
         super(application);
-        this.backendService = com.ttt.safevault.ServiceLocator.getInstance().getBackendService();
+        this.asyncBackendService = com.ttt.safevault.ServiceLocator.getInstance().getAsyncBackendService();
         this.retrofitClient = RetrofitClient.getInstance(application);
     }
     
@@ -46,14 +44,10 @@ public class NearbyUsersViewModel extends AndroidViewModel {
      * 注册位置
      */
     public void registerLocation(double latitude, double longitude, double radius) {
-        Disposable disposable = Observable.fromCallable(() -> {
-            backendService.registerLocation(latitude, longitude, radius);
-            return true;
-        })
-        .subscribeOn(Schedulers.io())
+        Disposable disposable = asyncBackendService.registerLocation(latitude, longitude, radius)
         .observeOn(AndroidSchedulers.mainThread())
         .subscribe(
-            success -> {
+            () -> {
                 locationRegisteredLiveData.setValue(true);
                 Log.d(TAG, "Location registered");
             },
@@ -72,10 +66,7 @@ public class NearbyUsersViewModel extends AndroidViewModel {
     public void getNearbyUsers(double latitude, double longitude, double radius) {
         loadingLiveData.setValue(true);
         
-        Disposable disposable = Observable.fromCallable(() -> 
-            backendService.getNearbyUsers(latitude, longitude, radius)
-        )
-        .subscribeOn(Schedulers.io())
+        Disposable disposable = asyncBackendService.getNearbyUsers(latitude, longitude, radius)
         .observeOn(AndroidSchedulers.mainThread())
         .subscribe(
             users -> {
@@ -97,14 +88,10 @@ public class NearbyUsersViewModel extends AndroidViewModel {
      * 发送心跳
      */
     public void sendHeartbeat() {
-        Disposable disposable = Observable.fromCallable(() -> {
-            backendService.sendHeartbeat();
-            return true;
-        })
-        .subscribeOn(Schedulers.io())
+        Disposable disposable = asyncBackendService.sendHeartbeat()
         .observeOn(AndroidSchedulers.mainThread())
         .subscribe(
-            success -> Log.d(TAG, "Heartbeat sent"),
+            () -> Log.d(TAG, "Heartbeat sent"),
             error -> Log.e(TAG, "Failed to send heartbeat", error)
         );
         
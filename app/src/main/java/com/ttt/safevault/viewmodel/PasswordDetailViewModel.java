@@ -76,6 +76,7 @@ public class PasswordDetailViewModel extends AndroidViewModel {
                 PasswordItem item = backendService.decryptItem(id);
                 if (item != null) {
                     _passwordItem.postValue(item);
+                    backendService.recordItemUsage(id);
                 } else {
                     _errorMessage.postValue("未找到密码条目");
                 }
@@ -134,6 +135,7 @@ public class PasswordDetailViewModel extends AndroidViewModel {
         if (item != null && item.getUsername() != null && !item.getUsername().isEmpty()) {
             copyToClipboard(item.getUsername(), "用户名");
             _copiedField.setValue(0); // 0表示用户名
+            backendService.recordItemUsage(item.getId());
         }
     }
 
@@ -145,6 +147,7 @@ public class PasswordDetailViewModel extends AndroidViewModel {
         if (item != null && item.getPassword() != null && !item.getPassword().isEmpty()) {
             copyToClipboard(item.getPassword(), "密码");
             _copiedField.setValue(1); // 1表示密码
+            backendService.recordItemUsage(item.getId());
         }
     }
 
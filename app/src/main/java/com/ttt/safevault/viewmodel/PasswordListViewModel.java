@@ -9,6 +9,7 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.ttt.safevault.model.BackendService;
+import com.ttt.safevault.model.ItemUsage;
 import com.ttt.safevault.model.PasswordItem;
 
 import java.util.ArrayList;
@@ -96,12 +97,12 @@ public class PasswordListViewModel extends AndroidViewModel {
             try {
                 List<PasswordItem> filteredItems;
 
-                // 使用后端搜索（更安全，后端处理解密）
-                filteredItems = backendService.search(query.trim());
-
-                // 如果有原始数据，也可以在前端过滤（更快）
                 if (allItems != null) {
+                    // 有原始数据时直接在前端过滤（更快，无需重新解密）
                     filteredItems = filterItems(allItems, query.trim());
+                } else {
+                    // 使用后端搜索（后端处理解密）
+                    filteredItems = backendService.search(query.trim());
                 }
 
                 // 创建新的 ArrayList 以确保 ListAdapter 能检测到变化
@@ -188,6 +189,7 @@ public class PasswordListViewModel extends AndroidViewModel {
                 if (item != null && item.getPassword() != null) {
                     // TODO: 使用剪贴板管理器复制密码
                     // clipboardManager.copy(item.getPassword());
+                    backendService.recordItemUsage(itemId);
                 }
             } catch (Exception e) {
                 _errorMessage.postValue("复制失败: " + e.getMessage());
@@ -236,12 +238,14 @@ public class PasswordListViewModel extends AndroidViewModel {
     }
 
     /**
-     * 过滤条目（前端过滤）
+     * 过滤条目（前端过滤），结果按使用热度排序
      */
     private List<PasswordItem> filterItems(List<PasswordItem> items, String query) {
-        return items.stream()
+        List<PasswordItem> filtered = items.stream()
                 .filter(item -> matchesQuery(item, query))
                 .collect(Collectors.toList());
+        ItemUsage.sortByScore(filtered, backendService.getItemUsageStats());
+        return filtered;
     }
 
     /**
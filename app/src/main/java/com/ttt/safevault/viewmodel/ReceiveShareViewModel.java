@@ -7,6 +7,7 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.ttt.safevault.model.AsyncBackendService;
 import com.ttt.safevault.model.BackendService;
 import com.ttt.safevault.model.PasswordItem;
 import com.ttt.safevault.model.PasswordShare;
@@ -14,6 +15,9 @@ import com.ttt.safevault.model.PasswordShare;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+
 /**
  * 接收分享页面的ViewModel
  * 负责管理分享接收和保存
@@ -21,7 +25,9 @@ import java.util.concurrent.Executors;
 public class ReceiveShareViewModel extends AndroidViewModel {
 
     private final BackendService backendService;
+    private final AsyncBackendService asyncBackendService;
     private final ExecutorService executor;
+    private final CompositeDisposable disposables = new CompositeDisposable();
 
     // LiveData用于UI状态管理
     private final MutableLiveData<PasswordItem> _sharedPassword = new MutableLiveData<>();
@@ -43,6 +49,7 @@ public class ReceiveShareViewModel extends AndroidViewModel {
     public ReceiveShareViewModel(@NonNull Application application, BackendService backendService) {
         super(application);
         this.backendService = backendService;
+        this.asyncBackendService = com.ttt.safevault.ServiceLocator.getInstance().getAsyncBackendService();
         this.executor = Executors.newSingleThreadExecutor();
     }
 
@@ -122,22 +129,18 @@ public class ReceiveShareViewModel extends AndroidViewModel {
         _isLoading.setValue(true);
         _errorMessage.setValue(null);
 
-        executor.execute(() -> {
-            try {
-                com.ttt.safevault.dto.response.ReceivedShareResponse cloudShare = 
-                    backendService.receiveCloudShare(shareId);
-                
-                if (cloudShare != null) {
-                    _cloudShareDetails.postValue(cloudShare);
-                } else {
-                    _errorMessage.postValue("无法接收云端分享：数据无效");
+        disposables.add(asyncBackendService.receiveCloudShare(shareId)
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(
+                cloudShare -> {
+                    _isLoading.setValue(false);
+                    _cloudShareDetails.setValue(cloudShare);
+                },
+                error -> {
+                    _isLoading.setValue(false);
+                    _errorMessage.setValue("接收云端分享失败: " + error.getMessage());
                 }
-            } catch (Exception e) {
-                _errorMessage.postValue("接收云端分享失败: " + e.getMessage());
-            } finally {
-                _isLoading.postValue(false);
-            }
-        });
+            ));
     }
 
     /**
@@ -191,16 +194,18 @@ public class ReceiveShareViewModel extends AndroidViewModel {
         _errorMessage.setValue(null);
         _saveSuccess.setValue(false);
 
-        executor.execute(() -> {
-            try {
-                backendService.saveCloudShare(shareId);
-                _saveSuccess.postValue(true);
-            } catch (Exception e) {
-                _errorMessage.postValue("保存云端分享失败: " + e.getMessage());
-            } finally {
-                _isLoading.postValue(false);
-            }
-        });
+        disposables.add(asyncBackendService.saveCloudShare(shareId)
+            .observeOn(AndroidSchedulers.mainThread())
+            .subscribe(
+                () -> {
+                    _isLoading.setValue(false);
+                    _saveSuccess.setValue(true);
+                },
+                error -> {
+                    _isLoading.setValue(false);
+                    _errorMessage.setValue("保存云端分享失败: " + error.getMessage());
+                }
+            ));
     }
 
     /**
@@ -225,5 +230,6 @@ public class ReceiveShareViewModel extends AndroidViewModel {
     protected void onCleared() {
         super.onCleared();
         executor.shutdown();
+        disposables.clear();
     }
 }
@@ -8,7 +8,9 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.ttt.safevault.data.CloudShareRepository;
 import com.ttt.safevault.dto.response.ReceivedShareResponse;
+import com.ttt.safevault.model.AsyncBackendService;
 import com.ttt.safevault.model.BackendService;
 import com.ttt.safevault.model.PasswordShare;
 import com.ttt.safevault.network.RetrofitClient;
@@ -20,10 +22,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
-import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.disposables.Disposable;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * 分享历史页面的ViewModel
@@ -32,7 +32,12 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 public class ShareHistoryViewModel extends AndroidViewModel {
     private static final String TAG = "ShareHistoryViewModel";
 
+    // 本地分享列表每页条数
+    private static final int PAGE_SIZE = 50;
+
     private final BackendService backendService;
+    private final AsyncBackendService asyncBackendService;
+    private final CloudShareRepository cloudShareRepository;
     private final ExecutorService executor;
     private final RetrofitClient retrofitClient;
     private final TokenManager tokenManager;
@@ -41,16 +46,21 @@ public class ShareHistoryViewModel extends AndroidViewModel {
     // LiveData用于UI状态管理
     private final MutableLiveData<List<PasswordShare>> _myShares = new MutableLiveData<>();
     private final MutableLiveData<List<PasswordShare>> _receivedShares = new MutableLiveData<>();
-    private final MutableLiveData<List<ReceivedShareResponse>> _cloudMyShares = new MutableLiveData<>(new ArrayList<>());
-    private final MutableLiveData<List<ReceivedShareResponse>> _cloudReceivedShares = new MutableLiveData<>(new ArrayList<>());
     private final MutableLiveData<Boolean> _isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<String> _errorMessage = new MutableLiveData<>();
     private final MutableLiveData<Boolean> _operationSuccess = new MutableLiveData<>(false);
 
+    // 已加载的本地分享，只在executor线程上访问
+    private final List<PasswordShare> loadedMyShares = new ArrayList<>();
+    private final List<PasswordShare> loadedReceivedShares = new ArrayList<>();
+    private boolean hasMoreMyShares = true;
+    private boolean hasMoreReceivedShares = true;
+
     public LiveData<List<PasswordShare>> myShares = _myShares;
     public LiveData<List<PasswordShare>> receivedShares = _receivedShares;
-    public LiveData<List<ReceivedShareResponse>> cloudMyShares = _cloudMyShares;
-    public LiveData<List<ReceivedShareResponse>> cloudReceivedShares = _cloudReceivedShares;
+    // 云端分享列表直接观察本地缓存，刷新只做重验证
+    public LiveData<List<ReceivedShareResponse>> cloudMyShares;
+    public LiveData<List<ReceivedShareResponse>> cloudReceivedShares;
     public LiveData<Boolean> isLoading = _isLoading;
     public LiveData<String> errorMessage = _errorMessage;
     public LiveData<Boolean> operationSuccess = _operationSuccess;
@@ -59,6 +69,10 @@ public class ShareHistoryViewModel extends AndroidViewModel {
     public ShareHistoryViewModel(@NonNull Application application, BackendService backendService) {
         super(application);
         this.backendService = backendService;
+        this.asyncBackendService = com.ttt.safevault.ServiceLocator.getInstance().getAsyncBackendService();
+        this.cloudShareRepository = CloudShareRepository.getInstance(application);
+        this.cloudMyShares = cloudShareRepository.observeMyShares();
+        this.cloudReceivedShares = cloudShareRepository.observeReceivedShares();
         this.executor = Executors.newSingleThreadExecutor();
         this.retrofitClient = RetrofitClient.getInstance(application);
         this.tokenManager = retrofitClient.getTokenManager();
@@ -73,8 +87,7 @@ public class ShareHistoryViewModel extends AndroidViewModel {
 
         executor.execute(() -> {
             try {
-                List<PasswordShare> shares = backendService.getMyShares();
-                _myShares.postValue(shares);
+                reloadMyShares();
             } catch (Exception e) {
                 _errorMessage.postValue("加载分享列表失败: " + e.getMessage());
             } finally {
@@ -92,8 +105,7 @@ public class ShareHistoryViewModel extends AndroidViewModel {
 
         executor.execute(() -> {
             try {
-                List<PasswordShare> shares = backendService.getReceivedShares();
-                _receivedShares.postValue(shares);
+                reloadReceivedShares();
             } catch (Exception e) {
                 _errorMessage.postValue("加载分享列表失败: " + e.getMessage());
             } finally {
@@ -102,6 +114,72 @@ public class ShareHistoryViewModel extends AndroidViewModel {
         });
     }
 
+    /**
+     * 加载下一页我创建的分享
+     */
+    public void loadMoreMyShares() {
+        executor.execute(() -> {
+            if (!hasMoreMyShares) {
+                return;
+            }
+            try {
+                List<PasswordShare> page = backendService.getMyShares(last(loadedMyShares), PAGE_SIZE);
+                hasMoreMyShares = page.size() == PAGE_SIZE;
+                loadedMyShares.addAll(page);
+                _myShares.postValue(new ArrayList<>(loadedMyShares));
+            } catch (Exception e) {
+                _errorMessage.postValue("加载分享列表失败: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 加载下一页我接收的分享
+     */
+    public void loadMoreReceivedShares() {
+        executor.execute(() -> {
+            if (!hasMoreReceivedShares) {
+                return;
+            }
+            try {
+                List<PasswordShare> page = backendService.getReceivedShares(last(loadedReceivedShares), PAGE_SIZE);
+                hasMoreReceivedShares = page.size() == PAGE_SIZE;
+                loadedReceivedShares.addAll(page);
+                _receivedShares.postValue(new ArrayList<>(loadedReceivedShares));
+            } catch (Exception e) {
+                _errorMessage.postValue("加载分享列表失败: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 重新加载已显示的页数（至少一页），在executor线程上调用
+     */
+    private void reloadMyShares() {
+        int count = Math.max(PAGE_SIZE, loadedMyShares.size());
+        List<PasswordShare> shares = backendService.getMyShares(null, count);
+        hasMoreMyShares = shares.size() == count;
+        loadedMyShares.clear();
+        loadedMyShares.addAll(shares);
+        _myShares.postValue(new ArrayList<>(loadedMyShares));
+    }
+
+    /**
+     * 已加载的最后一条，作为下一页的起点
+     */
+    private static PasswordShare last(List<PasswordShare> shares) {
+        return shares.isEmpty() ? null : shares.get(shares.size() - 1);
+    }
+
+    private void reloadReceivedShares() {
+        int count = Math.max(PAGE_SIZE, loadedReceivedShares.size());
+        List<PasswordShare> shares = backendService.getReceivedShares(null, count);
+        hasMoreReceivedShares = shares.size() == count;
+        loadedReceivedShares.clear();
+        loadedReceivedShares.addAll(shares);
+        _receivedShares.postValue(new ArrayList<>(loadedReceivedShares));
+    }
+
     /**
      * 撤销分享
      * @param shareId 分享ID
@@ -182,16 +260,12 @@ public class ShareHistoryViewModel extends AndroidViewModel {
 
         _isLoading.setValue(true);
         
-        Disposable disposable = Observable.fromCallable(() -> 
-            backendService.getMyCloudShares()
-        )
-        .subscribeOn(Schedulers.io())
+        Disposable disposable = cloudShareRepository.refreshMyShares()
         .observeOn(AndroidSchedulers.mainThread())
         .subscribe(
-            shares -> {
+            () -> {
                 _isLoading.setValue(false);
-                _cloudMyShares.setValue(shares);
-                Log.d(TAG, "Loaded " + shares.size() + " cloud shares");
+                Log.d(TAG, "Revalidated cloud shares");
             },
             error -> {
                 _isLoading.setValue(false);
@@ -214,16 +288,12 @@ public class ShareHistoryViewModel extends AndroidViewModel {
 
         _isLoading.setValue(true);
         
-        Disposable disposable = Observable.fromCallable(() -> 
-            backendService.getReceivedCloudShares()
-        )
-        .subscribeOn(Schedulers.io())
+        Disposable disposable = cloudShareRepository.refreshReceivedShares()
         .observeOn(AndroidSchedulers.mainThread())
         .subscribe(
-            shares -> {
+            () -> {
                 _isLoading.setValue(false);
-                _cloudReceivedShares.setValue(shares);
-                Log.d(TAG, "Loaded " + shares.size() + " received cloud shares");
+                Log.d(TAG, "Revalidated received cloud shares");
             },
             error -> {
                 _isLoading.setValue(false);
@@ -243,8 +313,7 @@ public class ShareHistoryViewModel extends AndroidViewModel {
 
         executor.execute(() -> {
             try {
-                List<PasswordShare> shares = backendService.getMyShares();
-                _myShares.postValue(shares);
+                reloadMyShares();
             } catch (Exception e) {
                 _errorMessage.postValue("加载分享列表失败: " + e.getMessage());
             }
@@ -259,8 +328,7 @@ public class ShareHistoryViewModel extends AndroidViewModel {
 
         executor.execute(() -> {
             try {
-                List<PasswordShare> shares = backendService.getReceivedShares();
-                _receivedShares.postValue(shares);
+                reloadReceivedShares();
             } catch (Exception e) {
                 _errorMessage.postValue("加载分享列表失败: " + e.getMessage());
             }
@@ -276,16 +344,10 @@ public class ShareHistoryViewModel extends AndroidViewModel {
             return;
         }
 
-        Disposable disposable = Observable.fromCallable(() ->
-            backendService.getMyCloudShares()
-        )
-        .subscribeOn(Schedulers.io())
+        Disposable disposable = cloudShareRepository.refreshMyShares()
         .observeOn(AndroidSchedulers.mainThread())
         .subscribe(
-            shares -> {
-                _cloudMyShares.setValue(shares);
-                Log.d(TAG, "Loaded " + shares.size() + " cloud shares");
-            },
+            () -> Log.d(TAG, "Revalidated cloud shares"),
             error -> {
                 _errorMessage.setValue("加载云端分享失败: " + error.getMessage());
                 Log.e(TAG, "Failed to load cloud shares", error);
@@ -304,16 +366,10 @@ public class ShareHistoryViewModel extends AndroidViewModel {
             return;
         }
 
-        Disposable disposable = Observable.fromCallable(() ->
-            backendService.getReceivedCloudShares()
-        )
-        .subscribeOn(Schedulers.io())
+        Disposable disposable = cloudShareRepository.refreshReceivedShares()
         .observeOn(AndroidSchedulers.mainThread())
         .subscribe(
-            shares -> {
-                _cloudReceivedShares.setValue(shares);
-                Log.d(TAG, "Loaded " + shares.size() + " received cloud shares");
-            },
+            () -> Log.d(TAG, "Revalidated received cloud shares"),
             error -> {
                 _errorMessage.setValue("加载云端分享失败: " + error.getMessage());
                 Log.e(TAG, "Failed to load received cloud shares", error);
@@ -329,14 +385,10 @@ public class ShareHistoryViewModel extends AndroidViewModel {
     public void revokeCloudShare(String shareId) {
         _isLoading.setValue(true);
         
-        Disposable disposable = Observable.fromCallable(() -> {
-            backendService.revokeCloudShare(shareId);
-            return true;
-        })
-        .subscribeOn(Schedulers.io())
+        Disposable disposable = asyncBackendService.revokeCloudShare(shareId)
         .observeOn(AndroidSchedulers.mainThread())
         .subscribe(
-            success -> {
+            () -> {
                 _isLoading.setValue(false);
                 _operationSuccess.setValue(true);
                 loadCloudMyShares(); // 重新加载
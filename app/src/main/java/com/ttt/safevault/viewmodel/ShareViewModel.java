@@ -8,7 +8,9 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.ttt.safevault.dto.response.MultiShareResponse;
 import com.ttt.safevault.dto.response.ShareResponse;
+import com.ttt.safevault.model.AsyncBackendService;
 import com.ttt.safevault.model.BackendService;
 import com.ttt.safevault.model.PasswordItem;
 import com.ttt.safevault.model.SharePermission;
@@ -22,7 +24,6 @@ import java.util.concurrent.Executors;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.disposables.Disposable;
-import io.reactivex.rxjava3.schedulers.Schedulers;
 
 /**
  * 密码分享页面的ViewModel
@@ -32,6 +33,7 @@ public class ShareViewModel extends AndroidViewModel {
     private static final String TAG = "ShareViewModel";
 
     private final BackendService backendService;
+    private final AsyncBackendService asyncBackendService;
     private final ExecutorService executor;
     private final RetrofitClient retrofitClient;
     private final TokenManager tokenManager;
@@ -46,6 +48,8 @@ public class ShareViewModel extends AndroidViewModel {
     private final MutableLiveData<String> _sharePassword = new MutableLiveData<>();
     private final MutableLiveData<Boolean> _isOfflineShare = new MutableLiveData<>(false);
     private final MutableLiveData<ShareResponse> _cloudShareResponse = new MutableLiveData<>();
+    private final MutableLiveData<byte[]> _batchArchive = new MutableLiveData<>();
+    private final MutableLiveData<MultiShareResponse> _multiShareResponse = new MutableLiveData<>();
 
     public LiveData<Boolean> isLoading = _isLoading;
     public LiveData<String> errorMessage = _errorMessage;
@@ -55,10 +59,13 @@ public class ShareViewModel extends AndroidViewModel {
     public LiveData<String> sharePassword = _sharePassword;
     public LiveData<Boolean> isOfflineShare = _isOfflineShare;
     public LiveData<ShareResponse> cloudShareResponse = _cloudShareResponse;
+    public LiveData<byte[]> batchArchive = _batchArchive;
+    public LiveData<MultiShareResponse> multiShareResponse = _multiShareResponse;
 
     public ShareViewModel(@NonNull Application application, BackendService backendService) {
         super(application);
         this.backendService = backendService;
+        this.asyncBackendService = com.ttt.safevault.ServiceLocator.getInstance().getAsyncBackendService();
         this.executor = Executors.newSingleThreadExecutor();
         this.retrofitClient = RetrofitClient.getInstance(application);
         this.tokenManager = retrofitClient.getTokenManager();
@@ -151,6 +158,33 @@ public class ShareViewModel extends AndroidViewModel {
         });
     }
 
+    /**
+     * 创建批量分享归档（蓝牙一次连接传输多个条目）
+     */
+    public void createBatchShare(int[] passwordIds, int expireInMinutes,
+                                 SharePermission permission) {
+        _isLoading.setValue(true);
+        _errorMessage.setValue(null);
+        _shareSuccess.setValue(false);
+        _isOfflineShare.setValue(true);
+
+        executor.execute(() -> {
+            try {
+                byte[] archive = backendService.createBatchShare(passwordIds, expireInMinutes, permission);
+                if (archive != null) {
+                    _batchArchive.postValue(archive);
+                    _shareSuccess.postValue(true);
+                } else {
+                    _errorMessage.postValue("创建批量分享失败");
+                }
+            } catch (Exception e) {
+                _errorMessage.postValue("创建批量分享失败: " + e.getMessage());
+            } finally {
+                _isLoading.postValue(false);
+            }
+        });
+    }
+
     /**
      * 清除错误信息
      */
@@ -158,6 +192,13 @@ public class ShareViewModel extends AndroidViewModel {
         _errorMessage.setValue(null);
     }
 
+    /**
+     * 批量归档已交给结果界面，不再持有
+     */
+    public void clearBatchArchive() {
+        _batchArchive.setValue(null);
+    }
+
     /**
      * 清除分享结果
      */
@@ -185,27 +226,71 @@ public class ShareViewModel extends AndroidViewModel {
         _errorMessage.setValue(null);
         _shareSuccess.setValue(false);
 
-        Disposable disposable = io.reactivex.rxjava3.core.Observable.fromCallable(() -> 
-            backendService.createCloudShare(passwordId, toUserId, expireInMinutes, permission, shareType)
-        )
-        .subscribeOn(Schedulers.io())
+        Disposable disposable = asyncBackendService
+            .createCloudShare(passwordId, toUserId, expireInMinutes, permission, shareType)
         .observeOn(AndroidSchedulers.mainThread())
         .subscribe(
             response -> {
                 _isLoading.setValue(false);
-                if (response != null) {
-                    _cloudShareResponse.setValue(response);
-                    _shareResult.setValue(response.getShareToken());
+                _cloudShareResponse.setValue(response);
+                _shareResult.setValue(response.getShareToken());
+                _shareSuccess.setValue(true);
+                Log.d(TAG, "Cloud share created: " + response.getShareId());
+            },
+            error -> {
+                _isLoading.setValue(false);
+                _errorMessage.setValue("创建云端分享失败: " + error.getMessage());
+                Log.e(TAG, "Failed to create cloud share", error);
+            }
+        );
+
+        disposables.add(disposable);
+    }
+
+    /**
+     * 一次性分享给多个接收方
+     * @param passwordId 密码ID
+     * @param toUserIds 接收方用户ID列表
+     * @param expireInMinutes 过期时间
+     * @param permission 分享权限
+     * @param shareType 分享类型: USER_TO_USER, NEARBY
+     */
+    public void createMultiRecipientShare(int passwordId, List<String> toUserIds, int expireInMinutes,
+                                          SharePermission permission, String shareType) {
+        if (!tokenManager.isLoggedIn()) {
+            _errorMessage.setValue("请先登录云端服务");
+            return;
+        }
+        if (toUserIds == null || toUserIds.isEmpty()) {
+            _errorMessage.setValue("请选择接收方");
+            return;
+        }
+
+        _isLoading.setValue(true);
+        _errorMessage.setValue(null);
+        _shareSuccess.setValue(false);
+
+        Disposable disposable = asyncBackendService
+            .createMultiRecipientShare(passwordId, toUserIds, expireInMinutes, permission, shareType)
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(
+            response -> {
+                _isLoading.setValue(false);
+                if (response.getShares() != null && !response.getShares().isEmpty()) {
+                    _multiShareResponse.setValue(response);
                     _shareSuccess.setValue(true);
-                    Log.d(TAG, "Cloud share created: " + response.getShareId());
+                    if (!response.getFailedUserIds().isEmpty()) {
+                        _errorMessage.setValue(response.getFailedUserIds().size() + "位接收方无法分享");
+                    }
+                    Log.d(TAG, "Multi-recipient share created: " + response.getShares().size());
                 } else {
-                    _errorMessage.setValue("创建云端分享失败");
+                    _errorMessage.setValue("创建多人分享失败");
                 }
             },
             error -> {
                 _isLoading.setValue(false);
-                _errorMessage.setValue("创建云端分享失败: " + error.getMessage());
-                Log.e(TAG, "Failed to create cloud share", error);
+                _errorMessage.setValue("创建多人分享失败: " + error.getMessage());
+                Log.e(TAG, "Failed to create multi-recipient share", error);
             }
         );
 
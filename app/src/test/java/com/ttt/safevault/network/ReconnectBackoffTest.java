@@ -0,0 +1,34 @@
+package com.ttt.safevault.network;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * ReconnectBackoff单元测试
+ */
+public class ReconnectBackoffTest {
+
+    @Test
+    public void delaysGrowWithJitterUpToCap() {
+        ReconnectBackoff backoff = new ReconnectBackoff(1000, 60_000, new Random(7));
+        long ceiling = 1000;
+        for (int i = 0; i < 40; i++) {
+            long delay = backoff.nextDelay();
+            assertTrue("attempt " + i + ": " + delay, delay >= ceiling / 2 && delay <= ceiling);
+            ceiling = Math.min(60_000, ceiling * 2);
+        }
+    }
+
+    @Test
+    public void resetStartsOverFromBaseDelay() {
+        ReconnectBackoff backoff = new ReconnectBackoff(1000, 60_000, new Random(7));
+        for (int i = 0; i < 10; i++) {
+            backoff.nextDelay();
+        }
+        backoff.reset();
+        assertTrue(backoff.nextDelay() <= 1000);
+    }
+}
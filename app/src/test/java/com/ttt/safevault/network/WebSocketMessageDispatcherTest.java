@@ -0,0 +1,79 @@
+package com.ttt.safevault.network;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.ttt.safevault.dto.OnlineUserMessage;
+import com.ttt.safevault.dto.ShareNotificationMessage;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * WebSocketMessageDispatcher单元测试
+ */
+public class WebSocketMessageDispatcherTest {
+
+    private final List<ShareNotificationMessage> shares = new ArrayList<>();
+    private final List<OnlineUserMessage> users = new ArrayList<>();
+    private WebSocketMessageDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        dispatcher = new WebSocketMessageDispatcher(new Gson())
+            .register("NEW_SHARE", ShareNotificationMessage.class, shares::add)
+            .register("SHARE_REVOKED", ShareNotificationMessage.class, shares::add)
+            .register("ONLINE_USER", OnlineUserMessage.class, users::add);
+    }
+
+    @Test
+    public void routesByTypeWhereverItAppears() {
+        assertEquals(1, dispatcher.dispatch("{\"shareId\":\"s1\",\"fromUserId\":\"u1\",\"type\":\"NEW_SHARE\"}"));
+        assertEquals(1, dispatcher.dispatch("{\"type\":\"ONLINE_USER\",\"userId\":\"u2\",\"isOnline\":true}"));
+
+        assertEquals("s1", shares.get(0).getShareId());
+        assertEquals("NEW_SHARE", shares.get(0).getType());
+        assertEquals("u2", users.get(0).getUserId());
+        assertTrue(users.get(0).isOnline());
+    }
+
+    @Test
+    public void dispatchesBatchedFrames() {
+        String array = "[{\"type\":\"NEW_SHARE\",\"shareId\":\"a\"},"
+            + "{\"type\":\"ONLINE_USER\",\"userId\":\"u\"},"
+            + "{\"type\":\"UNKNOWN\",\"x\":[1,2]},"
+            + "{\"type\":\"SHARE_REVOKED\",\"shareId\":\"b\"}]";
+        assertEquals(3, dispatcher.dispatch(array));
+
+        String batch = "{\"type\":\"BATCH\",\"events\":[{\"type\":\"NEW_SHARE\",\"shareId\":\"c\"}]}";
+        assertEquals(1, dispatcher.dispatch(batch));
+
+        assertEquals(3, shares.size());
+        assertEquals("c", shares.get(2).getShareId());
+        assertEquals(1, users.size());
+    }
+
+    @Test
+    public void badEventsDoNotBlockTheRestOfTheFrame() {
+        assertEquals(0, dispatcher.dispatch("{\"shareId\":\"no-type\"}"));
+        try {
+            dispatcher.dispatch("{\"type\":");
+            fail("truncated frame accepted");
+        } catch (JsonParseException expected) {
+        }
+
+        // 字段类型错误的事件失败，同一帧中其他事件照常分发
+        try {
+            dispatcher.dispatch("[{\"type\":\"NEW_SHARE\",\"timestamp\":{}},"
+                + "{\"type\":\"NEW_SHARE\",\"shareId\":\"ok\"}]");
+            fail("bad event not reported");
+        } catch (JsonParseException expected) {
+        }
+        assertEquals(1, shares.size());
+        assertEquals("ok", shares.get(0).getShareId());
+    }
+}
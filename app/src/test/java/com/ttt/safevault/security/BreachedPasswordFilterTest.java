@@ -0,0 +1,185 @@
+package com.ttt.safevault.security;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.junit.Assert.*;
+
+public class BreachedPasswordFilterTest {
+
+    private File filterFile;
+    private File hashList;
+
+    @Before
+    public void setUp() throws IOException {
+        filterFile = File.createTempFile("breach", ".svbf");
+        hashList = File.createTempFile("breach", ".txt");
+        // 从空文件开始
+        assertTrue(filterFile.delete());
+    }
+
+    @After
+    public void tearDown() {
+        filterFile.delete();
+        hashList.delete();
+    }
+
+    @Test
+    public void testImportHashList_ContainsImportedPasswords() throws Exception {
+        writeHashList("password", "123456", "qwerty");
+
+        long count = BreachedPasswordFilter.importHashList(hashList, filterFile, 0.001);
+        assertEquals(3, count);
+
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(filterFile)) {
+            assertTrue(filter.mightContain("password"));
+            assertTrue(filter.mightContain("123456"));
+            assertTrue(filter.mightContain("qwerty"));
+            assertFalse(filter.mightContain("Xk9#vT2!pLq7@wZ"));
+            assertEquals(3, filter.getItemCount());
+        }
+    }
+
+    @Test
+    public void testAppendSegment_KeepsExistingData() throws Exception {
+        try (BreachedPasswordFilter.SegmentBuilder first =
+                     BreachedPasswordFilter.SegmentBuilder.create(filterFile, 10, 0.01)) {
+            first.addPassword("letmein");
+            first.commit();
+        }
+
+        try (BreachedPasswordFilter.SegmentBuilder second =
+                     BreachedPasswordFilter.SegmentBuilder.create(filterFile, 10, 0.01)) {
+            second.addPassword("dragon");
+            second.commit();
+        }
+
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(filterFile)) {
+            assertEquals(2, filter.getSegmentCount());
+            assertTrue(filter.mightContain("letmein"));
+            assertTrue(filter.mightContain("dragon"));
+        }
+    }
+
+    @Test
+    public void testImportFilterFile_CopiesSegments() throws Exception {
+        File prebuilt = File.createTempFile("prebuilt", ".svbf");
+        try {
+            assertTrue(prebuilt.delete());
+            try (BreachedPasswordFilter.SegmentBuilder builder =
+                         BreachedPasswordFilter.SegmentBuilder.create(prebuilt, 10, 0.01)) {
+                builder.addPassword("monkey");
+                builder.commit();
+            }
+
+            assertEquals(1, BreachedPasswordFilter.importFilterFile(prebuilt, filterFile));
+            try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(filterFile)) {
+                assertTrue(filter.mightContain("monkey"));
+            }
+        } finally {
+            prebuilt.delete();
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate_WithinBound() throws Exception {
+        int n = 2000;
+        try (BreachedPasswordFilter.SegmentBuilder builder =
+                     BreachedPasswordFilter.SegmentBuilder.create(filterFile, n, 0.01)) {
+            for (int i = 0; i < n; i++) {
+                builder.addPassword("breached-" + i);
+            }
+            builder.commit();
+        }
+
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(filterFile)) {
+            int falsePositives = 0;
+            for (int i = 0; i < n; i++) {
+                assertTrue(filter.mightContain("breached-" + i));
+                if (filter.mightContain("clean-" + i)) {
+                    falsePositives++;
+                }
+            }
+            // 期望约1%，留出余量
+            assertTrue("false positives: " + falsePositives, falsePositives < n * 0.03);
+        }
+    }
+
+    @Test
+    public void testImportHashList_SplitsLargeImportIntoSegments() throws Exception {
+        String[] passwords = new String[200];
+        for (int i = 0; i < passwords.length; i++) {
+            passwords[i] = "split-" + i;
+        }
+        writeHashList(passwords);
+
+        // 每段最多64字节位图，200条需要多段
+        long count = BreachedPasswordFilter.importHashList(hashList, filterFile, 0.01, 64);
+        assertEquals(passwords.length, count);
+
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(filterFile)) {
+            assertTrue(filter.getSegmentCount() > 1);
+            assertEquals(passwords.length, filter.getItemCount());
+            for (String password : passwords) {
+                assertTrue(password, filter.mightContain(password));
+            }
+        }
+    }
+
+    @Test
+    public void testUncommittedSegment_Discarded() throws Exception {
+        try (BreachedPasswordFilter.SegmentBuilder builder =
+                     BreachedPasswordFilter.SegmentBuilder.create(filterFile, 10, 0.01)) {
+            builder.addPassword("letmein");
+            builder.commit();
+        }
+        long committedLength = filterFile.length();
+
+        try (BreachedPasswordFilter.SegmentBuilder builder =
+                     BreachedPasswordFilter.SegmentBuilder.create(filterFile, 1000, 0.01)) {
+            builder.addPassword("dragon");
+        }
+
+        assertEquals(committedLength, filterFile.length());
+        try (BreachedPasswordFilter filter = BreachedPasswordFilter.open(filterFile)) {
+            assertEquals(1, filter.getSegmentCount());
+            assertTrue(filter.mightContain("letmein"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpen_RejectsNonFilterFile() throws Exception {
+        writeHashList("password");
+        BreachedPasswordFilter.open(hashList);
+    }
+
+    @Test
+    public void testParseHexSha1_AcceptsCountSuffix() {
+        assertNotNull(BreachedPasswordFilter.parseHexSha1("5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8:3861493"));
+        assertNotNull(BreachedPasswordFilter.parseHexSha1("5baa61e4c9b93f3f0682250b6cf8331b7ee68fd8"));
+        assertNull(BreachedPasswordFilter.parseHexSha1("not a hash"));
+        assertNull(BreachedPasswordFilter.parseHexSha1("5BAA61E4C9B93F3F0682250B6CF8331B7EE68FD8AB"));
+    }
+
+    private void writeHashList(String... passwords) throws Exception {
+        MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+        try (Writer writer = new FileWriter(hashList)) {
+            for (String password : passwords) {
+                byte[] digest = sha1.digest(password.getBytes(StandardCharsets.UTF_8));
+                StringBuilder hex = new StringBuilder();
+                for (byte b : digest) {
+                    hex.append(String.format("%02X", b));
+                }
+                writer.write(hex + ":42\n");
+            }
+        }
+    }
+}
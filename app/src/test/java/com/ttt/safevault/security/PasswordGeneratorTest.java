@@ -0,0 +1,112 @@
+package com.ttt.safevault.security;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PasswordGeneratorTest {
+
+    private static final String UPPERCASE = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String LOWERCASE = "abcdefghijklmnopqrstuvwxyz";
+    private static final String NUMBERS = "0123456789";
+    private static final String SYMBOLS = "!@#$%^&*()_+-=[]{}|;':\",./<>?";
+
+    private final PasswordGenerator generator = PasswordGenerator.getInstance();
+
+    @Test
+    public void testSymbolSet_MatchesOriginalGenerator() {
+        assertEquals(SYMBOLS, new String(PasswordGenerator.SYMBOLS));
+    }
+
+    @Test
+    public void testGenerate_ContainsEverySelectedType() {
+        PasswordGenerator.Policy policy = PasswordGenerator.Policy.of(8, true, true, true, true);
+        for (int i = 0; i < 200; i++) {
+            String password = generator.generateString(policy);
+            assertEquals(8, password.length());
+            assertTrue(password, containsAny(password, UPPERCASE));
+            assertTrue(password, containsAny(password, LOWERCASE));
+            assertTrue(password, containsAny(password, NUMBERS));
+            assertTrue(password, containsAny(password, SYMBOLS));
+        }
+    }
+
+    @Test
+    public void testGenerate_OnlyUsesSelectedTypes() {
+        PasswordGenerator.Policy policy = PasswordGenerator.Policy.of(64, false, false, true, false);
+        String password = generator.generateString(policy);
+        for (char c : password.toCharArray()) {
+            assertTrue(password, NUMBERS.indexOf(c) >= 0);
+        }
+    }
+
+    @Test
+    public void testGenerate_SymbolsCoverWholeSet() {
+        PasswordGenerator.Policy policy = PasswordGenerator.Policy.of(PasswordGenerator.MAX_LENGTH, false, false, false, true);
+        StringBuilder seen = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            seen.append(generator.generateString(policy));
+        }
+        for (char c : SYMBOLS.toCharArray()) {
+            assertTrue(String.valueOf(c), seen.indexOf(String.valueOf(c)) >= 0);
+        }
+    }
+
+    @Test
+    public void testNoTypeSelected_DefaultsToLowercaseAndNumbers() {
+        PasswordGenerator.Policy policy = PasswordGenerator.Policy.of(16, false, false, false, false);
+        assertTrue(policy.isLowercase());
+        assertTrue(policy.isNumbers());
+        for (char c : generator.generateString(policy).toCharArray()) {
+            assertTrue(LOWERCASE.indexOf(c) >= 0 || NUMBERS.indexOf(c) >= 0);
+        }
+    }
+
+    @Test
+    public void testShortLength_IsNotPadded() {
+        PasswordGenerator.Policy policy = PasswordGenerator.Policy.of(2, true, true, true, true);
+        assertEquals(2, policy.getLength());
+        assertEquals(2, generator.generateString(policy).length());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroLength_Rejected() {
+        PasswordGenerator.Policy.of(0, true, true, true, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLong_Rejected() {
+        PasswordGenerator.Policy.of(PasswordGenerator.MAX_LENGTH + 1, true, true, true, false);
+    }
+
+    @Test
+    public void testGenerateBatch() {
+        PasswordGenerator.Policy policy = PasswordGenerator.Policy.of(20, true, true, true, false);
+        char[][] batch = generator.generateBatch(5, policy);
+        assertEquals(5, batch.length);
+        for (char[] password : batch) {
+            assertEquals(20, password.length);
+        }
+        PasswordGenerator.wipe(batch);
+        for (char[] password : batch) {
+            for (char c : password) {
+                assertEquals('\0', c);
+            }
+        }
+    }
+
+    @Test
+    public void testEntropyBits() {
+        PasswordGenerator.Policy policy = PasswordGenerator.Policy.of(10, false, false, true, false);
+        assertEquals(10 * Math.log(10) / Math.log(2), policy.getEntropyBits(), 1e-9);
+    }
+
+    private static boolean containsAny(String password, String chars) {
+        for (char c : password.toCharArray()) {
+            if (chars.indexOf(c) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
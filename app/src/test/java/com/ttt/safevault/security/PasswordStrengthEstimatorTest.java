@@ -0,0 +1,114 @@
+package com.ttt.safevault.security;
+
+import com.ttt.safevault.model.PasswordStrength;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PasswordStrengthEstimatorTest {
+
+    private final PasswordStrengthEstimator estimator = PasswordStrengthEstimator.getInstance();
+
+    @Test
+    public void testEmptyPassword_ScoresZero() {
+        PasswordStrengthEstimator.Estimate estimate = estimator.estimate("");
+        assertEquals(0, estimate.getScore());
+        assertEquals(0, estimate.getPercent());
+    }
+
+    @Test
+    public void testKnownWeakPasswords_ScoreWeak() {
+        String[] weak = {"password", "123456", "qwerty", "P@ssw0rd", "drowssap",
+                "abcdefgh", "aaaaaaaa", "1qaz2wsx", "19900512"};
+        for (String password : weak) {
+            PasswordStrengthEstimator.Estimate estimate = estimator.estimate(password);
+            assertTrue(password, estimate.getScore() <= 1);
+            assertEquals(password, PasswordStrength.Level.WEAK, estimate.toPasswordStrength().level());
+        }
+    }
+
+    @Test
+    public void testWeakPasswords_NameTheWeakestPattern() {
+        assertEquals("包含常见密码或单词", estimator.estimate("password").getWarning());
+        assertEquals("包含键盘上相邻的按键", estimator.estimate("zxcvbnm").getWarning());
+        assertEquals("包含重复的字符", estimator.estimate("aaaaaaaa").getWarning());
+        assertEquals("包含连续的字符", estimator.estimate("abcdefgh").getWarning());
+        assertEquals("包含日期或年份", estimator.estimate("19900512").getWarning());
+    }
+
+    @Test
+    public void testKnownStrongPasswords_ScoreVeryStrong() {
+        String[] strong = {"xK9#vT2!pLq7@wZ", "correct horse battery staple", "Tr0ub4dor&3"};
+        for (String password : strong) {
+            PasswordStrengthEstimator.Estimate estimate = estimator.estimate(password);
+            assertEquals(password, 4, estimate.getScore());
+            assertEquals(password, PasswordStrength.Level.VERY_STRONG, estimate.toPasswordStrength().level());
+            assertNull(password, estimate.getWarning());
+        }
+    }
+
+    @Test
+    public void testLongerRandomPassword_NeedsMoreGuesses() {
+        double shorter = estimator.estimate("xK9#vT2!").getLog10Guesses();
+        double longer = estimator.estimate("xK9#vT2!pLq7@wZ").getLog10Guesses();
+        assertTrue(longer > shorter);
+    }
+
+    @Test
+    public void testScoreOf_TierBoundaries() {
+        assertEquals(0, PasswordStrengthEstimator.scoreOf(2.99));
+        assertEquals(1, PasswordStrengthEstimator.scoreOf(3));
+        assertEquals(1, PasswordStrengthEstimator.scoreOf(5.99));
+        assertEquals(2, PasswordStrengthEstimator.scoreOf(6));
+        assertEquals(2, PasswordStrengthEstimator.scoreOf(7.99));
+        assertEquals(3, PasswordStrengthEstimator.scoreOf(8));
+        assertEquals(3, PasswordStrengthEstimator.scoreOf(9.99));
+        assertEquals(4, PasswordStrengthEstimator.scoreOf(10));
+        assertEquals(4, PasswordStrengthEstimator.scoreOf(30));
+    }
+
+    @Test
+    public void testToPercent_AlignedWithScoreTiers() {
+        assertEquals(0, PasswordStrengthEstimator.toPercent(-1));
+        assertEquals(0, PasswordStrengthEstimator.toPercent(0));
+        assertEquals(12, PasswordStrengthEstimator.toPercent(3));
+        assertEquals(25, PasswordStrengthEstimator.toPercent(6));
+        assertEquals(50, PasswordStrengthEstimator.toPercent(8));
+        assertEquals(75, PasswordStrengthEstimator.toPercent(10));
+        assertEquals(100, PasswordStrengthEstimator.toPercent(16));
+        assertEquals(100, PasswordStrengthEstimator.toPercent(40));
+    }
+
+    @Test
+    public void testToPercent_Monotonic() {
+        int previous = -1;
+        for (double log10 = 0; log10 <= 20; log10 += 0.25) {
+            int percent = PasswordStrengthEstimator.toPercent(log10);
+            assertTrue(percent >= previous);
+            previous = percent;
+        }
+    }
+
+    @Test
+    public void testToPasswordStrength_LevelPerScore() {
+        assertEquals(PasswordStrength.Level.WEAK, levelFor(0));
+        assertEquals(PasswordStrength.Level.WEAK, levelFor(1));
+        assertEquals(PasswordStrength.Level.MEDIUM, levelFor(2));
+        assertEquals(PasswordStrength.Level.STRONG, levelFor(3));
+        assertEquals(PasswordStrength.Level.VERY_STRONG, levelFor(4));
+    }
+
+    @Test
+    public void testFormatCrackTime() {
+        assertEquals("不到1秒", PasswordStrengthEstimator.formatCrackTime(0.5));
+        assertEquals("30秒", PasswordStrengthEstimator.formatCrackTime(30));
+        assertEquals("2小时", PasswordStrengthEstimator.formatCrackTime(7200));
+        assertEquals("数百年以上", PasswordStrengthEstimator.formatCrackTime(1e12));
+    }
+
+    private static PasswordStrength.Level levelFor(int score) {
+        return new PasswordStrengthEstimator.Estimate(score * 2.5, score, PasswordStrengthEstimator.PATTERN_BRUTEFORCE)
+                .toPasswordStrength().level();
+    }
+}
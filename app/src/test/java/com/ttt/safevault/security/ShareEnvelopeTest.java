@@ -0,0 +1,91 @@
+package com.ttt.safevault.security;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * ShareEnvelope单元测试
+ */
+public class ShareEnvelopeTest {
+
+    private static KeyPair newKeyPair() throws GeneralSecurityException {
+        return KeyPairGenerator.getInstance("X25519").generateKeyPair();
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        KeyPair recipient = newKeyPair();
+        byte[] recipientPublic = ShareEnvelope.rawPublicKey(recipient.getPublic());
+        byte[] plaintext = "{\"title\":\"引号\\\"和换行\\n\"}".getBytes(StandardCharsets.UTF_8);
+
+        byte[] envelope = ShareEnvelope.seal(plaintext, recipientPublic);
+        assertArrayEquals(plaintext, ShareEnvelope.open(envelope, recipient.getPrivate(), recipientPublic));
+    }
+
+    @Test
+    public void reusesEphemeralKeyPerRecipientWithFreshSalt() throws Exception {
+        byte[] recipientPublic = ShareEnvelope.rawPublicKey(newKeyPair().getPublic());
+        byte[] first = ShareEnvelope.seal(new byte[8], recipientPublic);
+        byte[] second = ShareEnvelope.seal(new byte[8], recipientPublic);
+
+        // 临时公钥相同（缓存命中），盐和密文不同
+        assertArrayEquals(Arrays.copyOfRange(first, 1, 33), Arrays.copyOfRange(second, 1, 33));
+        assertFalse(Arrays.equals(Arrays.copyOfRange(first, 33, 49), Arrays.copyOfRange(second, 33, 49)));
+        assertFalse(Arrays.equals(first, second));
+
+        byte[] otherRecipient = ShareEnvelope.rawPublicKey(newKeyPair().getPublic());
+        byte[] third = ShareEnvelope.seal(new byte[8], otherRecipient);
+        assertFalse(Arrays.equals(Arrays.copyOfRange(first, 1, 33), Arrays.copyOfRange(third, 1, 33)));
+    }
+
+    @Test
+    public void rejectsTamperedOrMisaddressedEnvelope() throws Exception {
+        KeyPair recipient = newKeyPair();
+        byte[] recipientPublic = ShareEnvelope.rawPublicKey(recipient.getPublic());
+        byte[] envelope = ShareEnvelope.seal(new byte[32], recipientPublic);
+
+        byte[] tampered = envelope.clone();
+        tampered[40] ^= 1;
+        try {
+            ShareEnvelope.open(tampered, recipient.getPrivate(), recipientPublic);
+            fail("tampered salt accepted");
+        } catch (GeneralSecurityException expected) {
+        }
+
+        KeyPair other = newKeyPair();
+        try {
+            ShareEnvelope.open(envelope, other.getPrivate(), ShareEnvelope.rawPublicKey(other.getPublic()));
+            fail("envelope opened by wrong recipient");
+        } catch (GeneralSecurityException expected) {
+        }
+    }
+
+    @Test
+    public void contentKeyWrappedPerRecipient() throws Exception {
+        byte[] contentKey = ShareEnvelope.newContentKey();
+        byte[] plaintext = "团队共享密码".getBytes(StandardCharsets.UTF_8);
+        byte[] content = ShareEnvelope.encryptContent(plaintext, contentKey);
+
+        for (int i = 0; i < 3; i++) {
+            KeyPair recipient = newKeyPair();
+            byte[] recipientPublic = ShareEnvelope.rawPublicKey(recipient.getPublic());
+            byte[] wrapped = ShareEnvelope.seal(contentKey, recipientPublic);
+            byte[] unwrapped = ShareEnvelope.open(wrapped, recipient.getPrivate(), recipientPublic);
+            assertArrayEquals(plaintext, ShareEnvelope.decryptContent(content, unwrapped));
+        }
+
+        content[content.length - 1] ^= 1;
+        try {
+            ShareEnvelope.decryptContent(content, contentKey);
+            fail("tampered content accepted");
+        } catch (GeneralSecurityException expected) {
+        }
+    }
+}
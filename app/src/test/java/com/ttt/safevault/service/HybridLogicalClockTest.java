@@ -0,0 +1,57 @@
+package com.ttt.safevault.service;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * HybridLogicalClock单元测试
+ */
+public class HybridLogicalClockTest {
+
+    @Test
+    public void staysMonotonicWhenWallClockGoesBack() {
+        long[] wall = {10_000};
+        HybridLogicalClock clock = new HybridLogicalClock(0, () -> wall[0]);
+        long first = clock.now();
+        wall[0] = 9_000;
+        long second = clock.now();
+        long third = clock.now();
+        assertTrue(second > first);
+        assertTrue(third > second);
+    }
+
+    @Test
+    public void receiveMovesPastRemoteTime() {
+        HybridLogicalClock remote = new HybridLogicalClock(0, () -> 50_000);
+        HybridLogicalClock local = new HybridLogicalClock(0, () -> 10_000);
+        long remoteTime = remote.now();
+        local.receive(remoteTime);
+        assertTrue(local.now() > remoteTime);
+    }
+
+    @Test
+    public void followsRemoteClockFarAhead() {
+        long twoDays = 2 * 24 * 60 * 60 * 1000L;
+        HybridLogicalClock skewed = new HybridLogicalClock(0, () -> 10_000 + twoDays);
+        long[] wall = {10_000};
+        HybridLogicalClock local = new HybridLogicalClock(0, () -> wall[0]);
+        String remoteStamp = HybridLogicalClock.stamp(skewed.now(), "device-a");
+
+        // 本机之后的修改仍然比超前设备的版本戳新
+        local.receive(HybridLogicalClock.timeOf(remoteStamp));
+        wall[0] = 20_000;
+        String later = HybridLogicalClock.stamp(local.now(), "device-b");
+        assertTrue(HybridLogicalClock.compare(later, remoteStamp) > 0);
+    }
+
+    @Test
+    public void stampsCompareByTimeThenDevice() {
+        String older = HybridLogicalClock.stamp(0xabcL, "device-z");
+        String newer = HybridLogicalClock.stamp(0x1000L, "device-a");
+        assertTrue(HybridLogicalClock.compare(newer, older) > 0);
+        assertTrue(HybridLogicalClock.compare(HybridLogicalClock.stamp(0x1000L, "device-b"), newer) > 0);
+        assertTrue(HybridLogicalClock.compare(null, older) < 0);
+        assertEquals(0x1000L, HybridLogicalClock.timeOf(newer));
+    }
+}
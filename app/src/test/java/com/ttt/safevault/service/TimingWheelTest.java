@@ -0,0 +1,90 @@
+package com.ttt.safevault.service;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * TimingWheel单元测试
+ */
+public class TimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    public void firesEveryTaskWithinOneTickOfDeadline() {
+        long start = 1_700_000_000_123L;
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, 8, start);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            // 覆盖多个层级：几秒到约一天
+            long deadline = start + 1 + (long) (random.nextDouble() * 86_400_000L);
+            deadlines.put(i, deadline);
+            assertTrue(wheel.add(i, deadline));
+        }
+
+        long now = start;
+        int fired = 0;
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(7 * (int) TICK);
+            List<Integer> expired = wheel.advance(now);
+            for (int key : expired) {
+                long deadline = deadlines.remove(key);
+                assertTrue("fired early: " + key, now >= deadline);
+                fired++;
+            }
+            // 推进后剩余任务都尚未到期
+            for (long deadline : deadlines.values()) {
+                assertTrue(deadline + TICK > now - now % TICK);
+            }
+        }
+        assertEquals(2000, fired);
+    }
+
+    @Test
+    public void cancelledAndRescheduledTasksFireOnce() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 16, 0);
+        wheel.add("a", 5_000);
+        wheel.add("b", 5_000);
+        wheel.cancel("a");
+        wheel.add("b", 90_000);
+
+        assertTrue(wheel.advance(10_000).isEmpty());
+        List<String> expired = wheel.advance(90_000);
+        assertEquals(1, expired.size());
+        assertEquals("b", expired.get(0));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void nextWakeupSkipsEmptySlots() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 16, 0);
+        assertEquals(Long.MAX_VALUE, wheel.nextWakeup());
+
+        // 只有高层格有任务时，在该格降级时唤醒，而不是每个tick唤醒
+        wheel.add("far", 3 * 16 * TICK + 5_500);
+        assertEquals(3 * 16 * TICK, wheel.nextWakeup());
+        wheel.add("near", 4_200);
+        assertEquals(5_000, wheel.nextWakeup());
+
+        assertEquals(List.of("near"), wheel.advance(wheel.nextWakeup()));
+        assertTrue(wheel.advance(wheel.nextWakeup()).isEmpty());
+        // 降级后落到第0层，下一次唤醒就是到期时间所在格
+        assertEquals(3 * 16 * TICK + 6_000, wheel.nextWakeup());
+        assertEquals(List.of("far"), wheel.advance(wheel.nextWakeup()));
+        assertEquals(Long.MAX_VALUE, wheel.nextWakeup());
+    }
+
+    @Test
+    public void pastDeadlineIsReportedImmediately() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 16, 50_000);
+        assertFalse(wheel.add("late", 49_000));
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,629 @@
+package com.ttt.safevault.service;
+
+import com.ttt.safevault.data.EncryptedPasswordEntity;
+import com.ttt.safevault.data.PasswordDao;
+import com.ttt.safevault.data.SyncChangeDao;
+import com.ttt.safevault.data.SyncChangeEntity;
+import com.ttt.safevault.dto.VaultKey;
+import com.ttt.safevault.dto.VaultRecord;
+import com.ttt.safevault.dto.request.VaultPushRequest;
+import com.ttt.safevault.dto.response.VaultChangesResponse;
+import com.ttt.safevault.dto.response.VaultPushResponse;
+import com.ttt.safevault.network.api.VaultServiceApi;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.reactivex.rxjava3.core.Single;
+
+import static org.junit.Assert.*;
+
+/**
+ * VaultSyncEngine单元测试：两台设备通过内存中的模拟服务器同步
+ */
+public class VaultSyncEngineTest {
+
+    // 已经共用同一个数据密钥的设备
+    private static final VaultKey SHARED_KEY = new VaultKey("key-1", "wrapped-1", "iv-1", "salt-1");
+
+    @Test
+    public void oneEditMovesOneRecord() {
+        MockServer server = new MockServer();
+        Device a = new Device("device-a", server);
+        Device b = new Device("device-b", server);
+        for (int i = 0; i < 10_000; i++) {
+            a.add("item" + i);
+        }
+
+        assertEquals(10_000, a.engine.sync().pushed);
+        assertEquals(10_000 / VaultSyncEngine.PUSH_BATCH_SIZE, server.pushRequests);
+        // 上传设备的游标已越过自己的写入，不会再把它们下载回来
+        assertEquals(0, a.engine.sync().pulled);
+        assertEquals(0, server.pulledRecords);
+        assertEquals(10_000, b.engine.sync().pulled);
+        assertEquals(10_000, server.pulledRecords);
+
+        int id = a.idOf("item1234");
+        a.edit(id, "edited");
+        server.pulledRecords = 0;
+        server.pushedRecords = 0;
+
+        VaultSyncEngine.Result pushed = a.engine.sync();
+        assertEquals(1, pushed.pushed);
+        assertEquals(0, pushed.pulled);
+        assertEquals(0, server.pulledRecords);
+        VaultSyncEngine.Result pulled = b.engine.sync();
+        assertEquals(1, pulled.pulled);
+        assertEquals(0, pulled.pushed);
+        assertEquals(1, server.pushedRecords);
+        assertEquals(1, server.pulledRecords);
+        assertEquals("enc:edited", b.passwords.getBySyncId(a.passwords.rows.get(id).getSyncId()).getEncryptedTitle());
+    }
+
+    @Test
+    public void deletionSyncsAsTombstone() {
+        MockServer server = new MockServer();
+        Device a = new Device("device-a", server);
+        Device b = new Device("device-b", server);
+        int id = a.add("doomed");
+        a.add("kept");
+        a.engine.sync();
+        b.engine.sync();
+        assertEquals(2, b.passwords.getCount());
+        int doomedOnB = b.idOf("doomed");
+
+        a.delete(id);
+        a.engine.sync();
+        b.engine.sync();
+
+        assertEquals(1, b.passwords.getCount());
+        assertEquals(List.of(doomedOnB), b.deletedIds);
+        assertEquals("enc:kept", b.passwords.getAll().get(0).getEncryptedTitle());
+        assertEquals(0, a.changes.getCount());
+        assertEquals(0, b.changes.getCount());
+    }
+
+    @Test
+    public void concurrentEditsToSameFieldKeepNewerStamp() {
+        MockServer server = new MockServer();
+        Device a = new Device("device-a", server);
+        Device b = new Device("device-b", server);
+        int idA = a.add("shared");
+        a.engine.sync();
+        b.engine.sync();
+        int idB = b.idOf("shared");
+
+        a.edit(idA, "from-a");
+        b.clock = a.clock + 5;
+        b.edit(idB, "from-b");
+
+        a.engine.sync();
+        VaultSyncEngine.Result result = b.engine.sync();
+        assertEquals(1, result.conflicts);
+        assertEquals(1, result.pushed);
+        a.engine.sync();
+
+        assertEquals("enc:from-b", a.passwords.getById(idA).getEncryptedTitle());
+        assertEquals("enc:from-b", b.passwords.getById(idB).getEncryptedTitle());
+        assertEquals(0, a.changes.getCount());
+        assertEquals(0, b.changes.getCount());
+        assertEquals(a.passwords.getById(idA).getRevision(), b.passwords.getById(idB).getRevision());
+    }
+
+    @Test
+    public void editsToDifferentFieldsMerge() {
+        MockServer server = new MockServer();
+        Device a = new Device("device-a", server);
+        Device b = new Device("device-b", server);
+        int idA = a.add("shared");
+        a.engine.sync();
+        b.engine.sync();
+        int idB = b.idOf("shared");
+
+        a.edit(idA, "from-a");
+        b.editUsername(idB, "user-b");
+
+        a.engine.sync();
+        b.changedIds.clear();
+        VaultSyncEngine.Result result = b.engine.sync();
+        assertEquals(1, result.conflicts);
+        assertEquals(1, result.pushed);
+        // 合并采用了远端的标题，即使updatedAt没有变化也要通知
+        assertEquals(List.of(idB), b.changedIds);
+        a.engine.sync();
+
+        for (EncryptedPasswordEntity entity : new EncryptedPasswordEntity[]{
+                a.passwords.getById(idA), b.passwords.getById(idB)}) {
+            assertEquals("enc:from-a", entity.getEncryptedTitle());
+            assertEquals("enc:user-b", entity.getEncryptedUsername());
+        }
+        assertEquals(0, a.changes.getCount());
+        assertEquals(0, b.changes.getCount());
+        assertEquals(a.passwords.getById(idA).getRevision(), b.passwords.getById(idB).getRevision());
+    }
+
+    @Test
+    public void refusesToSyncUnderDifferentVaultKey() {
+        MockServer server = new MockServer();
+        Device a = new Device("device-a", server);
+        a.add("from-a");
+        a.engine.sync();
+        assertEquals("key-1", server.vaultKey.getKeyId());
+
+        // 新设备自己生成了数据密钥：不能拉取它解不开的密文，也不能上传其他设备解不开的密文
+        Device b = new Device("device-b", server, new VaultKey("key-2", "wrapped-2", "iv-2", "salt-2"));
+        b.add("from-b");
+        try {
+            b.engine.sync();
+            fail("synced under a different vault key");
+        } catch (VaultSyncEngine.KeyMismatchException expected) {
+            // 预期异常
+        }
+        assertEquals(0, server.pulledRecords);
+        assertEquals(1, server.pushedRecords);
+        assertEquals("key-1", server.vaultKey.getKeyId());
+        assertEquals("key-1", b.pendingKey.getKeyId());
+        assertFalse(b.keyShared);
+
+        // 退出账号后原账号的待采用密钥作废
+        b.engine.reset();
+        assertNull(b.pendingKey);
+        try {
+            b.engine.sync();
+            fail("synced under a different vault key");
+        } catch (VaultSyncEngine.KeyMismatchException expected) {
+            // 预期异常
+        }
+
+        // 用主密码解开并采用服务器上的数据密钥后正常同步
+        b.localKey = b.pendingKey;
+        b.engine.onKeyChanged();
+        VaultSyncEngine.Result result = b.engine.sync();
+        assertEquals(1, result.pulled);
+        assertEquals(1, result.pushed);
+        assertTrue(b.keyShared);
+        assertEquals(1, a.engine.sync().pulled);
+        assertEquals(2, a.passwords.getCount());
+    }
+
+    @Test
+    public void rewrappedKeyReplacesServerCopy() {
+        MockServer server = new MockServer();
+        Device a = new Device("device-a", server);
+        a.engine.sync();
+
+        // 修改主密码：数据密钥不变，包装和盐值变了
+        a.localKey = new VaultKey("key-1", "rewrapped", "iv-9", "salt-9");
+        a.engine.onKeyChanged();
+        a.engine.sync();
+        assertEquals("rewrapped", server.vaultKey.getEncryptedKey());
+        assertEquals("salt-9", server.vaultKey.getSalt());
+        assertNull(a.pendingKey);
+    }
+
+    /**
+     * 一台设备：内存中的DAO加同步引擎，本地修改方式与BackendServiceImpl相同
+     */
+    private static final class Device implements VaultSyncEngine.State {
+        final FakePasswordDao passwords = new FakePasswordDao();
+        final FakeSyncChangeDao changes = new FakeSyncChangeDao(passwords);
+        final String deviceId;
+        final VaultSyncEngine engine;
+        long cursor;
+        long hlc;
+        VaultKey localKey;
+        VaultKey pendingKey;
+        final List<Integer> changedIds = new ArrayList<>();
+        final List<Integer> deletedIds = new ArrayList<>();
+        boolean keyShared;
+        // 本设备的物理时钟
+        long clock = 1_000;
+
+        Device(String deviceId, MockServer server) {
+            this(deviceId, server, SHARED_KEY);
+        }
+
+        Device(String deviceId, MockServer server, VaultKey localKey) {
+            this.deviceId = deviceId;
+            this.localKey = localKey;
+            this.engine = new VaultSyncEngine(passwords, changes, server, this, Runnable::run, () -> clock);
+            engine.setListener(new VaultSyncEngine.Listener() {
+                @Override
+                public void onItemChanged(int itemId) {
+                    changedIds.add(itemId);
+                }
+
+                @Override
+                public void onItemDeleted(int itemId) {
+                    deletedIds.add(itemId);
+                }
+            });
+        }
+
+        int add(String title) {
+            EncryptedPasswordEntity entity = new EncryptedPasswordEntity();
+            entity.setEncryptedTitle("enc:" + title);
+            entity.setUpdatedAt(++clock);
+            String stamp = engine.newStamp();
+            entity.setTitleStamp(stamp);
+            entity.setUsernameStamp(stamp);
+            entity.setPasswordStamp(stamp);
+            entity.setUrlStamp(stamp);
+            entity.setNotesStamp(stamp);
+            entity.setSyncId(VaultSyncEngine.newSyncId());
+            entity.setRevision(1);
+            int id = (int) passwords.insert(entity);
+            VaultSyncEngine.recordLocalChange(changes, id, 0, 1);
+            return id;
+        }
+
+        void edit(int id, String title) {
+            EncryptedPasswordEntity existing = passwords.getById(id);
+            EncryptedPasswordEntity entity = copy(existing);
+            entity.setEncryptedTitle("enc:" + title);
+            entity.setUpdatedAt(++clock);
+            entity.setTitleStamp(engine.newStamp());
+            save(existing, entity);
+        }
+
+        void editUsername(int id, String username) {
+            EncryptedPasswordEntity existing = passwords.getById(id);
+            EncryptedPasswordEntity entity = copy(existing);
+            entity.setEncryptedUsername("enc:" + username);
+            entity.setUpdatedAt(++clock);
+            entity.setUsernameStamp(engine.newStamp());
+            save(existing, entity);
+        }
+
+        private void save(EncryptedPasswordEntity existing, EncryptedPasswordEntity entity) {
+            entity.setRevision(existing.getRevision() + 1);
+            passwords.update(entity);
+            VaultSyncEngine.recordLocalChange(changes, entity.getId(), existing.getRevision(), entity.getRevision());
+        }
+
+        void delete(int id) {
+            EncryptedPasswordEntity existing = passwords.getById(id);
+            passwords.markDeleted(id, ++clock);
+            VaultSyncEngine.recordLocalChange(changes, id, existing.getRevision(), existing.getRevision() + 1);
+        }
+
+        int idOf(String title) {
+            for (EncryptedPasswordEntity entity : passwords.rows.values()) {
+                if (("enc:" + title).equals(entity.getEncryptedTitle())) {
+                    return entity.getId();
+                }
+            }
+            throw new AssertionError("missing " + title);
+        }
+
+        @Override
+        public long getCursor() {
+            return cursor;
+        }
+
+        @Override
+        public void setCursor(long cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public long getClock() {
+            return hlc;
+        }
+
+        @Override
+        public void setClock(long clock) {
+            this.hlc = clock;
+        }
+
+        @Override
+        public String getDeviceId() {
+            return deviceId;
+        }
+
+        @Override
+        public VaultKey getLocalKey() {
+            return localKey;
+        }
+
+        @Override
+        public boolean isKeyShared() {
+            return keyShared;
+        }
+
+        @Override
+        public void setKeyShared(boolean shared) {
+            this.keyShared = shared;
+        }
+
+        @Override
+        public void setPendingKey(VaultKey key) {
+            this.pendingKey = key;
+        }
+    }
+
+    /**
+     * 模拟服务器：每次接受的记录分配递增序号，按序号返回游标之后的变更；数据密钥先上传的为准
+     */
+    private static final class MockServer implements VaultServiceApi {
+        final Map<String, VaultRecord> current = new HashMap<>();
+        final TreeMap<Long, VaultRecord> log = new TreeMap<>();
+        final Map<String, Long> latestSeq = new HashMap<>();
+        VaultKey vaultKey;
+        long seq;
+        int pushRequests;
+        int pushedRecords;
+        int pulledRecords;
+
+        @Override
+        public Single<VaultChangesResponse> getChanges(long since, int limit) {
+            VaultChangesResponse response = new VaultChangesResponse();
+            List<VaultRecord> records = new ArrayList<>();
+            long cursor = since;
+            for (Map.Entry<Long, VaultRecord> entry : log.tailMap(since, false).entrySet()) {
+                if (records.size() == limit) {
+                    response.setHasMore(true);
+                    break;
+                }
+                records.add(entry.getValue());
+                cursor = entry.getKey();
+            }
+            pulledRecords += records.size();
+            response.setRecords(records);
+            response.setCursor(cursor);
+            return Single.just(response);
+        }
+
+        @Override
+        public Single<VaultPushResponse> pushChanges(VaultPushRequest request) {
+            pushRequests++;
+            VaultPushResponse response = new VaultPushResponse();
+            for (VaultRecord record : request.getRecords()) {
+                VaultRecord existing = current.get(record.getSyncId());
+                long serverRevision = existing != null ? existing.getRevision() : 0;
+                if (record.getBaseRevision() != serverRevision) {
+                    response.getConflicts().add(existing);
+                    continue;
+                }
+                pushedRecords++;
+                current.put(record.getSyncId(), record);
+                Long previous = latestSeq.put(record.getSyncId(), ++seq);
+                if (previous != null) {
+                    log.remove(previous);
+                }
+                log.put(seq, record);
+                response.getSequences().add(seq);
+            }
+            return Single.just(response);
+        }
+
+        @Override
+        public Single<VaultKey> claimKey(VaultKey key) {
+            if (vaultKey == null || vaultKey.getKeyId().equals(key.getKeyId())) {
+                vaultKey = key;
+            }
+            return Single.just(vaultKey);
+        }
+    }
+
+    private static EncryptedPasswordEntity copy(EncryptedPasswordEntity source) {
+        EncryptedPasswordEntity entity = new EncryptedPasswordEntity();
+        entity.setId(source.getId());
+        entity.setEncryptedTitle(source.getEncryptedTitle());
+        entity.setEncryptedUsername(source.getEncryptedUsername());
+        entity.setEncryptedPassword(source.getEncryptedPassword());
+        entity.setEncryptedUrl(source.getEncryptedUrl());
+        entity.setEncryptedNotes(source.getEncryptedNotes());
+        entity.setUpdatedAt(source.getUpdatedAt());
+        entity.setIv(source.getIv());
+        entity.setSyncId(source.getSyncId());
+        entity.setRevision(source.getRevision());
+        entity.setDeleted(source.isDeleted());
+        entity.setTitleStamp(source.getTitleStamp());
+        entity.setUsernameStamp(source.getUsernameStamp());
+        entity.setPasswordStamp(source.getPasswordStamp());
+        entity.setUrlStamp(source.getUrlStamp());
+        entity.setNotesStamp(source.getNotesStamp());
+        return entity;
+    }
+
+    private static final class FakePasswordDao implements PasswordDao {
+        final TreeMap<Integer, EncryptedPasswordEntity> rows = new TreeMap<>();
+        final Map<String, Integer> syncIds = new HashMap<>();
+        int nextId = 1;
+
+        @Override
+        public List<EncryptedPasswordEntity> getAll() {
+            List<EncryptedPasswordEntity> result = new ArrayList<>();
+            for (EncryptedPasswordEntity entity : rows.values()) {
+                if (!entity.isDeleted()) {
+                    result.add(copy(entity));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<ItemStamp> getAllStamps() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EncryptedPasswordEntity getById(int id) {
+            EncryptedPasswordEntity entity = rows.get(id);
+            return entity != null && !entity.isDeleted() ? copy(entity) : null;
+        }
+
+        @Override
+        public long insert(EncryptedPasswordEntity entity) {
+            EncryptedPasswordEntity row = copy(entity);
+            row.setId(nextId++);
+            rows.put(row.getId(), row);
+            syncIds.put(row.getSyncId(), row.getId());
+            return row.getId();
+        }
+
+        @Override
+        public void update(EncryptedPasswordEntity entity) {
+            if (rows.containsKey(entity.getId())) {
+                rows.put(entity.getId(), copy(entity));
+            }
+        }
+
+        @Override
+        public void delete(EncryptedPasswordEntity entity) {
+            rows.remove(entity.getId());
+        }
+
+        @Override
+        public int deleteById(int id) {
+            return rows.remove(id) != null ? 1 : 0;
+        }
+
+        @Override
+        public int getCount() {
+            return getAll().size();
+        }
+
+        @Override
+        public void deleteAll() {
+            rows.clear();
+        }
+
+        @Override
+        public int markDeleted(int id, long updatedAt) {
+            EncryptedPasswordEntity entity = rows.get(id);
+            if (entity == null || entity.isDeleted()) {
+                return 0;
+            }
+            entity.setDeleted(true);
+            entity.setRevision(entity.getRevision() + 1);
+            entity.setUpdatedAt(updatedAt);
+            entity.setEncryptedTitle(null);
+            entity.setEncryptedUsername(null);
+            entity.setEncryptedPassword(null);
+            entity.setEncryptedUrl(null);
+            entity.setEncryptedNotes(null);
+            entity.setIv(null);
+            return 1;
+        }
+
+        @Override
+        public List<EncryptedPasswordEntity> getByIds(List<Integer> ids) {
+            List<EncryptedPasswordEntity> result = new ArrayList<>();
+            for (int id : ids) {
+                if (rows.containsKey(id)) {
+                    result.add(copy(rows.get(id)));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public EncryptedPasswordEntity getBySyncId(String syncId) {
+            Integer id = syncIds.get(syncId);
+            return id != null && rows.containsKey(id) ? copy(rows.get(id)) : null;
+        }
+
+        @Override
+        public int purgeTombstones(long before) {
+            // 变更日志在另一个DAO中，这里不清理
+            return 0;
+        }
+    }
+
+    private static final class FakeSyncChangeDao implements SyncChangeDao {
+        final TreeMap<Integer, SyncChangeEntity> rows = new TreeMap<>();
+        final FakePasswordDao passwords;
+
+        FakeSyncChangeDao(FakePasswordDao passwords) {
+            this.passwords = passwords;
+        }
+
+        @Override
+        public long insert(SyncChangeEntity change) {
+            if (rows.containsKey(change.getItemId())) {
+                return -1;
+            }
+            rows.put(change.getItemId(), new SyncChangeEntity(change.getItemId(),
+                    change.getBaseRevision(), change.getRevision()));
+            return change.getItemId();
+        }
+
+        @Override
+        public int updateRevision(int itemId, long revision) {
+            SyncChangeEntity change = rows.get(itemId);
+            if (change == null) {
+                return 0;
+            }
+            change.setRevision(revision);
+            return 1;
+        }
+
+        @Override
+        public SyncChangeEntity get(int itemId) {
+            SyncChangeEntity change = rows.get(itemId);
+            return change != null
+                    ? new SyncChangeEntity(itemId, change.getBaseRevision(), change.getRevision()) : null;
+        }
+
+        @Override
+        public List<SyncChangeEntity> getPage(int afterItemId, int limit) {
+            List<SyncChangeEntity> page = new ArrayList<>();
+            for (SyncChangeEntity change : rows.tailMap(afterItemId, false).values()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(get(change.getItemId()));
+            }
+            return page;
+        }
+
+        @Override
+        public int deleteIfUnchanged(int itemId, long revision) {
+            SyncChangeEntity change = rows.get(itemId);
+            if (change == null || change.getRevision() != revision) {
+                return 0;
+            }
+            rows.remove(itemId);
+            return 1;
+        }
+
+        @Override
+        public int rebase(int itemId, long baseRevision) {
+            SyncChangeEntity change = rows.get(itemId);
+            if (change == null) {
+                return 0;
+            }
+            change.setBaseRevision(baseRevision);
+            return 1;
+        }
+
+        @Override
+        public int delete(int itemId) {
+            return rows.remove(itemId) != null ? 1 : 0;
+        }
+
+        @Override
+        public void enqueueAll() {
+            for (EncryptedPasswordEntity entity : passwords.getAll()) {
+                rows.put(entity.getId(), new SyncChangeEntity(entity.getId(), 0, entity.getRevision()));
+            }
+        }
+
+        @Override
+        public int getCount() {
+            return rows.size();
+        }
+
+        @Override
+        public void deleteAll() {
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ttt.safevault.utils;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Base45单元测试
+ */
+public class Base45Test {
+
+    private static void assertRejected(String text) {
+        try {
+            Base45.decode(text);
+            fail("accepted " + text);
+        } catch (IllegalArgumentException expected) {
+            // 预期异常
+        }
+    }
+
+    @Test
+    public void matchesRfc9285Vectors() {
+        String[][] vectors = {
+                {"AB", "BB8"},
+                {"Hello!!", "%69 VD92EX0"},
+                {"base-45", "UJCLQE7W581"},
+                {"ietf!", "QED8WEX0"},
+        };
+        for (String[] vector : vectors) {
+            byte[] data = vector[0].getBytes(StandardCharsets.US_ASCII);
+            assertEquals(vector[1], Base45.encode(data));
+            assertArrayEquals(data, Base45.decode(vector[1]));
+        }
+    }
+
+    @Test
+    public void roundTripsOddAndEvenLengths() {
+        Random random = new Random(7);
+        for (int length = 0; length < 64; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            String encoded = Base45.encode(data);
+            assertEquals(length / 2 * 3 + (length % 2) * 2, encoded.length());
+            assertTrue(Base45.isAlphanumeric(encoded));
+            assertArrayEquals(data, Base45.decode(encoded));
+        }
+        assertArrayEquals(new byte[]{(byte) 0xFF}, Base45.decode(Base45.encode(new byte[]{(byte) 0xFF})));
+    }
+
+    @Test
+    public void rejectsInvalidInput() {
+        // 非法字符（小写字母、非ASCII）
+        assertRejected("bb8");
+        assertRejected("BB密");
+        // 长度模3余1
+        assertRejected("BB8B");
+        // 三字符组超过0xFFFF（":::" = 44 + 44*45 + 44*45*45）
+        assertRejected(":::");
+        // 末尾两字符组超过0xFF
+        assertRejected("::");
+        assertFalse(Base45.isAlphanumeric("abc"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.ttt.safevault.utils;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class BluetoothFrameProtocolTest {
+
+    /**
+     * 写入指定字节数后模拟链路断开
+     */
+    private static final class DroppingOutputStream extends OutputStream {
+        private final OutputStream target;
+        private int remaining;
+
+        DroppingOutputStream(OutputStream target, int limit) {
+            this.target = target;
+            this.remaining = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > remaining) {
+                target.write(b, off, remaining);
+                remaining = 0;
+                target.close();
+                throw new IOException("Link dropped");
+            }
+            target.write(b, off, len);
+            remaining -= len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+    }
+
+    private static byte[] randomData(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * 在一对管道上运行一次发送和接收，返回接收结果（失败为null）
+     */
+    private static byte[] transfer(BluetoothFrameProtocol.Sender sender,
+                                   BluetoothFrameProtocol.Receiver receiver,
+                                   int dropAfterBytes) throws Exception {
+        PipedInputStream receiverIn = new PipedInputStream(256 * 1024);
+        PipedOutputStream senderOut = new PipedOutputStream(receiverIn);
+        PipedInputStream senderIn = new PipedInputStream(256 * 1024);
+        PipedOutputStream receiverOut = new PipedOutputStream(senderIn);
+
+        AtomicReference<byte[]> result = new AtomicReference<>();
+        Thread receiving = new Thread(() -> {
+            try {
+                result.set(receiver.run(receiverIn, receiverOut, null));
+            } catch (IOException e) {
+                try {
+                    receiverOut.close();
+                } catch (IOException ignored) {
+                }
+            }
+        });
+        receiving.start();
+
+        OutputStream out = dropAfterBytes > 0 ? new DroppingOutputStream(senderOut, dropAfterBytes) : senderOut;
+        try {
+            sender.run(senderIn, out, null);
+        } catch (IOException e) {
+            senderOut.close();
+        }
+        receiving.join(10_000);
+        return result.get();
+    }
+
+    @Test
+    public void transfersMultiByteTextIntact() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("密码分享").append(i);
+        }
+        byte[] data = builder.toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] received = transfer(new BluetoothFrameProtocol.Sender(data),
+            new BluetoothFrameProtocol.Receiver(), 0);
+
+        assertNotNull(received);
+        assertEquals(builder.toString(), new String(received, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void resumesAfterDroppedLink() throws Exception {
+        byte[] data = randomData(200 * 1024);
+        BluetoothFrameProtocol.Sender sender = new BluetoothFrameProtocol.Sender(data);
+        BluetoothFrameProtocol.Receiver receiver = new BluetoothFrameProtocol.Receiver();
+
+        assertNull(transfer(sender, receiver, 90 * 1024));
+        assertTrue(receiver.hasPartial());
+        int resumedFrom = receiver.getProgress();
+        assertTrue(resumedFrom > 0);
+
+        byte[] received = transfer(sender, receiver, 0);
+        assertArrayEquals(data, received);
+        assertFalse(receiver.hasPartial());
+        assertEquals(100, sender.getProgress());
+    }
+
+    @Test
+    public void newTransferDiscardsStalePartial() throws Exception {
+        BluetoothFrameProtocol.Receiver receiver = new BluetoothFrameProtocol.Receiver();
+        assertNull(transfer(new BluetoothFrameProtocol.Sender(randomData(100 * 1024)), receiver, 40 * 1024));
+        assertTrue(receiver.hasPartial());
+
+        byte[] data = randomData(50 * 1024 + 7);
+        assertArrayEquals(data, transfer(new BluetoothFrameProtocol.Sender(data), receiver, 0));
+    }
+}
@@ -0,0 +1,87 @@
+package com.ttt.safevault.utils;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * NdefChunkCodec单元测试
+ */
+public class NdefChunkCodecTest {
+
+    private static String text(int length) {
+        StringBuilder sb = new StringBuilder(length);
+        Random random = new Random(7);
+        for (int i = 0; i < length; i++) {
+            sb.append(i % 50 == 0 ? '密' : (char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void reassemblesChunksInAnyOrder() {
+        String content = text(3000);
+        List<byte[]> chunks = NdefChunkCodec.split(content, 200);
+        assertTrue(chunks.size() > 1);
+        Collections.shuffle(chunks, new Random(1));
+
+        NdefChunkCodec.Reassembler reassembler = new NdefChunkCodec.Reassembler();
+        for (int i = 0; i < chunks.size(); i++) {
+            assertFalse(reassembler.isComplete());
+            assertTrue(reassembler.accept(chunks.get(i)));
+            // 重复到达的分块不影响计数
+            assertTrue(reassembler.accept(chunks.get(i)));
+            assertEquals(i + 1, reassembler.getReceivedCount());
+        }
+        assertEquals(content, reassembler.take());
+        assertFalse(reassembler.hasPartial());
+    }
+
+    @Test
+    public void compactsV3Packet() {
+        byte[] packet = new byte[600];
+        new Random(3).nextBytes(packet);
+        String content = "SAFEVAULT3:" + Base45.encode(packet);
+
+        assertEquals(packet.length, NdefChunkCodec.encodedLength(content));
+
+        NdefChunkCodec.Reassembler reassembler = new NdefChunkCodec.Reassembler();
+        for (byte[] chunk : NdefChunkCodec.split(content, 128)) {
+            reassembler.accept(chunk);
+        }
+        assertEquals(content, reassembler.take());
+    }
+
+    @Test
+    public void rejectsCorruptedPayload() {
+        List<byte[]> chunks = NdefChunkCodec.split(text(500), 100);
+        chunks.get(2)[NdefChunkCodec.HEADER_LENGTH + 5] ^= 0x01;
+
+        NdefChunkCodec.Reassembler reassembler = new NdefChunkCodec.Reassembler();
+        for (byte[] chunk : chunks) {
+            reassembler.accept(chunk);
+        }
+        assertTrue(reassembler.isComplete());
+        assertNull(reassembler.take());
+    }
+
+    @Test
+    public void newSessionDiscardsStaleChunks() {
+        List<byte[]> first = NdefChunkCodec.split(text(500), 100);
+        List<byte[]> second = NdefChunkCodec.split(text(480), 100);
+
+        NdefChunkCodec.Reassembler reassembler = new NdefChunkCodec.Reassembler();
+        reassembler.accept(first.get(0));
+        reassembler.accept(first.get(1));
+        assertTrue(reassembler.hasPartial());
+
+        for (byte[] chunk : second) {
+            reassembler.accept(chunk);
+        }
+        assertEquals(text(480), reassembler.take());
+    }
+}
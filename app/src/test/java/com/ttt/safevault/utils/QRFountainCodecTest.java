@@ -0,0 +1,74 @@
+package com.ttt.safevault.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class QRFountainCodecTest {
+
+    private static String randomContent(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('A' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void decodesFromAnySufficientSubsetOfFrames() {
+        Random random = new Random(42);
+        String content = randomContent(random, 5000);
+        QRFountainCodec.Encoder encoder = new QRFountainCodec.Encoder(content);
+        QRFountainCodec.Decoder decoder = new QRFountainCodec.Decoder();
+
+        // 丢掉所有系统帧和后续约三分之一的帧
+        int sent = encoder.getBlockCount();
+        while (!decoder.isComplete() && sent < encoder.getBlockCount() * 20) {
+            String frame = encoder.frame(sent++);
+            if (random.nextInt(3) != 0) {
+                decoder.accept(frame);
+            }
+        }
+
+        assertTrue(decoder.isComplete());
+        assertEquals(100, decoder.getProgress());
+        assertEquals(content, decoder.getContent());
+    }
+
+    @Test
+    public void duplicateFramesAreIgnored() {
+        QRFountainCodec.Encoder encoder = new QRFountainCodec.Encoder(randomContent(new Random(1), 2000));
+        QRFountainCodec.Decoder decoder = new QRFountainCodec.Decoder();
+
+        String frame = encoder.nextFrame();
+        assertTrue(decoder.accept(frame));
+        assertFalse(decoder.accept(frame));
+        assertEquals(1, decoder.getReceivedCount());
+        assertEquals(1, decoder.getDecodedCount());
+    }
+
+    @Test
+    public void newSessionRestartsDecoding() {
+        Random random = new Random(7);
+        QRFountainCodec.Encoder first = new QRFountainCodec.Encoder(randomContent(random, 3000));
+        String content = randomContent(random, 3000);
+        QRFountainCodec.Encoder second = new QRFountainCodec.Encoder(content);
+        QRFountainCodec.Decoder decoder = new QRFountainCodec.Decoder();
+
+        decoder.accept(first.nextFrame());
+        while (!decoder.isComplete()) {
+            decoder.accept(second.nextFrame());
+        }
+        assertEquals(content, decoder.getContent());
+    }
+
+    @Test
+    public void rejectsForeignContent() {
+        QRFountainCodec.Decoder decoder = new QRFountainCodec.Decoder();
+        assertFalse(decoder.accept("safevault://share/abc"));
+        assertFalse(decoder.accept(QRFountainCodec.FRAME_PREFIX + "!!!"));
+        assertEquals(0, decoder.getBlockCount());
+    }
+}